@@ -0,0 +1,91 @@
+package liquibase.ext.mongodb.benchmark;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ContextExpression;
+import liquibase.Labels;
+import liquibase.change.CheckSum;
+import liquibase.changelog.ChangeSet;
+import liquibase.ext.mongodb.changelog.MongoRanChangeSet;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Generates the benchmark inputs, deterministic for a given size.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param size approximate number of characters
+     * @return a JSON array of documents mixing strings, numbers, dates and nested documents
+     */
+    static String documentsJson(final int size) {
+        final StringBuilder json = new StringBuilder(size + 256).append('[');
+        for (int i = 0; json.length() < size; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("{\"_id\": {\"$oid\": \"").append(String.format("%024x", i)).append("\"}")
+                    .append(", \"name\": \"person-").append(i).append('"')
+                    .append(", \"age\": ").append(i % 100)
+                    .append(", \"balance\": {\"$numberDecimal\": \"").append(i).append(".25\"}")
+                    .append(", \"created\": {\"$date\": \"2021-05-01T10:00:00Z\"}")
+                    .append(", \"address\": {\"street\": \"Main Street ").append(i).append("\", \"tags\": [\"a\", \"b\", \"c\"]}}");
+        }
+        return json.append(']').toString();
+    }
+
+    static List<MongoRanChangeSet> ranChangeSets(final int size) {
+        final List<MongoRanChangeSet> ranChangeSets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ranChangeSets.add(new MongoRanChangeSet("liquibase/ext/changelog-" + i / 100 + ".xml",
+                    String.valueOf(i), "benchmark", CheckSum.compute("changeSet" + i), new Date(),
+                    null, ChangeSet.ExecType.EXECUTED, "insertOne collectionName=person", "Generated changeSet " + i,
+                    new ContextExpression("dev,test"), singletonList(new ContextExpression("main")),
+                    new Labels("benchmark"), "0123456789", i + 1, "4.3.5"));
+        }
+        return ranChangeSets;
+    }
+
+    /**
+     * @param size number of changeSets
+     * @return a JSON changelog with one insertOne change per changeSet
+     */
+    static String changeLogJson(final int size) {
+        final StringBuilder json = new StringBuilder("{\"databaseChangeLog\": [");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"changeSet\": {\"id\": \"").append(i).append("\", \"author\": \"benchmark\", \"changes\": [")
+                    .append("{\"insertOne\": {\"collectionName\": \"person\", \"document\": {\"$rawJson\": ")
+                    .append("{\"name\": \"person-").append(i).append("\", \"age\": ").append(i % 100).append("}}}}]}}");
+        }
+        return json.append("]}").toString();
+    }
+}
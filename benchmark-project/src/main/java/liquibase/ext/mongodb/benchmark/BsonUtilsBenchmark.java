@@ -0,0 +1,80 @@
+package liquibase.ext.mongodb.benchmark;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ext.mongodb.statement.BsonUtils;
+import liquibase.ext.mongodb.statement.JsonDocumentIterator;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of JSON document arrays as found in insertMany changes and loaded files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BsonUtilsBenchmark {
+
+    /**
+     * Approximate size of the JSON in bytes, 1 KB to 50 MB.
+     */
+    @Param({"1024", "1048576", "52428800"})
+    public int payloadSize;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = BenchmarkData.documentsJson(payloadSize);
+    }
+
+    @Benchmark
+    public List<Document> orEmptyList() {
+        return BsonUtils.orEmptyList(json);
+    }
+
+    @Benchmark
+    public void rawDocumentIterator(final Blackhole blackhole) throws IOException {
+        try (JsonDocumentIterator<RawBsonDocument> iterator = BsonUtils.rawDocumentIterator(new StringReader(json))) {
+            iterator.forEachRemaining(blackhole::consume);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package liquibase.ext.mongodb.benchmark;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.changelog.ChangeLogParameters;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.exception.ChangeLogParseException;
+import liquibase.nosql.parser.json.JsonNoSqlChangeLogParser;
+import liquibase.resource.FileSystemResourceAccessor;
+import liquibase.resource.ResourceAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of JSON changelogs with one insertOne change per changeSet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonChangeLogParserBenchmark {
+
+    private static final String CHANGELOG_FILE = "changelog.benchmark.json";
+
+    /**
+     * Number of changeSets in the changelog.
+     */
+    @Param({"10", "1000", "10000"})
+    public int changeLogSize;
+
+    private final JsonNoSqlChangeLogParser parser = new JsonNoSqlChangeLogParser();
+    private Path directory;
+    private ResourceAccessor resourceAccessor;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("liquibase-mongodb-benchmark");
+        Files.write(directory.resolve(CHANGELOG_FILE),
+                BenchmarkData.changeLogJson(changeLogSize).getBytes(StandardCharsets.UTF_8));
+        resourceAccessor = new FileSystemResourceAccessor(directory.toFile());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve(CHANGELOG_FILE));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public DatabaseChangeLog parse() throws ChangeLogParseException {
+        return parser.parse(CHANGELOG_FILE, new ChangeLogParameters(), resourceAccessor);
+    }
+}
@@ -0,0 +1,84 @@
+package liquibase.ext.mongodb.benchmark;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ext.mongodb.changelog.MongoRanChangeSet;
+import liquibase.ext.mongodb.changelog.MongoRanChangeSetToDocumentConverter;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Conversion of the whole changelog history, as done when the ran changeSets are loaded and when they are written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RanChangeSetConverterBenchmark {
+
+    /**
+     * Number of history entries.
+     */
+    @Param({"100", "10000", "100000"})
+    public int historySize;
+
+    private final MongoRanChangeSetToDocumentConverter converter = new MongoRanChangeSetToDocumentConverter();
+    private List<MongoRanChangeSet> ranChangeSets;
+    private List<Document> documents;
+
+    @Setup
+    public void setUp() {
+        ranChangeSets = BenchmarkData.ranChangeSets(historySize);
+        documents = ranChangeSets.stream().map(converter::toDocument).collect(toList());
+    }
+
+    @Benchmark
+    public void toDocument(final Blackhole blackhole) {
+        for (final MongoRanChangeSet ranChangeSet : ranChangeSets) {
+            blackhole.consume(converter.toDocument(ranChangeSet));
+        }
+    }
+
+    @Benchmark
+    public void fromDocument(final Blackhole blackhole) {
+        for (final Document document : documents) {
+            blackhole.consume(converter.fromDocument(document));
+        }
+    }
+}
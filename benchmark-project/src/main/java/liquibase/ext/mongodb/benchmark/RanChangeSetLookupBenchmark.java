@@ -0,0 +1,124 @@
+package liquibase.ext.mongodb.benchmark;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.RanChangeSet;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.mongodb.changelog.MongoHistoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of changeSets in the loaded history, as done for every changeSet of the changelog by status and update.
+ * {@code linearScan} is the scan of the history Liquibase core does, {@code hashIndex} the lookup of the history service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RanChangeSetLookupBenchmark {
+
+    /**
+     * Number of changeSets looked up per operation, spread evenly over the history.
+     */
+    public static final int LOOKUPS = 10;
+
+    /**
+     * Number of history entries.
+     */
+    @Param({"1000", "50000"})
+    public int historySize;
+
+    private List<RanChangeSet> ranChangeSets;
+    private List<ChangeSet> changeSets;
+    private MongoHistoryService historyService;
+
+    @Setup
+    public void setUp() throws DatabaseException {
+        ranChangeSets = new ArrayList<>(BenchmarkData.ranChangeSets(historySize));
+        changeSets = new ArrayList<>(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            final RanChangeSet ranChangeSet = ranChangeSets.get(i * historySize / LOOKUPS);
+            changeSets.add(new ChangeSet(ranChangeSet.getId(), ranChangeSet.getAuthor(), false, false,
+                    ranChangeSet.getChangeLog(), null, null, null));
+        }
+        historyService = new LoadedHistoryService(ranChangeSets);
+        historyService.getRanChangeSets();
+    }
+
+    @Benchmark
+    public void linearScan(final Blackhole blackhole) {
+        for (final ChangeSet changeSet : changeSets) {
+            for (final RanChangeSet ranChangeSet : ranChangeSets) {
+                if (ranChangeSet.isSameAs(changeSet)) {
+                    blackhole.consume(ranChangeSet);
+                    break;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void hashIndex(final Blackhole blackhole) throws Exception {
+        for (final ChangeSet changeSet : changeSets) {
+            blackhole.consume(historyService.getRanChangeSet(changeSet));
+        }
+    }
+
+    /**
+     * History service serving a history generated in memory instead of querying a database.
+     */
+    private static class LoadedHistoryService extends MongoHistoryService {
+
+        private final List<RanChangeSet> history;
+
+        LoadedHistoryService(final List<RanChangeSet> history) {
+            this.history = history;
+        }
+
+        @Override
+        protected Boolean existsRepository() {
+            return Boolean.TRUE;
+        }
+
+        @Override
+        protected List<RanChangeSet> queryRanChangeSets() {
+            return new ArrayList<>(history);
+        }
+    }
+}
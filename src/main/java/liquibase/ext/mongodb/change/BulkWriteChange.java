@@ -0,0 +1,75 @@
+package liquibase.ext.mongodb.change;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.change.ChangeMetaData;
+import liquibase.change.DatabaseChange;
+import liquibase.database.Database;
+import liquibase.exception.ValidationErrors;
+import liquibase.ext.mongodb.statement.BulkWriteStatement;
+import liquibase.statement.SqlStatement;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import static liquibase.ext.mongodb.statement.BsonUtils.orEmptyList;
+
+@DatabaseChange(name = "bulkWrite",
+        description = "Performs multiple write operations with controls for order of execution " +
+                "https://docs.mongodb.com/manual/reference/method/db.collection.bulkWrite/",
+        priority = ChangeMetaData.PRIORITY_DEFAULT, appliesTo = "collection")
+@NoArgsConstructor
+@Getter
+@Setter
+public class BulkWriteChange extends AbstractMongoChange {
+
+    private String collectionName;
+    private String operations;
+    private String options;
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Bulk write performed on collection " + getCollectionName();
+    }
+
+    @Override
+    public ValidationErrors validate(final Database database) {
+        final ValidationErrors validationErrors = super.validate(database);
+        validationErrors.checkRequiredField("collectionName", collectionName);
+        validationErrors.checkRequiredField("operations", operations);
+        if (!validationErrors.hasErrors()) {
+            try {
+                BulkWriteStatement.toWriteModels(orEmptyList(operations));
+            } catch (final RuntimeException e) {
+                validationErrors.addError(e.getMessage());
+            }
+        }
+        return validationErrors;
+    }
+
+    @Override
+    public SqlStatement[] generateStatements(final Database database) {
+
+        return new SqlStatement[]{
+                new BulkWriteStatement(collectionName, operations, options)
+        };
+    }
+}
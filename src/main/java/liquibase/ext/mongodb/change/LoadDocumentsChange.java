@@ -0,0 +1,109 @@
+package liquibase.ext.mongodb.change;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.Scope;
+import liquibase.change.ChangeMetaData;
+import liquibase.change.CheckSum;
+import liquibase.change.DatabaseChange;
+import liquibase.database.Database;
+import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.exception.ValidationErrors;
+import liquibase.ext.mongodb.statement.LoadDocumentsStatement;
+import liquibase.resource.ResourceAccessor;
+import liquibase.statement.SqlStatement;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static java.lang.Boolean.TRUE;
+import static java.util.Objects.nonNull;
+import static liquibase.ext.mongodb.statement.BsonUtils.orEmptyDocument;
+
+@DatabaseChange(name = "loadDocuments",
+        description = "Loads documents into a collection from a file of newline delimited Extended JSON documents " +
+                "or an Extended JSON array. The file is streamed and inserted in batches " +
+                "https://docs.mongodb.com/manual/reference/mongodb-extended-json/",
+        priority = ChangeMetaData.PRIORITY_DEFAULT, appliesTo = "collection")
+@NoArgsConstructor
+@Getter
+@Setter
+public class LoadDocumentsChange extends AbstractMongoChange {
+
+    private String collectionName;
+    private String file;
+    private Boolean relativeToChangelogFile;
+    private Integer batchSize;
+    private String options;
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Documents loaded into collection " + getCollectionName() + " from " + getFile();
+    }
+
+    @Override
+    public ValidationErrors validate(final Database database) {
+        final ValidationErrors validationErrors = super.validate(database);
+        validationErrors.checkRequiredField("collectionName", collectionName);
+        validationErrors.checkRequiredField("file", file);
+        if (nonNull(batchSize) && batchSize < 1) {
+            validationErrors.addError("batchSize must be greater than 0");
+        }
+        return validationErrors;
+    }
+
+    @Override
+    public SqlStatement[] generateStatements(final Database database) {
+        return new SqlStatement[]{
+                new LoadDocumentsStatement(collectionName, file, getRelativeTo(), batchSize, orEmptyDocument(options),
+                        Scope.getCurrentScope().getResourceAccessor())
+        };
+    }
+
+    /**
+     * Includes the content of the documents file so the changeSet is reported as modified when the file changes.
+     * The file is streamed while hashing.
+     */
+    @Override
+    public CheckSum generateCheckSum() {
+        final ResourceAccessor resourceAccessor = Scope.getCurrentScope().getResourceAccessor();
+        if (nonNull(file) && nonNull(resourceAccessor)) {
+            try (InputStream stream = resourceAccessor.openStream(getRelativeTo(), file)) {
+                if (nonNull(stream)) {
+                    return CheckSum.compute(super.generateCheckSum().toString() + ":" + CheckSum.compute(stream, true));
+                }
+            } catch (final IOException e) {
+                throw new UnexpectedLiquibaseException(e);
+            }
+        }
+        return super.generateCheckSum();
+    }
+
+    private String getRelativeTo() {
+        if (TRUE.equals(relativeToChangelogFile) && nonNull(getChangeSet())) {
+            return getChangeSet().getFilePath();
+        }
+        return null;
+    }
+}
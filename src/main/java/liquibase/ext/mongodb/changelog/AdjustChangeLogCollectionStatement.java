@@ -20,19 +20,34 @@ package liquibase.ext.mongodb.changelog;
  * #L%
  */
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoServerException;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexModel;
 import com.mongodb.client.model.IndexOptions;
+import liquibase.Scope;
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
 import liquibase.ext.mongodb.statement.RunCommandStatement;
 import lombok.Getter;
+import org.bson.BsonDocument;
 import org.bson.Document;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static liquibase.nosql.executor.NoSqlStatementEvent.UNKNOWN_DOCUMENTS;
 
 public class AdjustChangeLogCollectionStatement extends RunCommandStatement {
 
     public static final String UI = "ui_";
+    public static final String IX = "ix_";
+    public static final String VERSION = "_v";
+    public static final String NAME = "name";
+    public static final String KEY = "key";
     public static String OPTIONS = "{ collMod: \"%s\"," + CreateChangeLogCollectionStatement.VALIDATOR + "}";
 
     @Getter
@@ -49,32 +64,110 @@ public class AdjustChangeLogCollectionStatement extends RunCommandStatement {
     }
 
     @Override
-    public void execute(final MongoLiquibaseDatabase database) {
+    public long executeForCount(final MongoLiquibaseDatabase database) {
 
         adjustIndexes(database);
 
         if (database.getSupportsValidator()) {
-            super.execute(database);
+            super.executeForCount(database);
         }
+        return UNKNOWN_DOCUMENTS;
     }
 
-    private void adjustIndexes(final MongoLiquibaseDatabase database) {
+    /**
+     * Creates the managed indexes missing by name and drops the other versions of them.
+     * An index is not created when an index with the same keys exists under another name,
+     * which also keeps the identity index of collections the unique index was created for by hand.
+     * The unique identity index is created in its own createIndexes call, so a history already holding duplicated
+     * changeSets still gets the other indexes, the duplicates are reported as a warning.
+     *
+     * @return the names of the created indexes
+     */
+    protected List<String> adjustIndexes(final MongoLiquibaseDatabase database) {
         final MongoCollection<Document> collection = database.getMongoDatabase().getCollection(getCollectionName());
-        List<Document> indexes = new ArrayList<>();
-        collection.listIndexes().into(indexes);
-        // Only default _id_ exists
-        if (indexes.size() == 1) {
-            final Document keys = new Document()
-                    .append(MongoRanChangeSet.Fields.fileName, 1)
-                    .append(MongoRanChangeSet.Fields.author, 1)
-                    .append(MongoRanChangeSet.Fields.changeSetId, 1);
-
-            final IndexOptions options = new IndexOptions()
-                    .name(UI + getCollectionName())
-                    .unique(true);
-
-            collection.createIndex(keys, options);
+        final List<IndexModel> supportingIndexes = supportingIndexes(getCollectionName());
+        final Set<String> supportingNames = supportingIndexes.stream()
+                .map(i -> i.getOptions().getName()).collect(Collectors.toSet());
+
+        final List<Document> existing = new ArrayList<>();
+        for (final Document index : collection.listIndexes()) {
+            final String name = index.getString(NAME);
+            if (!supportingNames.contains(name) && isOtherVersion(name, supportingNames)) {
+                collection.dropIndex(name);
+            } else {
+                existing.add(index);
+            }
+        }
+
+        final List<IndexModel> missing = supportingIndexes.stream()
+                .filter(i -> existing.stream().noneMatch(e -> i.getOptions().getName().equals(e.getString(NAME))
+                        || sameKeys(e.get(KEY, Document.class), i.getKeys().toBsonDocument())))
+                .collect(Collectors.toList());
+        final List<IndexModel> missingUnique = missing.stream()
+                .filter(i -> Boolean.TRUE.equals(i.getOptions().isUnique())).collect(Collectors.toList());
+        missing.removeAll(missingUnique);
+
+        final List<String> created = new ArrayList<>();
+        if (!missing.isEmpty()) {
+            created.addAll(collection.createIndexes(missing));
+        }
+        for (final IndexModel unique : missingUnique) {
+            try {
+                created.addAll(collection.createIndexes(Collections.singletonList(unique)));
+            } catch (final MongoServerException e) {
+                if (ErrorCategory.fromErrorCode(e.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+                Scope.getCurrentScope().getLog(getClass()).warning(String.format(
+                        "Could not create the unique index %s, the collection %s holds duplicated changeSets: %s",
+                        unique.getOptions().getName(), getCollectionName(), e.getMessage()));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Indexes serving the history access patterns: the changeSet identity, the {@code orderExecuted} sort of the history load
+     * and sequence lookup, the {@code dateExecuted} and {@code orderExecuted} sort of tagging, the tag lookups
+     * and the {@code deploymentId} lookups of rollbacks.
+     * A changed index definition gets a new version so existing deployments replace it.
+     *
+     * @param collectionName the history collection
+     * @return the index definitions, all named
+     */
+    public static List<IndexModel> supportingIndexes(final String collectionName) {
+        return Arrays.asList(
+                new IndexModel(new Document()
+                        .append(MongoRanChangeSet.Fields.fileName, 1)
+                        .append(MongoRanChangeSet.Fields.author, 1)
+                        .append(MongoRanChangeSet.Fields.changeSetId, 1),
+                        new IndexOptions().name(UI + collectionName).unique(true)),
+                supportingIndex(new Document(MongoRanChangeSet.Fields.orderExecuted, 1), 1),
+                supportingIndex(new Document(MongoRanChangeSet.Fields.dateExecuted, 1)
+                        .append(MongoRanChangeSet.Fields.orderExecuted, 1), 1),
+                supportingIndex(new Document(MongoRanChangeSet.Fields.tag, 1), 1),
+                supportingIndex(new Document(MongoRanChangeSet.Fields.deploymentId, 1), 1));
+    }
+
+    private static IndexModel supportingIndex(final Document keys, final int version) {
+        return new IndexModel(keys, new IndexOptions().name(IX + String.join("_", keys.keySet()) + VERSION + version));
+    }
+
+    private static boolean isOtherVersion(final String name, final Set<String> supportingNames) {
+        return supportingNames.stream().filter(n -> n.startsWith(IX))
+                .map(n -> n.substring(0, n.lastIndexOf(VERSION) + VERSION.length()))
+                .anyMatch(prefix -> name.startsWith(prefix) && name.substring(prefix.length()).matches("\\d+"));
+    }
+
+    /**
+     * Compares key patterns ignoring the numeric type of the directions, the shell creates them as doubles.
+     */
+    private static boolean sameKeys(final Document existing, final BsonDocument keys) {
+        if (existing == null || !new ArrayList<>(existing.keySet()).equals(new ArrayList<>(keys.keySet()))) {
+            return false;
         }
+        return keys.entrySet().stream().allMatch(key -> existing.get(key.getKey()) instanceof Number
+                && ((Number) existing.get(key.getKey())).doubleValue() == key.getValue().asNumber().doubleValue());
     }
 
     @Override
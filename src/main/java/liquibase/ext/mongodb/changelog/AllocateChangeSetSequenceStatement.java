@@ -0,0 +1,135 @@
+package liquibase.ext.mongodb.changelog;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.statement.AbstractCollectionStatement;
+import liquibase.nosql.statement.NoSqlQueryForLongStatement;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.bson.Document;
+
+import static java.util.Objects.nonNull;
+import static liquibase.ext.mongodb.statement.AbstractRunCommandStatement.SHELL_DB_PREFIX;
+
+/**
+ * Reserves a block of history sequence values with an atomic {@code $inc} of a counter document,
+ * the counter is keyed by the history collection name.
+ * When the counter does not exist yet, or when asked to synchronize it, it is first raised to the highest
+ * {@code orderExecuted} of the history, so values written without the counter are never handed out again.
+ * Concurrent initializations agree thanks to {@code $max}.
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class AllocateChangeSetSequenceStatement extends AbstractCollectionStatement
+        implements NoSqlQueryForLongStatement<MongoLiquibaseDatabase> {
+
+    public static final String COMMAND_NAME = "findOneAndUpdate";
+    public static final String ID = "_id";
+    public static final String VALUE = "value";
+
+    private final String historyCollectionName;
+    private final int count;
+    private final boolean synchronize;
+
+    /**
+     * @param collectionName        the counter collection
+     * @param historyCollectionName the history collection the values are allocated for
+     * @param count                 the number of values to reserve, at least 1
+     * @param synchronize           raise the counter to the highest {@code orderExecuted} of the history first
+     */
+    public AllocateChangeSetSequenceStatement(final String collectionName, final String historyCollectionName, final int count,
+                                              final boolean synchronize) {
+        super(collectionName);
+        this.historyCollectionName = historyCollectionName;
+        this.count = count;
+        this.synchronize = synchronize;
+    }
+
+    public AllocateChangeSetSequenceStatement(final String collectionName, final String historyCollectionName, final int count) {
+        this(collectionName, historyCollectionName, count, false);
+    }
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public String toJs() {
+        return
+                SHELL_DB_PREFIX +
+                        getCollectionName() +
+                        "." +
+                        getCommandName() +
+                        "(" +
+                        new Document(ID, historyCollectionName).toJson() +
+                        ", " +
+                        new Document("$inc", new Document(VALUE, count)).toJson() +
+                        ", {\"returnNewDocument\": true});";
+    }
+
+    /**
+     * @return the last of the reserved values, the first one is {@code value - count + 1}
+     */
+    @Override
+    public long queryForLong(final MongoLiquibaseDatabase database) {
+        final MongoCollection<Document> counters = database.getMongoDatabase().getCollection(getCollectionName());
+
+        if (!synchronize) {
+            final Document counter = increment(counters);
+            if (nonNull(counter)) {
+                return counter.get(VALUE, Number.class).longValue();
+            }
+        }
+
+        final long maxSequence = new GetMaxChangeSetSequenceStatement(historyCollectionName).queryForLong(database);
+        try {
+            initialize(counters, maxSequence);
+        } catch (final MongoWriteException e) {
+            // another process created the counter between both updates
+            if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                throw e;
+            }
+            initialize(counters, maxSequence);
+        }
+
+        return increment(counters).get(VALUE, Number.class).longValue();
+    }
+
+    private Document increment(final MongoCollection<Document> counters) {
+        return counters.findOneAndUpdate(Filters.eq(ID, historyCollectionName), Updates.inc(VALUE, (long) count),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    }
+
+    private void initialize(final MongoCollection<Document> counters, final long maxSequence) {
+        counters.updateOne(Filters.eq(ID, historyCollectionName), Updates.max(VALUE, maxSequence),
+                new UpdateOptions().upsert(true));
+    }
+}
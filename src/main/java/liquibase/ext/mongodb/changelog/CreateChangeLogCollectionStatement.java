@@ -20,8 +20,12 @@ package liquibase.ext.mongodb.changelog;
  * #L%
  */
 
+import com.mongodb.MongoCommandException;
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
 import liquibase.ext.mongodb.statement.CreateCollectionStatement;
 
+import static liquibase.nosql.executor.NoSqlStatementEvent.UNKNOWN_DOCUMENTS;
+
 public class CreateChangeLogCollectionStatement extends CreateCollectionStatement {
 
     public static final String VALIDATOR = "\n" +
@@ -108,4 +112,19 @@ public class CreateChangeLogCollectionStatement extends CreateCollectionStatemen
     public CreateChangeLogCollectionStatement(final String collectionName) {
         super(collectionName, (String) null);
     }
+
+    /**
+     * The tracking collections are shared by all lock scopes, a collection created meanwhile by another process is kept.
+     */
+    @Override
+    public long executeForCount(final MongoLiquibaseDatabase database) {
+        try {
+            return super.executeForCount(database);
+        } catch (final MongoCommandException e) {
+            if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                throw e;
+            }
+            return UNKNOWN_DOCUMENTS;
+        }
+    }
 }
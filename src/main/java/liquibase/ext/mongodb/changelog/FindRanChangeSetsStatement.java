@@ -0,0 +1,129 @@
+package liquibase.ext.mongodb.changelog;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoReadCategory;
+import liquibase.ext.mongodb.statement.AbstractCollectionStatement;
+import liquibase.nosql.statement.NoSqlQueryForListStatement;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.nonNull;
+import static liquibase.ext.mongodb.statement.AbstractRunCommandStatement.SHELL_DB_PREFIX;
+
+/**
+ * Loads the ran changeSets in execution order, converting every document as the cursor is iterated
+ * so the history is never held in memory twice.
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class FindRanChangeSetsStatement extends AbstractCollectionStatement
+        implements NoSqlQueryForListStatement<MongoLiquibaseDatabase, MongoRanChangeSet> {
+
+    public static final String COMMAND_NAME = "find";
+
+    /**
+     * The fields {@link liquibase.changelog.RanChangeSet} needs to decide which changeSets to run.
+     */
+    public static final Bson UPDATE_PROJECTION = Projections.fields(
+            Projections.include(
+                    MongoRanChangeSet.Fields.fileName,
+                    MongoRanChangeSet.Fields.changeSetId,
+                    MongoRanChangeSet.Fields.author,
+                    MongoRanChangeSet.Fields.md5sum,
+                    MongoRanChangeSet.Fields.dateExecuted,
+                    MongoRanChangeSet.Fields.tag,
+                    MongoRanChangeSet.Fields.execType,
+                    MongoRanChangeSet.Fields.contexts,
+                    MongoRanChangeSet.Fields.labels,
+                    MongoRanChangeSet.Fields.deploymentId,
+                    MongoRanChangeSet.Fields.orderExecuted),
+            Projections.excludeId());
+
+    private final Bson filter;
+    private final Bson projection;
+    private final int batchSize;
+
+    @EqualsAndHashCode.Exclude
+    private final MongoRanChangeSetToDocumentConverter converter = new MongoRanChangeSetToDocumentConverter();
+
+    /**
+     * @param collectionName the history collection
+     * @param projection     the fields to load or null for the full documents
+     * @param batchSize      the cursor batch size or 0 for the server default
+     */
+    public FindRanChangeSetsStatement(final String collectionName, final Bson projection, final int batchSize) {
+        this(collectionName, null, projection, batchSize);
+    }
+
+    /**
+     * @param collectionName the history collection
+     * @param filter         the changeSets to load or null for all of them
+     * @param projection     the fields to load or null for the full documents
+     * @param batchSize      the cursor batch size or 0 for the server default
+     */
+    public FindRanChangeSetsStatement(final String collectionName, final Bson filter, final Bson projection, final int batchSize) {
+        super(collectionName);
+        this.filter = filter;
+        this.projection = projection;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public String toJs() {
+        return
+                SHELL_DB_PREFIX +
+                        getCollectionName() +
+                        "." +
+                        getCommandName() +
+                        "(" +
+                        (nonNull(filter) ? filter.toBsonDocument().toJson() : "{}") +
+                        ", " +
+                        (nonNull(projection) ? projection.toBsonDocument().toJson() : "{}") +
+                        ").sort({\"" + MongoRanChangeSet.Fields.orderExecuted + "\": 1})" +
+                        (batchSize > 0 ? ".batchSize(" + batchSize + ")" : "") +
+                        ";";
+    }
+
+    @Override
+    public List<MongoRanChangeSet> queryForList(final MongoLiquibaseDatabase database) {
+        final FindIterable<Document> documents = database.getReadRoute(MongoReadCategory.HISTORY)
+                .find(getCollectionName(), nonNull(filter) ? filter : new Document())
+                .projection(projection)
+                .sort(Sorts.ascending(MongoRanChangeSet.Fields.orderExecuted))
+                .batchSize(batchSize);
+        return documents.map(converter::fromDocument).into(new ArrayList<>());
+    }
+}
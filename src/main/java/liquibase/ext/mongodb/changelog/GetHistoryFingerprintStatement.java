@@ -0,0 +1,72 @@
+package liquibase.ext.mongodb.changelog;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoReadCategory;
+import liquibase.ext.mongodb.statement.AbstractCollectionStatement;
+import liquibase.nosql.statement.NoSqlQueryForObjectStatement;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.bson.Document;
+
+import java.util.stream.Collectors;
+
+import static liquibase.ext.mongodb.statement.AbstractRunCommandStatement.SHELL_DB_PREFIX;
+
+/**
+ * Computes the {@link MongoHistoryFingerprint} of the history collection in one aggregation round trip.
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class GetHistoryFingerprintStatement extends AbstractCollectionStatement
+        implements NoSqlQueryForObjectStatement<MongoLiquibaseDatabase> {
+
+    public static final String COMMAND_NAME = "aggregate";
+
+    public GetHistoryFingerprintStatement(final String collectionName) {
+        super(collectionName);
+    }
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public String toJs() {
+        return
+                SHELL_DB_PREFIX +
+                        getCollectionName() +
+                        "." +
+                        getCommandName() +
+                        "([" +
+                        MongoHistoryFingerprint.pipeline().stream().map(Document::toJson).collect(Collectors.joining(", ")) +
+                        "]);";
+    }
+
+    @Override
+    public <T> T queryForObject(final MongoLiquibaseDatabase database, final Class<T> requiredType) {
+        final Document result = database.getReadRoute(MongoReadCategory.HISTORY)
+                .aggregate(getCollectionName(), MongoHistoryFingerprint.pipeline()).first();
+        return requiredType.cast(MongoHistoryFingerprint.fromDocument(result));
+    }
+}
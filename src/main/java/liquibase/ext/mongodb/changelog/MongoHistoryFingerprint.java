@@ -0,0 +1,226 @@
+package liquibase.ext.mongodb.changelog;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.isNull;
+import static java.util.Optional.ofNullable;
+
+/**
+ * Cheap summary of the history collection used to verify a local snapshot against the server.
+ * The same values are computed by {@link #pipeline()} on the server and by {@link #of(Collection)} locally,
+ * so a deleted changeSet, a re-run one, a cleared or replaced checksum or a changed tag, execType, contexts, labels
+ * or deploymentId all change the fingerprint.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class MongoHistoryFingerprint {
+
+    public static final String COUNT = "count";
+    public static final String MAX_ORDER_EXECUTED = "maxOrderExecuted";
+    public static final String SUM_ORDER_EXECUTED = "sumOrderExecuted";
+    public static final String CHECK_SUMS = "checkSums";
+    public static final String CHECK_SUM_DIGEST = "checkSumDigest";
+    public static final String CONTENT_DIGEST = "contentDigest";
+
+    /**
+     * Fields updated in place, folded into {@link #CONTENT_DIGEST} each with its own weight
+     */
+    static final List<String> CONTENT_FIELDS = Collections.unmodifiableList(Arrays.asList(
+            MongoRanChangeSet.Fields.tag,
+            MongoRanChangeSet.Fields.execType,
+            MongoRanChangeSet.Fields.contexts,
+            MongoRanChangeSet.Fields.labels,
+            MongoRanChangeSet.Fields.deploymentId));
+
+    public static final MongoHistoryFingerprint EMPTY = new MongoHistoryFingerprint(0L, 0L, 0L, 0L, 0L, 0L);
+
+    /**
+     * Number of trailing checksum characters folded into the digest, 8 hex digits keep every term below 2^32.
+     */
+    static final int DIGEST_LENGTH = 8;
+    static final String HEX_DIGITS = "0123456789abcdef";
+
+    /**
+     * Printable ASCII, the characters folded into the content digest by their position in it.
+     * Other characters all count as -1 like {@code $indexOfCP} returns on the server.
+     */
+    static final String PRINTABLE = IntStream.rangeClosed(0x20, 0x7e)
+            .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append).toString();
+
+    private static final MongoRanChangeSetToDocumentConverter CONVERTER = new MongoRanChangeSetToDocumentConverter();
+
+    private final long count;
+    private final long maxOrderExecuted;
+    private final long sumOrderExecuted;
+    private final long checkSums;
+    private final long checkSumDigest;
+    private final long contentDigest;
+
+    /**
+     * The content is folded from the documents the changeSets are written as, the way the server sees them.
+     */
+    public static MongoHistoryFingerprint of(final Collection<? extends MongoRanChangeSet> ranChangeSets) {
+        long maxOrderExecuted = 0L;
+        long sumOrderExecuted = 0L;
+        long checkSums = 0L;
+        long checkSumDigest = 0L;
+        long contentDigest = 0L;
+        for (final MongoRanChangeSet ranChangeSet : ranChangeSets) {
+            final long orderExecuted = ofNullable(ranChangeSet.getOrderExecuted()).orElse(0);
+            maxOrderExecuted = Math.max(maxOrderExecuted, orderExecuted);
+            sumOrderExecuted += orderExecuted;
+            if (!isNull(ranChangeSet.getLastCheckSum())) {
+                checkSums++;
+                checkSumDigest += digest(ranChangeSet.getLastCheckSum().toString());
+            }
+            final Document document = CONVERTER.toDocument(ranChangeSet);
+            for (int i = 0; i < CONTENT_FIELDS.size(); i++) {
+                final Object value = document.get(CONTENT_FIELDS.get(i));
+                if (value instanceof String) {
+                    contentDigest += (i + 1) * fold((String) value);
+                }
+            }
+        }
+        return new MongoHistoryFingerprint(ranChangeSets.size(), maxOrderExecuted, sumOrderExecuted,
+                checkSums, checkSumDigest, contentDigest);
+    }
+
+    public static MongoHistoryFingerprint fromDocument(final Document document) {
+        if (isNull(document)) {
+            return EMPTY;
+        }
+        return new MongoHistoryFingerprint(
+                getLong(document, COUNT),
+                getLong(document, MAX_ORDER_EXECUTED),
+                getLong(document, SUM_ORDER_EXECUTED),
+                getLong(document, CHECK_SUMS),
+                getLong(document, CHECK_SUM_DIGEST),
+                getLong(document, CONTENT_DIGEST));
+    }
+
+    /**
+     * Single {@code $group} stage computing the fingerprint of the whole collection on the server,
+     * so only one small document travels over the wire.
+     *
+     * @return the aggregation pipeline
+     */
+    public static List<Document> pipeline() {
+        final String md5sum = "$" + MongoRanChangeSet.Fields.md5sum;
+        final String orderExecuted = "$" + MongoRanChangeSet.Fields.orderExecuted;
+
+        final List<Object> contentTerms = new ArrayList<>(CONTENT_FIELDS.size());
+        for (int i = 0; i < CONTENT_FIELDS.size(); i++) {
+            final String field = "$" + CONTENT_FIELDS.get(i);
+            contentTerms.add(new Document("$multiply", Arrays.asList(ifString(field, foldExpression(field), 0), i + 1)));
+        }
+
+        return Collections.singletonList(new Document("$group", new Document("_id", null)
+                .append(COUNT, new Document("$sum", 1))
+                .append(MAX_ORDER_EXECUTED, new Document("$max", orderExecuted))
+                .append(SUM_ORDER_EXECUTED, new Document("$sum", orderExecuted))
+                .append(CHECK_SUMS, new Document("$sum", ifString(md5sum, 1, 0)))
+                .append(CHECK_SUM_DIGEST, new Document("$sum", ifString(md5sum, digestExpression(md5sum), 0)))
+                .append(CONTENT_DIGEST, new Document("$sum", new Document("$add", contentTerms)))));
+    }
+
+    /**
+     * Interprets the last {@link #DIGEST_LENGTH} characters of a checksum as a hexadecimal number,
+     * non hexadecimal characters count as -1 exactly like {@code $indexOfCP} does on the server.
+     */
+    static long digest(final String checkSum) {
+        final int[] codePoints = checkSum.codePoints().toArray();
+        if (codePoints.length < DIGEST_LENGTH) {
+            return 0L;
+        }
+        long value = 0L;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            final int digit = HEX_DIGITS.indexOf(codePoints[codePoints.length - DIGEST_LENGTH + i]);
+            value += digit * weight(i);
+        }
+        return value;
+    }
+
+    /**
+     * Sums the {@link #PRINTABLE} position of every character weighted by its own position, plus one so an empty
+     * string differs from a missing one. Changing, adding, removing or swapping characters changes the result.
+     */
+    static long fold(final String value) {
+        final int[] codePoints = value.codePoints().toArray();
+        long folded = 1L;
+        for (int i = 0; i < codePoints.length; i++) {
+            folded += (PRINTABLE.indexOf(codePoints[i]) + 2L) * (i + 1);
+        }
+        return folded;
+    }
+
+    private static Document foldExpression(final String field) {
+        final Document character = new Document("$substrCP", Arrays.asList(field, "$$this", 1));
+        final Document term = new Document("$multiply", Arrays.asList(
+                new Document("$add", Arrays.asList(new Document("$indexOfCP", Arrays.asList(PRINTABLE, character)), 2)),
+                new Document("$add", Arrays.asList("$$this", 1))));
+        return new Document("$add", Arrays.asList(1, new Document("$reduce", new Document("input",
+                new Document("$range", Arrays.asList(0, new Document("$strLenCP", field))))
+                .append("initialValue", 0)
+                .append("in", new Document("$add", Arrays.asList("$$value", term))))));
+    }
+
+    private static Document digestExpression(final String field) {
+        final Document length = new Document("$strLenCP", field);
+        final List<Object> terms = new ArrayList<>(DIGEST_LENGTH);
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            final Document index = new Document("$add", Arrays.asList(
+                    new Document("$subtract", Arrays.asList(length, DIGEST_LENGTH)), i));
+            final Document character = new Document("$substrCP", Arrays.asList(field, index, 1));
+            terms.add(new Document("$multiply", Arrays.asList(
+                    new Document("$indexOfCP", Arrays.asList(HEX_DIGITS, character)), weight(i))));
+        }
+        return new Document("$cond", Arrays.asList(
+                new Document("$gte", Arrays.asList(length, DIGEST_LENGTH)), new Document("$add", terms), 0L));
+    }
+
+    private static Document ifString(final String field, final Object then, final Object otherwise) {
+        return new Document("$cond", Arrays.asList(
+                new Document("$eq", Arrays.asList(new Document("$type", field), "string")), then, otherwise));
+    }
+
+    private static long weight(final int position) {
+        return 1L << (4 * (DIGEST_LENGTH - 1 - position));
+    }
+
+    private static long getLong(final Document document, final String key) {
+        return ofNullable(document.get(key, Number.class)).map(Number::longValue).orElse(0L);
+    }
+}
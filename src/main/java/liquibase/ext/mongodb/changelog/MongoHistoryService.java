@@ -31,42 +31,73 @@ import liquibase.changelog.RanChangeSet;
 import liquibase.database.Database;
 import liquibase.exception.DatabaseException;
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoReadCategory;
+import liquibase.ext.mongodb.database.MongoTrackingSchema;
+import liquibase.ext.mongodb.database.MongoTrackingState;
+import liquibase.ext.mongodb.lockservice.MongoLockService;
+import liquibase.ext.mongodb.statement.BulkWriteStatement;
 import liquibase.ext.mongodb.statement.CountCollectionByNameStatement;
 import liquibase.ext.mongodb.statement.CountDocumentsInCollectionStatement;
 import liquibase.ext.mongodb.statement.DeleteManyStatement;
 import liquibase.ext.mongodb.statement.DropCollectionStatement;
-import liquibase.ext.mongodb.statement.FindAllStatement;
 import liquibase.ext.mongodb.statement.FindOneAndUpdateStatement;
 import liquibase.ext.mongodb.statement.InsertOneStatement;
 import liquibase.ext.mongodb.statement.UpdateManyStatement;
+import liquibase.lockservice.LockService;
+import liquibase.lockservice.LockServiceFactory;
 import liquibase.logging.Logger;
 import liquibase.nosql.changelog.AbstractNoSqlHistoryService;
+import liquibase.nosql.lockservice.AbstractNoSqlLockService;
 import liquibase.util.LiquibaseUtil;
+import liquibase.util.MD5Util;
 import liquibase.util.StringUtil;
 import lombok.Getter;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import static java.lang.Boolean.TRUE;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.Optional.ofNullable;
 import static liquibase.plugin.Plugin.PRIORITY_SPECIALIZED;
 
 public class MongoHistoryService extends AbstractNoSqlHistoryService<MongoLiquibaseDatabase> {
 
+    public static final String SEQUENCE_COLLECTION_SUFFIX = "_SEQUENCE";
+
     private final Logger log = Scope.getCurrentScope().getLog(getClass());
 
     @Getter
     private final MongoRanChangeSetToDocumentConverter converter;
 
+    /**
+     * Whether the sequence counter was raised to the history maximum during this run
+     */
+    private boolean sequenceCounterSynchronized;
+
     public MongoHistoryService() {
         super();
         this.converter = new MongoRanChangeSetToDocumentConverter();
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        this.sequenceCounterSynchronized = false;
+    }
+
     @Override
     public int getPriority() {
         return PRIORITY_SPECIALIZED;
@@ -84,106 +115,289 @@ public class MongoHistoryService extends AbstractNoSqlHistoryService<MongoLiquib
 
     @Override
     protected Boolean existsRepository() throws DatabaseException {
+        final MongoTrackingState state = getNoSqlDatabase().getTrackingState();
+        if (nonNull(state)) {
+            return state.exists(getDatabaseChangeLogTableName());
+        }
         return getExecutor().queryForLong(
-                new CountCollectionByNameStatement(getDatabaseChangeLogTableName())) == 1L;
+                new CountCollectionByNameStatement(getDatabaseChangeLogTableName(), MongoReadCategory.METADATA)) == 1L;
     }
 
     @Override
     protected void createRepository() throws DatabaseException {
-        final CreateChangeLogCollectionStatement createChangeLogCollectionStatement =
-                new CreateChangeLogCollectionStatement(getDatabaseChangeLogTableName());
-        getExecutor().execute(createChangeLogCollectionStatement);
+        runShared(() -> {
+            final CreateChangeLogCollectionStatement createChangeLogCollectionStatement =
+                    new CreateChangeLogCollectionStatement(getDatabaseChangeLogTableName());
+            getExecutor().execute(createChangeLogCollectionStatement);
+            MongoTrackingState.discard(getNoSqlDatabase());
+        });
     }
 
     @Override
     protected void adjustRepository() throws DatabaseException {
         if (getNoSqlDatabase().getAdjustTrackingTablesOnStartup()) {
-            this.getLogger().info("Adjusting database history Collection with name: "
-                    + getDatabase().getConnection().getCatalog() + "." + getDatabaseChangeLogTableName());
+            runShared(() -> {
+                this.getLogger().info("Adjusting database history Collection with name: "
+                        + getDatabase().getConnection().getCatalog() + "." + getDatabaseChangeLogTableName());
 
-            this.getLogger().info("Adjusted database history Collection with name: "
-                    + getDatabase().getConnection().getCatalog() + "." + getDatabaseChangeLogTableName());
+                this.getLogger().info("Adjusted database history Collection with name: "
+                        + getDatabase().getConnection().getCatalog() + "." + getDatabaseChangeLogTableName());
 
-            getExecutor().execute(new AdjustChangeLogCollectionStatement(getDatabaseChangeLogTableName()));
+                getExecutor().execute(new AdjustChangeLogCollectionStatement(getDatabaseChangeLogTableName()));
 
+                if (isLockRepositoryAdjusted()) {
+                    MongoTrackingSchema.markCurrent(getNoSqlDatabase(), getExecutor());
+                }
+            });
         } else {
             this.getLogger().info("Skipped Adjusting database history Collection with name: "
                     + getDatabase().getConnection().getCatalog() + "." + getDatabaseChangeLogTableName());
         }
     }
 
+    /**
+     * The history collection is shared by all lock scopes, so it is only changed under the shared lock.
+     */
+    private void runShared(final MongoLockService.TrackingChange change) throws DatabaseException {
+        final LockService lockService = LockServiceFactory.getInstance().getLockService(getDatabase());
+        if (lockService instanceof MongoLockService) {
+            ((MongoLockService) lockService).runShared(change);
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * The version covers both tracking collections, it is only recorded when the lock collection was adjusted in this run too.
+     */
+    private boolean isLockRepositoryAdjusted() {
+        final LockService lockService = LockServiceFactory.getInstance().getLockService(getDatabase());
+        return lockService instanceof AbstractNoSqlLockService
+                && TRUE.equals(((AbstractNoSqlLockService<?>) lockService).getAdjustedChangeLogLockTable());
+    }
+
+    @Override
+    protected boolean isRepositoryCurrent() throws DatabaseException {
+        return MongoTrackingSchema.isCurrent(getNoSqlDatabase(), getExecutor());
+    }
+
     @Override
     protected void dropRepository() throws DatabaseException {
         getExecutor().execute(
                 new DropCollectionStatement(getDatabaseChangeLogTableName()));
+        MongoTrackingState.discard(getNoSqlDatabase());
+        // a recreated history starts its sequence over
+        getExecutor().update(new DeleteManyStatement(getSequenceCollectionName(),
+                Filters.eq(AllocateChangeSetSequenceStatement.ID, getDatabaseChangeLogTableName())));
+        MongoTrackingSchema.remove(getNoSqlDatabase(), getExecutor());
     }
 
     @Override
     protected List<RanChangeSet> queryRanChangeSets() throws DatabaseException {
 
-        final Bson filter = new Document();
-        final Bson sort = Sorts.ascending(MongoRanChangeSet.Fields.orderExecuted);
+        final String snapshotDirectory = StringUtil.trimToNull(getNoSqlDatabase().getHistorySnapshotDirectory());
+        final List<MongoRanChangeSet> ranChangeSets = isNull(snapshotDirectory)
+                ? findRanChangeSets(null) : querySnapshotRanChangeSets(Paths.get(snapshotDirectory));
 
-        return getExecutor()
-                .queryForList(new FindAllStatement(getDatabaseChangeLogTableName(), filter, sort), Document.class)
-                .stream().map(Document.class::cast).map(getConverter()::fromDocument).collect(Collectors.toList());
+        return ranChangeSets.stream().map(RanChangeSet.class::cast).collect(Collectors.toList());
+    }
+
+    protected List<MongoRanChangeSet> findRanChangeSets(final Bson filter) throws DatabaseException {
+
+        return getExecutor().queryForList(new FindRanChangeSetsStatement(getDatabaseChangeLogTableName(), filter,
+                getHistoryReadProjection(), getNoSqlDatabase().getHistoryReadBatchSize()), MongoRanChangeSet.class)
+                .stream().map(MongoRanChangeSet.class::cast).collect(Collectors.toList());
+    }
+
+    /**
+     * Loads the history through the local snapshot: when the server fingerprint matches the snapshot nothing else is read,
+     * otherwise only the changeSets executed after the snapshot are fetched and merged.
+     * If the merged history still does not match the fingerprint, changeSets were removed or updated in place
+     * and the whole history is reloaded. The snapshot is rewritten whenever it was not up to date.
+     */
+    protected List<MongoRanChangeSet> querySnapshotRanChangeSets(final Path snapshotDirectory) throws DatabaseException {
+
+        final MongoHistorySnapshot snapshot = new MongoHistorySnapshot(
+                MongoHistorySnapshot.resolve(snapshotDirectory, getSnapshotName()),
+                getDatabaseChangeLogTableName(), getNoSqlDatabase().getHistoryReadProjection());
+        final MongoHistoryFingerprint fingerprint = getExecutor().queryForObject(
+                new GetHistoryFingerprintStatement(getDatabaseChangeLogTableName()), MongoHistoryFingerprint.class);
+
+        final List<MongoRanChangeSet> cached = readSnapshot(snapshot);
+        if (fingerprint.equals(MongoHistoryFingerprint.of(cached))) {
+            getLogger().fine("Loaded " + cached.size() + " ran changeSets from history snapshot " + snapshot.getFile());
+            return cached;
+        }
+
+        final MongoHistoryFingerprint cachedFingerprint = MongoHistoryFingerprint.of(cached);
+        List<MongoRanChangeSet> ranChangeSets = merge(cached, findRanChangeSets(
+                Filters.gt(MongoRanChangeSet.Fields.orderExecuted, cachedFingerprint.getMaxOrderExecuted())));
+        if (!fingerprint.equals(MongoHistoryFingerprint.of(ranChangeSets))) {
+            getLogger().info("History snapshot " + snapshot.getFile() + " is out of date, reloading the whole history");
+            ranChangeSets = findRanChangeSets(null);
+        }
+
+        try {
+            snapshot.write(ranChangeSets.stream().map(getConverter()::toDocument).collect(Collectors.toList()));
+        } catch (final IOException e) {
+            getLogger().warning("Could not write history snapshot " + snapshot.getFile(), e);
+        }
+        return ranChangeSets;
+    }
+
+    private List<MongoRanChangeSet> readSnapshot(final MongoHistorySnapshot snapshot) {
+        try {
+            return snapshot.read()
+                    .map(documents -> documents.stream().map(getConverter()::fromDocument).collect(Collectors.toList()))
+                    .orElseGet(ArrayList::new);
+        } catch (final IOException | RuntimeException e) {
+            getLogger().warning("Ignoring unreadable history snapshot " + snapshot.getFile(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Replaces the cached entries of re-run changeSets with the fetched ones and keeps the execution order.
+     */
+    protected static List<MongoRanChangeSet> merge(final List<MongoRanChangeSet> cached, final List<MongoRanChangeSet> fetched) {
+        final Map<List<String>, MongoRanChangeSet> merged = new LinkedHashMap<>();
+        for (final MongoRanChangeSet ranChangeSet : cached) {
+            merged.put(key(ranChangeSet), ranChangeSet);
+        }
+        for (final MongoRanChangeSet ranChangeSet : fetched) {
+            merged.remove(key(ranChangeSet));
+            merged.put(key(ranChangeSet), ranChangeSet);
+        }
+        final List<MongoRanChangeSet> ranChangeSets = new ArrayList<>(merged.values());
+        ranChangeSets.sort(Comparator.comparing(MongoRanChangeSet::getOrderExecuted, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return ranChangeSets;
+    }
+
+    private static List<String> key(final RanChangeSet ranChangeSet) {
+        return Arrays.asList(ranChangeSet.getChangeLog(), ranChangeSet.getId(), ranChangeSet.getAuthor());
+    }
+
+    /**
+     * One snapshot per database and collection, the hosts are hashed in so clusters sharing database names do not collide.
+     */
+    protected String getSnapshotName() throws DatabaseException {
+        return getDatabase().getConnection().getCatalog() + "." + getDatabaseChangeLogTableName() + "."
+                + MD5Util.computeMD5(getDatabase().getConnection().getURL()).substring(0, 8);
+    }
+
+    private Bson getHistoryReadProjection() {
+        return getNoSqlDatabase().getHistoryReadProjection() ? FindRanChangeSetsStatement.UPDATE_PROJECTION : null;
     }
 
     @Override
     protected Integer generateNextSequence() throws DatabaseException {
+        final MongoTrackingState state = getNoSqlDatabase().getTrackingState();
+        if (nonNull(state)) {
+            return (int) state.getMaxSequence();
+        }
         return (int) getExecutor().queryForLong(new GetMaxChangeSetSequenceStatement(getDatabaseChangeLogTableName()));
     }
 
+    /**
+     * The first allocation of a run raises the counter to the history maximum, read through the orderExecuted index,
+     * so values written meanwhile without the counter are skipped. The following ones only increment the counter.
+     */
+    @Override
+    protected Integer reserveSequenceValues(final int count) throws DatabaseException {
+        // concurrent lock scopes share the history, only the counter keeps their values unique
+        if (!getNoSqlDatabase().getHistorySequenceCounter() && isNull(getNoSqlDatabase().getLockScope())) {
+            return null;
+        }
+        final int lastReserved = (int) getExecutor().queryForLong(new AllocateChangeSetSequenceStatement(getSequenceCollectionName(),
+                getDatabaseChangeLogTableName(), count, !sequenceCounterSynchronized));
+        this.sequenceCounterSynchronized = true;
+        return lastReserved;
+    }
+
+    /**
+     * @return the collection holding the sequence counter of the history collection
+     */
+    public String getSequenceCollectionName() {
+        return getDatabaseChangeLogTableName() + SEQUENCE_COLLECTION_SUFFIX;
+    }
+
     @Override
     protected void markChangeSetRun(final ChangeSet changeSet, final ChangeSet.ExecType execType, final Integer nextSequenceValue)
             throws DatabaseException {
 
-        final String tag = extractTag(changeSet);
         final Date dateExecuted = new Date(getClock().instant().toEpochMilli());
 
         if (execType.ranBefore) {
-            final Bson filter = Filters.and(
-                    Filters.eq(MongoRanChangeSet.Fields.fileName, changeSet.getFilePath()),
-                    Filters.eq(MongoRanChangeSet.Fields.changeSetId, changeSet.getId()),
-                    Filters.eq(MongoRanChangeSet.Fields.author, changeSet.getAuthor())
-            );
-
-            final List<Bson> updates = new ArrayList<>();
-            updates.add(Updates.set(MongoRanChangeSet.Fields.dateExecuted, dateExecuted));
-            updates.add(Updates.set(MongoRanChangeSet.Fields.orderExecuted, nextSequenceValue));
-            updates.add(Updates.set(MongoRanChangeSet.Fields.md5sum, changeSet.generateCheckSum().toString()));
-            updates.add(Updates.set(MongoRanChangeSet.Fields.execType, execType.value));
-            updates.add(Updates.set(MongoRanChangeSet.Fields.deploymentId, getDeploymentId()));
-            if (nonNull(tag)) {
-                updates.add(Updates.set(MongoRanChangeSet.Fields.tag, tag));
+            getExecutor().update(new UpdateManyStatement(getDatabaseChangeLogTableName(), changeSetFilter(changeSet),
+                    markRunUpdate(changeSet, execType, nextSequenceValue, dateExecuted)));
+        } else {
+            getExecutor().execute(new InsertOneStatement(getDatabaseChangeLogTableName(),
+                    getConverter().toDocument(toRanChangeSet(changeSet, execType, nextSequenceValue, dateExecuted)), new Document()));
+        }
+    }
+
+    /**
+     * Sends the whole batch as one unordered {@link BulkWriteStatement}.
+     */
+    @Override
+    protected void markChangeSetsRun(final List<ChangeSet> changeSets, final ChangeSet.ExecType execType,
+                                     final Integer firstSequenceValue) throws DatabaseException {
+
+        final Date dateExecuted = new Date(getClock().instant().toEpochMilli());
+        final List<Document> operations = new ArrayList<>(changeSets.size());
+        int sequenceValue = firstSequenceValue;
+
+        for (final ChangeSet changeSet : changeSets) {
+            if (execType.ranBefore) {
+                operations.add(new Document(BulkWriteStatement.UPDATE_MANY,
+                        new Document(BulkWriteStatement.FILTER, changeSetFilter(changeSet))
+                                .append(BulkWriteStatement.UPDATE, markRunUpdate(changeSet, execType, sequenceValue++, dateExecuted))));
+            } else {
+                operations.add(new Document(BulkWriteStatement.INSERT_ONE, new Document(BulkWriteStatement.DOCUMENT,
+                        getConverter().toDocument(toRanChangeSet(changeSet, execType, sequenceValue++, dateExecuted)))));
             }
+        }
 
-            final Bson update = Updates.combine(updates);
-            getExecutor().update(new UpdateManyStatement(getDatabaseChangeLogTableName(), filter, update));
+        getExecutor().update(new BulkWriteStatement(getDatabaseChangeLogTableName(), operations,
+                new Document(BulkWriteStatement.ORDERED, false)));
+    }
 
-        } else {
+    protected Document changeSetFilter(final ChangeSet changeSet) {
+        return new Document(MongoRanChangeSet.Fields.fileName, changeSet.getFilePath())
+                .append(MongoRanChangeSet.Fields.changeSetId, changeSet.getId())
+                .append(MongoRanChangeSet.Fields.author, changeSet.getAuthor());
+    }
 
-            final MongoRanChangeSet insertRanChangeSet = new MongoRanChangeSet(
-                    changeSet.getFilePath()
-                    , changeSet.getId()
-                    , changeSet.getAuthor()
-                    , changeSet.generateCheckSum()
-                    , dateExecuted
-                    , tag
-                    , execType
-                    , changeSet.getDescription()
-                    , changeSet.getComments()
-                    , changeSet.getContexts()
-                    , changeSet.getInheritableContexts()
-                    , changeSet.getLabels()
-                    , getDeploymentId()
-                    , nextSequenceValue
-                    , LiquibaseUtil.getBuildVersion()
-            );
+    protected Document markRunUpdate(final ChangeSet changeSet, final ChangeSet.ExecType execType,
+                                     final Integer sequenceValue, final Date dateExecuted) {
+        final Document set = new Document(MongoRanChangeSet.Fields.dateExecuted, dateExecuted)
+                .append(MongoRanChangeSet.Fields.orderExecuted, sequenceValue)
+                .append(MongoRanChangeSet.Fields.md5sum, changeSet.generateCheckSum().toString())
+                .append(MongoRanChangeSet.Fields.execType, execType.value)
+                .append(MongoRanChangeSet.Fields.deploymentId, getDeploymentId());
+        ofNullable(extractTag(changeSet)).ifPresent(tag -> set.append(MongoRanChangeSet.Fields.tag, tag));
+        return new Document("$set", set);
+    }
 
-            getExecutor().execute(new InsertOneStatement(getDatabaseChangeLogTableName(),
-                    getConverter().toDocument(insertRanChangeSet), new Document()));
-        }
+    protected MongoRanChangeSet toRanChangeSet(final ChangeSet changeSet, final ChangeSet.ExecType execType,
+                                               final Integer sequenceValue, final Date dateExecuted) {
+        return new MongoRanChangeSet(
+                changeSet.getFilePath()
+                , changeSet.getId()
+                , changeSet.getAuthor()
+                , changeSet.generateCheckSum()
+                , dateExecuted
+                , extractTag(changeSet)
+                , execType
+                , changeSet.getDescription()
+                , changeSet.getComments()
+                , changeSet.getContexts()
+                , changeSet.getInheritableContexts()
+                , changeSet.getLabels()
+                , getDeploymentId()
+                , sequenceValue
+                , LiquibaseUtil.getBuildVersion()
+        );
     }
 
     //TODO: Raise with Liquibase to make it as part of ChangeSet class
@@ -209,6 +423,23 @@ public class MongoHistoryService extends AbstractNoSqlHistoryService<MongoLiquib
         getExecutor().update(new DeleteManyStatement(getDatabaseChangeLogTableName(), filter));
     }
 
+    /**
+     * Deletes the whole batch with one {@link DeleteManyStatement} matching any of the changeSets,
+     * each branch of the {@code $or} is resolved by the unique changeSet index.
+     */
+    @Override
+    protected void removeRanChangeSets(final List<ChangeSet> changeSets) throws DatabaseException {
+        if (changeSets.isEmpty()) {
+            return;
+        }
+        final List<Bson> filters = new ArrayList<>(changeSets.size());
+        for (final ChangeSet changeSet : changeSets) {
+            filters.add(changeSetFilter(changeSet));
+        }
+
+        getExecutor().update(new DeleteManyStatement(getDatabaseChangeLogTableName(), Filters.or(filters)));
+    }
+
     @Override
     protected void clearChekSums() throws DatabaseException {
         final Document filter = new Document();
@@ -217,11 +448,25 @@ public class MongoHistoryService extends AbstractNoSqlHistoryService<MongoLiquib
         getExecutor().update(new UpdateManyStatement(getDatabaseChangeLogTableName(), filter, update));
     }
 
+    /**
+     * Tags the last changeSet of the history, refused with a lock scope: the history is shared by all scopes,
+     * so the last changeSet may belong to another scope deploying concurrently. A tagDatabase change tags its own changeSet instead.
+     */
+    @Override
+    public void tag(final String tagString) throws DatabaseException {
+        final String lockScope = getNoSqlDatabase().getLockScope();
+        if (nonNull(lockScope)) {
+            throw new DatabaseException("Cannot tag the history shared by all lock scopes from lock scope " + lockScope
+                    + ", use a tagDatabase change in its changelog instead");
+        }
+        super.tag(tagString);
+    }
+
     @Override
     protected long countTags(final String tag) throws DatabaseException {
         final Bson filter = Filters.eq(MongoRanChangeSet.Fields.tag, tag);
         return getExecutor().queryForLong(
-                new CountDocumentsInCollectionStatement(getDatabaseChangeLogTableName(), filter));
+                new CountDocumentsInCollectionStatement(getDatabaseChangeLogTableName(), filter, MongoReadCategory.HISTORY, null));
     }
 
     @Override
@@ -235,7 +480,8 @@ public class MongoHistoryService extends AbstractNoSqlHistoryService<MongoLiquib
 
     @Override
     protected long countRanChangeSets() throws DatabaseException {
-        return getExecutor().queryForLong(new CountDocumentsInCollectionStatement(getDatabaseChangeLogTableName()));
+        return getExecutor().queryForLong(new CountDocumentsInCollectionStatement(getDatabaseChangeLogTableName(),
+                null, MongoReadCategory.HISTORY, null));
     }
 
     @Override
@@ -0,0 +1,146 @@
+package liquibase.ext.mongodb.changelog;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ext.mongodb.statement.BsonUtils;
+import lombok.Getter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Local copy of the history collection kept as a file of concatenated BSON documents.
+ * The first document is a header identifying the snapshot, the ran changeSets follow in execution order.
+ * A snapshot written for another collection, format or projection is ignored rather than trusted.
+ */
+@Getter
+public class MongoHistorySnapshot {
+
+    public static final int FORMAT_VERSION = 1;
+    public static final String FILE_EXTENSION = ".history.bson";
+
+    public static final String FORMAT = "format";
+    public static final String COLLECTION = "collection";
+    public static final String PROJECTED = "projected";
+
+    private final Path file;
+    private final Document header;
+
+    public MongoHistorySnapshot(final Path file, final String collectionName, final boolean projected) {
+        this.file = file;
+        this.header = new Document(FORMAT, FORMAT_VERSION)
+                .append(COLLECTION, collectionName)
+                .append(PROJECTED, projected);
+    }
+
+    /**
+     * @param directory the snapshot directory
+     * @param name      identifies the database and collection, characters not safe in file names are replaced
+     * @return the snapshot file
+     */
+    public static Path resolve(final Path directory, final String name) {
+        return directory.resolve(name.replaceAll("[^A-Za-z0-9._-]", "_") + FILE_EXTENSION);
+    }
+
+    /**
+     * @return the cached history documents or empty when there is no usable snapshot
+     * @throws IOException if the snapshot exists but cannot be read
+     */
+    public Optional<List<Document>> read() throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            final Document storedHeader = readDocument(input);
+            if (storedHeader == null || !header.equals(storedHeader)) {
+                return Optional.empty();
+            }
+            final List<Document> documents = new ArrayList<>();
+            Document document;
+            while ((document = readDocument(input)) != null) {
+                documents.add(document);
+            }
+            return Optional.of(documents);
+        }
+    }
+
+    /**
+     * Replaces the snapshot, writing to a temporary file first so a concurrent reader never sees a partial one.
+     *
+     * @param documents the history documents in execution order
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void write(final Collection<Document> documents) throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                writeDocument(output, header);
+                for (final Document document : documents) {
+                    writeDocument(output, document);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void writeDocument(final OutputStream output, final Document document) throws IOException {
+        final ByteBuffer buffer = BsonUtils.toRawDocument(document).getByteBuffer().asNIO();
+        output.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+
+    private static Document readDocument(final DataInputStream input) throws IOException {
+        final byte[] size = new byte[Integer.BYTES];
+        final int first = input.read();
+        if (first < 0) {
+            return null;
+        }
+        size[0] = (byte) first;
+        input.readFully(size, 1, Integer.BYTES - 1);
+        final int length = ByteBuffer.wrap(size).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        if (length < 5) {
+            throw new EOFException("Corrupted history snapshot, invalid document length " + length);
+        }
+        final byte[] bytes = new byte[length];
+        System.arraycopy(size, 0, bytes, 0, Integer.BYTES);
+        input.readFully(bytes, Integer.BYTES, length - Integer.BYTES);
+        return new RawBsonDocument(bytes).decode(BsonUtils.DOCUMENT_CODEC);
+    }
+}
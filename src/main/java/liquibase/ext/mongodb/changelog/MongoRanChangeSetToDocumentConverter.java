@@ -85,9 +85,12 @@ public class MongoRanChangeSetToDocumentConverter extends AbstractNoSqlItemToDoc
 
         StringBuilder contextExpressionString = new StringBuilder();
         boolean notFirstContext = false;
-        for (ContextExpression inheritableContext : inheritableContexts) {
-            appendContext(contextExpressionString, inheritableContext.toString(), notFirstContext);
-            notFirstContext = true;
+        // not parsed out of the documents read back
+        if (inheritableContexts != null) {
+            for (ContextExpression inheritableContext : inheritableContexts) {
+                appendContext(contextExpressionString, inheritableContext.toString(), notFirstContext);
+                notFirstContext = true;
+            }
         }
         appendContext(contextExpressionString, contextExpression.toString(), notFirstContext);
 
@@ -2,6 +2,7 @@ package liquibase.ext.mongodb.configuration;
 
 import liquibase.configuration.AbstractConfigurationContainer;
 
+import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
 
 public class MongoConfiguration extends AbstractConfigurationContainer {
@@ -10,6 +11,24 @@ public class MongoConfiguration extends AbstractConfigurationContainer {
     public static final String LIQUIBASE_MONGO_NAMESPACE = "liquibase.mongodb";
     public static final String ADJUST_TRACKING_TABLES_ON_STARTUP = "adjustTrackingTablesOnStartup";
     public static final String SUPPORTS_VALIDATOR = "supportsValidator";
+    public static final String INSERT_PARALLELISM = "insertParallelism";
+    public static final String COALESCE_STATEMENTS = "coalesceStatements";
+    public static final String MAX_IN_FLIGHT_STATEMENTS = "maxInFlightStatements";
+    public static final String HISTORY_READ_PROJECTION = "historyReadProjection";
+    public static final String HISTORY_READ_BATCH_SIZE = "historyReadBatchSize";
+    public static final String HISTORY_SNAPSHOT_DIRECTORY = "historySnapshotDirectory";
+    public static final String HISTORY_SEQUENCE_COUNTER = "historySequenceCounter";
+    public static final String READ_PREFERENCE = "readPreference";
+    public static final String HISTORY_READ_PREFERENCE = "historyReadPreference";
+    public static final String PRECONDITION_READ_PREFERENCE = "preconditionReadPreference";
+    public static final String READ_MAX_STALENESS_SECONDS = "readMaxStalenessSeconds";
+    public static final String READ_CONCERN = "readConcern";
+    public static final String LOCK_LEASE_SECONDS = "lockLeaseSeconds";
+    public static final String LOCK_SCOPE = "lockScope";
+    public static final String LOCK_AUDIT_COLLECTION = "lockAuditCollection";
+    public static final String LOCK_AUDIT_COLLECTION_SIZE = "lockAuditCollectionSize";
+
+    public static final long DEFAULT_LOCK_AUDIT_COLLECTION_SIZE = 16L * 1024 * 1024;
 
     public MongoConfiguration() {
         this(LIQUIBASE_MONGO_NAMESPACE);
@@ -34,6 +53,88 @@ public class MongoConfiguration extends AbstractConfigurationContainer {
                 .setDescription("Disabling this property will let create the Tracking Collections without validators." +
                         "This will permit usage on Mongo Versions not supporting Validators")
                 .setDefaultValue(TRUE);
+
+        getContainer().addProperty(INSERT_PARALLELISM, Integer.class)
+                .setDescription("Maximum number of batches of an unordered insert sent concurrently. " +
+                        "The default of 1 sends the batches one after another.")
+                .setDefaultValue(1);
+
+        getContainer().addProperty(COALESCE_STATEMENTS, Boolean.class)
+                .setDescription("Enabling this property will send consecutive insertOne and insertMany changes " +
+                        "into the same collection with the same options as a single insert command. " +
+                        "The buffered documents are sent before any other statement and at the end of each changeSet.")
+                .setDefaultValue(FALSE);
+
+        getContainer().addProperty(MAX_IN_FLIGHT_STATEMENTS, Integer.class)
+                .setDescription("Maximum number of insert, index and collection statements sent without waiting " +
+                        "for the previous ones to complete. Statements on the same collection keep their order. " +
+                        "The default of 1 executes every statement synchronously.")
+                .setDefaultValue(1);
+
+        getContainer().addProperty(HISTORY_READ_PROJECTION, Boolean.class)
+                .setDescription("Enabling this property will load only the history fields needed to decide which changeSets to run. " +
+                        "The description, comments and liquibase version of the ran changeSets are not loaded.")
+                .setDefaultValue(FALSE);
+
+        getContainer().addProperty(HISTORY_READ_BATCH_SIZE, Integer.class)
+                .setDescription("Number of history documents fetched per round trip while loading the ran changeSets. " +
+                        "The default of 0 lets the server decide.")
+                .setDefaultValue(0);
+
+        getContainer().addProperty(HISTORY_SNAPSHOT_DIRECTORY, String.class)
+                .setDescription("Directory keeping a local binary snapshot of the history collection. " +
+                        "On startup only the changeSets executed after the snapshot are fetched once a fingerprint of the collection has been verified. " +
+                        "Not set by default, which always loads the whole history.");
+
+        getContainer().addProperty(HISTORY_SEQUENCE_COUNTER, Boolean.class)
+                .setDescription("Allocate the orderExecuted sequence values with an atomic counter document instead of looking up the maximum in the history collection. " +
+                        "The first allocation of each run raises the counter to the maximum of the history, so it stays correct when other versions of the extension update the same history. " +
+                        "Disabled by default, which looks up the maximum once per run and allocates the following values locally.")
+                .setDefaultValue(FALSE);
+
+        getContainer().addProperty(READ_PREFERENCE, String.class)
+                .setDescription("Read preference of the read-only statements which may be served by secondaries, e.g. secondaryPreferred. " +
+                        "They run in a causally consistent session, so they never miss the writes of the run. " +
+                        "Not set by default, which reads from the primary.");
+
+        getContainer().addProperty(HISTORY_READ_PREFERENCE, String.class)
+                .setDescription("Read preference of the history collection reads, overriding readPreference.");
+
+        getContainer().addProperty(PRECONDITION_READ_PREFERENCE, String.class)
+                .setDescription("Read preference of the precondition reads, overriding readPreference. " +
+                        "A precondition may override it with its own readPreference attribute.");
+
+        getContainer().addProperty(READ_MAX_STALENESS_SECONDS, Long.class)
+                .setDescription("Maximum replication lag in seconds of the secondaries serving the routed reads, at least 90. " +
+                        "Not set by default, which does not limit the staleness.");
+
+        getContainer().addProperty(READ_CONCERN, String.class)
+                .setDescription("Read concern level of the routed reads, e.g. majority or local. " +
+                        "Not set by default, which uses the server default.");
+
+        getContainer().addProperty(LOCK_LEASE_SECONDS, Long.class)
+                .setDescription("Lease of the changelog lock in seconds, must be positive. " +
+                        "When set the lock carries an expiry renewed by a heartbeat while the holder is alive, " +
+                        "an expired lease is taken over by another process. " +
+                        "The lease is timed by the server clock, so the clocks of the processes do not need to agree. " +
+                        "Not set by default, which keeps the lock until released.");
+
+        getContainer().addProperty(LOCK_SCOPE, String.class)
+                .setDescription("Name of the changelog lock. " +
+                        "Processes with different scopes lock independently, so independent changelogs sharing the database can be deployed concurrently. " +
+                        "The history collection stays shared: it is created and adjusted under the single shared lock, " +
+                        "orderExecuted values are allocated with the history sequence counter and the tag command is refused. " +
+                        "Not set by default, which uses the single shared lock.");
+
+        getContainer().addProperty(LOCK_AUDIT_COLLECTION, String.class)
+                .setDescription("Name of a capped collection each lock acquisition, timeout and release is appended to, " +
+                        "with the attempts, wait and hold durations and the holder identity. " +
+                        "Not set by default, which disables the audit.");
+
+        getContainer().addProperty(LOCK_AUDIT_COLLECTION_SIZE, Long.class)
+                .setDescription("Size in bytes of the capped lock audit collection when it is created, the oldest events are overwritten beyond it. " +
+                        "16MB by default.")
+                .setDefaultValue(DEFAULT_LOCK_AUDIT_COLLECTION_SIZE);
     }
 
     /**
@@ -59,4 +160,196 @@ public class MongoConfiguration extends AbstractConfigurationContainer {
         getContainer().setValue(SUPPORTS_VALIDATOR, value);
         return this;
     }
+
+    /**
+     * Maximum number of batches of an unordered insertMany sent concurrently
+     */
+    public Integer getInsertParallelism() {
+        return getContainer().getValue(INSERT_PARALLELISM, Integer.class);
+    }
+
+    public MongoConfiguration setInsertParallelism(final Integer value) {
+        getContainer().setValue(INSERT_PARALLELISM, value);
+        return this;
+    }
+
+    /**
+     * Coalesce consecutive inserts into the same collection
+     */
+    public Boolean getCoalesceStatements() {
+        return getContainer().getValue(COALESCE_STATEMENTS, Boolean.class);
+    }
+
+    public MongoConfiguration setCoalesceStatements(final Boolean value) {
+        getContainer().setValue(COALESCE_STATEMENTS, value);
+        return this;
+    }
+
+    /**
+     * Maximum number of statements pipelined over the shared client
+     */
+    public Integer getMaxInFlightStatements() {
+        return getContainer().getValue(MAX_IN_FLIGHT_STATEMENTS, Integer.class);
+    }
+
+    public MongoConfiguration setMaxInFlightStatements(final Integer value) {
+        getContainer().setValue(MAX_IN_FLIGHT_STATEMENTS, value);
+        return this;
+    }
+
+    /**
+     * Load the history projected to the fields needed for update decisions
+     */
+    public Boolean getHistoryReadProjection() {
+        return getContainer().getValue(HISTORY_READ_PROJECTION, Boolean.class);
+    }
+
+    public MongoConfiguration setHistoryReadProjection(final Boolean value) {
+        getContainer().setValue(HISTORY_READ_PROJECTION, value);
+        return this;
+    }
+
+    /**
+     * Cursor batch size of the history load
+     */
+    public Integer getHistoryReadBatchSize() {
+        return getContainer().getValue(HISTORY_READ_BATCH_SIZE, Integer.class);
+    }
+
+    public MongoConfiguration setHistoryReadBatchSize(final Integer value) {
+        getContainer().setValue(HISTORY_READ_BATCH_SIZE, value);
+        return this;
+    }
+
+    /**
+     * Directory of the local history snapshot cache
+     */
+    public String getHistorySnapshotDirectory() {
+        return getContainer().getValue(HISTORY_SNAPSHOT_DIRECTORY, String.class);
+    }
+
+    public MongoConfiguration setHistorySnapshotDirectory(final String value) {
+        getContainer().setValue(HISTORY_SNAPSHOT_DIRECTORY, value);
+        return this;
+    }
+
+    /**
+     * Allocate history sequence values from a counter document
+     */
+    public Boolean getHistorySequenceCounter() {
+        return getContainer().getValue(HISTORY_SEQUENCE_COUNTER, Boolean.class);
+    }
+
+    public MongoConfiguration setHistorySequenceCounter(final Boolean value) {
+        getContainer().setValue(HISTORY_SEQUENCE_COUNTER, value);
+        return this;
+    }
+
+    /**
+     * Read preference of the routed read-only statements
+     */
+    public String getReadPreference() {
+        return getContainer().getValue(READ_PREFERENCE, String.class);
+    }
+
+    public MongoConfiguration setReadPreference(final String value) {
+        getContainer().setValue(READ_PREFERENCE, value);
+        return this;
+    }
+
+    /**
+     * Read preference of the history reads
+     */
+    public String getHistoryReadPreference() {
+        return getContainer().getValue(HISTORY_READ_PREFERENCE, String.class);
+    }
+
+    public MongoConfiguration setHistoryReadPreference(final String value) {
+        getContainer().setValue(HISTORY_READ_PREFERENCE, value);
+        return this;
+    }
+
+    /**
+     * Read preference of the precondition reads
+     */
+    public String getPreconditionReadPreference() {
+        return getContainer().getValue(PRECONDITION_READ_PREFERENCE, String.class);
+    }
+
+    public MongoConfiguration setPreconditionReadPreference(final String value) {
+        getContainer().setValue(PRECONDITION_READ_PREFERENCE, value);
+        return this;
+    }
+
+    /**
+     * Maximum staleness of the secondaries serving the routed reads
+     */
+    public Long getReadMaxStalenessSeconds() {
+        return getContainer().getValue(READ_MAX_STALENESS_SECONDS, Long.class);
+    }
+
+    public MongoConfiguration setReadMaxStalenessSeconds(final Long value) {
+        getContainer().setValue(READ_MAX_STALENESS_SECONDS, value);
+        return this;
+    }
+
+    /**
+     * Read concern level of the routed reads
+     */
+    public String getReadConcern() {
+        return getContainer().getValue(READ_CONCERN, String.class);
+    }
+
+    public MongoConfiguration setReadConcern(final String value) {
+        getContainer().setValue(READ_CONCERN, value);
+        return this;
+    }
+
+    /**
+     * Lease of the changelog lock in seconds
+     */
+    public Long getLockLeaseSeconds() {
+        return getContainer().getValue(LOCK_LEASE_SECONDS, Long.class);
+    }
+
+    public MongoConfiguration setLockLeaseSeconds(final Long value) {
+        getContainer().setValue(LOCK_LEASE_SECONDS, value);
+        return this;
+    }
+
+    /**
+     * Name of the changelog lock
+     */
+    public String getLockScope() {
+        return getContainer().getValue(LOCK_SCOPE, String.class);
+    }
+
+    public MongoConfiguration setLockScope(final String value) {
+        getContainer().setValue(LOCK_SCOPE, value);
+        return this;
+    }
+
+    /**
+     * Capped collection auditing the changelog lock
+     */
+    public String getLockAuditCollection() {
+        return getContainer().getValue(LOCK_AUDIT_COLLECTION, String.class);
+    }
+
+    public MongoConfiguration setLockAuditCollection(final String value) {
+        getContainer().setValue(LOCK_AUDIT_COLLECTION, value);
+        return this;
+    }
+
+    /**
+     * Size in bytes of the capped lock audit collection
+     */
+    public Long getLockAuditCollectionSize() {
+        return getContainer().getValue(LOCK_AUDIT_COLLECTION_SIZE, Long.class);
+    }
+
+    public MongoConfiguration setLockAuditCollectionSize(final Long value) {
+        getContainer().setValue(LOCK_AUDIT_COLLECTION_SIZE, value);
+        return this;
+    }
 }
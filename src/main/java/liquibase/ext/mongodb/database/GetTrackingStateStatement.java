@@ -0,0 +1,142 @@
+package liquibase.ext.mongodb.database;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.Filters;
+import liquibase.ext.mongodb.changelog.GetMaxChangeSetSequenceStatement;
+import liquibase.ext.mongodb.lockservice.MongoChangeLogLock;
+import liquibase.ext.mongodb.lockservice.MongoChangeLogLockToDocumentConverter;
+import liquibase.ext.mongodb.lockservice.SelectChangeLogLockStatement;
+import liquibase.ext.mongodb.statement.AbstractMongoStatement;
+import liquibase.ext.mongodb.statement.ListCollectionNamesStatement;
+import liquibase.nosql.statement.NoSqlQueryForObjectStatement;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.bson.Document;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Optional.ofNullable;
+import static liquibase.ext.mongodb.statement.AbstractRunCommandStatement.SHELL_DB_PREFIX;
+
+/**
+ * Reads the state of the tracking collections needed at startup with the queries issued concurrently:
+ * the existing tracking collections with one {@code listCollections} filtered by name,
+ * the lock entry with its fencing token, the recorded {@link MongoTrackingSchema} version and the max history sequence.
+ * Reading a not existing collection returns nothing, so none of the queries waits for another.
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class GetTrackingStateStatement extends AbstractMongoStatement
+        implements NoSqlQueryForObjectStatement<MongoLiquibaseDatabase> {
+
+    public static final String COMMAND_NAME = "trackingState";
+    public static final String IN = "$in";
+
+    private final String historyCollectionName;
+    private final String lockCollectionName;
+    private final String schemaCollectionName;
+    private final String lockScope;
+
+    public GetTrackingStateStatement(final String historyCollectionName, final String lockCollectionName,
+                                     final String schemaCollectionName) {
+        this(historyCollectionName, lockCollectionName, schemaCollectionName, null);
+    }
+
+    public GetTrackingStateStatement(final String historyCollectionName, final String lockCollectionName,
+                                     final String schemaCollectionName, final String lockScope) {
+        this.historyCollectionName = historyCollectionName;
+        this.lockCollectionName = lockCollectionName;
+        this.schemaCollectionName = schemaCollectionName;
+        this.lockScope = lockScope;
+    }
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public String toJs() {
+        return
+                SHELL_DB_PREFIX +
+                        getCommandName() +
+                        "(" +
+                        "\"" + historyCollectionName + "\", " +
+                        "\"" + lockCollectionName + "\", " +
+                        "\"" + schemaCollectionName + "\"" +
+                        ofNullable(lockScope).map(scope -> ", \"" + scope + "\"").orElse("") +
+                        ");";
+    }
+
+    @Override
+    public <T> T queryForObject(final MongoLiquibaseDatabase database, final Class<T> requiredType) {
+        final ExecutorService executor = Executors.newFixedThreadPool(4, r -> {
+            final Thread thread = new Thread(r, "liquibase-mongodb-bootstrap");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final Future<HashSet<String>> collectionNames = executor.submit(() -> new HashSet<>(
+                    new ListCollectionNamesStatement(new Document(ListCollectionNamesStatement.NAME,
+                            new Document(IN, Arrays.asList(historyCollectionName, lockCollectionName, schemaCollectionName))))
+                            .queryForList(database)));
+            final Future<Optional<MongoChangeLogLock>> lock = executor.submit(() -> ofNullable(
+                    new SelectChangeLogLockStatement(lockCollectionName, lockScope).queryForObject(database, Document.class))
+                    .map(new MongoChangeLogLockToDocumentConverter()::fromDocument));
+            final Future<String> schemaVersion = executor.submit(() -> ofNullable(
+                    database.getMongoDatabase().getCollection(schemaCollectionName)
+                            .find(Filters.eq(MongoTrackingSchema.ID, historyCollectionName)).first())
+                    .map(schema -> schema.getString(MongoTrackingSchema.VERSION)).orElse(null));
+            final Future<Long> maxSequence = executor.submit(() ->
+                    new GetMaxChangeSetSequenceStatement(historyCollectionName).queryForLong(database));
+
+            final Optional<MongoChangeLogLock> lockEntry = get(lock);
+            // an expired lease reads as free, by the server clock
+            final Boolean locked = lockEntry.map(MongoChangeLogLock::getLocked).orElse(null);
+            return requiredType.cast(new MongoTrackingState(get(collectionNames), locked, get(schemaVersion), get(maxSequence),
+                    lockEntry.map(MongoChangeLogLock::getFencingToken).orElse(null)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <V> V get(final Future<V> future) {
+        try {
+            return future.get();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MongoException("Could not read the tracking collections state", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MongoException("Interrupted while reading the tracking collections state", e);
+        }
+    }
+}
@@ -20,8 +20,10 @@ package liquibase.ext.mongodb.database;
  * #L%
  */
 
+import com.mongodb.ClientSessionOptions;
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoCredential;
+import com.mongodb.client.ClientSession;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoDatabase;
 import liquibase.exception.DatabaseException;
@@ -58,6 +60,39 @@ public class MongoConnection extends AbstractNoSqlConnection {
 
     protected MongoDatabase mongoDatabase;
 
+    protected MongoServerLimits serverLimits;
+
+    protected ClientSession readSession;
+
+    /**
+     * Whether statements were written since the {@link #readSession} last caught up with the primary.
+     */
+    protected boolean readSessionBehind = true;
+
+    /**
+     * Causally consistent session of the reads routed away from the primary, started on first use.
+     *
+     * @return the session
+     */
+    public ClientSession getReadSession() {
+        if (isNull(readSession)) {
+            readSession = mongoClient.startSession(ClientSessionOptions.builder().causallyConsistent(true).build());
+        }
+        return readSession;
+    }
+
+    /**
+     * Wire limits of the server, queried on first use and kept for the lifetime of the connection.
+     *
+     * @return the server limits
+     */
+    public MongoServerLimits getServerLimits() {
+        if (isNull(serverLimits)) {
+            serverLimits = MongoServerLimits.query(mongoDatabase);
+        }
+        return serverLimits;
+    }
+
     @Override
     public String getCatalog() throws DatabaseException {
         try {
@@ -129,8 +164,13 @@ public class MongoConnection extends AbstractNoSqlConnection {
     public void close() throws DatabaseException {
         try {
             if (!isClosed()) {
+                if (nonNull(readSession)) {
+                    readSession.close();
+                    readSession = null;
+                }
                 mongoClient.close();
                 mongoClient = null;
+                serverLimits = null;
             }
         } catch (final Exception e) {
             throw new DatabaseException(e);
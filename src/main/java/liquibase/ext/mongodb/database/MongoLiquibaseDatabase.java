@@ -20,6 +20,10 @@ package liquibase.ext.mongodb.database;
  * #L%
  */
 
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.ClientSession;
 import com.mongodb.client.MongoDatabase;
 import liquibase.CatalogAndSchema;
 import liquibase.Scope;
@@ -32,8 +36,16 @@ import liquibase.ext.mongodb.configuration.MongoConfiguration;
 import liquibase.ext.mongodb.statement.DropAllCollectionsStatement;
 import liquibase.nosql.database.AbstractNoSqlDatabase;
 import lombok.NoArgsConstructor;
+import lombok.Getter;
 import lombok.Setter;
+import org.bson.Document;
 
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Optional.ofNullable;
 import static liquibase.nosql.executor.NoSqlExecutor.EXECUTOR_NAME;
 
 @NoArgsConstructor
@@ -42,6 +54,7 @@ public class MongoLiquibaseDatabase extends AbstractNoSqlDatabase {
     public static final String MONGODB_PRODUCT_NAME = "MongoDB";
     public static final String MONGODB_PRODUCT_SHORT_NAME = "mongodb";
     public static final String ADMIN_DATABSE_NAME = "admin";
+    public static final String PING = "ping";
 
     @Setter
     private Boolean adjustTrackingTablesOnStartup;
@@ -49,6 +62,72 @@ public class MongoLiquibaseDatabase extends AbstractNoSqlDatabase {
     @Setter
     private Boolean supportsValidator;
 
+    @Setter
+    private Integer insertParallelism;
+
+    @Setter
+    private Boolean coalesceStatements;
+
+    @Setter
+    private Integer maxInFlightStatements;
+
+    @Setter
+    private Boolean historyReadProjection;
+
+    @Setter
+    private Integer historyReadBatchSize;
+
+    @Setter
+    private String historySnapshotDirectory;
+
+    @Setter
+    private Boolean historySequenceCounter;
+
+    /**
+     * Whether the tracking collections match the running definitions, looked up once per database.
+     *
+     * @see MongoTrackingSchema
+     */
+    @Getter
+    @Setter
+    private Boolean trackingSchemaCurrent;
+
+    /**
+     * Snapshot of the tracking collections shared by the history and lock services while starting up.
+     *
+     * @see MongoTrackingState
+     */
+    @Getter
+    @Setter
+    private MongoTrackingState trackingState;
+
+    @Setter
+    private String readPreference;
+
+    @Setter
+    private String historyReadPreference;
+
+    @Setter
+    private String preconditionReadPreference;
+
+    @Setter
+    private Long readMaxStalenessSeconds;
+
+    @Setter
+    private String readConcern;
+
+    @Setter
+    private Long lockLeaseSeconds;
+
+    @Setter
+    private String lockScope;
+
+    @Setter
+    private String lockAuditCollection;
+
+    @Setter
+    private Long lockAuditCollectionSize;
+
     @Override
     public void dropDatabaseObjects(final CatalogAndSchema schemaToDrop) throws LiquibaseException {
         final Executor executor = Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor(EXECUTOR_NAME, this);
@@ -69,6 +148,74 @@ public class MongoLiquibaseDatabase extends AbstractNoSqlDatabase {
         return ((MongoConnection) getConnection()).getMongoDatabase();
     }
 
+    public MongoReadRoute getReadRoute(final MongoReadCategory category) {
+        return getReadRoute(category, null);
+    }
+
+    /**
+     * Routes a read-only statement with the read preference of its category, falling back to {@link #getReadPreference()}.
+     * Routed reads run in the causally consistent read session of the connection. After statements were written
+     * the session first catches up with the operation time of the primary, so secondaries serve the reads
+     * only once they replicated the writes of this run.
+     *
+     * @param category       the category of the statement
+     * @param readPreference read preference overriding the one of the category, e.g. of a single precondition, or null
+     * @return the route of the statement, the primary without a session when no routing is configured
+     */
+    public MongoReadRoute getReadRoute(final MongoReadCategory category, final String readPreference) {
+        final String readPreferenceName = ofNullable(readPreference)
+                .orElseGet(() -> ofNullable(getCategoryReadPreference(category)).orElseGet(this::getReadPreference));
+        final String readConcernLevel = getReadConcern();
+        if (isNull(readPreferenceName) && isNull(readConcernLevel)) {
+            return new MongoReadRoute(getMongoDatabase(), null);
+        }
+
+        MongoDatabase routed = getMongoDatabase();
+        if (nonNull(readPreferenceName)) {
+            routed = routed.withReadPreference(toReadPreference(readPreferenceName, getReadMaxStalenessSeconds()));
+        }
+        if (nonNull(readConcernLevel)) {
+            routed = routed.withReadConcern(new ReadConcern(ReadConcernLevel.fromString(readConcernLevel)));
+        }
+
+        final MongoConnection connection = (MongoConnection) getConnection();
+        final ClientSession session = connection.getReadSession();
+        if (connection.isReadSessionBehind()) {
+            getMongoDatabase().runCommand(session, new Document(PING, 1), ReadPreference.primary());
+            connection.setReadSessionBehind(false);
+        }
+        return new MongoReadRoute(routed, session);
+    }
+
+    private String getCategoryReadPreference(final MongoReadCategory category) {
+        switch (category) {
+            case HISTORY:
+                return getHistoryReadPreference();
+            case PRECONDITION:
+                return getPreconditionReadPreference();
+            default:
+                return null;
+        }
+    }
+
+    static ReadPreference toReadPreference(final String name, final Long maxStalenessSeconds) {
+        if (isNull(maxStalenessSeconds) || ReadPreference.primary().getName().equalsIgnoreCase(name)) {
+            return ReadPreference.valueOf(name);
+        }
+        return ReadPreference.valueOf(name, Collections.emptyList(), maxStalenessSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The routed reads of the next statements first catch up with these writes.
+     */
+    @Override
+    public void afterWrite() {
+        super.afterWrite();
+        if (getConnection() instanceof MongoConnection) {
+            ((MongoConnection) getConnection()).setReadSessionBehind(true);
+        }
+    }
+
     @Override
     public String getDatabaseProductName() {
         return MONGODB_PRODUCT_NAME;
@@ -121,5 +268,151 @@ public class MongoLiquibaseDatabase extends AbstractNoSqlDatabase {
                 .getSupportsValidator();
     }
 
+    public Integer getInsertParallelism() {
+        if (insertParallelism != null) {
+            return insertParallelism;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getInsertParallelism();
+    }
+
+    @Override
+    public Boolean getCoalesceStatements() {
+        if (coalesceStatements != null) {
+            return coalesceStatements;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getCoalesceStatements();
+    }
+
+    @Override
+    public Integer getMaxInFlightStatements() {
+        if (maxInFlightStatements != null) {
+            return maxInFlightStatements;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getMaxInFlightStatements();
+    }
+
+    public Boolean getHistoryReadProjection() {
+        if (historyReadProjection != null) {
+            return historyReadProjection;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getHistoryReadProjection();
+    }
+
+    public Integer getHistoryReadBatchSize() {
+        if (historyReadBatchSize != null) {
+            return historyReadBatchSize;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getHistoryReadBatchSize();
+    }
+
+    public String getHistorySnapshotDirectory() {
+        if (historySnapshotDirectory != null) {
+            return historySnapshotDirectory;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getHistorySnapshotDirectory();
+    }
+
+    public Boolean getHistorySequenceCounter() {
+        if (historySequenceCounter != null) {
+            return historySequenceCounter;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getHistorySequenceCounter();
+    }
+
+    public String getReadPreference() {
+        if (readPreference != null) {
+            return readPreference;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getReadPreference();
+    }
+
+    public String getHistoryReadPreference() {
+        if (historyReadPreference != null) {
+            return historyReadPreference;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getHistoryReadPreference();
+    }
+
+    public String getPreconditionReadPreference() {
+        if (preconditionReadPreference != null) {
+            return preconditionReadPreference;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getPreconditionReadPreference();
+    }
+
+    public Long getReadMaxStalenessSeconds() {
+        if (readMaxStalenessSeconds != null) {
+            return readMaxStalenessSeconds;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getReadMaxStalenessSeconds();
+    }
+
+    public String getReadConcern() {
+        if (readConcern != null) {
+            return readConcern;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getReadConcern();
+    }
+
+    public Long getLockLeaseSeconds() {
+        if (lockLeaseSeconds != null) {
+            return lockLeaseSeconds;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getLockLeaseSeconds();
+    }
+
+    public String getLockScope() {
+        if (lockScope != null) {
+            return lockScope;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getLockScope();
+    }
+
+    public String getLockAuditCollection() {
+        if (lockAuditCollection != null) {
+            return lockAuditCollection;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getLockAuditCollection();
+    }
+
+    public Long getLockAuditCollectionSize() {
+        if (lockAuditCollectionSize != null) {
+            return lockAuditCollectionSize;
+        }
+
+        return LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class)
+                .getLockAuditCollectionSize();
+    }
+
 
 }
@@ -0,0 +1,42 @@
+package liquibase.ext.mongodb.database;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Categories of read-only statements which may be routed away from the primary,
+ * each with its own read preference falling back to the common one.
+ *
+ * @see MongoLiquibaseDatabase#getReadRoute(MongoReadCategory, String)
+ */
+public enum MongoReadCategory {
+    /**
+     * Reads of the history collection.
+     */
+    HISTORY,
+    /**
+     * Reads of the preconditions.
+     */
+    PRECONDITION,
+    /**
+     * Collection existence checks.
+     */
+    METADATA
+}
@@ -0,0 +1,75 @@
+package liquibase.ext.mongodb.database;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoDatabase;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.List;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Database to send a read-only statement to, with the read preference and read concern of its category applied.
+ * Routed reads run in the causally consistent read session of the connection, reads served by the primary without one.
+ */
+@Getter
+@AllArgsConstructor
+public class MongoReadRoute {
+
+    private final MongoDatabase mongoDatabase;
+    private final ClientSession session;
+
+    public FindIterable<Document> find(final String collectionName, final Bson filter) {
+        return isNull(session)
+                ? mongoDatabase.getCollection(collectionName).find(filter)
+                : mongoDatabase.getCollection(collectionName).find(session, filter);
+    }
+
+    public long countDocuments(final String collectionName, final Bson filter) {
+        final Bson countFilter = isNull(filter) ? new Document() : filter;
+        return isNull(session)
+                ? mongoDatabase.getCollection(collectionName).countDocuments(countFilter)
+                : mongoDatabase.getCollection(collectionName).countDocuments(session, countFilter);
+    }
+
+    public AggregateIterable<Document> aggregate(final String collectionName, final List<? extends Bson> pipeline) {
+        return isNull(session)
+                ? mongoDatabase.getCollection(collectionName).aggregate(pipeline)
+                : mongoDatabase.getCollection(collectionName).aggregate(session, pipeline);
+    }
+
+    /**
+     * The command is sent with the read preference of the route, commands run through
+     * {@link MongoDatabase#runCommand(Bson)} otherwise always go to the primary.
+     */
+    public Document runCommand(final Bson command) {
+        return isNull(session)
+                ? mongoDatabase.runCommand(command)
+                : mongoDatabase.runCommand(session, command, mongoDatabase.getReadPreference());
+    }
+}
@@ -0,0 +1,98 @@
+package liquibase.ext.mongodb.database;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoDatabase;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.bson.Document;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Wire limits advertised by the server in the handshake response.
+ * Used to split large write commands into batches the server accepts.
+ *
+ * @see <a href="https://docs.mongodb.com/manual/reference/command/hello/">hello</a>
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class MongoServerLimits {
+
+    public static final String HELLO = "hello";
+    public static final String IS_MASTER = "isMaster";
+    public static final String MAX_BSON_OBJECT_SIZE = "maxBsonObjectSize";
+    public static final String MAX_MESSAGE_SIZE_BYTES = "maxMessageSizeBytes";
+    public static final String MAX_WRITE_BATCH_SIZE = "maxWriteBatchSize";
+
+    public static final int DEFAULT_MAX_BSON_OBJECT_SIZE = 16 * 1024 * 1024;
+    public static final int DEFAULT_MAX_MESSAGE_SIZE_BYTES = 48000000;
+    public static final int DEFAULT_MAX_WRITE_BATCH_SIZE = 100000;
+
+    public static final MongoServerLimits DEFAULT = new MongoServerLimits(
+            DEFAULT_MAX_BSON_OBJECT_SIZE, DEFAULT_MAX_MESSAGE_SIZE_BYTES, DEFAULT_MAX_WRITE_BATCH_SIZE);
+
+    private final int maxBsonObjectSize;
+    private final int maxMessageSizeBytes;
+    private final int maxWriteBatchSize;
+
+    /**
+     * A command sent through runCommand is a single BSON document, so the documents carried by it
+     * are bound by the smaller of the object and message size limits.
+     *
+     * @return maximum number of bytes of the documents sent in one write command
+     */
+    public int getMaxBatchBytes() {
+        return Math.min(maxBsonObjectSize, maxMessageSizeBytes);
+    }
+
+    public static MongoServerLimits fromResponse(final Document response) {
+        return new MongoServerLimits(
+                getInt(response, MAX_BSON_OBJECT_SIZE, DEFAULT_MAX_BSON_OBJECT_SIZE),
+                getInt(response, MAX_MESSAGE_SIZE_BYTES, DEFAULT_MAX_MESSAGE_SIZE_BYTES),
+                getInt(response, MAX_WRITE_BATCH_SIZE, DEFAULT_MAX_WRITE_BATCH_SIZE));
+    }
+
+    /**
+     * Queries the limits with {@code hello}, falling back to {@code isMaster} for servers not supporting it yet.
+     *
+     * @param mongoDatabase the database to run the handshake command against
+     * @return the limits reported by the server
+     */
+    public static MongoServerLimits query(final MongoDatabase mongoDatabase) {
+        Document response;
+        try {
+            response = mongoDatabase.runCommand(new Document(HELLO, 1));
+        } catch (final MongoCommandException e) {
+            response = mongoDatabase.runCommand(new Document(IS_MASTER, 1));
+        }
+        return fromResponse(response);
+    }
+
+    private static int getInt(final Document response, final String key, final int defaultValue) {
+        return ofNullable(response.get(key, Number.class)).map(Number::intValue).orElse(defaultValue);
+    }
+}
@@ -0,0 +1,127 @@
+package liquibase.ext.mongodb.database;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.mongodb.changelog.AdjustChangeLogCollectionStatement;
+import liquibase.ext.mongodb.changelog.CreateChangeLogCollectionStatement;
+import liquibase.ext.mongodb.lockservice.CreateChangeLogLockCollectionStatement;
+import liquibase.ext.mongodb.statement.DeleteManyStatement;
+import liquibase.ext.mongodb.statement.FindOneAndUpdateStatement;
+import liquibase.nosql.executor.NoSqlExecutor;
+import liquibase.util.LiquibaseUtil;
+import liquibase.util.MD5Util;
+import lombok.Getter;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static java.util.Objects.isNull;
+
+/**
+ * Version of the tracking collections definitions recorded once they were created and adjusted,
+ * so later runs skip listing the collections, their indexes and rewriting the validators while it matches.
+ * The version is a hash of the validators, the supporting indexes and the settings they depend on,
+ * any change of them in a new release or configuration leads to a full adjustment.
+ */
+@Getter
+public class MongoTrackingSchema {
+
+    public static final String COLLECTION_SUFFIX = "_SCHEMA";
+    public static final String ID = "_id";
+    public static final String VERSION = "version";
+    public static final String LOCK_COLLECTION = "lockCollection";
+    public static final String DATE_ADJUSTED = "dateAdjusted";
+    public static final String LIQUIBASE = "liquibase";
+    public static final String UPSERT = "upsert";
+    public static final String SET = "$set";
+
+    private final String collectionName;
+    private final String historyCollectionName;
+    private final String lockCollectionName;
+    private final String version;
+
+    public MongoTrackingSchema(final MongoLiquibaseDatabase database) {
+        this.historyCollectionName = database.getDatabaseChangeLogTableName();
+        this.lockCollectionName = database.getDatabaseChangeLogLockTableName();
+        this.collectionName = historyCollectionName + COLLECTION_SUFFIX;
+        this.version = computeVersion(historyCollectionName, lockCollectionName, database.getSupportsValidator());
+    }
+
+    /**
+     * Looks the version up in the startup {@link MongoTrackingState}, once per database.
+     *
+     * @param database the database
+     * @param executor the executor of the database
+     * @return true when the tracking collections were adjusted to the current definitions
+     * @throws DatabaseException in case of a failure
+     */
+    public static boolean isCurrent(final MongoLiquibaseDatabase database, final NoSqlExecutor executor) throws DatabaseException {
+        if (isNull(database.getTrackingSchemaCurrent())) {
+            final MongoTrackingSchema schema = new MongoTrackingSchema(database);
+            database.setTrackingSchemaCurrent(schema.getVersion()
+                    .equals(MongoTrackingState.bootstrap(database, executor).getSchemaVersion()));
+        }
+        return database.getTrackingSchemaCurrent();
+    }
+
+    /**
+     * Records the current version after both tracking collections were adjusted.
+     */
+    public static void markCurrent(final MongoLiquibaseDatabase database, final NoSqlExecutor executor) throws DatabaseException {
+        final MongoTrackingSchema schema = new MongoTrackingSchema(database);
+        executor.update(new FindOneAndUpdateStatement(schema.getCollectionName(),
+                new Document(FindOneAndUpdateStatement.QUERY, new Document(ID, schema.getHistoryCollectionName()))
+                        .append(FindOneAndUpdateStatement.UPDATE, new Document(SET, new Document(VERSION, schema.getVersion())
+                                .append(LOCK_COLLECTION, schema.getLockCollectionName())
+                                .append(DATE_ADJUSTED, new Date())
+                                .append(LIQUIBASE, LiquibaseUtil.getBuildVersion())))
+                        .append(UPSERT, true)));
+        database.setTrackingSchemaCurrent(TRUE);
+    }
+
+    /**
+     * Forgets the version when a tracking collection is dropped.
+     */
+    public static void remove(final MongoLiquibaseDatabase database, final NoSqlExecutor executor) throws DatabaseException {
+        final MongoTrackingSchema schema = new MongoTrackingSchema(database);
+        executor.update(new DeleteManyStatement(schema.getCollectionName(), Filters.eq(ID, schema.getHistoryCollectionName())));
+        database.setTrackingSchemaCurrent(FALSE);
+    }
+
+    static String computeVersion(final String historyCollectionName, final String lockCollectionName, final boolean supportsValidator) {
+        final List<String> definitions = new ArrayList<>();
+        definitions.add(CreateChangeLogCollectionStatement.VALIDATOR);
+        definitions.add(CreateChangeLogLockCollectionStatement.VALIDATOR);
+        for (final IndexModel index : AdjustChangeLogCollectionStatement.supportingIndexes(historyCollectionName)) {
+            definitions.add(index.getOptions().getName() + index.getKeys().toBsonDocument().toJson() + index.getOptions().isUnique());
+        }
+        definitions.add(lockCollectionName);
+        definitions.add(String.valueOf(supportsValidator));
+        return MD5Util.computeMD5(String.join("\n", definitions));
+    }
+}
@@ -0,0 +1,122 @@
+package liquibase.ext.mongodb.database;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.exception.DatabaseException;
+import liquibase.nosql.executor.NoSqlExecutor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static java.lang.Boolean.TRUE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Snapshot of the tracking collections taken in a single concurrent round trip at startup,
+ * the history and lock services are initialised from it instead of querying one after another.
+ * It is discarded as soon as a tracking collection is created or dropped, when another process holds the lock,
+ * when another process took the lock between the snapshot and our acquisition, and when the lock is released.
+ *
+ * @see GetTrackingStateStatement
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class MongoTrackingState {
+
+    private final Set<String> collectionNames;
+    private final Boolean locked;
+    private final String schemaVersion;
+    private final long maxSequence;
+    /**
+     * Fencing token of the lock entry when the snapshot was taken, null without lock entry
+     */
+    private final Long fencingToken;
+    @EqualsAndHashCode.Exclude
+    private boolean lockTaken;
+
+    public MongoTrackingState(final Set<String> collectionNames, final Boolean locked, final String schemaVersion,
+                              final long maxSequence, final Long fencingToken) {
+        this.collectionNames = collectionNames;
+        this.locked = locked;
+        this.schemaVersion = schemaVersion;
+        this.maxSequence = maxSequence;
+        this.fencingToken = fencingToken;
+    }
+
+    public MongoTrackingState(final Set<String> collectionNames, final Boolean locked, final String schemaVersion,
+                              final long maxSequence) {
+        this(collectionNames, locked, schemaVersion, maxSequence, null);
+    }
+
+    public boolean exists(final String collectionName) {
+        return collectionNames.contains(collectionName);
+    }
+
+    /**
+     * The lock entry may change any time, so it is answered once only, right after the snapshot was taken.
+     *
+     * @return the lock state or empty if already taken
+     */
+    public Optional<Boolean> takeLocked() {
+        if (lockTaken) {
+            return Optional.empty();
+        }
+        lockTaken = true;
+        return Optional.of(TRUE.equals(locked));
+    }
+
+    /**
+     * Every acquisition increments the fencing token, so the lock was not taken by anyone else since the snapshot
+     * only when ours is the next one. Otherwise the tracking collections, e.g. the max sequence, may have changed meanwhile.
+     *
+     * @param acquiredFencingToken the fencing token of our acquisition
+     * @return true when the snapshot is still current under the acquired lock
+     */
+    public boolean isCurrentFor(final Long acquiredFencingToken) {
+        return nonNull(acquiredFencingToken) && acquiredFencingToken == (isNull(fencingToken) ? 1L : fencingToken + 1L);
+    }
+
+    /**
+     * Takes the snapshot once per database, later calls return the cached one until it is discarded.
+     *
+     * @param database the database
+     * @param executor the executor of the database
+     * @return the snapshot of the tracking collections
+     * @throws DatabaseException in case of a failure
+     */
+    public static MongoTrackingState bootstrap(final MongoLiquibaseDatabase database, final NoSqlExecutor executor) throws DatabaseException {
+        if (isNull(database.getTrackingState())) {
+            final MongoTrackingSchema schema = new MongoTrackingSchema(database);
+            database.setTrackingState(executor.queryForObject(new GetTrackingStateStatement(schema.getHistoryCollectionName(),
+                    schema.getLockCollectionName(), schema.getCollectionName(), database.getLockScope()), MongoTrackingState.class));
+        }
+        return database.getTrackingState();
+    }
+
+    public static void discard(final MongoLiquibaseDatabase database) {
+        database.setTrackingState(null);
+    }
+}
@@ -0,0 +1,153 @@
+package liquibase.ext.mongodb.lockservice;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoServerException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.statement.AbstractCollectionStatement;
+import liquibase.nosql.statement.NoSqlQueryForObjectStatement;
+import lombok.Getter;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+import static java.util.Optional.ofNullable;
+import static liquibase.ext.mongodb.statement.AbstractRunCommandStatement.SHELL_DB_PREFIX;
+
+/**
+ * Takes the lock in one round trip: a conditional upsert matching the lock only when it is free or its lease expired,
+ * so of concurrent processes exactly one wins. The fencing token is incremented on every acquisition and identifies the owner.
+ * When the lock is held the upsert collides on the lock id, which is reported as null instead of an error.
+ * Without a lease duration the lock is held until released.
+ * <p>
+ * Lease expiry is set and compared by the server clock with an update pipeline, so the clocks of the processes
+ * sharing the lock do not need to agree. Requires MongoDB 4.2 or later.
+ */
+@Getter
+public class AcquireChangeLogLockStatement extends AbstractCollectionStatement
+        implements NoSqlQueryForObjectStatement<MongoLiquibaseDatabase> {
+
+    public static final String COMMAND_NAME = "acquireLock";
+
+    /**
+     * Current time of the server evaluating the statement
+     */
+    public static final String SERVER_TIME = "$$NOW";
+
+    /**
+     * Lease duration in milliseconds, null to hold the lock until released
+     */
+    private final Long leaseMillis;
+
+    /**
+     * Scope of the lock, null for the single shared lock
+     */
+    private final String scope;
+
+    public AcquireChangeLogLockStatement(final String collectionName, final Long leaseMillis) {
+        this(collectionName, leaseMillis, null);
+    }
+
+    public AcquireChangeLogLockStatement(final String collectionName, final Long leaseMillis, final String scope) {
+        super(collectionName);
+        this.leaseMillis = leaseMillis;
+        this.scope = scope;
+    }
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public String toJs() {
+        return SHELL_DB_PREFIX +
+                getCollectionName() +
+                "." +
+                getCommandName() +
+                "(" +
+                ofNullable(leaseMillis).map(String::valueOf).orElse("") +
+                ");";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T queryForObject(final MongoLiquibaseDatabase database, final Class<T> requiredType) {
+        final Document filter = new Document(MongoChangeLogLock.Fields.id, MongoChangeLogLock.lockId(scope))
+                .append("$or", Arrays.asList(
+                        Filters.eq(MongoChangeLogLock.Fields.locked, false),
+                        // a lock without lease never expires, $lte alone would match the missing field
+                        Filters.and(Filters.type(MongoChangeLogLock.Fields.leaseExpires, BsonType.DATE_TIME),
+                                Filters.expr(new Document("$lte",
+                                        Arrays.asList("$" + MongoChangeLogLock.Fields.leaseExpires, SERVER_TIME))))));
+        final Document set = new Document()
+                .append(MongoChangeLogLock.Fields.locked, literal(true))
+                .append(MongoChangeLogLock.Fields.lockGranted, SERVER_TIME)
+                .append(MongoChangeLogLock.Fields.lockedBy, literal(MongoChangeLogLock.formLockedBy()))
+                .append(MongoChangeLogLock.Fields.fencingToken, new Document("$add", Arrays.asList(
+                        new Document("$ifNull", Arrays.asList("$" + MongoChangeLogLock.Fields.fencingToken, 0L)), 1L)));
+        final List<Bson> update = new ArrayList<>();
+        update.add(new Document("$set", set));
+        if (isNull(leaseMillis)) {
+            update.add(new Document("$unset", MongoChangeLogLock.Fields.leaseExpires));
+        } else {
+            set.append(MongoChangeLogLock.Fields.leaseExpires, expiresIn(leaseMillis));
+        }
+        try {
+            return (T) database.getMongoDatabase().getCollection(getCollectionName())
+                    .findOneAndUpdate(filter, update,
+                            new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        } catch (final MongoWriteException | MongoCommandException e) {
+            if (isDuplicateKey(e)) {
+                // the lock is held by another process
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param leaseMillis the lease duration in milliseconds
+     * @return the expression of the lease expiry by the server clock
+     */
+    public static Document expiresIn(final long leaseMillis) {
+        return new Document("$add", Arrays.asList(SERVER_TIME, leaseMillis));
+    }
+
+    private static Document literal(final Object value) {
+        return new Document("$literal", value);
+    }
+
+    private static boolean isDuplicateKey(final MongoServerException e) {
+        return ErrorCategory.fromErrorCode(e.getCode()) == ErrorCategory.DUPLICATE_KEY;
+    }
+}
@@ -26,6 +26,7 @@ import lombok.Getter;
 import org.bson.Document;
 
 import static java.util.Optional.ofNullable;
+import static liquibase.nosql.executor.NoSqlStatementEvent.UNKNOWN_DOCUMENTS;
 
 public class AdjustChangeLogLockCollectionStatement extends RunCommandStatement {
 
@@ -47,10 +48,11 @@ public class AdjustChangeLogLockCollectionStatement extends RunCommandStatement
     }
 
     @Override
-    public void execute(final MongoLiquibaseDatabase database) {
+    public long executeForCount(final MongoLiquibaseDatabase database) {
         if(database.getSupportsValidator()) {
-            super.execute(database);
+            super.executeForCount(database);
         }
+        return UNKNOWN_DOCUMENTS;
     }
 
     @Override
@@ -0,0 +1,94 @@
+package liquibase.ext.mongodb.lockservice;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static java.util.Objects.nonNull;
+
+/**
+ * Change stream on the lock collection, used to retry the lock acquisition as soon as the lock document changes
+ * instead of polling. Opening it fails on servers not supporting change streams, e.g. standalone ones.
+ *
+ * @see <a href="https://docs.mongodb.com/manual/changeStreams/">Change Streams</a>
+ */
+public class ChangeLogLockWatch implements Closeable {
+
+    public static final long MAX_AWAIT_MILLIS = 1000L;
+
+    private static final String DOCUMENT_KEY_ID = "documentKey._id";
+    private static final String OPERATION_TYPE = "operationType";
+    private static final String UPDATED_LOCKED = "updateDescription.updatedFields." + MongoChangeLogLock.Fields.locked;
+
+    private final MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    public ChangeLogLockWatch(final MongoDatabase mongoDatabase, final String collectionName, final String scope) {
+        this.cursor = mongoDatabase.getCollection(collectionName).watch(pipeline(scope))
+                .maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS).cursor();
+    }
+
+    /**
+     * Only the lock document of the scope is watched, and only the changes which may free it:
+     * heartbeats renewing a lease and the locks of other scopes do not wake up the waiting process.
+     *
+     * @param scope the lock scope, may be null
+     * @return the pipeline filtering the change events
+     */
+    public static List<Bson> pipeline(final String scope) {
+        return singletonList(Aggregates.match(Filters.and(
+                Filters.eq(DOCUMENT_KEY_ID, MongoChangeLogLock.lockId(scope)),
+                Filters.or(
+                        Filters.in(OPERATION_TYPE, OperationType.INSERT.getValue(), OperationType.REPLACE.getValue(),
+                                OperationType.DELETE.getValue()),
+                        Filters.exists(UPDATED_LOCKED)))));
+    }
+
+    /**
+     * @param timeoutMillis how long to wait for a change at most
+     * @return true when the lock collection changed, false on timeout
+     */
+    public boolean await(final long timeoutMillis) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        do {
+            if (nonNull(cursor.tryNext())) {
+                return true;
+            }
+        } while (System.nanoTime() < deadline);
+        return false;
+    }
+
+    @Override
+    public void close() {
+        cursor.close();
+    }
+}
@@ -20,8 +20,12 @@ package liquibase.ext.mongodb.lockservice;
  * #L%
  */
 
+import com.mongodb.MongoCommandException;
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
 import liquibase.ext.mongodb.statement.CreateCollectionStatement;
 
+import static liquibase.nosql.executor.NoSqlStatementEvent.UNKNOWN_DOCUMENTS;
+
 public class CreateChangeLogLockCollectionStatement extends CreateCollectionStatement {
 
     public static final String VALIDATOR = "\n"
@@ -32,8 +36,8 @@ public class CreateChangeLogLockCollectionStatement extends CreateCollectionStat
             + "         \"required\": [\"_id\", \"locked\"],\n"
             + "             \"properties\": {\n"
             + "                 \"_id\": {\n"
-            + "                     \"bsonType\": \"int\",\n"
-            + "                     \"description\": \"Unique lock identifier\"\n"
+            + "                     \"bsonType\": [\"int\", \"string\"],\n"
+            + "                     \"description\": \"Unique lock identifier, the scope name of a scoped lock\"\n"
             + "                 },\n"
             + "                 \"locked\": {\n"
             + "                     \"bsonType\": \"bool\",\n"
@@ -46,6 +50,14 @@ public class CreateChangeLogLockCollectionStatement extends CreateCollectionStat
             + "                 \"lockedBy\": {\n"
             + "                     \"bsonType\": [\"string\", \"null\"],\n"
             + "                     \"description\": \"Owner of the lock\"\n"
+            + "                 },\n"
+            + "                 \"leaseExpires\": {\n"
+            + "                     \"bsonType\": [\"date\", \"null\"],\n"
+            + "                     \"description\": \"Expiry of the lease when acquired in lease mode\"\n"
+            + "                 },\n"
+            + "                 \"fencingToken\": {\n"
+            + "                     \"bsonType\": [\"long\", \"int\"],\n"
+            + "                     \"description\": \"Incremented on every lease acquisition\"\n"
             + "                 }\n"
             + "             }\n"
             + "         }\n"
@@ -65,4 +77,19 @@ public class CreateChangeLogLockCollectionStatement extends CreateCollectionStat
         // Options passed as null. Validator will be created on AdjustChangeLogLockCollectionStatement
         super(collectionName, (String) null);
     }
+
+    /**
+     * The tracking collections are shared by all lock scopes, a collection created meanwhile by another process is kept.
+     */
+    @Override
+    public long executeForCount(final MongoLiquibaseDatabase database) {
+        try {
+            return super.executeForCount(database);
+        } catch (final MongoCommandException e) {
+            if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                throw e;
+            }
+            return UNKNOWN_DOCUMENTS;
+        }
+    }
 }
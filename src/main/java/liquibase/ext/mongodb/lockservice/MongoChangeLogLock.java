@@ -27,6 +27,7 @@ import lombok.Getter;
 
 import java.util.Date;
 
+import static java.util.Objects.isNull;
 import static java.util.Optional.ofNullable;
 
 public class MongoChangeLogLock extends DatabaseChangeLogLock {
@@ -36,18 +37,64 @@ public class MongoChangeLogLock extends DatabaseChangeLogLock {
         public static final String lockGranted = "lockGranted";
         public static final String lockedBy = "lockedBy";
         public static final String locked = "locked";
+        public static final String leaseExpires = "leaseExpires";
+        public static final String fencingToken = "fencingToken";
     }
 
+    /**
+     * Id of the lock document when no scope is configured
+     */
+    public static final int DEFAULT_ID = 1;
+
     @Getter
     private final Boolean locked;
 
+    /**
+     * Expiry of the lease, null unless the lock was acquired in lease mode.
+     */
+    @Getter
+    private final Date leaseExpires;
+
+    /**
+     * Incremented on every acquisition, so a stale holder cannot renew or release the lock of the next one.
+     */
+    @Getter
+    private final Long fencingToken;
+
+    /**
+     * Name of the lock, null for the single shared lock. A scoped lock document uses the scope as its id.
+     */
+    @Getter
+    private final String scope;
+
     public MongoChangeLogLock() {
-        this(1, new Date(), "NoArgConstructor", true);
+        this(DEFAULT_ID, new Date(), "NoArgConstructor", true);
     }
 
     public MongoChangeLogLock(final Integer id, final Date lockGranted, final String lockedBy, final Boolean locked) {
+        this(id, lockGranted, lockedBy, locked, null, null);
+    }
+
+    public MongoChangeLogLock(final Integer id, final Date lockGranted, final String lockedBy, final Boolean locked,
+                              final Date leaseExpires, final Long fencingToken) {
+        this(id, lockGranted, lockedBy, locked, leaseExpires, fencingToken, null);
+    }
+
+    public MongoChangeLogLock(final Integer id, final Date lockGranted, final String lockedBy, final Boolean locked,
+                              final Date leaseExpires, final Long fencingToken, final String scope) {
         super(id, lockGranted, lockedBy);
         this.locked = locked;
+        this.leaseExpires = leaseExpires;
+        this.fencingToken = fencingToken;
+        this.scope = scope;
+    }
+
+    /**
+     * @param scope the lock scope, may be null
+     * @return the id of the lock document of the scope
+     */
+    public static Object lockId(final String scope) {
+        return isNull(scope) ? DEFAULT_ID : scope;
     }
 
     @Override
@@ -8,6 +8,8 @@ import org.bson.Document;
 import java.util.Collection;
 import java.util.Date;
 
+import static java.util.Optional.ofNullable;
+
 import static liquibase.sqlgenerator.core.MarkChangeSetRanGenerator.*;
 
 public class MongoChangeLogLockToDocumentConverter extends AbstractNoSqlItemToDocumentConverter<MongoChangeLogLock, Document> {
@@ -15,21 +17,30 @@ public class MongoChangeLogLockToDocumentConverter extends AbstractNoSqlItemToDo
     @Override
     public Document toDocument(final MongoChangeLogLock item) {
 
-        return new Document()
-                .append(MongoChangeLogLock.Fields.id, item.getId())
+        final Document document = new Document()
+                .append(MongoChangeLogLock.Fields.id, ofNullable(item.getScope()).map(Object.class::cast).orElse(item.getId()))
                 .append(MongoChangeLogLock.Fields.lockGranted, item.getLockGranted())
                 .append(MongoChangeLogLock.Fields.lockedBy, item.getLockedBy())
                 .append(MongoChangeLogLock.Fields.locked, item.getLocked());
+        // lease fields are only present on locks acquired in lease mode
+        ofNullable(item.getLeaseExpires()).ifPresent(v -> document.append(MongoChangeLogLock.Fields.leaseExpires, v));
+        ofNullable(item.getFencingToken()).ifPresent(v -> document.append(MongoChangeLogLock.Fields.fencingToken, v));
+        return document;
     }
 
     @Override
     public MongoChangeLogLock fromDocument(final Document document) {
 
+        // a scoped lock is identified by its scope name
+        final Object id = document.get(MongoChangeLogLock.Fields.id);
         return new MongoChangeLogLock(
-                document.get(MongoChangeLogLock.Fields.id, Integer.class)
+                id instanceof String ? MongoChangeLogLock.DEFAULT_ID : (Integer) id
                 , document.get(MongoChangeLogLock.Fields.lockGranted, Date.class)
                 , document.get(MongoChangeLogLock.Fields.lockedBy, String.class)
                 , document.get(MongoChangeLogLock.Fields.locked, Boolean.class)
+                , document.get(MongoChangeLogLock.Fields.leaseExpires, Date.class)
+                , ofNullable(document.get(MongoChangeLogLock.Fields.fencingToken, Number.class)).map(Number::longValue).orElse(null)
+                , id instanceof String ? (String) id : null
         );
     }
 
@@ -20,25 +20,43 @@ package liquibase.ext.mongodb.lockservice;
  * #L%
  */
 
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoDatabase;
 import liquibase.Scope;
 import liquibase.database.Database;
 import liquibase.exception.DatabaseException;
+import liquibase.exception.LockException;
+import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.ext.mongodb.configuration.MongoConfiguration;
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoTrackingSchema;
+import liquibase.ext.mongodb.database.MongoTrackingState;
 import liquibase.ext.mongodb.statement.CountCollectionByNameStatement;
+import liquibase.ext.mongodb.statement.CreateCollectionStatement;
 import liquibase.ext.mongodb.statement.DropCollectionStatement;
 import liquibase.ext.mongodb.statement.FindAllStatement;
+import liquibase.ext.mongodb.statement.InsertOneStatement;
 import liquibase.lockservice.DatabaseChangeLogLock;
 import liquibase.logging.Logger;
 import liquibase.nosql.lockservice.AbstractNoSqlLockService;
+import liquibase.nosql.lockservice.NoSqlLockEvent;
 import liquibase.statement.SqlStatement;
 import lombok.Getter;
 import org.bson.Document;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 public class MongoLockService extends AbstractNoSqlLockService<MongoLiquibaseDatabase> {
 
@@ -47,6 +65,35 @@ public class MongoLockService extends AbstractNoSqlLockService<MongoLiquibaseDat
     @Getter
     private final MongoChangeLogLockToDocumentConverter converter;
 
+    /**
+     * Fencing token of the lock held by this service, null unless holding the lock
+     */
+    @Getter
+    private volatile Long fencingToken;
+
+    /**
+     * Local deadline of the lease, measured on our own clock only, so it does not depend on the server clock
+     */
+    private volatile long leaseExpiry;
+
+    private volatile boolean leaseLost;
+
+    private volatile ScheduledExecutorService heartbeat;
+
+    private ChangeLogLockWatch lockWatch;
+
+    private boolean lockWatchUnsupported;
+
+    private String lockAuditCollectionChecked;
+
+    /**
+     * Change of the tracking collections run by {@link #runShared(TrackingChange)}
+     */
+    @FunctionalInterface
+    public interface TrackingChange {
+        void run() throws DatabaseException;
+    }
+
     public MongoLockService() {
         super();
         this.converter = new MongoChangeLogLockToDocumentConverter();
@@ -59,16 +106,336 @@ public class MongoLockService extends AbstractNoSqlLockService<MongoLiquibaseDat
 
     @Override
     protected Boolean isLocked() throws DatabaseException {
+        final MongoTrackingState state = getDatabase().getTrackingState();
+        if (nonNull(state)) {
+            final Optional<Boolean> bootstrapLocked = state.takeLocked();
+            if (bootstrapLocked.isPresent()) {
+                if (TRUE.equals(bootstrapLocked.get())) {
+                    // another process is changing the tracking collections, the rest of the snapshot is stale
+                    MongoTrackingState.discard(getDatabase());
+                }
+                return bootstrapLocked.get();
+            }
+        }
         Optional<Document> lock = Optional.ofNullable(getExecutor()
-                .queryForObject(new SelectChangeLogLockStatement(getDatabaseChangeLogLockTableName()), Document.class));
+                .queryForObject(new SelectChangeLogLockStatement(getDatabaseChangeLogLockTableName(), getLockScope()), Document.class));
+        // an expired lease reads as free, by the server clock
         return lock.map(getConverter()::fromDocument).map(MongoChangeLogLock::getLocked).orElse(FALSE);
     }
 
     @Override
     protected int replaceLock(final boolean locked) throws DatabaseException {
-        return getExecutor().update(
-                new ReplaceChangeLogLockStatement(getDatabaseChangeLogLockTableName(), locked)
-        );
+        if (!locked) {
+            MongoTrackingState.discard(getDatabase());
+        }
+        return locked ? acquire() : release();
+    }
+
+    /**
+     * {@link AcquireChangeLogLockStatement} only takes a free lock, the lock is not read before.
+     */
+    @Override
+    protected boolean isLockReplacedConditionally() {
+        return true;
+    }
+
+    /**
+     * @return the name of the lock taken by this service, null for the single shared lock
+     */
+    public String getLockScope() {
+        return getDatabase().getLockScope();
+    }
+
+    /**
+     * Runs a change of the tracking collections shared by all lock scopes, e.g. the creation of the history collection.
+     * A scoped lock only excludes the processes of the same scope, so the single shared lock is taken around the change too,
+     * waiting for it at most {@link #getChangeLogLockWaitTime()} minutes.
+     *
+     * @param change the change of the shared tracking collections
+     * @throws DatabaseException when the shared lock could not be acquired or the change failed
+     */
+    public void runShared(final TrackingChange change) throws DatabaseException {
+        if (isNull(getLockScope())) {
+            change.run();
+            return;
+        }
+        final long timeToGiveUp = getClock().millis() + TimeUnit.MINUTES.toMillis(getChangeLogLockWaitTime());
+        int attempt = 0;
+        Document lock;
+        while (isNull(lock = acquireShared())) {
+            if (getClock().millis() >= timeToGiveUp) {
+                throw new DatabaseException("Could not acquire the shared change log lock to change the tracking collections");
+            }
+            try {
+                //noinspection BusyWait
+                Thread.sleep(getBackoffMillis(attempt++));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DatabaseException("Interrupted while waiting for the shared change log lock", e);
+            }
+        }
+        final Long token = getConverter().fromDocument(lock).getFencingToken();
+        try {
+            change.run();
+        } finally {
+            getExecutor().update(new ReleaseChangeLogLockStatement(getDatabaseChangeLogLockTableName(), token, null));
+        }
+    }
+
+    private Document acquireShared() throws DatabaseException {
+        // no heartbeat for the short change, the lease only frees the lock of a crashed process
+        return getExecutor().queryForObject(
+                new AcquireChangeLogLockStatement(getDatabaseChangeLogLockTableName(), leaseMillis(), null), Document.class);
+    }
+
+    @Override
+    protected String getLockName() {
+        return getLockScope();
+    }
+
+    @Override
+    protected String getLockOwner() {
+        return MongoChangeLogLock.formLockedBy();
+    }
+
+    /**
+     * Appends the event to the {@link MongoLiquibaseDatabase#getLockAuditCollection()} when configured,
+     * so lock wait percentiles can be aggregated across all processes deploying to the database.
+     * Auditing is best effort and never fails the deployment.
+     */
+    @Override
+    protected void publishLockEvent(final NoSqlLockEvent event) {
+        super.publishLockEvent(event);
+        final String auditCollection = getDatabase().getLockAuditCollection();
+        if (isNull(auditCollection)) {
+            return;
+        }
+        try {
+            if (!auditCollection.equals(lockAuditCollectionChecked)) {
+                if (getExecutor().queryForLong(new CountCollectionByNameStatement(auditCollection)) == 0L) {
+                    getExecutor().execute(new CreateCollectionStatement(auditCollection,
+                            new Document("capped", true).append("size", getDatabase().getLockAuditCollectionSize())));
+                }
+                lockAuditCollectionChecked = auditCollection;
+            }
+            getExecutor().execute(new InsertOneStatement(auditCollection, toAuditDocument(event)));
+        } catch (final DatabaseException | RuntimeException e) {
+            getLogger().warning("Could not append the " + event.getType() + " lock event to " + auditCollection, e);
+        }
+    }
+
+    private Document toAuditDocument(final NoSqlLockEvent event) {
+        return new Document("event", event.getType())
+                .append("scope", event.getLockName())
+                .append("lockedBy", event.getLockedBy())
+                .append("attempts", event.getAttempts())
+                .append("waitMillis", event.getWait(TimeUnit.MILLISECONDS))
+                .append("holdMillis", event.getHold(TimeUnit.MILLISECONDS))
+                .append("recordedBy", getLockOwner())
+                .append("timestamp", now());
+    }
+
+    /**
+     * @return true when the lock is taken as a lease of {@link MongoLiquibaseDatabase#getLockLeaseSeconds()}
+     */
+    public boolean isLeaseMode() {
+        return nonNull(getDatabase().getLockLeaseSeconds());
+    }
+
+    private int acquire() throws DatabaseException {
+        final MongoTrackingState state = getDatabase().getTrackingState();
+        if (nonNull(state) && state.takeLocked().orElse(FALSE)) {
+            // held according to the startup read, no need to try
+            MongoTrackingState.discard(getDatabase());
+            return 0;
+        }
+        // taken before the request, the server starts the lease later so the local deadline is never behind it
+        final long requested = getClock().millis();
+        final Long leaseMillis = leaseMillis();
+        final Document lock = getExecutor().queryForObject(
+                new AcquireChangeLogLockStatement(getDatabaseChangeLogLockTableName(), leaseMillis, getLockScope()), Document.class);
+        if (isNull(lock)) {
+            // another process is changing the tracking collections, the rest of the startup read is stale
+            MongoTrackingState.discard(getDatabase());
+            return 0;
+        }
+        this.fencingToken = getConverter().fromDocument(lock).getFencingToken();
+        // the routed reads of the run, e.g. preconditions, first catch up with the lock write
+        getDatabase().afterWrite();
+        final MongoTrackingState bootstrapState = getDatabase().getTrackingState();
+        if (nonNull(bootstrapState) && !bootstrapState.isCurrentFor(fencingToken)) {
+            // another process held the lock since the startup read, e.g. its max sequence is stale
+            MongoTrackingState.discard(getDatabase());
+        }
+        if (isLeaseMode()) {
+            this.leaseExpiry = requested + leaseMillis;
+            this.leaseLost = false;
+            startHeartbeat();
+        }
+        return 1;
+    }
+
+    private int release() throws DatabaseException {
+        stopHeartbeat();
+        // no token on a forced release from another process, the lock is released unconditionally then
+        final Long token = this.fencingToken;
+        this.fencingToken = null;
+        return getExecutor().update(new ReleaseChangeLogLockStatement(getDatabaseChangeLogLockTableName(), token, getLockScope()));
+    }
+
+    /**
+     * Renews the lease every third of its duration on a daemon thread.
+     * The renewal only succeeds while the lock is still held with our fencing token, otherwise the lease is marked lost.
+     */
+    private void startHeartbeat() {
+        stopHeartbeat();
+        final long period = Math.max(1L, getLeaseMillis() / 3);
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "liquibase-mongodb-lock-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleAtFixedRate(this::renewLease, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopHeartbeat() {
+        if (nonNull(heartbeat)) {
+            heartbeat.shutdownNow();
+            heartbeat = null;
+        }
+    }
+
+    /**
+     * Called by the heartbeat, the statement is run directly since executors are not meant to be shared across threads.
+     */
+    protected void renewLease() {
+        final Long token = this.fencingToken;
+        if (isNull(token) || leaseLost) {
+            return;
+        }
+        try {
+            final long requested = getClock().millis();
+            final long leaseMillis = getLeaseMillis();
+            if (new RenewChangeLogLeaseStatement(getDatabaseChangeLogLockTableName(), token, leaseMillis, getLockScope())
+                    .update(getDatabase()) == 0) {
+                leaseLost = true;
+                getLogger().severe("Lost the change log lock lease, fencing token " + token + " was superseded");
+                stopHeartbeat();
+            } else {
+                leaseExpiry = requested + leaseMillis;
+            }
+        } catch (final RuntimeException e) {
+            // retried on the next beat, the lease expires locally if the server stays unreachable
+            getLogger().warning("Could not renew the change log lock lease", e);
+        }
+    }
+
+    /**
+     * Refuses every write of the run once the lease is no longer valid, see {@link #checkLease()}.
+     */
+    @Override
+    public void checkDispatch(final SqlStatement statement) throws LockException {
+        checkLease();
+    }
+
+    /**
+     * Fences writes to the tracking collections: in lease mode they are refused once the lease was lost or expired,
+     * as another process may hold the lock by now.
+     *
+     * @throws LockException when the lease held by this service is no longer valid
+     */
+    public void checkLease() throws LockException {
+        if (!isLeaseMode() || !hasChangeLogLock() || isNull(fencingToken)) {
+            // no token while released, the conditional release and its event still go through
+            return;
+        }
+        if (leaseLost || getClock().millis() >= leaseExpiry) {
+            throw new LockException("Change log lock lease with fencing token " + fencingToken
+                    + " was lost, another process may hold the lock");
+        }
+    }
+
+    private Long leaseMillis() {
+        return isLeaseMode() ? getLeaseMillis() : null;
+    }
+
+    private long getLeaseMillis() {
+        final long seconds = getDatabase().getLockLeaseSeconds();
+        if (seconds <= 0) {
+            throw new UnexpectedLiquibaseException(MongoConfiguration.LOCK_LEASE_SECONDS + " must be positive but was " + seconds);
+        }
+        return TimeUnit.SECONDS.toMillis(seconds);
+    }
+
+    private Date now() {
+        return new Date(getClock().millis());
+    }
+
+    /**
+     * Waits on a change stream of the lock collection for at most {@link #getChangeLogLockRecheckTime()}.
+     * The stream is opened on the first wait, which returns at once so the lock is checked again while watched
+     * and a release in between is not missed. Falls back to the jittered backoff when change streams are not supported.
+     */
+    @Override
+    protected void awaitLockChange(final int attempt) throws InterruptedException {
+        final long timeoutMillis = TimeUnit.SECONDS.toMillis(getChangeLogLockRecheckTime());
+        if (lockWatchUnsupported || timeoutMillis <= 0) {
+            super.awaitLockChange(attempt);
+            return;
+        }
+        if (isNull(lockWatch)) {
+            lockWatch = openLockWatch();
+            if (nonNull(lockWatch)) {
+                return;
+            }
+            lockWatchUnsupported = true;
+            super.awaitLockChange(attempt);
+            return;
+        }
+        try {
+            if (lockWatch.await(timeoutMillis)) {
+                getLogger().fine("Changelog lock collection changed");
+            }
+        } catch (final MongoException e) {
+            getLogger().warning("Changelog lock change stream failed, reopening it on the next wait", e);
+            afterWaitForLock();
+            super.awaitLockChange(attempt);
+        }
+    }
+
+    private ChangeLogLockWatch openLockWatch() {
+        final MongoDatabase mongoDatabase = getDatabase().getMongoDatabase();
+        if (isNull(mongoDatabase)) {
+            return null;
+        }
+        try {
+            return new ChangeLogLockWatch(mongoDatabase, getDatabaseChangeLogLockTableName(), getLockScope());
+        } catch (final MongoException e) {
+            getLogger().info("Change streams are not available, polling for the changelog lock: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    protected void afterWaitForLock() {
+        if (nonNull(lockWatch)) {
+            try {
+                lockWatch.close();
+            } catch (final MongoException e) {
+                getLogger().fine("Could not close the changelog lock change stream", e);
+            }
+            lockWatch = null;
+        }
+    }
+
+    @Override
+    public void reset() {
+        afterWaitForLock();
+        stopHeartbeat();
+        fencingToken = null;
+        leaseLost = false;
+        lockAuditCollectionChecked = null;
+        super.reset();
     }
 
     @Override
@@ -76,12 +443,18 @@ public class MongoLockService extends AbstractNoSqlLockService<MongoLiquibaseDat
 
         final SqlStatement findAllStatement = new FindAllStatement(getDatabaseChangeLogLockTableName());
 
+        // only the lock of our scope blocks us, locks of other scopes are not reported
         return getExecutor().queryForList(findAllStatement, Document.class).stream().map(Document.class::cast)
-                .map(getConverter()::fromDocument).filter(MongoChangeLogLock::getLocked).collect(Collectors.toList());
+                .map(getConverter()::fromDocument).filter(l -> Objects.equals(l.getScope(), getLockScope()))
+                .filter(MongoChangeLogLock::getLocked).collect(Collectors.toList());
     }
 
     @Override
     protected Boolean existsRepository() throws DatabaseException {
+        final MongoTrackingState state = getDatabase().getTrackingState();
+        if (nonNull(state)) {
+            return state.exists(getDatabaseChangeLogLockTableName());
+        }
         return getExecutor().queryForLong(new CountCollectionByNameStatement(getDatabase().getDatabaseChangeLogLockTableName())) == 1L;
     }
 
@@ -90,6 +463,7 @@ public class MongoLockService extends AbstractNoSqlLockService<MongoLiquibaseDat
         final CreateChangeLogLockCollectionStatement createChangeLogLockCollectionStatement =
                 new CreateChangeLogLockCollectionStatement(getDatabaseChangeLogLockTableName());
         getExecutor().execute(createChangeLogLockCollectionStatement);
+        MongoTrackingState.discard(getDatabase());
     }
 
     @Override
@@ -109,10 +483,17 @@ public class MongoLockService extends AbstractNoSqlLockService<MongoLiquibaseDat
         }
     }
 
+    @Override
+    protected boolean isRepositoryCurrent() throws DatabaseException {
+        return MongoTrackingSchema.isCurrent(getDatabase(), getExecutor());
+    }
+
     @Override
     protected void dropRepository() throws DatabaseException {
         getExecutor().execute(
                 new DropCollectionStatement(getDatabaseChangeLogLockTableName()));
+        MongoTrackingState.discard(getDatabase());
+        MongoTrackingSchema.remove(getDatabase(), getExecutor());
     }
 
     @Override
@@ -0,0 +1,92 @@
+package liquibase.ext.mongodb.lockservice;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.statement.AbstractCollectionStatement;
+import liquibase.nosql.statement.NoSqlUpdateStatement;
+import lombok.Getter;
+import org.bson.conversions.Bson;
+
+import static java.util.Objects.isNull;
+import static liquibase.ext.mongodb.statement.AbstractRunCommandStatement.SHELL_DB_PREFIX;
+
+/**
+ * Releases the lock only when it is still held with the given fencing token,
+ * so a process cannot release a lock it does not own, e.g. the lock of its successor after its lease expired.
+ * Without a token the lock is released unconditionally, which is what a forced release does.
+ * The fencing token is kept, so it keeps growing across holders, see {@link AcquireChangeLogLockStatement}.
+ */
+@Getter
+public class ReleaseChangeLogLockStatement extends AbstractCollectionStatement
+        implements NoSqlUpdateStatement<MongoLiquibaseDatabase> {
+
+    public static final String COMMAND_NAME = "releaseLock";
+
+    private final Long fencingToken;
+
+    /**
+     * Scope of the lock, null for the single shared lock
+     */
+    private final String scope;
+
+    public ReleaseChangeLogLockStatement(final String collectionName, final Long fencingToken) {
+        this(collectionName, fencingToken, null);
+    }
+
+    public ReleaseChangeLogLockStatement(final String collectionName, final Long fencingToken, final String scope) {
+        super(collectionName);
+        this.fencingToken = fencingToken;
+        this.scope = scope;
+    }
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public String toJs() {
+        return SHELL_DB_PREFIX +
+                getCollectionName() +
+                "." +
+                getCommandName() +
+                "(" +
+                fencingToken +
+                ");";
+    }
+
+    @Override
+    public int update(final MongoLiquibaseDatabase database) {
+        final Bson filter = isNull(fencingToken) ? Filters.eq(MongoChangeLogLock.Fields.id, MongoChangeLogLock.lockId(scope))
+                : Filters.and(Filters.eq(MongoChangeLogLock.Fields.id, MongoChangeLogLock.lockId(scope)),
+                Filters.eq(MongoChangeLogLock.Fields.fencingToken, fencingToken));
+        final UpdateResult result = database.getMongoDatabase().getCollection(getCollectionName()).updateOne(filter,
+                Updates.combine(Updates.set(MongoChangeLogLock.Fields.locked, false),
+                        Updates.unset(MongoChangeLogLock.Fields.leaseExpires)),
+                new UpdateOptions().upsert(isNull(fencingToken)));
+        return (int) result.getMatchedCount() + (isNull(result.getUpsertedId()) ? 0 : 1);
+    }
+}
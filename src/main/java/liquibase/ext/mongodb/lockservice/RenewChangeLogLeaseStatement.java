@@ -0,0 +1,95 @@
+package liquibase.ext.mongodb.lockservice;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.client.model.Filters;
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.statement.AbstractCollectionStatement;
+import liquibase.nosql.statement.NoSqlUpdateStatement;
+import lombok.Getter;
+import org.bson.Document;
+
+import java.util.Collections;
+
+import static liquibase.ext.mongodb.statement.AbstractRunCommandStatement.SHELL_DB_PREFIX;
+
+/**
+ * Extends the lease only while the lock is still held with the given fencing token.
+ * The new expiry is computed by the server clock, as on {@link AcquireChangeLogLockStatement}.
+ */
+@Getter
+public class RenewChangeLogLeaseStatement extends AbstractCollectionStatement
+        implements NoSqlUpdateStatement<MongoLiquibaseDatabase> {
+
+    public static final String COMMAND_NAME = "renewLease";
+
+    private final long fencingToken;
+
+    /**
+     * Lease duration in milliseconds from now
+     */
+    private final long leaseMillis;
+
+    /**
+     * Scope of the lock, null for the single shared lock
+     */
+    private final String scope;
+
+    public RenewChangeLogLeaseStatement(final String collectionName, final long fencingToken, final long leaseMillis) {
+        this(collectionName, fencingToken, leaseMillis, null);
+    }
+
+    public RenewChangeLogLeaseStatement(final String collectionName, final long fencingToken, final long leaseMillis,
+                                        final String scope) {
+        super(collectionName);
+        this.fencingToken = fencingToken;
+        this.leaseMillis = leaseMillis;
+        this.scope = scope;
+    }
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public String toJs() {
+        return SHELL_DB_PREFIX +
+                getCollectionName() +
+                "." +
+                getCommandName() +
+                "(" +
+                fencingToken +
+                ", " +
+                leaseMillis +
+                ");";
+    }
+
+    @Override
+    public int update(final MongoLiquibaseDatabase database) {
+        return (int) database.getMongoDatabase().getCollection(getCollectionName()).updateOne(
+                Filters.and(Filters.eq(MongoChangeLogLock.Fields.id, MongoChangeLogLock.lockId(scope)),
+                        Filters.eq(MongoChangeLogLock.Fields.locked, true),
+                        Filters.eq(MongoChangeLogLock.Fields.fencingToken, fencingToken)),
+                Collections.singletonList(new Document("$set", new Document(MongoChangeLogLock.Fields.leaseExpires,
+                        AcquireChangeLogLockStatement.expiresIn(leaseMillis))))).getMatchedCount();
+    }
+}
@@ -20,20 +20,37 @@ package liquibase.ext.mongodb.lockservice;
  * #L%
  */
 
+import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
 import liquibase.ext.mongodb.statement.AbstractCollectionStatement;
 import liquibase.nosql.statement.NoSqlQueryForObjectStatement;
+import lombok.Getter;
+import org.bson.Document;
+
+import java.util.Arrays;
 
 import static liquibase.ext.mongodb.statement.AbstractRunCommandStatement.SHELL_DB_PREFIX;
 
+/**
+ * Reads the lock as the server sees it now: a lock whose lease expired by the server clock reads as not locked,
+ * as it is free to take with {@link AcquireChangeLogLockStatement}.
+ */
 public class SelectChangeLogLockStatement extends AbstractCollectionStatement
 implements NoSqlQueryForObjectStatement<MongoLiquibaseDatabase> {
 
     public static final String COMMAND_NAME = "findLock";
 
+    @Getter
+    private final String scope;
+
     public SelectChangeLogLockStatement(final String collectionName) {
+        this(collectionName, null);
+    }
+
+    public SelectChangeLogLockStatement(final String collectionName, final String scope) {
         super(collectionName);
+        this.scope = scope;
     }
 
     @Override
@@ -54,8 +71,14 @@ implements NoSqlQueryForObjectStatement<MongoLiquibaseDatabase> {
 
     @Override
     public <T> T queryForObject(final MongoLiquibaseDatabase database, final Class<T> requiredType) {
-
+        final String leaseExpires = "$" + MongoChangeLogLock.Fields.leaseExpires;
+        final Document held = new Document("$and", Arrays.asList("$" + MongoChangeLogLock.Fields.locked,
+                new Document("$or", Arrays.asList(
+                        new Document("$ne", Arrays.asList(new Document("$type", leaseExpires), "date")),
+                        new Document("$gt", Arrays.asList(leaseExpires, AcquireChangeLogLockStatement.SERVER_TIME))))));
         return database.getMongoDatabase().getCollection(getCollectionName(), requiredType)
-                .find(Filters.eq(MongoChangeLogLock.Fields.id, 1)).first();
+                .aggregate(Arrays.asList(
+                        Aggregates.match(Filters.eq(MongoChangeLogLock.Fields.id, MongoChangeLogLock.lockId(scope))),
+                        new Document("$set", new Document(MongoChangeLogLock.Fields.locked, held)))).first();
     }
 }
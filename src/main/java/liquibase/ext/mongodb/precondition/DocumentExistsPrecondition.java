@@ -9,6 +9,7 @@ import liquibase.exception.PreconditionFailedException;
 import liquibase.exception.ValidationErrors;
 import liquibase.exception.Warnings;
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoReadCategory;
 import liquibase.ext.mongodb.statement.BsonUtils;
 import liquibase.ext.mongodb.statement.CountDocumentsInCollectionStatement;
 import liquibase.precondition.AbstractPrecondition;
@@ -28,6 +29,13 @@ public class DocumentExistsPrecondition extends AbstractPrecondition {
     @Setter
     private String filter;
 
+    /**
+     * Read preference of this precondition, overriding the one configured for all preconditions.
+     */
+    @Getter
+    @Setter
+    private String readPreference;
+
     @Override
     public String getName() {
         return "documentExists";
@@ -50,7 +58,8 @@ public class DocumentExistsPrecondition extends AbstractPrecondition {
         try {
 
             final Bson bsonFilter = BsonUtils.orEmptyDocument(filter);
-            final CountDocumentsInCollectionStatement countDocumentsInCollectionStatement = new CountDocumentsInCollectionStatement(collectionName, bsonFilter);
+            final CountDocumentsInCollectionStatement countDocumentsInCollectionStatement = new CountDocumentsInCollectionStatement(collectionName, bsonFilter,
+                    MongoReadCategory.PRECONDITION, readPreference);
 
             if (countDocumentsInCollectionStatement.queryForLong((MongoLiquibaseDatabase) database) <= 0L) {
                 throw new PreconditionFailedException(format(
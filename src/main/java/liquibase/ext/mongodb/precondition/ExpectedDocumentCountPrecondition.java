@@ -9,6 +9,7 @@ import liquibase.exception.PreconditionFailedException;
 import liquibase.exception.ValidationErrors;
 import liquibase.exception.Warnings;
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoReadCategory;
 import liquibase.ext.mongodb.statement.BsonUtils;
 import liquibase.ext.mongodb.statement.CountDocumentsInCollectionStatement;
 import liquibase.precondition.AbstractPrecondition;
@@ -27,6 +28,13 @@ public class ExpectedDocumentCountPrecondition extends AbstractPrecondition {
     @Setter
     private String filter;
 
+    /**
+     * Read preference of this precondition, overriding the one configured for all preconditions.
+     */
+    @Getter
+    @Setter
+    private String readPreference;
+
     @Getter
     @Setter
     private Long expectedCount;
@@ -51,7 +59,8 @@ public class ExpectedDocumentCountPrecondition extends AbstractPrecondition {
                       final ChangeExecListener changeExecListener) throws PreconditionFailedException, PreconditionErrorException {
         try {
             final Bson bsonFilter = BsonUtils.orEmptyDocument(filter);
-            final CountDocumentsInCollectionStatement countDocumentsInCollectionStatement = new CountDocumentsInCollectionStatement(collectionName, bsonFilter);
+            final CountDocumentsInCollectionStatement countDocumentsInCollectionStatement = new CountDocumentsInCollectionStatement(collectionName, bsonFilter,
+                    MongoReadCategory.PRECONDITION, readPreference);
             final Long actualDocumentCount = countDocumentsInCollectionStatement.queryForLong((MongoLiquibaseDatabase) database);
             if (!actualDocumentCount.equals(expectedCount)) {
                 throw new PreconditionFailedException(format(
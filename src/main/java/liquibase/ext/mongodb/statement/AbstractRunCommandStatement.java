@@ -24,16 +24,21 @@ import com.mongodb.MongoException;
 import com.mongodb.client.MongoDatabase;
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
 import liquibase.nosql.statement.NoSqlExecuteStatement;
-import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
-import lombok.Getter;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 
 import java.util.List;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static liquibase.nosql.executor.NoSqlStatementEvent.UNKNOWN_DOCUMENTS;
 
-@AllArgsConstructor
+/**
+ * Base for the statements sent with runCommand.
+ * The command is encoded to BSON once, on first use, and the encoded bytes are sent to the server and rendered by {@link #toJs()}.
+ * The command must therefore not be modified once the statement is created.
+ */
 @EqualsAndHashCode(callSuper = true)
 public abstract class AbstractRunCommandStatement extends AbstractMongoStatement
         implements NoSqlExecuteStatement<MongoLiquibaseDatabase> {
@@ -42,13 +47,49 @@ public abstract class AbstractRunCommandStatement extends AbstractMongoStatement
     public static final String SHELL_DB_PREFIX = "db.";
     public static final String OK = "ok";
     public static final String WRITE_ERRORS = "writeErrors";
+    public static final String N = "n";
 
-    @Getter
     protected final Document command;
 
+    @EqualsAndHashCode.Exclude
+    private RawBsonDocument rawCommand;
+
+    protected AbstractRunCommandStatement(final Document command) {
+        this.command = command;
+    }
+
+    /**
+     * @return a copy of the command decoded from its encoded form, changing it does not change the statement
+     */
+    public Document getCommand() {
+        return BsonUtils.toDocument(getRawCommand());
+    }
+
+    /**
+     * @return the command encoded to BSON, encoded on the first call only
+     */
+    public RawBsonDocument getRawCommand() {
+        if (isNull(rawCommand)) {
+            rawCommand = BsonUtils.toRawDocument(command);
+        }
+        return rawCommand;
+    }
+
+    /**
+     * Runs {@link #executeForCount(MongoLiquibaseDatabase)}, which the executor calls, so subclasses change the execution there only.
+     */
+    @Override
+    public final void execute(final MongoLiquibaseDatabase database) {
+        executeForCount(database);
+    }
+
+    /**
+     * @return the count {@code n} of the server response, reported by the write commands
+     */
     @Override
-    public void execute(final MongoLiquibaseDatabase database) {
-        run(database);
+    public long executeForCount(final MongoLiquibaseDatabase database) {
+        final Object n = run(database).get(N);
+        return n instanceof Number ? ((Number) n).longValue() : UNKNOWN_DOCUMENTS;
     }
 
     public Document run(final MongoLiquibaseDatabase database) {
@@ -56,7 +97,7 @@ public abstract class AbstractRunCommandStatement extends AbstractMongoStatement
     }
 
     public Document run(final MongoDatabase mongoDatabase) {
-        final Document response = mongoDatabase.runCommand(command);
+        final Document response = mongoDatabase.runCommand(getRawCommand());
         checkResponse(response);
         return response;
     }
@@ -96,12 +137,30 @@ public abstract class AbstractRunCommandStatement extends AbstractMongoStatement
      */
     public abstract String getRunCommandName();
 
+    /**
+     * @return the value of the command name key, when it is the name of a collection
+     */
+    @Override
+    public String getCollectionName() {
+        final Object target = command.get(getRunCommandName());
+        return target instanceof String ? (String) target : null;
+    }
+
+    /**
+     * Returns the collection the command works on, which keeps pipelined commands on it in order.
+     *
+     * @return the value of the run command name key
+     */
+    public String getPipelineKey() {
+        return command.getString(getRunCommandName());
+    }
+
     @Override
     public String toJs() {
         return SHELL_DB_PREFIX
                 + getCommandName()
                 + "("
-                + BsonUtils.toJson(command)
+                + getRawCommand().toJson()
                 + ");";
     }
 }
@@ -23,17 +23,26 @@ package liquibase.ext.mongodb.statement;
 import com.mongodb.DBRefCodecProvider;
 import com.mongodb.MongoClientSettings;
 import lombok.NoArgsConstructor;
+import org.bson.BsonDocument;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.bson.UuidRepresentation;
+import org.bson.codecs.BsonDocumentCodec;
 import org.bson.codecs.BsonValueCodecProvider;
+import org.bson.codecs.Codec;
 import org.bson.codecs.DocumentCodec;
 import org.bson.codecs.DocumentCodecProvider;
+import org.bson.codecs.RawBsonDocumentCodec;
 import org.bson.codecs.UuidCodec;
 import org.bson.codecs.UuidCodecProvider;
 import org.bson.codecs.ValueCodecProvider;
 import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -56,6 +65,8 @@ public final class BsonUtils {
 
     public static final String ITEMS = "items";
 
+    private static final Codec<Document> RAW_ENCODING_CODEC = uuidCodecRegistry().get(Document.class);
+
     public static CodecRegistry uuidCodecRegistry() {
         return CodecRegistries.fromRegistries(
                 CodecRegistries.fromCodecs(new UuidCodec(UuidRepresentation.STANDARD)),
@@ -63,6 +74,26 @@ public final class BsonUtils {
         );
     }
 
+    /**
+     * Encodes the document with the same codecs the connection uses, so the bytes can be sent as they are.
+     *
+     * @param document the document to encode
+     * @return the encoded document
+     */
+    public static RawBsonDocument toRawDocument(final Document document) {
+        return new RawBsonDocument(document, RAW_ENCODING_CODEC);
+    }
+
+    /**
+     * Decodes the encoded document with the codecs it was encoded with, the result shares nothing with it.
+     *
+     * @param document the encoded document
+     * @return the decoded document
+     */
+    public static Document toDocument(final RawBsonDocument document) {
+        return document.decode(RAW_ENCODING_CODEC);
+    }
+
     public static Document orEmptyDocument(final String json) {
         return (
                 ofNullable(trimToNull(json))
@@ -71,14 +102,46 @@ public final class BsonUtils {
         );
     }
 
+    /**
+     * Decodes a JSON array of documents, or concatenated documents, without copying the input.
+     *
+     * @param json the JSON
+     * @return the documents or an empty list if the JSON is blank
+     */
     public static List<Document> orEmptyList(final String json) {
-        return (
-                ofNullable(trimToNull(json))
-                        .map(jn -> "{ " + ITEMS + ": " + jn + "}")
-                        .map(s -> Document.parse(s, DOCUMENT_CODEC))
-                        .map(d -> d.getList(ITEMS, Document.class, new ArrayList<>()))
-                        .orElseGet(ArrayList::new)
-        );
+        final List<Document> documents = new ArrayList<>();
+        ofNullable(trimToNull(json)).ifPresent(s -> {
+            try (JsonDocumentIterator<Document> iterator = documentIterator(new StringReader(s))) {
+                iterator.forEachRemaining(documents::add);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return documents;
+    }
+
+    /**
+     * @param json the JSON source, closed with the iterator
+     * @return an iterator decoding {@link Document}s one at a time
+     */
+    public static JsonDocumentIterator<Document> documentIterator(final Reader json) {
+        return new JsonDocumentIterator<>(json, DOCUMENT_CODEC);
+    }
+
+    /**
+     * @param json the JSON source, closed with the iterator
+     * @return an iterator decoding {@link BsonDocument}s one at a time
+     */
+    public static JsonDocumentIterator<BsonDocument> bsonDocumentIterator(final Reader json) {
+        return new JsonDocumentIterator<>(json, new BsonDocumentCodec());
+    }
+
+    /**
+     * @param json the JSON source, closed with the iterator
+     * @return an iterator writing every document straight to BSON bytes, ready to be sent
+     */
+    public static JsonDocumentIterator<RawBsonDocument> rawDocumentIterator(final Reader json) {
+        return new JsonDocumentIterator<>(json, new RawBsonDocumentCodec());
     }
 
     public static String toJson(final Document document) {
@@ -0,0 +1,243 @@
+package liquibase.ext.mongodb.statement;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import liquibase.Scope;
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.nosql.statement.NoSqlPipelinedStatement;
+import liquibase.nosql.statement.NoSqlUpdateStatement;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static liquibase.ext.mongodb.statement.AbstractRunCommandStatement.SHELL_DB_PREFIX;
+import static liquibase.ext.mongodb.statement.BsonUtils.orEmptyDocument;
+import static liquibase.ext.mongodb.statement.BsonUtils.orEmptyList;
+
+/**
+ * Performs multiple insert, update, replace and delete operations in as few round trips as possible.
+ * The operations use the shell syntax, for example
+ * {@code [{insertOne: {document: {...}}}, {updateMany: {filter: {...}, update: {...}, upsert: true}}, {deleteOne: {filter: {...}}}]}.
+ * The driver splits the operations into batches within the server limits.
+ * Supported options are {@code ordered} (default true) and {@code bypassDocumentValidation}.
+ *
+ * @see <a href="https://docs.mongodb.com/manual/reference/method/db.collection.bulkWrite/">bulkWrite</a>
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class BulkWriteStatement extends AbstractCollectionStatement
+        implements NoSqlPipelinedStatement<MongoLiquibaseDatabase>, NoSqlUpdateStatement<MongoLiquibaseDatabase> {
+
+    public static final String COMMAND_NAME = "bulkWrite";
+
+    public static final String INSERT_ONE = "insertOne";
+    public static final String UPDATE_ONE = "updateOne";
+    public static final String UPDATE_MANY = "updateMany";
+    public static final String REPLACE_ONE = "replaceOne";
+    public static final String DELETE_ONE = "deleteOne";
+    public static final String DELETE_MANY = "deleteMany";
+
+    public static final String DOCUMENT = "document";
+    public static final String FILTER = "filter";
+    public static final String UPDATE = "update";
+    public static final String REPLACEMENT = "replacement";
+    public static final String UPSERT = "upsert";
+    public static final String ARRAY_FILTERS = "arrayFilters";
+
+    public static final String ORDERED = "ordered";
+    public static final String BYPASS_DOCUMENT_VALIDATION = "bypassDocumentValidation";
+
+    private final List<Document> operations;
+    private final Document options;
+
+    public BulkWriteStatement(final String collectionName, final String operations, final String options) {
+        this(collectionName, new ArrayList<>(orEmptyList(operations)), orEmptyDocument(options));
+    }
+
+    public BulkWriteStatement(final String collectionName, final List<Document> operations, final Document options) {
+        super(collectionName);
+        this.operations = operations;
+        this.options = options;
+    }
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public String getPipelineKey() {
+        return getCollectionName();
+    }
+
+    @Override
+    public String toJs() {
+        return SHELL_DB_PREFIX
+                + getCollectionName()
+                + "."
+                + getCommandName()
+                + "("
+                + operations.stream().map(BsonUtils::toJson).collect(Collectors.joining(", ", "[", "]"))
+                + ", "
+                + BsonUtils.toJson(options)
+                + ");";
+    }
+
+    @Override
+    public void execute(final MongoLiquibaseDatabase database) {
+        run(database);
+    }
+
+    @Override
+    public long executeForCount(final MongoLiquibaseDatabase database) {
+        return update(database);
+    }
+
+    /**
+     * @return the number of documents inserted, upserted, modified and deleted
+     */
+    @Override
+    public int update(final MongoLiquibaseDatabase database) {
+        final BulkWriteResult result = run(database);
+        return result.getInsertedCount() + result.getUpserts().size()
+                + result.getModifiedCount() + result.getDeletedCount();
+    }
+
+    public BulkWriteResult run(final MongoLiquibaseDatabase database) {
+        final MongoCollection<Document> collection = database.getMongoDatabase().getCollection(getCollectionName());
+        final BulkWriteResult result = collection.bulkWrite(toWriteModels(operations), toBulkWriteOptions(options));
+        Scope.getCurrentScope().getLog(getClass()).info(String.format(
+                "bulkWrite on %s: inserted %d, matched %d, modified %d, deleted %d, upserted %d",
+                getCollectionName(), result.getInsertedCount(), result.getMatchedCount(), result.getModifiedCount(),
+                result.getDeletedCount(), result.getUpserts().size()));
+        return result;
+    }
+
+    public static List<WriteModel<Document>> toWriteModels(final List<Document> operations) {
+        return operations.stream().map(BulkWriteStatement::toWriteModel).collect(Collectors.toList());
+    }
+
+    /**
+     * Converts a single shell syntax operation to the driver model.
+     *
+     * @param operation a document with exactly one key naming the operation
+     * @return the write model
+     * @throws IllegalArgumentException if the operation is not supported or misses required fields
+     */
+    public static WriteModel<Document> toWriteModel(final Document operation) {
+        if (operation.size() != 1) {
+            throw new IllegalArgumentException("A bulkWrite operation must have exactly one key but found " + operation.keySet());
+        }
+        final Map.Entry<String, Object> entry = operation.entrySet().iterator().next();
+        if (!(entry.getValue() instanceof Document)) {
+            throw new IllegalArgumentException("The arguments of bulkWrite operation " + entry.getKey() + " must be a document");
+        }
+        final Document arguments = (Document) entry.getValue();
+
+        switch (entry.getKey()) {
+            case INSERT_ONE:
+                return new InsertOneModel<>(required(arguments, entry.getKey(), DOCUMENT));
+            case UPDATE_ONE:
+                return toUpdateOneModel(arguments);
+            case UPDATE_MANY:
+                return toUpdateManyModel(arguments);
+            case REPLACE_ONE:
+                return new ReplaceOneModel<>(required(arguments, REPLACE_ONE, FILTER), required(arguments, REPLACE_ONE, REPLACEMENT),
+                        new ReplaceOptions().upsert(arguments.getBoolean(UPSERT, false)));
+            case DELETE_ONE:
+                return new DeleteOneModel<>(required(arguments, DELETE_ONE, FILTER));
+            case DELETE_MANY:
+                return new DeleteManyModel<>(required(arguments, DELETE_MANY, FILTER));
+            default:
+                throw new IllegalArgumentException("Unsupported bulkWrite operation " + entry.getKey());
+        }
+    }
+
+    private static WriteModel<Document> toUpdateOneModel(final Document arguments) {
+        final Document filter = required(arguments, UPDATE_ONE, FILTER);
+        final Object update = arguments.get(UPDATE);
+        if (update instanceof List) {
+            return new UpdateOneModel<>(filter, toPipeline(update), toUpdateOptions(arguments));
+        }
+        return new UpdateOneModel<>(filter, required(arguments, UPDATE_ONE, UPDATE), toUpdateOptions(arguments));
+    }
+
+    private static WriteModel<Document> toUpdateManyModel(final Document arguments) {
+        final Document filter = required(arguments, UPDATE_MANY, FILTER);
+        final Object update = arguments.get(UPDATE);
+        if (update instanceof List) {
+            return new UpdateManyModel<>(filter, toPipeline(update), toUpdateOptions(arguments));
+        }
+        return new UpdateManyModel<>(filter, required(arguments, UPDATE_MANY, UPDATE), toUpdateOptions(arguments));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Bson> toPipeline(final Object update) {
+        return (List<Bson>) update;
+    }
+
+    private static UpdateOptions toUpdateOptions(final Document arguments) {
+        final UpdateOptions updateOptions = new UpdateOptions().upsert(arguments.getBoolean(UPSERT, false));
+        final List<Document> arrayFilters = arguments.getList(ARRAY_FILTERS, Document.class);
+        if (nonNull(arrayFilters)) {
+            updateOptions.arrayFilters(new ArrayList<>(arrayFilters));
+        }
+        return updateOptions;
+    }
+
+    private static Document required(final Document arguments, final String operation, final String key) {
+        final Object value = arguments.get(key);
+        if (!(value instanceof Document)) {
+            throw new IllegalArgumentException("bulkWrite operation " + operation + " requires document " + key);
+        }
+        return (Document) value;
+    }
+
+    private static BulkWriteOptions toBulkWriteOptions(final Document options) {
+        final BulkWriteOptions bulkWriteOptions = new BulkWriteOptions();
+        if (isNull(options)) {
+            return bulkWriteOptions;
+        }
+        return bulkWriteOptions
+                .ordered(options.getBoolean(ORDERED, true))
+                .bypassDocumentValidation(options.getBoolean(BYPASS_DOCUMENT_VALIDATION));
+    }
+}
@@ -21,6 +21,7 @@ package liquibase.ext.mongodb.statement;
  */
 
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoReadCategory;
 import liquibase.nosql.statement.NoSqlQueryForLongStatement;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -36,7 +37,15 @@ public class CountCollectionByNameStatement extends ListCollectionNamesStatement
         implements NoSqlQueryForLongStatement<MongoLiquibaseDatabase> {
 
     public CountCollectionByNameStatement(final String collectionName) {
-        super(new Document(NAME, collectionName));
+        this(collectionName, null);
+    }
+
+    /**
+     * @param collectionName the collection
+     * @param category       the category routing the read or null to read from the primary
+     */
+    public CountCollectionByNameStatement(final String collectionName, final MongoReadCategory category) {
+        super(new Document(NAME, collectionName), category);
     }
 
     @Override
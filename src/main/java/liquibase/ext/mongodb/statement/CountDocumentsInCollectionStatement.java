@@ -21,6 +21,7 @@ package liquibase.ext.mongodb.statement;
  */
 
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoReadCategory;
 import liquibase.nosql.statement.NoSqlQueryForLongStatement;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -28,6 +29,7 @@ import org.bson.conversions.Bson;
 
 import java.util.Objects;
 
+import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
 import static liquibase.ext.mongodb.statement.AbstractRunCommandStatement.SHELL_DB_PREFIX;
 
@@ -39,14 +41,29 @@ public class CountDocumentsInCollectionStatement extends AbstractCollectionState
     public static final String COMMAND_NAME = "countDocuments";
 
     private final Bson filter;
+    private final MongoReadCategory category;
+    private final String readPreference;
 
     public CountDocumentsInCollectionStatement(final String collectionName) {
         this(collectionName, null);
     }
 
     public CountDocumentsInCollectionStatement(final String collectionName, final Bson filter) {
+        this(collectionName, filter, null, null);
+    }
+
+    /**
+     * @param collectionName the collection
+     * @param filter         the documents to count or null for all of them
+     * @param category       the category routing the read or null to read from the primary
+     * @param readPreference read preference overriding the one of the category or null
+     */
+    public CountDocumentsInCollectionStatement(final String collectionName, final Bson filter,
+                                               final MongoReadCategory category, final String readPreference) {
         super(collectionName);
         this.filter = filter;
+        this.category = category;
+        this.readPreference = readPreference;
     }
 
     @Override
@@ -68,6 +85,9 @@ public class CountDocumentsInCollectionStatement extends AbstractCollectionState
 
     @Override
     public long queryForLong(final MongoLiquibaseDatabase database) {
+        if (nonNull(category)) {
+            return database.getReadRoute(category, readPreference).countDocuments(getCollectionName(), filter);
+        }
         return database.getMongoDatabase().getCollection(getCollectionName()).countDocuments(filter);
     }
 
@@ -20,6 +20,8 @@ package liquibase.ext.mongodb.statement;
  * #L%
  */
 
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.nosql.statement.NoSqlPipelinedStatement;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import org.bson.Document;
@@ -31,10 +33,16 @@ import org.bson.Document;
  */
 @Getter
 @EqualsAndHashCode(callSuper = true)
-public class CreateCollectionStatement extends AbstractRunCommandStatement {
+public class CreateCollectionStatement extends AbstractRunCommandStatement
+        implements NoSqlPipelinedStatement<MongoLiquibaseDatabase> {
 
     public static final String RUN_COMMAND_NAME = "create";
 
+    /**
+     * Error code of the server when the collection already exists
+     */
+    public static final int NAMESPACE_EXISTS = 48;
+
     public CreateCollectionStatement(final String collectionName) {
         this(collectionName, (String) null);
     }
@@ -21,7 +21,7 @@ package liquibase.ext.mongodb.statement;
  */
 
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
-import liquibase.nosql.statement.NoSqlExecuteStatement;
+import liquibase.nosql.statement.NoSqlPipelinedStatement;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import org.bson.Document;
@@ -37,7 +37,7 @@ import static liquibase.ext.mongodb.statement.BsonUtils.toCommand;
 @Getter
 @EqualsAndHashCode(callSuper = true)
 public class DropCollectionStatement extends AbstractRunCommandStatement
-        implements NoSqlExecuteStatement<MongoLiquibaseDatabase> {
+        implements NoSqlPipelinedStatement<MongoLiquibaseDatabase> {
 
     public static final String RUN_COMMAND_NAME = "drop";
 
@@ -20,13 +20,30 @@ package liquibase.ext.mongodb.statement;
  * #L%
  */
 
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoDatabase;
+import liquibase.Scope;
+import liquibase.ext.mongodb.database.MongoConnection;
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoServerLimits;
+import liquibase.nosql.statement.NoSqlCoalescingStatement;
+import liquibase.nosql.statement.NoSqlPipelinedStatement;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import org.bson.BsonArray;
+import org.bson.BsonValue;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static java.lang.Boolean.FALSE;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static liquibase.ext.mongodb.statement.BsonUtils.orEmptyDocument;
 import static liquibase.ext.mongodb.statement.BsonUtils.orEmptyList;
@@ -34,16 +51,28 @@ import static liquibase.ext.mongodb.statement.BsonUtils.toCommand;
 
 /**
  * Inserts many documents via the database runCommand method
+ * The documents are split into as many insert commands as needed to stay within the server wire limits
+ * ({@code maxBsonObjectSize}, {@code maxMessageSizeBytes} and {@code maxWriteBatchSize}).
+ * Batches of an unordered insert are sent concurrently when {@code liquibase.mongodb.insertParallelism} is greater than 1.
  * For a list of supported options see the reference page:
  *
  * @see <a href="https://docs.mongodb.com/manual/reference/command/insert/">insert</a>
  */
 @Getter
 @EqualsAndHashCode(callSuper = true)
-public class InsertManyStatement extends AbstractRunCommandStatement {
+public class InsertManyStatement extends AbstractRunCommandStatement
+        implements NoSqlCoalescingStatement<MongoLiquibaseDatabase>, NoSqlPipelinedStatement<MongoLiquibaseDatabase> {
 
     public static final String RUN_COMMAND_NAME = "insert";
     public static final String DOCUMENTS = "documents";
+    public static final String BATCHES = "batches";
+    public static final String ORDERED = "ordered";
+    public static final String INDEX = "index";
+
+    /**
+     * BSON array element overhead besides the index key: the type byte and the key terminator
+     */
+    private static final int ARRAY_ELEMENT_OVERHEAD = 2;
 
     @Override
     public String getRunCommandName() {
@@ -62,6 +91,216 @@ public class InsertManyStatement extends AbstractRunCommandStatement {
         this(collectionName, documents, new Document());
     }
 
+    protected InsertManyStatement(final Document command) {
+        super(command);
+    }
+
+    /**
+     * Inserts into the same collection with the same options can be sent as one command.
+     */
+    @Override
+    public boolean canCoalesce(final NoSqlCoalescingStatement<?> next) {
+        return next instanceof InsertManyStatement
+                && withoutDocuments(command).equals(withoutDocuments(((InsertManyStatement) next).command));
+    }
+
+    @Override
+    public InsertManyStatement coalesce(final NoSqlCoalescingStatement<?> next) {
+        final List<Document> documents = new ArrayList<>(command.getList(DOCUMENTS, Document.class));
+        documents.addAll(((InsertManyStatement) next).command.getList(DOCUMENTS, Document.class));
+        final Document coalesced = new Document(command);
+        coalesced.put(DOCUMENTS, documents);
+        return new InsertManyStatement(coalesced);
+    }
+
+    private static Document withoutDocuments(final Document command) {
+        final Document withoutDocuments = new Document(command);
+        withoutDocuments.remove(DOCUMENTS);
+        return withoutDocuments;
+    }
+
+    @Override
+    public Document run(final MongoLiquibaseDatabase database) {
+        return run(database.getMongoDatabase(), ((MongoConnection) database.getConnection()).getServerLimits(),
+                database.getInsertParallelism());
+    }
+
+    @Override
+    public Document run(final MongoDatabase mongoDatabase) {
+        return run(mongoDatabase, MongoServerLimits.DEFAULT);
+    }
+
+    public Document run(final MongoDatabase mongoDatabase, final MongoServerLimits limits) {
+        return run(mongoDatabase, limits, 1);
+    }
+
+    /**
+     * Sends the documents in as many batches as required by the server limits.
+     * Ordered inserts send the batches one after another and stop at the first failing batch.
+     * Unordered inserts send up to {@code parallelism} batches concurrently and report the write errors of all of them.
+     *
+     * @param mongoDatabase the database to run against
+     * @param limits        the server wire limits
+     * @param parallelism   maximum number of batches sent concurrently when the insert is unordered
+     * @return the server response when a single batch was sent,
+     * otherwise a response with the total inserted count {@code n} and the count of every batch in {@code batches}
+     */
+    public Document run(final MongoDatabase mongoDatabase, final MongoServerLimits limits, final int parallelism) {
+        final BsonArray documents = getRawCommand().getArray(DOCUMENTS);
+        if (documents.isEmpty()) {
+            return super.run(mongoDatabase);
+        }
+
+        final List<List<RawBsonDocument>> batches = split(documents, limits);
+        final List<Integer> batchCounts;
+        if (batches.size() == 1) {
+            final Document response = runBatch(mongoDatabase, batches.get(0), 1);
+            checkResponse(response);
+            return response;
+        } else if (parallelism > 1 && isUnordered()) {
+            batchCounts = runParallel(mongoDatabase, batches, parallelism);
+        } else {
+            batchCounts = new ArrayList<>(batches.size());
+            for (final List<RawBsonDocument> batch : batches) {
+                final Document response = runBatch(mongoDatabase, batch, batchCounts.size() + 1);
+                checkResponse(response);
+                batchCounts.add(response.getInteger(N, 0));
+            }
+        }
+
+        return new Document(OK, 1.0d)
+                .append(N, batchCounts.stream().mapToInt(Integer::intValue).sum())
+                .append(BATCHES, batchCounts);
+    }
+
+    private boolean isUnordered() {
+        return FALSE.equals(command.getBoolean(ORDERED));
+    }
+
+    /**
+     * Splits the already encoded documents, so they are not encoded again when sent.
+     */
+    private List<List<RawBsonDocument>> split(final BsonArray documents, final MongoServerLimits limits) {
+        final long maxBatchBytes = limits.getMaxBatchBytes() - envelopeBytes();
+        final List<List<RawBsonDocument>> batches = new ArrayList<>();
+        List<RawBsonDocument> batch = new ArrayList<>();
+        long batchBytes = 0;
+
+        for (final BsonValue document : documents) {
+            final RawBsonDocument encoded = (RawBsonDocument) document;
+            final int documentBytes = encoded.getByteBuffer().remaining();
+            if (documentBytes > limits.getMaxBsonObjectSize()) {
+                throw new MongoException("Document of " + documentBytes + " bytes exceeds maxBsonObjectSize of "
+                        + limits.getMaxBsonObjectSize() + " bytes");
+            }
+
+            if (!batch.isEmpty() && (batch.size() >= limits.getMaxWriteBatchSize()
+                    || batchBytes + elementBytes(documentBytes, batch.size()) > maxBatchBytes)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+
+            batchBytes += elementBytes(documentBytes, batch.size());
+            batch.add(encoded);
+        }
+        batches.add(batch);
+        return batches;
+    }
+
+    private int envelopeBytes() {
+        final Document envelope = new Document(command);
+        envelope.put(DOCUMENTS, new ArrayList<>());
+        return BsonUtils.toRawDocument(envelope).getByteBuffer().remaining();
+    }
+
+    private static int elementBytes(final int documentBytes, final int index) {
+        return documentBytes + Integer.toString(index).length() + ARRAY_ELEMENT_OVERHEAD;
+    }
+
+    /**
+     * Sends the batches on a pool of {@code parallelism} threads sharing the client connection pool.
+     * All batches are sent even if some fail, the write errors are then combined into a single failure
+     * with their {@code index} relative to the whole documents list.
+     */
+    private List<Integer> runParallel(final MongoDatabase mongoDatabase, final List<List<RawBsonDocument>> batches,
+                                      final int parallelism) {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, batches.size()));
+        try {
+            final List<Future<Document>> futures = new ArrayList<>(batches.size());
+            for (int i = 0; i < batches.size(); i++) {
+                final List<RawBsonDocument> batch = batches.get(i);
+                final int batchNumber = i + 1;
+                futures.add(executor.submit(() -> runBatch(mongoDatabase, batch, batchNumber)));
+            }
+
+            final List<Integer> batchCounts = new ArrayList<>(batches.size());
+            final List<Document> writeErrors = new ArrayList<>();
+            final List<Document> failedResponses = new ArrayList<>();
+            MongoException failure = null;
+            int offset = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    final Document response = futures.get(i).get();
+                    batchCounts.add(response.getInteger(N, 0));
+                    final List<Document> batchWriteErrors = response.getList(WRITE_ERRORS, Document.class);
+                    if (nonNull(batchWriteErrors)) {
+                        for (final Document writeError : batchWriteErrors) {
+                            writeErrors.add(new Document(writeError).append(INDEX, writeError.getInteger(INDEX, 0) + offset));
+                        }
+                    }
+                    if (!Double.valueOf(1.0d).equals(response.getDouble(OK))) {
+                        failedResponses.add(response);
+                    }
+                } catch (final ExecutionException e) {
+                    batchCounts.add(0);
+                    failure = addFailure(failure, e.getCause());
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MongoException("Interrupted while inserting documents", e);
+                }
+                offset += batches.get(i).size();
+            }
+
+            if (!writeErrors.isEmpty() || !failedResponses.isEmpty()) {
+                final Document report = new Document(OK, failedResponses.isEmpty() ? 1.0d : 0.0d)
+                        .append(N, batchCounts.stream().mapToInt(Integer::intValue).sum())
+                        .append(BATCHES, batchCounts)
+                        .append(WRITE_ERRORS, writeErrors);
+                if (!failedResponses.isEmpty()) {
+                    report.append("failedBatches", failedResponses);
+                }
+                failure = addFailure(failure, new MongoException("Command failed. The full response is " + report.toJson()));
+            }
+            if (nonNull(failure)) {
+                throw failure;
+            }
+            return batchCounts;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static MongoException addFailure(final MongoException failure, final Throwable cause) {
+        final MongoException exception = cause instanceof MongoException
+                ? (MongoException) cause : new MongoException(cause.getMessage(), cause);
+        if (isNull(failure)) {
+            return exception;
+        }
+        failure.addSuppressed(exception);
+        return failure;
+    }
+
+    private Document runBatch(final MongoDatabase mongoDatabase, final List<RawBsonDocument> batch, final int batchNumber) {
+        final Document batchCommand = new Document(command);
+        batchCommand.put(DOCUMENTS, batch);
+
+        final Document response = mongoDatabase.runCommand(batchCommand);
+        Scope.getCurrentScope().getLog(getClass()).fine(String.format("Inserted %s of %d document(s) into %s in batch %d",
+                response.get(N), batch.size(), command.get(RUN_COMMAND_NAME), batchNumber));
+        return response;
+    }
+
     private static Document combine(final List<Document> documents, final Document options) {
         final Document combined = new Document(DOCUMENTS, documents);
         if (nonNull(options)) {
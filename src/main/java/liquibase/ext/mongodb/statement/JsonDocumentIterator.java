@@ -0,0 +1,115 @@
+package liquibase.ext.mongodb.statement;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.bson.BsonType;
+import org.bson.codecs.Decoder;
+import org.bson.codecs.DecoderContext;
+import org.bson.json.JsonReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Decodes documents one at a time from a JSON source so the whole payload never has to be held in memory.
+ * Supports an Extended JSON array of documents {@code [{...}, {...}]} as well as
+ * newline delimited (or simply concatenated) documents {@code {...}\n{...}}.
+ * The decoder determines the document type, for example a {@link org.bson.codecs.RawBsonDocumentCodec}
+ * writes the JSON straight to BSON bytes without building a document tree.
+ *
+ * @param <T> the type of the decoded documents
+ * @see BsonUtils#documentIterator(Reader)
+ * @see BsonUtils#rawDocumentIterator(Reader)
+ */
+public class JsonDocumentIterator<T> implements Iterator<T>, Closeable {
+
+    private final Reader source;
+    private final JsonReader reader;
+    private final Decoder<T> decoder;
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+
+    private boolean insideArray;
+    private boolean finished;
+    private BsonType nextType;
+
+    public JsonDocumentIterator(final Reader source, final Decoder<T> decoder) {
+        this.source = source;
+        this.reader = new JsonReader(source);
+        this.decoder = decoder;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (finished) {
+            return false;
+        }
+        if (isNull(nextType)) {
+            nextType = readNextType();
+        }
+        if (nextType == BsonType.END_OF_DOCUMENT) {
+            finished = true;
+            return false;
+        }
+        if (nextType != BsonType.DOCUMENT) {
+            throw new IllegalArgumentException("Expected a document or an array of documents but found " + nextType);
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        nextType = null;
+        return decoder.decode(reader, decoderContext);
+    }
+
+    private BsonType readNextType() {
+        final BsonType type = reader.readBsonType();
+        if (!insideArray && type == BsonType.ARRAY) {
+            reader.readStartArray();
+            insideArray = true;
+            return reader.readBsonType();
+        }
+        if (insideArray && type == BsonType.END_OF_DOCUMENT) {
+            reader.readEndArray();
+            // only whitespace may follow the array, as when it was parsed as a whole
+            final BsonType trailing = reader.readBsonType();
+            if (trailing != BsonType.END_OF_DOCUMENT) {
+                throw new IllegalArgumentException("Expected the end of input after the array of documents but found " + trailing);
+            }
+        }
+        return type;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        reader.close();
+        source.close();
+    }
+}
@@ -21,6 +21,7 @@ package liquibase.ext.mongodb.statement;
  */
 
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoReadCategory;
 import liquibase.nosql.statement.NoSqlQueryForListStatement;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -29,6 +30,7 @@ import org.bson.Document;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static java.util.Objects.nonNull;
 import static liquibase.ext.mongodb.statement.BsonUtils.toCommand;
 
 /**
@@ -50,6 +52,8 @@ public class ListCollectionNamesStatement extends AbstractRunCommandStatement
     public static final String AUTHORIZED_COLLECTIONS = "authorizedCollections";
     public static final String NAME_ONLY = "nameOnly";
 
+    private final MongoReadCategory category;
+
     /**
      * Create a listCollections statement with no filter.
      * i.e to return all collection names
@@ -64,7 +68,18 @@ public class ListCollectionNamesStatement extends AbstractRunCommandStatement
      * @param filter the filter to apply
      */
     public ListCollectionNamesStatement(final Document filter) {
+        this(filter, null);
+    }
+
+    /**
+     * Create a listCollections statement with the supplied filter.
+     *
+     * @param filter   the filter to apply
+     * @param category the category routing the read or null to read from the primary
+     */
+    public ListCollectionNamesStatement(final Document filter, final MongoReadCategory category) {
         super(toCommand(RUN_COMMAND_NAME, 1, combine(filter)));
+        this.category = category;
     }
 
     @Override
@@ -76,7 +91,13 @@ public class ListCollectionNamesStatement extends AbstractRunCommandStatement
     @Override
     public List<String> queryForList(final MongoLiquibaseDatabase database) {
 
-        final Document response = super.run(database);
+        final Document response;
+        if (nonNull(category)) {
+            response = database.getReadRoute(category).runCommand(getRawCommand());
+            checkResponse(response);
+        } else {
+            response = super.run(database);
+        }
         final List<Document> firstBatch = response.get(CURSOR, Document.class).get(FIRST_BATCH, List.class);
         return firstBatch.stream()
                 .map(document -> document.getString(NAME))
@@ -0,0 +1,153 @@
+package liquibase.ext.mongodb.statement;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.nosql.statement.NoSqlPipelinedStatement;
+import liquibase.nosql.statement.NoSqlUpdateStatement;
+import liquibase.resource.ResourceAccessor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.bson.Document;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Optional.ofNullable;
+import static liquibase.ext.mongodb.statement.AbstractRunCommandStatement.SHELL_DB_PREFIX;
+
+/**
+ * Streams documents from a file into a collection.
+ * The file is decoded incrementally and written in batches of at most {@code batchSize} documents
+ * so memory usage does not depend on the size of the file.
+ * The file may contain newline delimited JSON documents or a single array of documents, in Extended JSON.
+ *
+ * @see JsonDocumentIterator
+ * @see InsertManyStatement
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class LoadDocumentsStatement extends AbstractCollectionStatement
+        implements NoSqlPipelinedStatement<MongoLiquibaseDatabase>, NoSqlUpdateStatement<MongoLiquibaseDatabase> {
+
+    public static final String COMMAND_NAME = "loadDocuments";
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final String file;
+    private final String relativeTo;
+    private final int batchSize;
+    private final Document options;
+
+    @EqualsAndHashCode.Exclude
+    private final ResourceAccessor resourceAccessor;
+
+    public LoadDocumentsStatement(final String collectionName, final String file, final String relativeTo,
+                                  final Integer batchSize, final Document options, final ResourceAccessor resourceAccessor) {
+        super(collectionName);
+        this.file = file;
+        this.relativeTo = relativeTo;
+        this.batchSize = ofNullable(batchSize).orElse(DEFAULT_BATCH_SIZE);
+        this.options = options;
+        this.resourceAccessor = resourceAccessor;
+    }
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public String getPipelineKey() {
+        return getCollectionName();
+    }
+
+    @Override
+    public String toJs() {
+        return
+                SHELL_DB_PREFIX +
+                        getCollectionName() +
+                        "." +
+                        getCommandName() +
+                        "(\"" +
+                        file +
+                        "\", " +
+                        BsonUtils.toJson(options) +
+                        ");";
+    }
+
+    @Override
+    public void execute(final MongoLiquibaseDatabase database) {
+        update(database);
+    }
+
+    @Override
+    public long executeForCount(final MongoLiquibaseDatabase database) {
+        return update(database);
+    }
+
+    /**
+     * Loads the documents from the file
+     *
+     * @param database the database to run against
+     * @return the number of inserted documents
+     */
+    @Override
+    public int update(final MongoLiquibaseDatabase database) {
+        try (InputStream stream = resourceAccessor.openStream(relativeTo, file)) {
+            if (isNull(stream)) {
+                throw new UnexpectedLiquibaseException("Documents file " + file + " does not exist");
+            }
+            return load(database, BsonUtils.documentIterator(new BufferedReader(new InputStreamReader(stream, UTF_8))));
+        } catch (final IOException e) {
+            throw new UnexpectedLiquibaseException("Could not read documents file " + file, e);
+        }
+    }
+
+    private int load(final MongoLiquibaseDatabase database, final JsonDocumentIterator<Document> documents) throws IOException {
+        try (JsonDocumentIterator<Document> iterator = documents) {
+            final List<Document> batch = new ArrayList<>(batchSize);
+            int inserted = 0;
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= batchSize) {
+                    inserted += insert(database, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                inserted += insert(database, batch);
+            }
+            return inserted;
+        }
+    }
+
+    private int insert(final MongoLiquibaseDatabase database, final List<Document> batch) {
+        final Document response = new InsertManyStatement(getCollectionName(), batch, options).run(database);
+        return ofNullable(response.getInteger("n")).orElse(batch.size());
+    }
+}
@@ -23,6 +23,7 @@ package liquibase.nosql.changelog;
 import liquibase.Scope;
 import liquibase.changelog.AbstractChangeLogHistoryService;
 import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
 import liquibase.changelog.RanChangeSet;
 import liquibase.exception.DatabaseException;
 import liquibase.exception.DatabaseHistoryException;
@@ -31,26 +32,57 @@ import liquibase.executor.ExecutorService;
 import liquibase.logging.Logger;
 import liquibase.nosql.database.AbstractNoSqlDatabase;
 import liquibase.nosql.executor.NoSqlExecutor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.time.Clock;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
+import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.isNull;
 import static liquibase.plugin.Plugin.PRIORITY_SPECIALIZED;
 
 public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabase> extends AbstractChangeLogHistoryService {
 
+    public static final int DEFAULT_HISTORY_BATCH_SIZE = 1000;
+
     @Getter
     private List<RanChangeSet> ranChangeSetList;
 
+    /**
+     * First entry of {@link #ranChangeSetList} per changeSet identity, kept in step with the list.
+     */
+    private Map<RanChangeSetKey, RanChangeSet> ranChangeSetIndex;
+
     private boolean serviceInitialized;
 
+    /**
+     * ChangeSets recorded as ran with {@link #pendingExecType} but not written to the repository yet
+     */
+    private final List<ChangeSet> pendingExecTypes = new ArrayList<>();
+
+    private ChangeSet.ExecType pendingExecType;
+
+    /**
+     * ChangeSets removed from the history but not deleted from the repository yet
+     */
+    private final List<ChangeSet> pendingRemovals = new ArrayList<>();
+
+    /**
+     * {@link AbstractNoSqlDatabase#getWriteCount()} after the last history write
+     */
+    private long historyWriteCount = -1L;
+
     @Getter
     private Boolean hasDatabaseChangeLogTable;
 
@@ -92,10 +124,22 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
         return (NoSqlExecutor) Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor(NoSqlExecutor.EXECUTOR_NAME, getDatabase());
     }
 
+    /**
+     * Writes the pending changeSets first, a reset history is read from the repository again.
+     */
     @Override
     public void reset() {
+        if (!pendingExecTypes.isEmpty() || !pendingRemovals.isEmpty()) {
+            try {
+                flushHistory();
+            } catch (final DatabaseException e) {
+                throw new UnexpectedLiquibaseException(e);
+            }
+        }
         super.reset();
+        this.historyWriteCount = -1L;
         this.ranChangeSetList = null;
+        this.ranChangeSetIndex = null;
         this.serviceInitialized = false;
         this.hasDatabaseChangeLogTable = null;
         this.adjustedChangeLogTable = FALSE;
@@ -108,6 +152,15 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
             return;
         }
 
+        if (isRepositoryCurrent()) {
+            getLogger().info("Database history collection is up to date: "
+                    + getDatabase().getConnection().getCatalog() + "." + this.getDatabaseChangeLogTableName());
+            this.hasDatabaseChangeLogTable = TRUE;
+            this.adjustedChangeLogTable = TRUE;
+            this.serviceInitialized = true;
+            return;
+        }
+
         if (!hasDatabaseChangeLogTable()) {
             getLogger().info("Create Database Change Log Collection");
 
@@ -144,9 +197,19 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
      */
     @Override
     public List<RanChangeSet> getRanChangeSets() throws DatabaseException {
+        flushHistory();
+        return loadRanChangeSets();
+    }
+
+    /**
+     * The cached history already reflects the pending writes, so they are not flushed for a lookup.
+     */
+    private List<RanChangeSet> loadRanChangeSets() throws DatabaseException {
 
         if (isNull(this.ranChangeSetList)) {
             this.ranChangeSetList = queryRanChangeSets();
+            this.ranChangeSetIndex = new HashMap<>(this.ranChangeSetList.size() * 4 / 3 + 1);
+            this.ranChangeSetList.forEach(this::index);
         }
         return unmodifiableList(ranChangeSetList);
     }
@@ -154,6 +217,7 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
     @Override
     public void replaceChecksum(final ChangeSet changeSet) throws DatabaseException {
 
+        flushHistory();
         updateCheckSum(changeSet);
 
         getLogger().info(String.format("Replace checksum executed. ChangeSet: [filename: %s, id: %s, author: %s]"
@@ -162,39 +226,188 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
         reset();
     }
 
+    /**
+     * Looks the changeSet up in the hash index instead of scanning the history,
+     * matching it the same way as {@link RanChangeSet#isSameAs(ChangeSet)}.
+     */
     @Override
     public RanChangeSet getRanChangeSet(final ChangeSet changeSet) throws DatabaseException, DatabaseHistoryException {
         if (!hasDatabaseChangeLogTable()) {
             return null;
         }
-        return super.getRanChangeSet(changeSet);
+        loadRanChangeSets();
+        return ranChangeSetIndex.get(RanChangeSetKey.of(changeSet.getFilePath(), changeSet.getId(), changeSet.getAuthor()));
     }
 
+    /**
+     * Records the changeSet as ran. When nothing was written to the database since the last history write,
+     * as during a changelog sync, the changeSet is kept pending and written with the following ones in batches of
+     * {@link #getHistoryBatchSize()}. Otherwise it is written at once, since its own statements already ran.
+     * Pending changeSets are written before any other history access and when the lock is released.
+     */
     @Override
     public void setExecType(final ChangeSet changeSet, final ChangeSet.ExecType execType) throws DatabaseException {
 
-        final Integer nextSequenceValue = getNextSequenceValue();
+        // the changeSet statements still buffered or in flight must succeed before it is recorded as ran
+        getNoSqlDatabase().flushStatements();
 
-        markChangeSetRun(changeSet, execType, nextSequenceValue);
+        if (!pendingRemovals.isEmpty() || (!pendingExecTypes.isEmpty() && pendingExecType != execType)) {
+            flushHistory();
+        }
+        final boolean deferrable = getNoSqlDatabase().getWriteCount() == historyWriteCount;
+        pendingExecType = execType;
+        pendingExecTypes.add(changeSet);
+        if (!deferrable || pendingExecTypes.size() >= getHistoryBatchSize()) {
+            flushHistory();
+        }
 
-        getDatabase().commit();
-        if (this.ranChangeSetList != null) {
-            this.ranChangeSetList.add(new RanChangeSet(changeSet, execType, null, null));
+        addRanChangeSet(new RanChangeSet(changeSet, execType, null, null));
+    }
+
+    /**
+     * Records many changeSets at once, for example when synchronizing the history of a database migrated by hand.
+     * The changeSets are written in batches of {@link #getHistoryBatchSize()}, each with its sequence values
+     * allocated together and committed once.
+     *
+     * @param changeSets the changeSets in execution order
+     * @param execType   the execution type recorded for all of them
+     * @throws DatabaseException in case of a failure
+     */
+    public void setExecTypes(final List<ChangeSet> changeSets, final ChangeSet.ExecType execType) throws DatabaseException {
+
+        getNoSqlDatabase().flushStatements();
+        flushHistory();
+
+        writeExecTypes(changeSets, execType);
+        changeSets.forEach(changeSet -> addRanChangeSet(new RanChangeSet(changeSet, execType, null, null)));
+        this.historyWriteCount = getNoSqlDatabase().getWriteCount();
+    }
+
+    private void writeExecTypes(final List<ChangeSet> changeSets, final ChangeSet.ExecType execType) throws DatabaseException {
+        for (int from = 0; from < changeSets.size(); from += getHistoryBatchSize()) {
+            final List<ChangeSet> batch = changeSets.subList(from, Math.min(changeSets.size(), from + getHistoryBatchSize()));
+            final Integer firstSequenceValue = getNextSequenceValues(batch.size());
+
+            markChangeSetsRun(batch, execType, firstSequenceValue);
+
+            getDatabase().commit();
         }
     }
 
+    /**
+     * Removes the changeSet from the history. The deletion is kept pending and sent with the following ones
+     * in batches of {@link #getHistoryBatchSize()}, so rolling back many changeSets takes few round trips.
+     * Pending deletions are sent before any other history access and when the lock is released.
+     */
     @Override
     public void removeFromHistory(final ChangeSet changeSet) throws DatabaseException {
 
-        removeRanChangeSet(changeSet);
+        if (!pendingExecTypes.isEmpty()) {
+            flushHistory();
+        }
+        pendingRemovals.add(changeSet);
+        uncache(singletonList(changeSet));
+        if (pendingRemovals.size() >= getHistoryBatchSize()) {
+            flushHistory();
+        }
+    }
+
+    /**
+     * Removes many changeSets at once, for example when rolling back a count of changeSets or to a tag.
+     * The changeSets are deleted in batches of {@link #getHistoryBatchSize()} and the cached history
+     * is updated in a single pass.
+     *
+     * @param changeSets the changeSets to remove
+     * @throws DatabaseException in case of a failure
+     */
+    public void removeFromHistory(final List<ChangeSet> changeSets) throws DatabaseException {
+
+        if (!pendingExecTypes.isEmpty()) {
+            flushHistory();
+        }
+        pendingRemovals.addAll(changeSets);
+        uncache(changeSets);
+        flushHistory();
+    }
 
+    /**
+     * Writes the pending changeSets and deletions to the repository.
+     *
+     * @throws DatabaseException in case of a failure
+     */
+    public void flushHistory() throws DatabaseException {
+        if (!pendingRemovals.isEmpty()) {
+            final List<ChangeSet> removals = new ArrayList<>(pendingRemovals);
+            pendingRemovals.clear();
+            for (int from = 0; from < removals.size(); from += getHistoryBatchSize()) {
+                final List<ChangeSet> batch = removals.subList(from, Math.min(removals.size(), from + getHistoryBatchSize()));
+                if (batch.size() == 1) {
+                    removeRanChangeSet(batch.get(0));
+                } else {
+                    removeRanChangeSets(batch);
+                }
+            }
+        }
+        if (!pendingExecTypes.isEmpty()) {
+            final List<ChangeSet> changeSets = new ArrayList<>(pendingExecTypes);
+            pendingExecTypes.clear();
+            if (changeSets.size() == 1) {
+                markChangeSetRun(changeSets.get(0), pendingExecType, getNextSequenceValue());
+                getDatabase().commit();
+            } else {
+                writeExecTypes(changeSets, pendingExecType);
+            }
+        }
+        this.historyWriteCount = getNoSqlDatabase().getWriteCount();
+    }
+
+    /**
+     * The repository removes every entry of a changeSet, so do all of them.
+     */
+    private void uncache(final List<ChangeSet> changeSets) {
         if (this.ranChangeSetList != null) {
-            this.ranChangeSetList.remove(new RanChangeSet(changeSet));
+            final Set<RanChangeSetKey> keys = new HashSet<>(changeSets.size());
+            for (final ChangeSet changeSet : changeSets) {
+                keys.add(RanChangeSetKey.of(changeSet.getFilePath(), changeSet.getId(), changeSet.getAuthor()));
+            }
+            this.ranChangeSetList.removeIf(ranChangeSet -> keys.contains(RanChangeSetKey.of(ranChangeSet)));
+            keys.forEach(this.ranChangeSetIndex::remove);
         }
     }
 
+    private void addRanChangeSet(final RanChangeSet ranChangeSet) {
+        if (this.ranChangeSetList != null) {
+            this.ranChangeSetList.add(ranChangeSet);
+            index(ranChangeSet);
+        }
+    }
+
+    private void index(final RanChangeSet ranChangeSet) {
+        this.ranChangeSetIndex.putIfAbsent(RanChangeSetKey.of(ranChangeSet), ranChangeSet);
+    }
+
     @Override
     public int getNextSequenceValue() throws DatabaseException {
+        return getNextSequenceValues(1);
+    }
+
+    /**
+     * Allocates consecutive sequence values, reserved in the repository when it keeps a sequence,
+     * otherwise following a single lookup of the last one.
+     *
+     * @param count the number of values, at least 1
+     * @return the first of the allocated values
+     * @throws DatabaseException in case of a failure
+     */
+    public int getNextSequenceValues(final int count) throws DatabaseException {
+        if (!isNull(getDatabase().getConnection())) {
+            final Integer lastReserved = reserveSequenceValues(count);
+            if (!isNull(lastReserved)) {
+                this.lastChangeSetSequenceValue = lastReserved;
+                return lastReserved - count + 1;
+            }
+        }
+
         if (isNull(this.lastChangeSetSequenceValue)) {
             if (isNull(getDatabase().getConnection())) {
                 this.lastChangeSetSequenceValue = 0;
@@ -203,9 +416,16 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
             }
         }
 
-        this.lastChangeSetSequenceValue++;
+        final int first = this.lastChangeSetSequenceValue + 1;
+        this.lastChangeSetSequenceValue += count;
+        return first;
+    }
 
-        return this.lastChangeSetSequenceValue;
+    /**
+     * @return the maximum number of changeSets recorded or removed in one batch
+     */
+    public int getHistoryBatchSize() {
+        return DEFAULT_HISTORY_BATCH_SIZE;
     }
 
     /**
@@ -213,12 +433,14 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
      */
     @Override
     public void tag(final String tagString) throws DatabaseException {
+        flushHistory();
         final long totalRows = countRanChangeSets();
         if (totalRows == 0L) {
             final ChangeSet emptyChangeSet = new ChangeSet(String.valueOf(new Date().getTime()), "liquibase",
                     false, false, "liquibase-internal", null, null,
                     getDatabase().getObjectQuotingStrategy(), null);
             this.setExecType(emptyChangeSet, ChangeSet.ExecType.EXECUTED);
+            flushHistory();
         }
 
         tagLast(tagString);
@@ -230,6 +452,7 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
 
     @Override
     public boolean tagExists(final String tag) throws DatabaseException {
+        flushHistory();
         final long count = countTags(tag);
         return count > 0L;
     }
@@ -244,6 +467,8 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
     public void clearAllCheckSums() throws DatabaseException {
         getLogger().info("Clear all checksums");
 
+        flushHistory();
+
         clearChekSums();
 
         getLogger().info("Clear all checksums executed");
@@ -255,6 +480,9 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
         try {
             getLogger().info("Dropping Collection Database Change Log: " + getDatabaseChangeLogTableName());
 
+            // nothing left to record in a dropped history
+            pendingExecTypes.clear();
+            pendingRemovals.clear();
             if (existsRepository()) {
                 dropRepository();
                 getLogger().info("Dropped Collection Database Change Log: " + getDatabaseChangeLogTableName());
@@ -275,16 +503,65 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
 
     protected abstract void adjustRepository() throws DatabaseException;
 
+    /**
+     * @return true when the repository is known to exist with the current definitions,
+     * so creating and adjusting it can be skipped
+     * @throws DatabaseException in case of a failure
+     */
+    protected boolean isRepositoryCurrent() throws DatabaseException {
+        return false;
+    }
+
     protected abstract void dropRepository() throws DatabaseException;
 
     protected abstract List<RanChangeSet> queryRanChangeSets() throws DatabaseException;
 
     protected abstract Integer generateNextSequence() throws DatabaseException;
 
+    /**
+     * Atomically reserves sequence values in the repository so concurrent writers never share one.
+     *
+     * @param count the number of values to reserve
+     * @return the last of the reserved values or null when the repository keeps no sequence
+     * and the values continue from {@link #generateNextSequence()}
+     * @throws DatabaseException in case of a failure
+     */
+    protected Integer reserveSequenceValues(final int count) throws DatabaseException {
+        return null;
+    }
+
     protected abstract void markChangeSetRun(ChangeSet changeSet, ChangeSet.ExecType execType, Integer nextSequenceValue) throws DatabaseException;
 
+    /**
+     * Records a batch of changeSets with consecutive sequence values, one by one unless overridden.
+     *
+     * @param changeSets         the batch
+     * @param execType           the execution type
+     * @param firstSequenceValue the sequence value of the first changeSet
+     * @throws DatabaseException in case of a failure
+     */
+    protected void markChangeSetsRun(final List<ChangeSet> changeSets, final ChangeSet.ExecType execType,
+                                     final Integer firstSequenceValue) throws DatabaseException {
+        int sequenceValue = firstSequenceValue;
+        for (final ChangeSet changeSet : changeSets) {
+            markChangeSetRun(changeSet, execType, sequenceValue++);
+        }
+    }
+
     protected abstract void removeRanChangeSet(ChangeSet changeSet) throws DatabaseException;
 
+    /**
+     * Removes a batch of changeSets from the repository, one by one unless overridden.
+     *
+     * @param changeSets the batch
+     * @throws DatabaseException in case of a failure
+     */
+    protected void removeRanChangeSets(final List<ChangeSet> changeSets) throws DatabaseException {
+        for (final ChangeSet changeSet : changeSets) {
+            removeRanChangeSet(changeSet);
+        }
+    }
+
     protected abstract void clearChekSums() throws DatabaseException;
 
     protected abstract long countTags(String tag) throws DatabaseException;
@@ -295,4 +572,40 @@ public abstract class AbstractNoSqlHistoryService<D extends AbstractNoSqlDatabas
 
     protected abstract void updateCheckSum(ChangeSet changeSet) throws DatabaseException;
 
+    /**
+     * Identity of a changeSet in the history, the changelog path is normalized and all parts are case folded
+     * per character exactly like {@link String#equalsIgnoreCase(String)} compares them.
+     */
+    @EqualsAndHashCode
+    static final class RanChangeSetKey {
+
+        private final String changeLog;
+        private final String id;
+        private final String author;
+
+        private RanChangeSetKey(final String changeLog, final String id, final String author) {
+            this.changeLog = fold(DatabaseChangeLog.normalizePath(changeLog));
+            this.id = fold(id);
+            this.author = fold(author);
+        }
+
+        static RanChangeSetKey of(final RanChangeSet ranChangeSet) {
+            return new RanChangeSetKey(ranChangeSet.getChangeLog(), ranChangeSet.getId(), ranChangeSet.getAuthor());
+        }
+
+        static RanChangeSetKey of(final String changeLog, final String id, final String author) {
+            return new RanChangeSetKey(changeLog, id, author);
+        }
+
+        private static String fold(final String value) {
+            if (isNull(value)) {
+                return null;
+            }
+            final char[] chars = value.toCharArray();
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+            }
+            return new String(chars);
+        }
+    }
 }
@@ -27,14 +27,25 @@ import liquibase.database.DatabaseConnection;
 import liquibase.exception.DatabaseException;
 import liquibase.exception.LiquibaseException;
 import liquibase.exception.ValidationErrors;
+import liquibase.nosql.executor.NoSqlExecutor;
+import liquibase.nosql.executor.NoSqlStatementPipeline;
+import liquibase.nosql.executor.NoSqlStatementRecorder;
+import liquibase.nosql.statement.NoSqlCoalescingStatement;
+import liquibase.nosql.statement.NoSqlExecuteStatement;
+import liquibase.nosql.statement.NoSqlPipelinedStatement;
 import liquibase.statement.DatabaseFunction;
 import liquibase.structure.DatabaseObject;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.math.BigInteger;
 import java.util.Collections;
 import java.util.List;
 
+import static java.lang.Boolean.FALSE;
+import static liquibase.nosql.executor.NoSqlStatementEvent.EXECUTE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
 
 /**
@@ -45,6 +56,18 @@ import static java.util.Optional.ofNullable;
 @NoArgsConstructor
 public abstract class AbstractNoSqlDatabase extends AbstractJdbcDatabase implements Database {
 
+    private NoSqlCoalescingStatement<?> pendingStatement;
+
+    private NoSqlStatementPipeline pipeline;
+    private NoSqlStatementRecorder statementRecorder;
+
+    /**
+     * Number of writes sent through the executor and of commits, tells whether anything changed the database
+     * between two points in time.
+     */
+    @Getter
+    private long writeCount;
+
     @Override
     public int getPriority() {
         return PRIORITY_DATABASE;
@@ -316,6 +339,163 @@ public abstract class AbstractNoSqlDatabase extends AbstractJdbcDatabase impleme
     @Override
     public abstract String getDatabaseProductName();
 
+    /**
+     * Whether {@link NoSqlExecutor} may buffer {@link liquibase.nosql.statement.NoSqlCoalescingStatement}s
+     * and send consecutive ones as a single statement. Disabled unless overridden.
+     *
+     * @return true to enable coalescing
+     */
+    public Boolean getCoalesceStatements() {
+        return FALSE;
+    }
+
+    /**
+     * Statement buffered by {@link NoSqlExecutor} until a statement it cannot be coalesced with is executed
+     * or the database is committed.
+     *
+     * @return the buffered statement or null
+     */
+    public NoSqlCoalescingStatement<?> getPendingStatement() {
+        return pendingStatement;
+    }
+
+    public void setPendingStatement(final NoSqlCoalescingStatement<?> pendingStatement) {
+        this.pendingStatement = pendingStatement;
+    }
+
+    /**
+     * Maximum number of {@link NoSqlPipelinedStatement}s sent and not completed yet.
+     * The default of 1 executes every statement synchronously.
+     *
+     * @return the maximum number of statements in flight
+     */
+    public Integer getMaxInFlightStatements() {
+        return 1;
+    }
+
+    /**
+     * Executes the statement, asynchronously if pipelining is enabled and the statement supports it.
+     * Statements not supporting pipelining wait for the pipelined ones to complete first.
+     *
+     * @param statement the statement to execute
+     * @throws DatabaseException in case of a failure
+     */
+    @SuppressWarnings("unchecked")
+    public void executeStatement(final NoSqlExecuteStatement<?> statement) throws DatabaseException {
+        final NoSqlExecuteStatement<AbstractNoSqlDatabase> executeStatement = (NoSqlExecuteStatement<AbstractNoSqlDatabase>) statement;
+        if (statement instanceof NoSqlPipelinedStatement && getMaxInFlightStatements() > 1) {
+            afterWrite();
+            getPipeline().submit(((NoSqlPipelinedStatement<?>) statement).getPipelineKey(),
+                    () -> getStatementRecorder().record(EXECUTE, statement, () -> executeStatement.executeForCount(this), n -> n));
+            return;
+        }
+        awaitPipelinedStatements();
+        try {
+            getStatementRecorder().record(EXECUTE, statement, () -> executeStatement.executeForCount(this), n -> n);
+        } catch (final Exception e) {
+            throw new DatabaseException("Could not execute", e);
+        } finally {
+            afterWrite();
+        }
+    }
+
+    /**
+     * Notified when a statement which may write was sent through the executor. Overrides must call it.
+     */
+    public void afterWrite() {
+        writeCount++;
+    }
+
+    /**
+     * Times the statements sent to the database, by default reporting to the
+     * {@link liquibase.nosql.executor.NoSqlStatementMetrics} found on the classpath.
+     *
+     * @return the statement recorder
+     */
+    public NoSqlStatementRecorder getStatementRecorder() {
+        if (isNull(statementRecorder)) {
+            statementRecorder = NoSqlStatementRecorder.getInstance();
+        }
+        return statementRecorder;
+    }
+
+    public void setStatementRecorder(final NoSqlStatementRecorder statementRecorder) {
+        this.statementRecorder = statementRecorder;
+    }
+
+    /**
+     * Executes the statement buffered by coalescing, if any.
+     *
+     * @throws DatabaseException in case of a failure
+     */
+    public void flushPendingStatement() throws DatabaseException {
+        if (isNull(pendingStatement)) {
+            return;
+        }
+        final NoSqlCoalescingStatement<?> statement = pendingStatement;
+        pendingStatement = null;
+        executeStatement(statement);
+    }
+
+    /**
+     * Waits for the pipelined statements to complete.
+     *
+     * @throws DatabaseException if any of them failed
+     */
+    public void awaitPipelinedStatements() throws DatabaseException {
+        if (nonNull(pipeline)) {
+            pipeline.await();
+        }
+    }
+
+    /**
+     * Executes the buffered statement and waits for the pipelined ones, so that their failures are reported.
+     *
+     * @throws DatabaseException in case of a failure
+     */
+    public void flushStatements() throws DatabaseException {
+        flushPendingStatement();
+        awaitPipelinedStatements();
+    }
+
+    private NoSqlStatementPipeline getPipeline() {
+        if (isNull(pipeline)) {
+            pipeline = new NoSqlStatementPipeline(getMaxInFlightStatements());
+        }
+        return pipeline;
+    }
+
+    /**
+     * Sends the buffered statements, so a changeSet boundary is also a coalescing and pipelining boundary.
+     */
+    @Override
+    public void commit() throws DatabaseException {
+        flushStatements();
+        writeCount++;
+        super.commit();
+    }
+
+    /**
+     * Drops the buffered statement, as it belongs to the failed changeSet.
+     */
+    @Override
+    public void rollback() throws DatabaseException {
+        pendingStatement = null;
+        if (nonNull(pipeline)) {
+            pipeline.awaitQuietly();
+        }
+        super.rollback();
+    }
+
+    @Override
+    public void close() throws DatabaseException {
+        if (nonNull(pipeline)) {
+            pipeline.close();
+            pipeline = null;
+        }
+        super.close();
+    }
+
     @Override
     public boolean isCorrectDatabaseImplementation(final DatabaseConnection conn) throws DatabaseException {
         return getDatabaseProductName().equals(conn.getDatabaseProductName());
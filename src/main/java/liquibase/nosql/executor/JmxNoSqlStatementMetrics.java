@@ -0,0 +1,91 @@
+package liquibase.nosql.executor;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.Scope;
+import liquibase.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Default {@link NoSqlStatementMetrics} registered as the {@value #OBJECT_NAME} MBean,
+ * keeping a latency histogram per command.
+ */
+public class JmxNoSqlStatementMetrics implements NoSqlStatementMetrics, JmxNoSqlStatementMetricsMXBean {
+
+    public static final String OBJECT_NAME = "liquibase.nosql:type=StatementMetrics";
+
+    private final ConcurrentMap<String, NoSqlStatementHistogram> histograms = new ConcurrentHashMap<>();
+
+    public JmxNoSqlStatementMetrics() {
+        register(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    JmxNoSqlStatementMetrics(final MBeanServer server) {
+        register(server);
+    }
+
+    private void register(final MBeanServer server) {
+        final Logger log = Scope.getCurrentScope().getLog(getClass());
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                log.fine(OBJECT_NAME + " is already registered, statement metrics are not exposed");
+                return;
+            }
+            server.registerMBean(this, name);
+        } catch (final JMException e) {
+            log.warning("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public void statementCompleted(final NoSqlStatementEvent event) {
+        histograms.computeIfAbsent(event.getCommandName(), c -> new NoSqlStatementHistogram()).record(event);
+    }
+
+    @Override
+    public Map<String, NoSqlStatementHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    @Override
+    public long getStatementCount() {
+        return histograms.values().stream().mapToLong(NoSqlStatementHistogram::getCount).sum();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return histograms.values().stream().mapToLong(NoSqlStatementHistogram::getFailures).sum();
+    }
+
+    @Override
+    public void reset() {
+        histograms.clear();
+    }
+}
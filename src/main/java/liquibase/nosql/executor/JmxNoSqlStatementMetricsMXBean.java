@@ -0,0 +1,40 @@
+package liquibase.nosql.executor;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link JmxNoSqlStatementMetrics}.
+ */
+public interface JmxNoSqlStatementMetricsMXBean {
+
+    /**
+     * @return the latency histograms keyed by command name
+     */
+    Map<String, NoSqlStatementHistogram> getHistograms();
+
+    long getStatementCount();
+
+    long getFailureCount();
+
+    void reset();
+}
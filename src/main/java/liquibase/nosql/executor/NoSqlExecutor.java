@@ -27,8 +27,12 @@ import liquibase.nosql.changelog.AbstractNoSqlHistoryService;
 import liquibase.nosql.database.AbstractNoSqlConnection;
 import liquibase.nosql.database.AbstractNoSqlDatabase;
 import liquibase.exception.DatabaseException;
+import liquibase.exception.LockException;
 import liquibase.executor.AbstractExecutor;
+import liquibase.lockservice.LockService;
+import liquibase.lockservice.LockServiceFactory;
 import liquibase.logging.Logger;
+import liquibase.nosql.lockservice.AbstractNoSqlLockService;
 import liquibase.nosql.statement.*;
 import liquibase.servicelocator.LiquibaseService;
 import liquibase.sql.visitor.SqlVisitor;
@@ -38,9 +42,17 @@ import lombok.NoArgsConstructor;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.ToLongFunction;
 
+import static java.lang.Boolean.FALSE;
 import static java.util.Collections.emptyList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
+import static liquibase.nosql.executor.NoSqlStatementEvent.QUERY_FOR_LIST;
+import static liquibase.nosql.executor.NoSqlStatementEvent.QUERY_FOR_LONG;
+import static liquibase.nosql.executor.NoSqlStatementEvent.QUERY_FOR_OBJECT;
+import static liquibase.nosql.executor.NoSqlStatementEvent.UPDATE;
 
 @LiquibaseService
 @NoArgsConstructor
@@ -82,10 +94,11 @@ public class NoSqlExecutor extends AbstractExecutor {
 
     @Override
     public <T> T queryForObject(final SqlStatement sql, final Class<T> requiredType, final List<SqlVisitor> sqlVisitors) throws DatabaseException {
+        flush();
         if (sql instanceof NoSqlQueryForObjectStatement) {
             try {
-                return ((NoSqlQueryForObjectStatement<?>) sql)
-                        .queryForObject(getDatabase(), requiredType);
+                return record(QUERY_FOR_OBJECT, sql, () -> ((NoSqlQueryForObjectStatement<?>) sql)
+                        .queryForObject(getDatabase(), requiredType), r -> nonNull(r) ? 1L : 0L);
             } catch (final Exception e) {
                 throw new DatabaseException("Could not query for object", e);
             }
@@ -100,9 +113,11 @@ public class NoSqlExecutor extends AbstractExecutor {
 
     @Override
     public long queryForLong(final SqlStatement sql, final List<SqlVisitor> sqlVisitors) throws DatabaseException {
+        flush();
         if (sql instanceof NoSqlQueryForLongStatement) {
             try {
-                return ((NoSqlQueryForLongStatement<? extends AbstractNoSqlDatabase>) sql).queryForLong(getDatabase());
+                return record(QUERY_FOR_LONG, sql, () -> ((NoSqlQueryForLongStatement<? extends AbstractNoSqlDatabase>) sql)
+                        .queryForLong(getDatabase()), r -> 1L);
             } catch (final Exception e) {
                 throw new DatabaseException("Could not query for long", e);
             }
@@ -128,9 +143,11 @@ public class NoSqlExecutor extends AbstractExecutor {
     @Override
     @SuppressWarnings("unchecked")
     public List<Object> queryForList(final SqlStatement sql, final Class elementType, final List<SqlVisitor> sqlVisitors) throws DatabaseException {
+        flush();
         if (sql instanceof NoSqlQueryForListStatement) {
             try {
-                return ((NoSqlQueryForListStatement<? extends AbstractNoSqlDatabase, Object>) sql).queryForList(getDatabase());
+                return record(QUERY_FOR_LIST, sql, () -> ((NoSqlQueryForListStatement<? extends AbstractNoSqlDatabase, Object>) sql)
+                        .queryForList(getDatabase()), List::size);
             } catch (final Exception e) {
                 throw new DatabaseException("Could not query for list", e);
             }
@@ -176,13 +193,23 @@ public class NoSqlExecutor extends AbstractExecutor {
 
     @Override
     public void execute(final SqlStatement sql, final List<SqlVisitor> sqlVisitors) throws DatabaseException {
-        if (sql instanceof NoSqlExecuteStatement) {
-            try {
-                ((NoSqlExecuteStatement<? extends AbstractNoSqlDatabase>) sql).execute(getDatabase());
-            } catch (final Exception e) {
-                throw new DatabaseException("Could not execute", e);
+        checkDispatch(sql);
+        if (sql instanceof NoSqlCoalescingStatement && isCoalescing()) {
+            final NoSqlCoalescingStatement<?> statement = (NoSqlCoalescingStatement<?>) sql;
+            final NoSqlCoalescingStatement<?> pendingStatement = getDatabase().getPendingStatement();
+            if (nonNull(pendingStatement) && pendingStatement.canCoalesce(statement)) {
+                getDatabase().setPendingStatement(pendingStatement.coalesce(statement));
+            } else {
+                getDatabase().flushPendingStatement();
+                getDatabase().setPendingStatement(statement);
             }
+            return;
+        }
+        if (sql instanceof NoSqlExecuteStatement) {
+            getDatabase().flushPendingStatement();
+            getDatabase().executeStatement((NoSqlExecuteStatement<?>) sql);
         } else if (sql instanceof UpdateStatement) {
+            flush();
             execute((UpdateStatement) sql);
         } else {
             throw new IllegalArgumentException();
@@ -196,17 +223,61 @@ public class NoSqlExecutor extends AbstractExecutor {
 
     @Override
     public int update(final SqlStatement sql, final List<SqlVisitor> sqlVisitors) throws DatabaseException {
+        checkDispatch(sql);
+        flush();
         if (sql instanceof NoSqlUpdateStatement) {
             try {
-                return ((NoSqlUpdateStatement<? extends AbstractNoSqlDatabase>) sql).update(getDatabase());
+                return record(UPDATE, sql, () -> ((NoSqlUpdateStatement<? extends AbstractNoSqlDatabase>) sql)
+                        .update(getDatabase()), r -> r);
             } catch (final Exception e) {
                 throw new DatabaseException("Could not execute", e);
+            } finally {
+                getDatabase().afterWrite();
             }
         } else {
             throw new IllegalArgumentException();
         }
     }
 
+    /**
+     * Executes the statement buffered by coalescing, if any, and waits for the pipelined ones.
+     *
+     * @throws DatabaseException in case of a failure
+     */
+    public void flush() throws DatabaseException {
+        if (nonNull(database)) {
+            getDatabase().flushStatements();
+        }
+    }
+
+    /**
+     * Lets the lock service of the database refuse the write, e.g. once the lock lease was lost.
+     */
+    private void checkDispatch(final SqlStatement sql) throws DatabaseException {
+        if (isNull(database)) {
+            return;
+        }
+        final LockService lockService = LockServiceFactory.getInstance().getLockService(database);
+        if (lockService instanceof AbstractNoSqlLockService) {
+            try {
+                ((AbstractNoSqlLockService<?>) lockService).checkDispatch(sql);
+            } catch (final LockException e) {
+                throw new DatabaseException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private <T> T record(final String operation, final SqlStatement sql, final NoSqlStatementRecorder.Dispatch<T, RuntimeException> dispatch,
+                         final ToLongFunction<T> documents) {
+        return getDatabase().getStatementRecorder().record(operation, sql, dispatch, documents);
+    }
+
+    private boolean isCoalescing() {
+        return ofNullable(database)
+                .map(d -> ((AbstractNoSqlDatabase) d).getCoalesceStatements())
+                .orElse(FALSE);
+    }
+
     @Override
     public void comment(final String message) {
         log.info(message);
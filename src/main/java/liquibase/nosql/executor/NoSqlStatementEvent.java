@@ -0,0 +1,81 @@
+package liquibase.nosql.executor;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+
+/**
+ * A statement dispatch reported to {@link NoSqlStatementMetrics}.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class NoSqlStatementEvent {
+
+    public static final String QUERY_FOR_OBJECT = "queryForObject";
+    public static final String QUERY_FOR_LONG = "queryForLong";
+    public static final String QUERY_FOR_LIST = "queryForList";
+    public static final String EXECUTE = "execute";
+    public static final String UPDATE = "update";
+
+    public static final long UNKNOWN_DOCUMENTS = -1L;
+
+    /**
+     * The executor method the statement was dispatched through, one of the constants above.
+     */
+    private final String operation;
+
+    /**
+     * The command name of the statement, see {@link liquibase.nosql.statement.AbstractNoSqlStatement#getCommandName()}.
+     */
+    private final String commandName;
+
+    /**
+     * The collection the statement works on or null if it is not collection specific.
+     */
+    private final String collectionName;
+
+    private final long durationNanos;
+
+    /**
+     * The documents returned or affected by the statement or {@link #UNKNOWN_DOCUMENTS}.
+     */
+    private final long documents;
+
+    /**
+     * The failure of the statement or null if it succeeded.
+     */
+    private final Throwable failure;
+
+    public long getDuration(final TimeUnit unit) {
+        return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isSucceeded() {
+        return isNull(failure);
+    }
+}
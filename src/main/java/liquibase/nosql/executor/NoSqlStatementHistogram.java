@@ -0,0 +1,126 @@
+package liquibase.nosql.executor;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histogram of a command with power of two buckets of microseconds,
+ * so percentiles are reported as the upper bound of their bucket, within a factor of two.
+ */
+public class NoSqlStatementHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final long[] buckets = new long[BUCKETS];
+    private long count;
+    private long failures;
+    private long documents;
+    private long totalNanos;
+    private long minNanos = Long.MAX_VALUE;
+    private long maxNanos;
+
+    public synchronized void record(final NoSqlStatementEvent event) {
+        final long nanos = Math.max(0L, event.getDurationNanos());
+        final long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros))]++;
+        count++;
+        totalNanos += nanos;
+        minNanos = Math.min(minNanos, nanos);
+        maxNanos = Math.max(maxNanos, nanos);
+        if (!event.isSucceeded()) {
+            failures++;
+        }
+        if (event.getDocuments() > 0) {
+            documents += event.getDocuments();
+        }
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    public synchronized long getDocuments() {
+        return documents;
+    }
+
+    public synchronized double getTotalMillis() {
+        return toMillis(totalNanos);
+    }
+
+    public synchronized double getMinMillis() {
+        return count == 0 ? 0 : toMillis(minNanos);
+    }
+
+    public synchronized double getMaxMillis() {
+        return toMillis(maxNanos);
+    }
+
+    public synchronized double getMeanMillis() {
+        return count == 0 ? 0 : toMillis(totalNanos) / count;
+    }
+
+    /**
+     * @return documents per second of statement time
+     */
+    public synchronized double getDocumentsPerSecond() {
+        return totalNanos == 0 ? 0 : documents * 1e9 / totalNanos;
+    }
+
+    public double getP50Millis() {
+        return getPercentileMillis(50);
+    }
+
+    public double getP95Millis() {
+        return getPercentileMillis(95);
+    }
+
+    public double getP99Millis() {
+        return getPercentileMillis(99);
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket holding the percentile, capped by the maximum recorded
+     */
+    public synchronized double getPercentileMillis(final double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(TimeUnit.MICROSECONDS.toNanos(1L << i), maxNanos) / 1e6;
+            }
+        }
+        return toMillis(maxNanos);
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,37 @@
+package liquibase.nosql.executor;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Receives the timing and outcome of every statement dispatched by {@link NoSqlExecutor}.
+ * Implementations are discovered with {@link java.util.ServiceLoader} and may be called concurrently
+ * when statements are pipelined.
+ *
+ * @see NoSqlStatementRecorder
+ */
+public interface NoSqlStatementMetrics {
+
+    /**
+     * @param event the completed, or failed, statement dispatch
+     */
+    void statementCompleted(NoSqlStatementEvent event);
+
+}
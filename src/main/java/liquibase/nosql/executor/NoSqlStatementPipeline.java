@@ -0,0 +1,128 @@
+package liquibase.nosql.executor;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.exception.DatabaseException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.newSetFromMap;
+import static java.util.Objects.nonNull;
+
+/**
+ * Runs tasks asynchronously with at most {@code maxInFlight} of them submitted and not yet completed.
+ * Tasks with the same key run in submission order and a task is skipped if the previous one with its key failed.
+ * Submitting and awaiting is expected from a single thread, the one driving the changelog execution.
+ */
+public class NoSqlStatementPipeline implements AutoCloseable {
+
+    private final Semaphore permits;
+    private final ExecutorService pool;
+    private final Map<String, CompletableFuture<Void>> lastByKey = new HashMap<>();
+    private final List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+
+    public NoSqlStatementPipeline(final int maxInFlight) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.permits = new Semaphore(maxInFlight);
+        this.pool = Executors.newFixedThreadPool(maxInFlight, r -> {
+            final Thread thread = new Thread(r, "liquibase-nosql-pipeline-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submits the task, blocking while {@code maxInFlight} tasks are not completed yet.
+     *
+     * @param key  tasks with the same key run in order
+     * @param task the task
+     * @throws DatabaseException if interrupted while waiting
+     */
+    public void submit(final String key, final Runnable task) throws DatabaseException {
+        try {
+            permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while waiting for pipelined statements", e);
+        }
+        final CompletableFuture<Void> previous = lastByKey.getOrDefault(key, CompletableFuture.completedFuture(null));
+        final CompletableFuture<Void> future = previous.thenRunAsync(task, pool);
+        future.whenComplete((result, error) -> permits.release());
+        lastByKey.put(key, future);
+        inFlight.add(future);
+    }
+
+    /**
+     * Waits for all submitted tasks.
+     *
+     * @throws DatabaseException with the first failure as cause and the other ones suppressed
+     */
+    public void await() throws DatabaseException {
+        final Set<Throwable> failures = newSetFromMap(new IdentityHashMap<>());
+        Throwable failure = null;
+        for (final CompletableFuture<Void> future : inFlight) {
+            try {
+                future.join();
+            } catch (final CompletionException e) {
+                final Throwable cause = nonNull(e.getCause()) ? e.getCause() : e;
+                if (failures.add(cause)) {
+                    if (nonNull(failure)) {
+                        failure.addSuppressed(cause);
+                    } else {
+                        failure = cause;
+                    }
+                }
+            }
+        }
+        inFlight.clear();
+        lastByKey.clear();
+        if (nonNull(failure)) {
+            throw new DatabaseException("Could not execute", failure);
+        }
+    }
+
+    /**
+     * Waits for all submitted tasks ignoring their failures.
+     */
+    public void awaitQuietly() {
+        try {
+            await();
+        } catch (final DatabaseException e) {
+            // the failures are reported by the caller that triggered the rollback
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,134 @@
+package liquibase.nosql.executor;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.Scope;
+import liquibase.logging.Logger;
+import liquibase.nosql.statement.AbstractNoSqlStatement;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.ToLongFunction;
+
+import static java.util.Objects.isNull;
+import static liquibase.nosql.executor.NoSqlStatementEvent.UNKNOWN_DOCUMENTS;
+
+/**
+ * Times statement dispatches and reports them to the {@link NoSqlStatementMetrics} implementations.
+ * Nothing is measured when there are none.
+ */
+public class NoSqlStatementRecorder {
+
+    private static NoSqlStatementRecorder instance;
+
+    private final Logger log = Scope.getCurrentScope().getLog(getClass());
+
+    @Getter
+    private final List<NoSqlStatementMetrics> metrics;
+
+    public NoSqlStatementRecorder(final List<NoSqlStatementMetrics> metrics) {
+        this.metrics = Collections.unmodifiableList(new ArrayList<>(metrics));
+    }
+
+    /**
+     * @return the recorder reporting to the {@link NoSqlStatementMetrics} found with {@link ServiceLoader}
+     */
+    public static synchronized NoSqlStatementRecorder getInstance() {
+        if (isNull(instance)) {
+            final List<NoSqlStatementMetrics> metrics = new ArrayList<>();
+            ServiceLoader.load(NoSqlStatementMetrics.class, Scope.getCurrentScope().getClassLoader())
+                    .forEach(metrics::add);
+            instance = new NoSqlStatementRecorder(metrics);
+        }
+        return instance;
+    }
+
+    /**
+     * Runs the dispatch and reports its duration, the documents it returned or affected and its failure if any.
+     *
+     * @param operation the executor operation, see {@link NoSqlStatementEvent}
+     * @param statement the dispatched statement
+     * @param dispatch  sends the statement
+     * @param documents counts the documents returned or affected given the result
+     * @param <T>       the result type
+     * @param <E>       the failure type
+     * @return the result of the dispatch
+     * @throws E in case of a failure
+     */
+    public <T, E extends Exception> T record(final String operation, final Object statement, final Dispatch<T, E> dispatch,
+                                             final ToLongFunction<T> documents) throws E {
+        if (metrics.isEmpty()) {
+            return dispatch.run();
+        }
+        final long start = System.nanoTime();
+        final T result;
+        try {
+            result = dispatch.run();
+        } catch (final Exception e) {
+            publish(operation, statement, System.nanoTime() - start, UNKNOWN_DOCUMENTS, e);
+            throw e;
+        }
+        publish(operation, statement, System.nanoTime() - start, documents.applyAsLong(result), null);
+        return result;
+    }
+
+    /**
+     * Runs a dispatch without a result, reporting the affected documents as unknown.
+     *
+     * @param operation the executor operation, see {@link NoSqlStatementEvent}
+     * @param statement the dispatched statement
+     * @param dispatch  sends the statement
+     */
+    public void record(final String operation, final Object statement, final Runnable dispatch) {
+        record(operation, statement, () -> {
+            dispatch.run();
+            return null;
+        }, r -> UNKNOWN_DOCUMENTS);
+    }
+
+    private void publish(final String operation, final Object statement, final long durationNanos,
+                         final long documents, final Throwable failure) {
+        final NoSqlStatementEvent event;
+        if (statement instanceof AbstractNoSqlStatement) {
+            final AbstractNoSqlStatement noSqlStatement = (AbstractNoSqlStatement) statement;
+            event = new NoSqlStatementEvent(operation, noSqlStatement.getCommandName(), noSqlStatement.getCollectionName(),
+                    durationNanos, documents, failure);
+        } else {
+            event = new NoSqlStatementEvent(operation, statement.getClass().getSimpleName(), null,
+                    durationNanos, documents, failure);
+        }
+        for (final NoSqlStatementMetrics listener : metrics) {
+            try {
+                listener.statementCompleted(event);
+            } catch (final RuntimeException e) {
+                log.warning("Statement metrics " + listener.getClass().getName() + " failed", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Dispatch<T, E extends Exception> {
+        T run() throws E;
+    }
+}
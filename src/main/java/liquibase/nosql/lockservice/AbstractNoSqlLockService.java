@@ -21,6 +21,8 @@ package liquibase.nosql.lockservice;
  */
 
 import liquibase.Scope;
+import liquibase.changelog.ChangeLogHistoryService;
+import liquibase.changelog.ChangeLogHistoryServiceFactory;
 import liquibase.configuration.GlobalConfiguration;
 import liquibase.configuration.LiquibaseConfiguration;
 import liquibase.database.Database;
@@ -31,14 +33,17 @@ import liquibase.executor.ExecutorService;
 import liquibase.lockservice.DatabaseChangeLogLock;
 import liquibase.lockservice.LockService;
 import liquibase.logging.Logger;
+import liquibase.nosql.changelog.AbstractNoSqlHistoryService;
 import liquibase.nosql.database.AbstractNoSqlDatabase;
 import liquibase.nosql.executor.NoSqlExecutor;
+import liquibase.statement.SqlStatement;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.text.DateFormat;
 import java.time.Clock;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
@@ -47,6 +52,8 @@ import static liquibase.plugin.Plugin.PRIORITY_SPECIALIZED;
 
 public abstract class AbstractNoSqlLockService<D extends AbstractNoSqlDatabase> implements LockService {
 
+    public static final long BACKOFF_BASE_MILLIS = 100L;
+
     private D database;
 
     private boolean hasChangeLogLock;
@@ -61,6 +68,16 @@ public abstract class AbstractNoSqlLockService<D extends AbstractNoSqlDatabase>
     @Getter
     private Boolean adjustedChangeLogLockTable = FALSE;
 
+    @Setter
+    private NoSqlLockRecorder lockRecorder;
+
+    /**
+     * Set while {@link #waitForLock()} retries, which reports the acquisition itself
+     */
+    private boolean waiting;
+
+    private long lockAcquiredNanos;
+
     /**
      * Clock field in order to make it testable
      */
@@ -90,6 +107,12 @@ public abstract class AbstractNoSqlLockService<D extends AbstractNoSqlDatabase>
     @Override
     public void init() throws DatabaseException {
 
+        if (!adjustedChangeLogLockTable && isRepositoryCurrent()) {
+            this.hasDatabaseChangeLogLockTable = true;
+            this.adjustedChangeLogLockTable = TRUE;
+            return;
+        }
+
         if (!hasDatabaseChangeLogLockTable()) {
             getLogger().info("Create Database Lock Collection: "
                     + (getDatabase().getConnection()).getCatalog() + "." + getDatabaseChangeLogLockTableName());
@@ -109,24 +132,41 @@ public abstract class AbstractNoSqlLockService<D extends AbstractNoSqlDatabase>
         return hasChangeLogLock;
     }
 
+    /**
+     * Called by the {@link NoSqlExecutor} before each write is dispatched, nothing is checked by default.
+     *
+     * @param statement the statement about to be sent to the database
+     * @throws LockException when this process must not write anymore, e.g. the lock was lost
+     */
+    public void checkDispatch(final SqlStatement statement) throws LockException {
+    }
+
     @Override
     public void waitForLock() throws LockException {
 
         boolean locked = false;
+        final boolean held = hasChangeLogLock;
 
+        final long waitStart = System.nanoTime();
         final long timeToGiveUp = getClock().instant().plusSeconds(getChangeLogLockWaitTime() * 60).toEpochMilli();
-        while (!locked && (getClock().instant().toEpochMilli() < timeToGiveUp)) {
-            locked = acquireLock();
-            if (!locked) {
-                getLogger().info("Waiting for changelog lock....");
-                try {
-                    //noinspection BusyWait
-                    Thread.sleep(getChangeLogLockRecheckTime() * 1000);
-                } catch (InterruptedException e) {
-                    // Restore thread interrupt status
-                    Thread.currentThread().interrupt();
+        int attempt = 0;
+        waiting = true;
+        try {
+            while (!locked && (getClock().instant().toEpochMilli() < timeToGiveUp)) {
+                locked = acquireLock();
+                if (!locked) {
+                    getLogger().info("Waiting for changelog lock....");
+                    try {
+                        awaitLockChange(attempt++);
+                    } catch (InterruptedException e) {
+                        // Restore thread interrupt status
+                        Thread.currentThread().interrupt();
+                    }
                 }
             }
+        } finally {
+            waiting = false;
+            afterWaitForLock();
         }
 
         if (!locked) {
@@ -140,8 +180,75 @@ public abstract class AbstractNoSqlLockService<D extends AbstractNoSqlDatabase>
             } else {
                 lockedBy = "UNKNOWN";
             }
+            publishLockEvent(new NoSqlLockEvent(NoSqlLockEvent.TIMED_OUT, getLockName(),
+                    locks.length > 0 ? locks[0].getLockedBy() : null, attempt, System.nanoTime() - waitStart, 0L));
             throw new LockException("Could not acquire change log lock.  Currently locked by " + lockedBy);
         }
+        if (!held) {
+            publishLockEvent(new NoSqlLockEvent(NoSqlLockEvent.ACQUIRED, getLockName(), getLockOwner(),
+                    attempt + 1, lockAcquiredNanos - waitStart, 0L));
+        }
+    }
+
+    /**
+     * Waits before the next acquisition attempt of {@link #waitForLock()}.
+     * By default sleeps for {@link #getBackoffMillis(int)}, implementations may return as soon as the lock changes.
+     *
+     * @param attempt number of the failed attempts before, starting at 0
+     * @throws InterruptedException when interrupted while waiting
+     */
+    protected void awaitLockChange(final int attempt) throws InterruptedException {
+        //noinspection BusyWait
+        Thread.sleep(getBackoffMillis(attempt));
+    }
+
+    /**
+     * Called when {@link #waitForLock()} returns, to release what {@link #awaitLockChange(int)} acquired.
+     */
+    protected void afterWaitForLock() {
+    }
+
+    /**
+     * Reports the event to the {@link NoSqlLockMetrics}.
+     *
+     * @param event the lock acquisition, timeout or release
+     */
+    protected void publishLockEvent(final NoSqlLockEvent event) {
+        getLockRecorder().publish(event);
+    }
+
+    /**
+     * @return the recorder reporting lock events, by default to the {@link NoSqlLockMetrics} found on the classpath
+     */
+    public NoSqlLockRecorder getLockRecorder() {
+        if (isNull(lockRecorder)) {
+            lockRecorder = NoSqlLockRecorder.getInstance();
+        }
+        return lockRecorder;
+    }
+
+    /**
+     * @return the name of the lock taken by this service, null for a single lock
+     */
+    protected String getLockName() {
+        return null;
+    }
+
+    /**
+     * @return the identity of this process as recorded in the lock
+     */
+    protected abstract String getLockOwner();
+
+    /**
+     * Exponential backoff starting at {@link #BACKOFF_BASE_MILLIS} and capped by {@link #getChangeLogLockRecheckTime()}.
+     * The delay is jittered between its half and its full value so that waiting processes do not poll in lockstep.
+     *
+     * @param attempt number of the failed attempts before, starting at 0
+     * @return milliseconds to wait before the next attempt
+     */
+    public long getBackoffMillis(final int attempt) {
+        final long delay = Math.min(getChangeLogLockRecheckTime() * 1000, BACKOFF_BASE_MILLIS << Math.min(attempt, 20));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
     }
 
     @Override
@@ -150,11 +257,13 @@ public abstract class AbstractNoSqlLockService<D extends AbstractNoSqlDatabase>
             return true;
         }
 
+        final long acquireStart = System.nanoTime();
         try {
             database.rollback();
             this.init();
 
-            if (isLocked()) {
+            // a conditional replace fails by itself when the lock is held, it is not read before then
+            if (!isLockReplacedConditionally() && isLocked()) {
                 return false;
             } else {
                 getLogger().info("Lock Database");
@@ -173,6 +282,11 @@ public abstract class AbstractNoSqlLockService<D extends AbstractNoSqlDatabase>
                 getLogger().info("Successfully Acquired Change Log Lock");
 
                 this.hasChangeLogLock = true;
+                this.lockAcquiredNanos = System.nanoTime();
+                if (!waiting) {
+                    publishLockEvent(new NoSqlLockEvent(NoSqlLockEvent.ACQUIRED, getLockName(), getLockOwner(),
+                            1, lockAcquiredNanos - acquireStart, 0L));
+                }
 
                 // TODO: Not sure what is the purpose of this
                 // this.database.setCanCacheLiquibaseTableInfo(true);
@@ -193,16 +307,30 @@ public abstract class AbstractNoSqlLockService<D extends AbstractNoSqlDatabase>
     @Override
     public void releaseLock() throws LockException {
 
+        DatabaseException historyFailure = null;
         try {
             if (hasDatabaseChangeLogLockTable()) {
 
                 getLogger().info("Release Database Lock");
 
+                if (hasChangeLogLock) {
+                    try {
+                        flushHistory();
+                    } catch (final DatabaseException e) {
+                        // the lock is released anyway, the failure is reported after
+                        historyFailure = e;
+                    }
+                }
+
                 database.rollback();
 
                 final int rowsUpdated = replaceLock(false);
 
-                if (rowsUpdated != 1) {
+                if (rowsUpdated == 0) {
+                    throw new LockException("Did not release change log lock, it is no longer held by " + getLockOwner() +
+                            ": it was force released or taken over by another process, e.g. after the lease expired");
+                }
+                if (rowsUpdated > 1) {
                     throw new LockException("Did not update change log lock correctly.\n\n" +
                             rowsUpdated +
                             " rows were updated instead of the expected 1 row " +
@@ -210,6 +338,10 @@ public abstract class AbstractNoSqlLockService<D extends AbstractNoSqlDatabase>
                     );
                 }
                 database.commit();
+                if (hasChangeLogLock) {
+                    publishLockEvent(new NoSqlLockEvent(NoSqlLockEvent.RELEASED, getLockName(), getLockOwner(),
+                            0, 0L, System.nanoTime() - lockAcquiredNanos));
+                }
             }
         } catch (Exception e) {
             throw new LockException(e);
@@ -223,6 +355,19 @@ public abstract class AbstractNoSqlLockService<D extends AbstractNoSqlDatabase>
                 getLogger().severe("Error on released change log lock Rollback.", e);
             }
         }
+        if (historyFailure != null) {
+            throw new LockException("Could not write the pending change log history", historyFailure);
+        }
+    }
+
+    /**
+     * Writes the history kept pending by the history service while the lock is still held.
+     */
+    private void flushHistory() throws DatabaseException {
+        final ChangeLogHistoryService historyService = ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(database);
+        if (historyService instanceof AbstractNoSqlHistoryService) {
+            ((AbstractNoSqlHistoryService<?>) historyService).flushHistory();
+        }
     }
 
     @Override
@@ -318,12 +463,29 @@ public abstract class AbstractNoSqlLockService<D extends AbstractNoSqlDatabase>
 
     protected abstract void adjustRepository() throws DatabaseException;
 
+    /**
+     * @return true when the repository is known to exist with the current definitions,
+     * so creating and adjusting it can be skipped
+     * @throws DatabaseException in case of a failure
+     */
+    protected boolean isRepositoryCurrent() throws DatabaseException {
+        return false;
+    }
+
     protected abstract void dropRepository() throws DatabaseException;
 
     protected abstract Boolean isLocked() throws DatabaseException;
 
     protected abstract int replaceLock(boolean locked) throws DatabaseException;
 
+    /**
+     * @return true when {@link #replaceLock(boolean)} only takes a free lock and returns 0 otherwise,
+     * so acquiring the lock needs no {@link #isLocked()} read before
+     */
+    protected boolean isLockReplacedConditionally() {
+        return false;
+    }
+
     protected abstract List<DatabaseChangeLogLock> queryLocks() throws DatabaseException;
 
 }
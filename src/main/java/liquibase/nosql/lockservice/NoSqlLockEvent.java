@@ -0,0 +1,78 @@
+package liquibase.nosql.lockservice;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A change log lock acquisition, timeout or release reported to {@link NoSqlLockMetrics}.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class NoSqlLockEvent {
+
+    public static final String ACQUIRED = "acquired";
+    public static final String TIMED_OUT = "timedOut";
+    public static final String RELEASED = "released";
+
+    /**
+     * One of the constants above.
+     */
+    private final String type;
+
+    /**
+     * The name of the lock or null for the single shared lock.
+     */
+    private final String lockName;
+
+    /**
+     * The holder of the lock: this process when acquired or released, the process holding it on a timeout.
+     */
+    private final String lockedBy;
+
+    /**
+     * The acquisition attempts until the lock was acquired or the wait timed out, 0 on release.
+     */
+    private final int attempts;
+
+    /**
+     * The time spent waiting for the lock, 0 on release.
+     */
+    private final long waitNanos;
+
+    /**
+     * The time the lock was held, only known on release.
+     */
+    private final long holdNanos;
+
+    public long getWait(final TimeUnit unit) {
+        return unit.convert(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getHold(final TimeUnit unit) {
+        return unit.convert(holdNanos, TimeUnit.NANOSECONDS);
+    }
+}
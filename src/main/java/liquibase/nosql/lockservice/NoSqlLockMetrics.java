@@ -0,0 +1,36 @@
+package liquibase.nosql.lockservice;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Receives the change log lock acquisitions, timeouts and releases of {@link AbstractNoSqlLockService}.
+ * Implementations are discovered with {@link java.util.ServiceLoader}.
+ *
+ * @see NoSqlLockRecorder
+ */
+public interface NoSqlLockMetrics {
+
+    /**
+     * @param event the lock acquisition, timeout or release
+     */
+    void lockEvent(NoSqlLockEvent event);
+
+}
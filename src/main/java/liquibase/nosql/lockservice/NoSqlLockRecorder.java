@@ -0,0 +1,75 @@
+package liquibase.nosql.lockservice;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.Scope;
+import liquibase.logging.Logger;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Reports lock events to the {@link NoSqlLockMetrics} implementations.
+ */
+public class NoSqlLockRecorder {
+
+    private static NoSqlLockRecorder instance;
+
+    private final Logger log = Scope.getCurrentScope().getLog(getClass());
+
+    @Getter
+    private final List<NoSqlLockMetrics> metrics;
+
+    public NoSqlLockRecorder(final List<NoSqlLockMetrics> metrics) {
+        this.metrics = Collections.unmodifiableList(new ArrayList<>(metrics));
+    }
+
+    /**
+     * @return the recorder reporting to the {@link NoSqlLockMetrics} found with {@link ServiceLoader}
+     */
+    public static synchronized NoSqlLockRecorder getInstance() {
+        if (isNull(instance)) {
+            final List<NoSqlLockMetrics> metrics = new ArrayList<>();
+            ServiceLoader.load(NoSqlLockMetrics.class, Scope.getCurrentScope().getClassLoader())
+                    .forEach(metrics::add);
+            instance = new NoSqlLockRecorder(metrics);
+        }
+        return instance;
+    }
+
+    /**
+     * @param event the event to report, a failing implementation does not prevent the others from being called
+     */
+    public void publish(final NoSqlLockEvent event) {
+        for (final NoSqlLockMetrics listener : metrics) {
+            try {
+                listener.lockEvent(event);
+            } catch (final RuntimeException e) {
+                log.warning("Lock metrics " + listener.getClass().getName() + " failed", e);
+            }
+        }
+    }
+}
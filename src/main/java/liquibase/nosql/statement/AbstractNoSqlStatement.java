@@ -26,6 +26,13 @@ public abstract class AbstractNoSqlStatement extends AbstractSqlStatement {
 
     public abstract String getCommandName();
 
+    /**
+     * @return the collection the statement works on or null if it is not collection specific
+     */
+    public String getCollectionName() {
+        return null;
+    }
+
     @Override
     public boolean continueOnError() {
         return false;
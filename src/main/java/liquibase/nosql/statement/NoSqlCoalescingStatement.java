@@ -0,0 +1,44 @@
+package liquibase.nosql.statement;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.nosql.database.AbstractNoSqlDatabase;
+
+/**
+ * Statement which can be merged with the statements following it, so that the executor sends them in a single round trip.
+ *
+ * @param <D> the database type
+ */
+public interface NoSqlCoalescingStatement<D extends AbstractNoSqlDatabase> extends NoSqlExecuteStatement<D> {
+
+    /**
+     * @param next the statement executed after this one
+     * @return true if executing {@link #coalesce(NoSqlCoalescingStatement)} is equivalent to executing both statements in order
+     */
+    boolean canCoalesce(NoSqlCoalescingStatement<?> next);
+
+    /**
+     * @param next the statement executed after this one, for which {@link #canCoalesce(NoSqlCoalescingStatement)} is true
+     * @return a new statement doing the work of both
+     */
+    NoSqlCoalescingStatement<D> coalesce(NoSqlCoalescingStatement<?> next);
+
+}
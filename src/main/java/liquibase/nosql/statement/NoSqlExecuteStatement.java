@@ -22,8 +22,21 @@ package liquibase.nosql.statement;
 
 import liquibase.nosql.database.AbstractNoSqlDatabase;
 
+import static liquibase.nosql.executor.NoSqlStatementEvent.UNKNOWN_DOCUMENTS;
+
 public interface NoSqlExecuteStatement<D extends AbstractNoSqlDatabase> {
 
    void execute(D database);
 
+   /**
+    * Executes the statement, reporting the documents it affected to the statement metrics.
+    *
+    * @param database the database to execute against
+    * @return the number of affected documents or {@link liquibase.nosql.executor.NoSqlStatementEvent#UNKNOWN_DOCUMENTS}
+    */
+   default long executeForCount(final D database) {
+      execute(database);
+      return UNKNOWN_DOCUMENTS;
+   }
+
 }
@@ -0,0 +1,38 @@
+package liquibase.nosql.statement;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.nosql.database.AbstractNoSqlDatabase;
+
+/**
+ * Statement which the executor may send without waiting for the previous ones to complete.
+ * Statements sharing a pipeline key, usually the collection name, are still executed in order.
+ *
+ * @param <D> the database type
+ */
+public interface NoSqlPipelinedStatement<D extends AbstractNoSqlDatabase> extends NoSqlExecuteStatement<D> {
+
+    /**
+     * @return the key of the resource the statement works on
+     */
+    String getPipelineKey();
+
+}
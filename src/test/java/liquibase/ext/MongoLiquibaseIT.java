@@ -26,7 +26,10 @@ import liquibase.exception.LiquibaseException;
 import liquibase.exception.RollbackFailedException;
 import liquibase.ext.mongodb.changelog.MongoRanChangeSet;
 import liquibase.ext.mongodb.changelog.MongoRanChangeSetToDocumentConverter;
+import liquibase.ext.mongodb.statement.BulkWriteStatement;
 import liquibase.ext.mongodb.statement.FindAllStatement;
+import liquibase.nosql.executor.NoSqlStatementEvent;
+import liquibase.nosql.executor.NoSqlStatementRecorder;
 import liquibase.resource.ClassLoaderResourceAccessor;
 import lombok.SneakyThrows;
 import org.bson.Document;
@@ -35,8 +38,10 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
+import static java.util.Collections.singletonList;
 import static liquibase.changelog.ChangeSet.ExecType.EXECUTED;
 import static liquibase.changelog.ChangeSet.ExecType.SKIPPED;
 import static liquibase.ext.mongodb.TestUtils.getCollections;
@@ -104,6 +109,30 @@ class MongoLiquibaseIT extends AbstractMongoIntegrationTest {
                         tuple("3", 3, CheckSum.parse("8:4eff4f9e1b017ccce8da57f3c8125f13")));
     }
 
+    @SneakyThrows
+    @Test
+    void testChangeLogSync() {
+        final List<NoSqlStatementEvent> events = new CopyOnWriteArrayList<>();
+        database.setStatementRecorder(new NoSqlStatementRecorder(singletonList(events::add)));
+        final Liquibase liquibase = new Liquibase("liquibase/ext/changelog.insert-one.test.xml", new ClassLoaderResourceAccessor(), database);
+        liquibase.changeLogSync("");
+
+        final List<MongoRanChangeSet> changeSets = findAllRanChangeSets.queryForList(database).stream().map(converter::fromDocument).collect(Collectors.toList());
+        assertThat(changeSets).hasSize(3)
+                .extracting(MongoRanChangeSet::getId, MongoRanChangeSet::getOrderExecuted, MongoRanChangeSet::getExecType)
+                .containsExactly(
+                        tuple("1", 1, EXECUTED),
+                        tuple("2", 2, EXECUTED),
+                        tuple("3", 3, EXECUTED));
+
+        // the synchronized changeSets are recorded with a single bulkWrite instead of an insert each
+        assertThat(events).filteredOn(e -> BulkWriteStatement.COMMAND_NAME.equals(e.getCommandName()))
+                .singleElement()
+                .returns(database.getDatabaseChangeLogTableName(), NoSqlStatementEvent::getCollectionName)
+                .returns(3L, NoSqlStatementEvent::getDocuments);
+        assertThat(new FindAllStatement("insertOneTest1").queryForList(database)).isEmpty();
+    }
+
     @SneakyThrows
     @Test
     void testRollback() {
@@ -250,7 +279,7 @@ class MongoLiquibaseIT extends AbstractMongoIntegrationTest {
         liquibase.update("");
 
         List<MongoRanChangeSet> changeSets = findAllRanChangeSets.queryForList(database).stream().map(converter::fromDocument).collect(Collectors.toList());
-        assertThat(changeSets).hasSize(8)
+        assertThat(changeSets).hasSize(9)
                 .extracting(MongoRanChangeSet::getId, MongoRanChangeSet::getOrderExecuted, MongoRanChangeSet::getExecType)
                 .containsExactly(
                         tuple("1", 1, SKIPPED),
@@ -260,7 +289,8 @@ class MongoLiquibaseIT extends AbstractMongoIntegrationTest {
                         tuple("5", 5, EXECUTED),
                         tuple("6", 6, EXECUTED),
                         tuple("7", 7, SKIPPED),
-                        tuple("8", 8, EXECUTED)
+                        tuple("8", 8, EXECUTED),
+                        tuple("9", 9, EXECUTED)
                 );
 
         assertThat(getCollections(connection))
@@ -269,8 +299,9 @@ class MongoLiquibaseIT extends AbstractMongoIntegrationTest {
 
         final FindAllStatement findAllResults = new FindAllStatement("results");
         assertThat(findAllResults.queryForList(database))
-                .hasSize(4).extracting(d -> d.get("info"))
-                .containsExactlyInAnyOrder("existsAnyDocumentInCollection1", "filterMatchedInCollection1", "changeSetExecutedMatch", "expectedDocumentCountfilterMatchedInCollection1");
+                .hasSize(5).extracting(d -> d.get("info"))
+                .containsExactlyInAnyOrder("existsAnyDocumentInCollection1", "filterMatchedInCollection1", "changeSetExecutedMatch",
+                        "expectedDocumentCountfilterMatchedInCollection1", "expectedDocumentCountReadPreferenceMatchedInCollection1");
 
     }
 
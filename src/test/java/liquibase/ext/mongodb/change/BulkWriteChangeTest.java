@@ -0,0 +1,79 @@
+package liquibase.ext.mongodb.change;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.changelog.ChangeSet;
+import liquibase.ext.mongodb.statement.BulkWriteStatement;
+import liquibase.statement.SqlStatement;
+import lombok.SneakyThrows;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static liquibase.ext.mongodb.TestUtils.getChangesets;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkWriteChangeTest extends AbstractMongoChangeTest {
+
+    @Test
+    void getConfirmationMessage() {
+        final BulkWriteChange bulkWriteChange = new BulkWriteChange();
+        bulkWriteChange.setCollectionName("collection1");
+        assertThat(bulkWriteChange.getConfirmationMessage()).isEqualTo("Bulk write performed on collection collection1");
+    }
+
+    @Test
+    void validate() {
+        final BulkWriteChange bulkWriteChange = new BulkWriteChange();
+        assertThat(bulkWriteChange.validate(database).getErrorMessages()).hasSize(2);
+
+        bulkWriteChange.setCollectionName("collection1");
+        bulkWriteChange.setOperations("[{ upsertOne: { document: {} } }]");
+        assertThat(bulkWriteChange.validate(database).getErrorMessages())
+                .containsExactly("Unsupported bulkWrite operation upsertOne");
+
+        bulkWriteChange.setOperations("[{ deleteOne: { } }]");
+        assertThat(bulkWriteChange.validate(database).getErrorMessages())
+                .containsExactly("bulkWrite operation deleteOne requires document filter");
+
+        bulkWriteChange.setOperations("[{ deleteOne: { filter: { id: 1 } } }]");
+        assertThat(bulkWriteChange.validate(database).hasErrors()).isFalse();
+    }
+
+    @Test
+    @SneakyThrows
+    void generateStatements() {
+        final List<ChangeSet> changeSets = getChangesets("liquibase/ext/changelog.bulk-write.test.xml", database);
+
+        assertThat(changeSets).hasSize(1);
+        assertThat(changeSets.get(0).getChanges())
+                .hasSize(1)
+                .hasOnlyElementsOfType(BulkWriteChange.class);
+
+        final SqlStatement[] statements = changeSets.get(0).getChanges().get(0).generateStatements(database);
+        assertThat(statements).hasSize(1).hasOnlyElementsOfType(BulkWriteStatement.class);
+        assertThat((BulkWriteStatement) statements[0])
+                .returns("bulkWriteTest1", BulkWriteStatement::getCollectionName)
+                .returns(new Document("ordered", false), BulkWriteStatement::getOptions);
+        assertThat(((BulkWriteStatement) statements[0]).getOperations()).hasSize(7);
+    }
+}
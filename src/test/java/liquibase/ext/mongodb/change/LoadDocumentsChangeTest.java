@@ -0,0 +1,114 @@
+package liquibase.ext.mongodb.change;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.changelog.ChangeSet;
+import liquibase.ext.mongodb.statement.LoadDocumentsStatement;
+import liquibase.statement.SqlStatement;
+import lombok.SneakyThrows;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static liquibase.ext.mongodb.TestUtils.getChangesets;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadDocumentsChangeTest extends AbstractMongoChangeTest {
+
+    @Test
+    void getConfirmationMessage() {
+        final LoadDocumentsChange loadDocumentsChange = new LoadDocumentsChange();
+        loadDocumentsChange.setCollectionName("collection1");
+        loadDocumentsChange.setFile("data.ndjson");
+        assertThat(loadDocumentsChange.getConfirmationMessage())
+                .isEqualTo("Documents loaded into collection collection1 from data.ndjson");
+    }
+
+    @Test
+    void validate() {
+        final LoadDocumentsChange loadDocumentsChange = new LoadDocumentsChange();
+        assertThat(loadDocumentsChange.validate(database).getErrorMessages()).hasSize(2);
+
+        loadDocumentsChange.setCollectionName("collection1");
+        loadDocumentsChange.setFile("data.ndjson");
+        loadDocumentsChange.setBatchSize(0);
+        assertThat(loadDocumentsChange.validate(database).getErrorMessages())
+                .containsExactly("batchSize must be greater than 0");
+
+        loadDocumentsChange.setBatchSize(10);
+        assertThat(loadDocumentsChange.validate(database).hasErrors()).isFalse();
+    }
+
+    @Test
+    @SneakyThrows
+    void generateStatements() {
+        final List<ChangeSet> changeSets = getChangesets("liquibase/ext/changelog.load-documents.test.xml", database);
+
+        assertThat(changeSets).hasSize(2);
+
+        assertThat(changeSets.get(0).getChanges())
+                .hasSize(1)
+                .hasOnlyElementsOfType(LoadDocumentsChange.class);
+
+        assertThat(changeSets.get(0).getChanges().get(0))
+                .hasFieldOrPropertyWithValue("collectionName", "loadDocumentsTest1")
+                .hasFieldOrPropertyWithValue("file", "data/load-documents.ndjson")
+                .hasFieldOrPropertyWithValue("relativeToChangelogFile", true)
+                .hasFieldOrPropertyWithValue("batchSize", 2)
+                .hasFieldOrPropertyWithValue("options", null);
+
+        final SqlStatement[] first = changeSets.get(0).getChanges().get(0).generateStatements(database);
+        assertThat(first).hasSize(1).hasOnlyElementsOfType(LoadDocumentsStatement.class);
+        assertThat((LoadDocumentsStatement) first[0])
+                .returns("loadDocumentsTest1", LoadDocumentsStatement::getCollectionName)
+                .returns("liquibase/ext/changelog.load-documents.test.xml", LoadDocumentsStatement::getRelativeTo)
+                .returns(2, LoadDocumentsStatement::getBatchSize)
+                .returns(new Document(), LoadDocumentsStatement::getOptions);
+
+        final SqlStatement[] second = changeSets.get(1).getChanges().get(0).generateStatements(database);
+        assertThat((LoadDocumentsStatement) second[0])
+                .returns(null, LoadDocumentsStatement::getRelativeTo)
+                .returns(LoadDocumentsStatement.DEFAULT_BATCH_SIZE, LoadDocumentsStatement::getBatchSize)
+                .returns(new Document("ordered", false), LoadDocumentsStatement::getOptions);
+    }
+
+    @Test
+    @SneakyThrows
+    void checkSumIncludesFileContent() {
+        final List<ChangeSet> changeSets = getChangesets("liquibase/ext/changelog.load-documents.test.xml", database);
+        final LoadDocumentsChange change = (LoadDocumentsChange) changeSets.get(1).getChanges().get(0);
+
+        final LoadDocumentsChange sameFileChange = new LoadDocumentsChange();
+        sameFileChange.setCollectionName(change.getCollectionName());
+        sameFileChange.setFile(change.getFile());
+        sameFileChange.setOptions(change.getOptions());
+
+        final LoadDocumentsChange otherFileChange = new LoadDocumentsChange();
+        otherFileChange.setCollectionName(change.getCollectionName());
+        otherFileChange.setFile("liquibase/ext/data/load-documents.ndjson");
+        otherFileChange.setOptions(change.getOptions());
+
+        assertThat(change.generateCheckSum())
+                .isEqualTo(sameFileChange.generateCheckSum())
+                .isNotEqualTo(otherFileChange.generateCheckSum());
+    }
+}
@@ -3,6 +3,7 @@ package liquibase.ext.mongodb.changelog;
 import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
 import liquibase.ext.AbstractMongoIntegrationTest;
 import liquibase.ext.mongodb.statement.FindAllStatement;
 import liquibase.ext.mongodb.statement.InsertOneStatement;
@@ -103,7 +104,7 @@ class AdjustChangeLogCollectionStatementIT extends AbstractMongoIntegrationTest
 
         indexes.clear();
         connection.getMongoDatabase().getCollection(LOG_COLLECTION_NAME).listIndexes().into(indexes);
-        assertThat(indexes).hasSize(2);
+        assertThat(indexes).hasSize(AdjustChangeLogCollectionStatement.supportingIndexes(LOG_COLLECTION_NAME).size() + 1);
         assertThat(indexes.stream().filter(i -> i.get("name").equals("ui_" + LOG_COLLECTION_NAME)).findFirst().orElse(null))
                 .isNotNull()
                 .returns(TRUE, i -> i.get("unique"))
@@ -127,11 +128,57 @@ class AdjustChangeLogCollectionStatementIT extends AbstractMongoIntegrationTest
 
         indexes.clear();
         connection.getMongoDatabase().getCollection(LOG_COLLECTION_NAME).listIndexes().into(indexes);
-        assertThat(indexes).hasSize(2);
+        assertThat(indexes).hasSize(AdjustChangeLogCollectionStatement.supportingIndexes(LOG_COLLECTION_NAME).size() + 1);
         assertThat(indexes.stream().filter(i -> i.get("name").equals("ui_" + LOG_COLLECTION_NAME)).findFirst().orElse(null))
                 .isNotNull();
     }
 
+    @Test
+    @SneakyThrows
+    void reconcileIndexesTest() {
+        new CreateChangeLogCollectionStatement(LOG_COLLECTION_NAME).execute(database);
+        final MongoCollection<Document> collection = connection.getMongoDatabase().getCollection(LOG_COLLECTION_NAME);
+        // an existing deployment with the identity index, an outdated managed index and an equivalent index of the user
+        collection.createIndex(new Document("fileName", 1).append("author", 1).append("id", 1),
+                new IndexOptions().name("ui_" + LOG_COLLECTION_NAME).unique(true));
+        collection.createIndex(new Document("tag", -1), new IndexOptions().name("ix_tag_v0"));
+        collection.createIndex(new Document("deploymentId", 1.0), new IndexOptions().name("byDeployment"));
+        collection.createIndex(new Document("labels", 1), new IndexOptions().name("ix_labels_v1"));
+
+        database.setSupportsValidator(FALSE);
+        final AdjustChangeLogCollectionStatement statement = new AdjustChangeLogCollectionStatement(LOG_COLLECTION_NAME);
+        assertThat(statement.adjustIndexes(database))
+                .containsExactlyInAnyOrder("ix_orderExecuted_v1", "ix_dateExecuted_orderExecuted_v1", "ix_tag_v1");
+
+        final List<String> names = new ArrayList<>();
+        collection.listIndexes().forEach(i -> names.add(i.getString("name")));
+        assertThat(names).containsExactlyInAnyOrder("_id_", "ui_" + LOG_COLLECTION_NAME, "ix_orderExecuted_v1",
+                "ix_dateExecuted_orderExecuted_v1", "ix_tag_v1", "byDeployment", "ix_labels_v1");
+
+        // nothing left to do
+        assertThat(statement.adjustIndexes(database)).isEmpty();
+    }
+
+    @Test
+    @SneakyThrows
+    void reconcileIndexesWithDuplicatesTest() {
+        new CreateChangeLogCollectionStatement(LOG_COLLECTION_NAME).execute(database);
+        final MongoCollection<Document> collection = connection.getMongoDatabase().getCollection(LOG_COLLECTION_NAME);
+        final Document duplicated = new Document("fileName", "fileName").append("author", "author").append("id", "1");
+        collection.insertOne(new Document(duplicated));
+        collection.insertOne(new Document(duplicated));
+
+        // the other indexes are created, the unique one is skipped with a warning
+        database.setSupportsValidator(FALSE);
+        assertThat(new AdjustChangeLogCollectionStatement(LOG_COLLECTION_NAME).adjustIndexes(database))
+                .doesNotContain("ui_" + LOG_COLLECTION_NAME);
+
+        final List<String> names = new ArrayList<>();
+        collection.listIndexes().forEach(i -> names.add(i.getString("name")));
+        assertThat(names).doesNotContain("ui_" + LOG_COLLECTION_NAME)
+                .contains("ix_orderExecuted_v1", "ix_dateExecuted_orderExecuted_v1", "ix_tag_v1", "ix_deploymentId_v1");
+    }
+
     @Test
     @SneakyThrows
     void insertDataTest() {
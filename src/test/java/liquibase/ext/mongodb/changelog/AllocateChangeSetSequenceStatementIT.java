@@ -0,0 +1,90 @@
+package liquibase.ext.mongodb.changelog;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ext.AbstractMongoIntegrationTest;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static liquibase.ext.mongodb.TestUtils.COLLECTION_NAME_1;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AllocateChangeSetSequenceStatementIT extends AbstractMongoIntegrationTest {
+
+    private static final String SEQUENCE_COLLECTION_NAME = COLLECTION_NAME_1 + MongoHistoryService.SEQUENCE_COLLECTION_SUFFIX;
+
+    @Test
+    void queryForLong() {
+        mongoDatabase.getCollection(COLLECTION_NAME_1).insertMany(Arrays.asList(
+                new Document(MongoRanChangeSet.Fields.orderExecuted, 3),
+                new Document(MongoRanChangeSet.Fields.orderExecuted, 41),
+                new Document(MongoRanChangeSet.Fields.orderExecuted, 7)));
+
+        // initialized from the history on first use
+        assertThat(new AllocateChangeSetSequenceStatement(SEQUENCE_COLLECTION_NAME, COLLECTION_NAME_1, 1)
+                .queryForLong(database)).isEqualTo(42L);
+        // a block of values is reserved at once
+        assertThat(new AllocateChangeSetSequenceStatement(SEQUENCE_COLLECTION_NAME, COLLECTION_NAME_1, 100)
+                .queryForLong(database)).isEqualTo(142L);
+
+        // the history is not looked up anymore
+        mongoDatabase.getCollection(COLLECTION_NAME_1).drop();
+        assertThat(new AllocateChangeSetSequenceStatement(SEQUENCE_COLLECTION_NAME, COLLECTION_NAME_1, 1)
+                .queryForLong(database)).isEqualTo(143L);
+        assertThat(mongoDatabase.getCollection(SEQUENCE_COLLECTION_NAME).find().first())
+                .containsEntry(AllocateChangeSetSequenceStatement.ID, COLLECTION_NAME_1)
+                .containsEntry(AllocateChangeSetSequenceStatement.VALUE, 143L);
+    }
+
+    @Test
+    void queryForLongSynchronize() {
+        assertThat(new AllocateChangeSetSequenceStatement(SEQUENCE_COLLECTION_NAME, COLLECTION_NAME_1, 1)
+                .queryForLong(database)).isEqualTo(1L);
+
+        // written without the counter meanwhile
+        mongoDatabase.getCollection(COLLECTION_NAME_1).insertOne(new Document(MongoRanChangeSet.Fields.orderExecuted, 41));
+        assertThat(new AllocateChangeSetSequenceStatement(SEQUENCE_COLLECTION_NAME, COLLECTION_NAME_1, 1, true)
+                .queryForLong(database)).isEqualTo(42L);
+
+        // never lowered by a smaller history maximum
+        mongoDatabase.getCollection(COLLECTION_NAME_1).drop();
+        assertThat(new AllocateChangeSetSequenceStatement(SEQUENCE_COLLECTION_NAME, COLLECTION_NAME_1, 1, true)
+                .queryForLong(database)).isEqualTo(43L);
+    }
+
+    @Test
+    void queryForLongEmptyHistory() {
+        assertThat(new AllocateChangeSetSequenceStatement(SEQUENCE_COLLECTION_NAME, COLLECTION_NAME_1, 5)
+                .queryForLong(database)).isEqualTo(5L);
+    }
+
+    @Test
+    void toStringJs() {
+        final AllocateChangeSetSequenceStatement statement =
+                new AllocateChangeSetSequenceStatement(SEQUENCE_COLLECTION_NAME, COLLECTION_NAME_1, 10);
+        assertThat(statement.toJs())
+                .isEqualTo(statement.toString())
+                .isEqualTo("db.collectionName_SEQUENCE.findOneAndUpdate({\"_id\": \"collectionName\"}, "
+                        + "{\"$inc\": {\"value\": 10}}, {\"returnNewDocument\": true});");
+    }
+}
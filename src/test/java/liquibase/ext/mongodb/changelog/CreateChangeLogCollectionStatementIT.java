@@ -3,9 +3,16 @@ package liquibase.ext.mongodb.changelog;
 import liquibase.ext.AbstractMongoIntegrationTest;
 import org.junit.jupiter.api.Test;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 class CreateChangeLogCollectionStatementIT extends AbstractMongoIntegrationTest {
 
     @Test
     void executeTest() {
+        final CreateChangeLogCollectionStatement statement = new CreateChangeLogCollectionStatement("historyCollection");
+        statement.execute(database);
+        // created meanwhile by a process of another lock scope
+        statement.execute(database);
+        assertThat(mongoDatabase.listCollectionNames()).containsOnlyOnce("historyCollection");
     }
-}
\ No newline at end of file
+}
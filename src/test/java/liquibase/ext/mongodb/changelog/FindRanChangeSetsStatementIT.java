@@ -0,0 +1,92 @@
+package liquibase.ext.mongodb.changelog;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.client.model.Filters;
+import liquibase.change.CheckSum;
+import liquibase.changelog.ChangeSet;
+import liquibase.ext.AbstractMongoIntegrationTest;
+import liquibase.ext.mongodb.statement.InsertManyStatement;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static liquibase.ext.mongodb.TestUtils.COLLECTION_NAME_1;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FindRanChangeSetsStatementIT extends AbstractMongoIntegrationTest {
+
+    private final MongoRanChangeSetToDocumentConverter converter = new MongoRanChangeSetToDocumentConverter();
+
+    @Test
+    void queryForList() {
+        // inserted in reverse execution order
+        final List<Document> documents = IntStream.iterate(25, i -> i - 1).limit(25)
+                .mapToObj(i -> new MongoRanChangeSet("fileName", String.valueOf(i), "author", CheckSum.compute("md5sum" + i),
+                        new Date(), null, ChangeSet.ExecType.EXECUTED, "description", "comments", null, null, null,
+                        "deploymentId", i, "liquibase"))
+                .map(converter::toDocument)
+                .collect(Collectors.toList());
+        new InsertManyStatement(COLLECTION_NAME_1, documents).execute(database);
+
+        final List<MongoRanChangeSet> full = new FindRanChangeSetsStatement(COLLECTION_NAME_1, null, 0).queryForList(database);
+        assertThat(full).hasSize(25).first()
+                .returns("1", MongoRanChangeSet::getId)
+                .returns("description", MongoRanChangeSet::getDescription)
+                .returns("liquibase", MongoRanChangeSet::getLiquibaseVersion);
+
+        final List<MongoRanChangeSet> projected = new FindRanChangeSetsStatement(COLLECTION_NAME_1,
+                FindRanChangeSetsStatement.UPDATE_PROJECTION, 10).queryForList(database);
+        assertThat(projected).hasSize(25).extracting(MongoRanChangeSet::getOrderExecuted)
+                .isEqualTo(IntStream.rangeClosed(1, 25).boxed().collect(Collectors.toList()));
+        assertThat(projected.get(0))
+                .returns("fileName", MongoRanChangeSet::getChangeLog)
+                .returns("author", MongoRanChangeSet::getAuthor)
+                .returns(CheckSum.compute("md5sum1"), MongoRanChangeSet::getLastCheckSum)
+                .returns(ChangeSet.ExecType.EXECUTED, MongoRanChangeSet::getExecType)
+                .returns("deploymentId", MongoRanChangeSet::getDeploymentId)
+                .returns(null, MongoRanChangeSet::getDescription)
+                .returns(null, MongoRanChangeSet::getComments)
+                .returns(null, MongoRanChangeSet::getLiquibaseVersion);
+
+        final List<MongoRanChangeSet> filtered = new FindRanChangeSetsStatement(COLLECTION_NAME_1,
+                Filters.gt(MongoRanChangeSet.Fields.orderExecuted, 20L), null, 0).queryForList(database);
+        assertThat(filtered).extracting(MongoRanChangeSet::getOrderExecuted).containsExactly(21, 22, 23, 24, 25);
+    }
+
+    @Test
+    void toStringJs() {
+        assertThat(new FindRanChangeSetsStatement(COLLECTION_NAME_1, null, 0).toJs())
+                .isEqualTo("db.collectionName.find({}, {}).sort({\"orderExecuted\": 1});");
+        final FindRanChangeSetsStatement statement = new FindRanChangeSetsStatement(COLLECTION_NAME_1,
+                FindRanChangeSetsStatement.UPDATE_PROJECTION, 100);
+        assertThat(statement.toJs())
+                .isEqualTo(statement.toString())
+                .startsWith("db.collectionName.find({}, {\"fileName\": 1, \"id\": 1, \"author\": 1, ")
+                .endsWith("\"_id\": 0}).sort({\"orderExecuted\": 1}).batchSize(100);");
+        assertThat(new FindRanChangeSetsStatement(COLLECTION_NAME_1, Filters.gt(MongoRanChangeSet.Fields.orderExecuted, 2L), null, 0).toJs())
+                .isEqualTo("db.collectionName.find({\"orderExecuted\": {\"$gt\": 2}}, {}).sort({\"orderExecuted\": 1});");
+    }
+}
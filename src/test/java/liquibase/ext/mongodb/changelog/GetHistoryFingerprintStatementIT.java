@@ -0,0 +1,63 @@
+package liquibase.ext.mongodb.changelog;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ext.AbstractMongoIntegrationTest;
+import liquibase.ext.mongodb.statement.InsertManyStatement;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static liquibase.ext.mongodb.TestUtils.COLLECTION_NAME_1;
+import static liquibase.ext.mongodb.changelog.MongoHistoryFingerprintTest.ranChangeSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GetHistoryFingerprintStatementIT extends AbstractMongoIntegrationTest {
+
+    private final MongoRanChangeSetToDocumentConverter converter = new MongoRanChangeSetToDocumentConverter();
+
+    @Test
+    void queryForObject() {
+        final GetHistoryFingerprintStatement statement = new GetHistoryFingerprintStatement(COLLECTION_NAME_1);
+        assertThat(statement.queryForObject(database, MongoHistoryFingerprint.class))
+                .isEqualTo(MongoHistoryFingerprint.EMPTY);
+
+        final List<MongoRanChangeSet> ranChangeSets = Arrays.asList(
+                ranChangeSet("1", "8:0123456789abcdef0123456789abcdef", null, 1),
+                ranChangeSet("2", null, "v1.0", 2),
+                ranChangeSet("3", "8:ffffffffffffffffffffffffffffffff", "v1.1", 5));
+        new InsertManyStatement(COLLECTION_NAME_1,
+                ranChangeSets.stream().map(converter::toDocument).collect(Collectors.toList())).execute(database);
+
+        assertThat(statement.queryForObject(database, MongoHistoryFingerprint.class))
+                .isEqualTo(MongoHistoryFingerprint.of(ranChangeSets));
+    }
+
+    @Test
+    void toStringJs() {
+        final GetHistoryFingerprintStatement statement = new GetHistoryFingerprintStatement(COLLECTION_NAME_1);
+        assertThat(statement.toJs())
+                .isEqualTo(statement.toString())
+                .startsWith("db.collectionName.aggregate([{\"$group\": {\"_id\": null, \"count\": {\"$sum\": 1}, ");
+    }
+}
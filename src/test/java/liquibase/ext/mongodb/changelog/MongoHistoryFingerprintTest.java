@@ -0,0 +1,160 @@
+package liquibase.ext.mongodb.changelog;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ContextExpression;
+import liquibase.Labels;
+import liquibase.change.CheckSum;
+import liquibase.changelog.ChangeSet;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoHistoryFingerprintTest {
+
+    @Test
+    void of() {
+        assertThat(MongoHistoryFingerprint.of(Collections.emptyList())).isEqualTo(MongoHistoryFingerprint.EMPTY);
+
+        final MongoHistoryFingerprint fingerprint = MongoHistoryFingerprint.of(Arrays.asList(
+                ranChangeSet("1", "8:00000000000000000000000000000010", null, 1),
+                ranChangeSet("2", null, "v1", 3)));
+        assertThat(fingerprint)
+                .returns(2L, MongoHistoryFingerprint::getCount)
+                .returns(3L, MongoHistoryFingerprint::getMaxOrderExecuted)
+                .returns(4L, MongoHistoryFingerprint::getSumOrderExecuted)
+                .returns(1L, MongoHistoryFingerprint::getCheckSums)
+                .returns(16L, MongoHistoryFingerprint::getCheckSumDigest)
+                .returns(MongoHistoryFingerprint.fold("v1")
+                                + 2 * (2 * MongoHistoryFingerprint.fold("EXECUTED") + 5 * MongoHistoryFingerprint.fold("deploymentId")),
+                        MongoHistoryFingerprint::getContentDigest);
+    }
+
+    @Test
+    void detectsChanges() {
+        final MongoHistoryFingerprint fingerprint = MongoHistoryFingerprint.of(Arrays.asList(
+                ranChangeSet("1", "8:0123456789abcdef0123456789abcdef", null, 1),
+                ranChangeSet("2", "8:fedcba9876543210fedcba9876543210", null, 2)));
+
+        // deleted
+        assertThat(MongoHistoryFingerprint.of(Collections.singletonList(
+                ranChangeSet("2", "8:fedcba9876543210fedcba9876543210", null, 2))))
+                .isNotEqualTo(fingerprint);
+        // checksum cleared
+        assertThat(MongoHistoryFingerprint.of(Arrays.asList(
+                ranChangeSet("1", null, null, 1),
+                ranChangeSet("2", "8:fedcba9876543210fedcba9876543210", null, 2))))
+                .isNotEqualTo(fingerprint);
+        // checksum replaced
+        assertThat(MongoHistoryFingerprint.of(Arrays.asList(
+                ranChangeSet("1", "8:0123456789abcdef0123456789abcdee", null, 1),
+                ranChangeSet("2", "8:fedcba9876543210fedcba9876543210", null, 2))))
+                .isNotEqualTo(fingerprint);
+        // tagged
+        assertThat(MongoHistoryFingerprint.of(Arrays.asList(
+                ranChangeSet("1", "8:0123456789abcdef0123456789abcdef", null, 1),
+                ranChangeSet("2", "8:fedcba9876543210fedcba9876543210", "v1", 2))))
+                .isNotEqualTo(fingerprint);
+        // updated in place
+        final MongoHistoryFingerprint tagged = MongoHistoryFingerprint.of(Collections.singletonList(
+                ranChangeSet("v1", ChangeSet.ExecType.EXECUTED, null, null, "deploymentId")));
+        assertThat(MongoHistoryFingerprint.of(Collections.singletonList(
+                ranChangeSet("v2", ChangeSet.ExecType.EXECUTED, null, null, "deploymentId"))))
+                .isNotEqualTo(tagged);
+        assertThat(MongoHistoryFingerprint.of(Collections.singletonList(
+                ranChangeSet("v1", ChangeSet.ExecType.RERAN, null, null, "deploymentId"))))
+                .isNotEqualTo(tagged);
+        assertThat(MongoHistoryFingerprint.of(Collections.singletonList(
+                ranChangeSet("v1", ChangeSet.ExecType.EXECUTED, "context", null, "deploymentId"))))
+                .isNotEqualTo(tagged);
+        assertThat(MongoHistoryFingerprint.of(Collections.singletonList(
+                ranChangeSet("v1", ChangeSet.ExecType.EXECUTED, null, "label", "deploymentId"))))
+                .isNotEqualTo(tagged);
+        assertThat(MongoHistoryFingerprint.of(Collections.singletonList(
+                ranChangeSet("v1", ChangeSet.ExecType.EXECUTED, null, null, "deploymentIe"))))
+                .isNotEqualTo(tagged);
+        // the same value in another field
+        assertThat(MongoHistoryFingerprint.of(Collections.singletonList(
+                ranChangeSet(null, ChangeSet.ExecType.EXECUTED, "v1", null, "deploymentId"))))
+                .isNotEqualTo(tagged);
+        // same history
+        assertThat(MongoHistoryFingerprint.of(Arrays.asList(
+                ranChangeSet("1", "8:0123456789abcdef0123456789abcdef", null, 1),
+                ranChangeSet("2", "8:fedcba9876543210fedcba9876543210", null, 2))))
+                .isEqualTo(fingerprint);
+    }
+
+    @Test
+    void digest() {
+        assertThat(MongoHistoryFingerprint.digest("8:0123456789abcdef0123456789abcdef")).isEqualTo(0x89abcdefL);
+        assertThat(MongoHistoryFingerprint.digest("8:ffffffff")).isEqualTo(0xffffffffL);
+        assertThat(MongoHistoryFingerprint.digest("8:fff")).isZero();
+    }
+
+    @Test
+    void fold() {
+        assertThat(MongoHistoryFingerprint.fold("")).isEqualTo(1L);
+        assertThat(MongoHistoryFingerprint.fold(" ")).isEqualTo(3L);
+        assertThat(MongoHistoryFingerprint.fold("ab")).isEqualTo(1L + 67L + 2 * 68L);
+        assertThat(MongoHistoryFingerprint.fold("ba")).isEqualTo(1L + 68L + 2 * 67L);
+        // not printable ASCII
+        assertThat(MongoHistoryFingerprint.fold("\u00e9")).isEqualTo(2L);
+    }
+
+    @Test
+    void fromDocument() {
+        assertThat(MongoHistoryFingerprint.fromDocument(null)).isEqualTo(MongoHistoryFingerprint.EMPTY);
+        assertThat(MongoHistoryFingerprint.fromDocument(new Document("_id", null)
+                .append(MongoHistoryFingerprint.COUNT, 2)
+                .append(MongoHistoryFingerprint.MAX_ORDER_EXECUTED, 3)
+                .append(MongoHistoryFingerprint.SUM_ORDER_EXECUTED, 4)
+                .append(MongoHistoryFingerprint.CHECK_SUMS, 1)
+                .append(MongoHistoryFingerprint.CHECK_SUM_DIGEST, 16L)
+                .append(MongoHistoryFingerprint.CONTENT_DIGEST, 3)))
+                .isEqualTo(new MongoHistoryFingerprint(2L, 3L, 4L, 1L, 16L, 3L));
+    }
+
+    @Test
+    void pipeline() {
+        assertThat(MongoHistoryFingerprint.pipeline()).hasSize(1).first()
+                .satisfies(stage -> assertThat(stage.get("$group", Document.class)).containsKeys(
+                        MongoHistoryFingerprint.COUNT, MongoHistoryFingerprint.MAX_ORDER_EXECUTED,
+                        MongoHistoryFingerprint.SUM_ORDER_EXECUTED, MongoHistoryFingerprint.CHECK_SUMS,
+                        MongoHistoryFingerprint.CHECK_SUM_DIGEST, MongoHistoryFingerprint.CONTENT_DIGEST));
+    }
+
+    static MongoRanChangeSet ranChangeSet(final String id, final String md5sum, final String tag, final Integer orderExecuted) {
+        return new MongoRanChangeSet("fileName", id, "author", md5sum == null ? null : CheckSum.parse(md5sum),
+                new Date(), tag, ChangeSet.ExecType.EXECUTED, "description", "comments", null, null, null,
+                "deploymentId", orderExecuted, "liquibase");
+    }
+
+    private static MongoRanChangeSet ranChangeSet(final String tag, final ChangeSet.ExecType execType, final String contexts,
+                                                  final String labels, final String deploymentId) {
+        return new MongoRanChangeSet("fileName", "1", "author", null, new Date(), tag, execType, "description", "comments",
+                new ContextExpression(contexts), null, new Labels(labels), deploymentId, 1, "liquibase");
+    }
+}
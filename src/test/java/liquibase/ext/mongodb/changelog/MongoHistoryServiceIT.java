@@ -33,8 +33,11 @@ import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -203,6 +206,28 @@ class MongoHistoryServiceIT extends AbstractMongoIntegrationTest {
     void testSetExecType() {
     }
 
+    @Test
+    void testSetExecTypes() throws Exception {
+        historyService.init();
+        final List<ChangeSet> changeSets = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            changeSets.add(new ChangeSet(String.valueOf(i), "author", false, false, "fileName", null, null, null));
+        }
+
+        historyService.setExecTypes(changeSets, ChangeSet.ExecType.EXECUTED);
+
+        final List<RanChangeSet> ranChangeSets = historyService.queryRanChangeSets();
+        assertThat(ranChangeSets).hasSize(2500);
+        assertThat(ranChangeSets).extracting(RanChangeSet::getOrderExecuted)
+                .isEqualTo(IntStream.rangeClosed(1, 2500).boxed().collect(Collectors.toList()));
+        assertThat(ranChangeSets).extracting(RanChangeSet::getId).startsWith("0", "1", "2");
+
+        historyService.setExecTypes(changeSets.subList(0, 2), ChangeSet.ExecType.RERAN);
+        assertThat(historyService.queryRanChangeSets()).hasSize(2500)
+                .filteredOn(r -> r.getExecType() == ChangeSet.ExecType.RERAN)
+                .extracting(RanChangeSet::getOrderExecuted).containsExactly(2501, 2502);
+    }
+
     @Test
     void testRemoveFromHistory() throws Exception {
 
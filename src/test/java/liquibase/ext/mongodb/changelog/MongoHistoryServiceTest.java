@@ -1,7 +1,10 @@
 package liquibase.ext.mongodb.changelog;
 
+import com.mongodb.client.model.Filters;
 import liquibase.Scope;
 import liquibase.changelog.ChangeLogHistoryServiceFactory;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.RanChangeSet;
 import liquibase.database.core.DB2Database;
 import liquibase.exception.DatabaseException;
 import liquibase.exception.UnexpectedLiquibaseException;
@@ -9,29 +12,61 @@ import liquibase.executor.Executor;
 import liquibase.executor.ExecutorService;
 import liquibase.ext.mongodb.database.MongoConnection;
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoTrackingSchema;
+import liquibase.ext.mongodb.database.MongoTrackingState;
+import liquibase.ext.mongodb.lockservice.AcquireChangeLogLockStatement;
+import liquibase.ext.mongodb.lockservice.MongoChangeLogLock;
+import liquibase.ext.mongodb.lockservice.MongoChangeLogLockToDocumentConverter;
+import liquibase.ext.mongodb.lockservice.ReleaseChangeLogLockStatement;
+import liquibase.ext.mongodb.statement.BulkWriteStatement;
 import liquibase.ext.mongodb.statement.CountCollectionByNameStatement;
+import liquibase.ext.mongodb.statement.DeleteManyStatement;
+import liquibase.ext.mongodb.statement.DropCollectionStatement;
+import liquibase.ext.mongodb.statement.InsertManyStatement;
+import liquibase.ext.mongodb.statement.InsertOneStatement;
+import liquibase.lockservice.LockServiceFactory;
 import liquibase.nosql.executor.NoSqlExecutor;
+import liquibase.statement.SqlStatement;
+import liquibase.util.MD5Util;
 import lombok.SneakyThrows;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
 import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static liquibase.ext.mongodb.changelog.MongoHistoryFingerprintTest.ranChangeSet;
+import static liquibase.nosql.changelog.AbstractNoSqlHistoryService.DEFAULT_HISTORY_BATCH_SIZE;
 import static liquibase.nosql.executor.NoSqlExecutor.EXECUTOR_NAME;
 import static liquibase.plugin.Plugin.PRIORITY_SPECIALIZED;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 @ExtendWith(MockitoExtension.class)
@@ -54,6 +89,7 @@ class MongoHistoryServiceTest {
         historyService = new MongoHistoryService();
         database = new MongoLiquibaseDatabase();
         database.setConnection(connectionMock);
+        database.setTrackingSchemaCurrent(FALSE);
         historyService.setDatabase(database);
         resetServices();
     }
@@ -64,6 +100,7 @@ class MongoHistoryServiceTest {
     }
 
     protected void resetServices() {
+        LockServiceFactory.reset();
         ChangeLogHistoryServiceFactory.reset();
         Scope.getCurrentScope().getSingleton(ExecutorService.class).reset();
     }
@@ -342,20 +379,141 @@ class MongoHistoryServiceTest {
     void replaceChecksum() {
     }
 
+    @SneakyThrows
     @Test
     void setExecType() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        database.setHistorySequenceCounter(FALSE);
+        final ArgumentCaptor<SqlStatement> statementCaptor = ArgumentCaptor.forClass(SqlStatement.class);
+        doReturn(3L).when(executorMock).queryForLong(any(GetMaxChangeSetSequenceStatement.class));
+        doNothing().when(executorMock).execute(statementCaptor.capture());
+        doReturn(0).when(executorMock).update(statementCaptor.capture());
+
+        final List<ChangeSet> changeSets = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            changeSets.add(new ChangeSet(String.valueOf(i), "author", false, false, "fileName", null, null, null));
+        }
+
+        // the first changeSet is written at once
+        historyService.setExecType(changeSets.get(0), ChangeSet.ExecType.EXECUTED);
+        assertThat(statementCaptor.getAllValues()).hasSize(1);
+
+        // nothing written to the database in between, as in a changelog sync, so the next ones are kept pending
+        historyService.setExecType(changeSets.get(1), ChangeSet.ExecType.EXECUTED);
+        historyService.setExecType(changeSets.get(2), ChangeSet.ExecType.EXECUTED);
+        assertThat(statementCaptor.getAllValues()).hasSize(1);
+
+        // the statements of the next changeSet ran, it is written with the pending ones in one batch
+        database.afterWrite();
+        historyService.setExecType(changeSets.get(3), ChangeSet.ExecType.EXECUTED);
+        assertThat(statementCaptor.getAllValues()).hasSize(2);
+
+        historyService.setExecType(changeSets.get(4), ChangeSet.ExecType.EXECUTED);
+        historyService.flushHistory();
+
+        final List<SqlStatement> statements = statementCaptor.getAllValues();
+        assertThat(statements).hasSize(3);
+        assertThat(statements.get(0)).isInstanceOfSatisfying(InsertOneStatement.class, s -> assertThat(s.getCommand().getList(InsertManyStatement.DOCUMENTS, Document.class))
+                .extracting(d -> d.get(MongoRanChangeSet.Fields.changeSetId), d -> d.get(MongoRanChangeSet.Fields.orderExecuted))
+                .containsExactly(tuple("1", 4)));
+        assertThat(statements.get(1)).isInstanceOfSatisfying(BulkWriteStatement.class, s -> assertThat(s.getOperations())
+                .extracting(o -> o.get(BulkWriteStatement.INSERT_ONE, Document.class).get(BulkWriteStatement.DOCUMENT, Document.class))
+                .extracting(d -> d.get(MongoRanChangeSet.Fields.changeSetId), d -> d.get(MongoRanChangeSet.Fields.orderExecuted))
+                .containsExactly(tuple("2", 5), tuple("3", 6), tuple("4", 7)));
+        assertThat(statements.get(2)).isInstanceOfSatisfying(InsertOneStatement.class, s -> assertThat(s.getCommand().getList(InsertManyStatement.DOCUMENTS, Document.class))
+                .extracting(d -> d.get(MongoRanChangeSet.Fields.changeSetId), d -> d.get(MongoRanChangeSet.Fields.orderExecuted))
+                .containsExactly(tuple("5", 8)));
+        verify(executorMock, times(1)).queryForLong(any());
+
+        // nothing left to write
+        historyService.flushHistory();
+        assertThat(statementCaptor.getAllValues()).hasSize(3);
     }
 
+    @SneakyThrows
     @Test
     void removeFromHistory() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        final ArgumentCaptor<DeleteManyStatement> deleteCaptor = ArgumentCaptor.forClass(DeleteManyStatement.class);
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(2).when(executorMock).update(deleteCaptor.capture());
+        final List<MongoRanChangeSet> ranChangeSets = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            ranChangeSets.add(new MongoRanChangeSet("liquibase/changelog.xml", String.valueOf(i), "author",
+                    null, null, null, ChangeSet.ExecType.EXECUTED, null, null, null, null, null, null, i, null));
+        }
+        doReturn(new ArrayList<>(ranChangeSets)).when(executorMock).queryForList(any(), any(Class.class));
+        assertThat(historyService.getRanChangeSets()).hasSize(3);
+
+        final ChangeSet first = new ChangeSet("1", "author", false, false, "liquibase/changelog.xml", null, null, null);
+        final ChangeSet third = new ChangeSet("3", "author", false, false, "liquibase/changelog.xml", null, null, null);
+        assertThat(historyService.getRanChangeSet(first)).isSameAs(ranChangeSets.get(0));
+
+        historyService.removeFromHistory(Arrays.asList(third, first));
+
+        // one round trip for the batch
+        assertThat(deleteCaptor.getAllValues()).hasSize(1);
+        assertThat(deleteCaptor.getValue())
+                .returns("DATABASECHANGELOG", DeleteManyStatement::getCollectionName)
+                .returns(Filters.or(historyService.changeSetFilter(third), historyService.changeSetFilter(first)),
+                        DeleteManyStatement::getFilter);
+
+        assertThat(historyService.getRanChangeSets()).containsExactly(ranChangeSets.get(1));
+        assertThat(historyService.getRanChangeSet(first)).isNull();
+        assertThat(historyService.getRanChangeSet(third)).isNull();
+        assertThat(historyService.getRanChangeSet(new ChangeSet("2", "author", false, false, "liquibase/changelog.xml", null, null, null)))
+                .isSameAs(ranChangeSets.get(1));
+
+        // nothing sent for an empty batch
+        historyService.removeFromHistory(Collections.emptyList());
+        verify(executorMock, times(1)).update(any());
+    }
+
+    @SneakyThrows
+    @Test
+    void removeFromHistoryPending() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        final ArgumentCaptor<DeleteManyStatement> deleteCaptor = ArgumentCaptor.forClass(DeleteManyStatement.class);
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(1).when(executorMock).update(deleteCaptor.capture());
+        final List<MongoRanChangeSet> ranChangeSets = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            ranChangeSets.add(new MongoRanChangeSet("liquibase/changelog.xml", String.valueOf(i), "author",
+                    null, null, null, ChangeSet.ExecType.EXECUTED, null, null, null, null, null, null, i, null));
+        }
+        doReturn(new ArrayList<>(ranChangeSets)).when(executorMock).queryForList(any(), any(Class.class));
+        assertThat(historyService.getRanChangeSets()).hasSize(3);
+
+        final ChangeSet first = new ChangeSet("1", "author", false, false, "liquibase/changelog.xml", null, null, null);
+        final ChangeSet third = new ChangeSet("3", "author", false, false, "liquibase/changelog.xml", null, null, null);
+
+        // removed from the cache at once, deleted from the repository with the next history read
+        historyService.removeFromHistory(third);
+        historyService.removeFromHistory(first);
+        assertThat(historyService.getRanChangeSet(third)).isNull();
+        assertThat(historyService.getRanChangeSet(first)).isNull();
+        verify(executorMock, times(0)).update(any());
+
+        assertThat(historyService.getRanChangeSets()).containsExactly(ranChangeSets.get(1));
+        assertThat(deleteCaptor.getAllValues()).singleElement()
+                .returns(Filters.or(historyService.changeSetFilter(third), historyService.changeSetFilter(first)),
+                        DeleteManyStatement::getFilter);
     }
 
     @Test
     void getNextSequenceValue() {
     }
 
+    @SneakyThrows
     @Test
     void tag() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        database.setLockScope("tenantA");
+
+        // the last changeSet of the shared history may belong to another scope
+        assertThatExceptionOfType(DatabaseException.class).isThrownBy(() -> historyService.tag("v1"))
+                .withMessageContaining("lock scope tenantA");
+        verifyNoInteractions(executorMock);
     }
 
     @Test
@@ -382,8 +540,43 @@ class MongoHistoryServiceTest {
     void upgradeChecksums() {
     }
 
+    @SneakyThrows
     @Test
     void getRanChangeSet() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        database.setHistorySequenceCounter(FALSE);
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(1L).when(executorMock).queryForLong(any(GetMaxChangeSetSequenceStatement.class));
+        doReturn(0).when(executorMock).update(any());
+        final MongoRanChangeSet ranChangeSet = new MongoRanChangeSet("classpath:liquibase/changelog.xml", "1", "Author",
+                null, null, null, ChangeSet.ExecType.EXECUTED, null, null, null, null, null, null, 1, null);
+        doReturn(new ArrayList<>(singletonList(ranChangeSet))).when(executorMock).queryForList(any(), any(Class.class));
+
+        final ChangeSet first = new ChangeSet("1", "author", false, false, "liquibase\\changelog.xml", null, null, null);
+        final ChangeSet second = new ChangeSet("2", "author", false, false, "liquibase/changelog.xml", null, null, null);
+
+        // matched like RanChangeSet.isSameAs, normalized path and ignoring case
+        assertThat(historyService.getRanChangeSet(first)).isSameAs(ranChangeSet);
+        assertThat(historyService.getRanChangeSet(second)).isNull();
+
+        historyService.setExecType(second, ChangeSet.ExecType.EXECUTED);
+        final RanChangeSet secondRan = historyService.getRanChangeSet(second);
+        assertThat(secondRan).returns("2", RanChangeSet::getId);
+
+        // the first entry of a re-run changeSet is returned, removing the changeSet removes all of its entries
+        historyService.setExecType(second, ChangeSet.ExecType.RERAN);
+        assertThat(historyService.getRanChangeSet(second)).isSameAs(secondRan);
+        historyService.removeFromHistory(second);
+        assertThat(historyService.getRanChangeSet(second)).isNull();
+
+        historyService.removeFromHistory(new ChangeSet("1", "Author", false, false, "classpath:liquibase/changelog.xml", null, null, null));
+        assertThat(historyService.getRanChangeSet(first)).isNull();
+        assertThat(historyService.getRanChangeSets()).isEmpty();
+
+        // reloaded after reset
+        historyService.reset();
+        assertThat(historyService.getRanChangeSet(first)).isSameAs(ranChangeSet);
+        verify(executorMock, times(2)).queryForList(any(), any(Class.class));
     }
 
     @Test
@@ -402,28 +595,208 @@ class MongoHistoryServiceTest {
     void generateDeploymentId() {
     }
 
+    @SneakyThrows
     @Test
     void existsRepository() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+
+        assertThat(historyService.existsRepository()).isTrue();
+        verify(executorMock, times(1)).queryForLong(any());
+
+        // answered by the startup snapshot
+        database.setTrackingState(new MongoTrackingState(Collections.singleton("DATABASECHANGELOGLOCK"), false, null, 0L));
+        assertThat(historyService.existsRepository()).isFalse();
+        database.setTrackingState(new MongoTrackingState(Collections.singleton("DATABASECHANGELOG"), false, null, 0L));
+        assertThat(historyService.existsRepository()).isTrue();
+        verifyNoMoreInteractions(executorMock);
     }
 
+    @SneakyThrows
     @Test
     void createRepository() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        database.setLockScope("tenantA");
+        final ArgumentCaptor<SqlStatement> statementCaptor = ArgumentCaptor.forClass(SqlStatement.class);
+        final MongoChangeLogLock sharedLock = new MongoChangeLogLock(MongoChangeLogLock.DEFAULT_ID, new Date(), "lockedBy", true,
+                null, 4L);
+
+        doReturn(new MongoChangeLogLockToDocumentConverter().toDocument(sharedLock))
+                .when(executorMock).queryForObject(statementCaptor.capture(), eq(Document.class));
+        doNothing().when(executorMock).execute(statementCaptor.capture());
+        doReturn(1).when(executorMock).update(statementCaptor.capture());
+
+        historyService.createRepository();
+
+        // the history is shared by all scopes, it is created under the shared lock
+        assertThat(statementCaptor.getAllValues()).hasSize(3);
+        assertThat(statementCaptor.getAllValues().get(0)).isInstanceOf(AcquireChangeLogLockStatement.class)
+                .extracting("scope").isNull();
+        assertThat(statementCaptor.getAllValues().get(1)).isInstanceOf(CreateChangeLogCollectionStatement.class);
+        assertThat(statementCaptor.getAllValues().get(2)).isInstanceOf(ReleaseChangeLogLockStatement.class)
+                .extracting("scope", "fencingToken").containsExactly(null, 4L);
     }
 
     @Test
     void adjustRepository() {
     }
 
+    @SneakyThrows
     @Test
     void dropRepository() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        final ArgumentCaptor<DropCollectionStatement> dropCaptor = ArgumentCaptor.forClass(DropCollectionStatement.class);
+        final ArgumentCaptor<DeleteManyStatement> deleteCaptor = ArgumentCaptor.forClass(DeleteManyStatement.class);
+        doNothing().when(executorMock).execute(dropCaptor.capture());
+        doReturn(1).when(executorMock).update(deleteCaptor.capture());
+
+        historyService.dropRepository();
+
+        assertThat(dropCaptor.getValue().toJs()).isEqualTo("db.runCommand({\"drop\": \"DATABASECHANGELOG\"});");
+        assertThat(deleteCaptor.getAllValues()).hasSize(2);
+        assertThat(deleteCaptor.getAllValues().get(0))
+                .returns("DATABASECHANGELOG_SEQUENCE", DeleteManyStatement::getCollectionName)
+                .returns(Filters.eq(AllocateChangeSetSequenceStatement.ID, "DATABASECHANGELOG"), DeleteManyStatement::getFilter);
+        assertThat(deleteCaptor.getAllValues().get(1))
+                .returns("DATABASECHANGELOG_SCHEMA", DeleteManyStatement::getCollectionName)
+                .returns(Filters.eq(MongoTrackingSchema.ID, "DATABASECHANGELOG"), DeleteManyStatement::getFilter);
+        assertThat(database.getTrackingSchemaCurrent()).isFalse();
     }
 
+    @SneakyThrows
     @Test
     void queryRanChangeSets() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        final ArgumentCaptor<FindRanChangeSetsStatement> findCaptor = ArgumentCaptor.forClass(FindRanChangeSetsStatement.class);
+        doReturn(new ArrayList<>()).when(executorMock).queryForList(findCaptor.capture(), any(Class.class));
+
+        assertThat(historyService.queryRanChangeSets()).isEmpty();
+        database.setHistoryReadProjection(TRUE);
+        database.setHistoryReadBatchSize(500);
+        assertThat(historyService.queryRanChangeSets()).isEmpty();
+
+        assertThat(findCaptor.getAllValues().get(0))
+                .returns(null, FindRanChangeSetsStatement::getProjection)
+                .returns(0, FindRanChangeSetsStatement::getBatchSize);
+        assertThat(findCaptor.getAllValues().get(1))
+                .returns(FindRanChangeSetsStatement.UPDATE_PROJECTION, FindRanChangeSetsStatement::getProjection)
+                .returns(500, FindRanChangeSetsStatement::getBatchSize);
+    }
+
+    @SneakyThrows
+    @Test
+    void querySnapshotRanChangeSets(@TempDir final Path snapshotDirectory) {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        doReturn("catalog").when(connectionMock).getCatalog();
+        doReturn("localhost:27017").when(connectionMock).getURL();
+        database.setHistorySnapshotDirectory(snapshotDirectory.toString());
+
+        final MongoRanChangeSet first = ranChangeSet("1", "8:0123456789abcdef0123456789abcdef", null, 1);
+        final MongoRanChangeSet second = ranChangeSet("2", "8:fedcba9876543210fedcba9876543210", null, 2);
+        final MongoRanChangeSet third = ranChangeSet("3", "8:00000000000000000000000000000010", null, 3);
+        final MongoRanChangeSet firstCleared = ranChangeSet("1", null, null, 1);
+
+        final ArgumentCaptor<FindRanChangeSetsStatement> findCaptor = ArgumentCaptor.forClass(FindRanChangeSetsStatement.class);
+        doReturn(
+                MongoHistoryFingerprint.of(asList(first, second)),
+                MongoHistoryFingerprint.of(asList(first, second)),
+                MongoHistoryFingerprint.of(asList(first, second, third)),
+                MongoHistoryFingerprint.of(asList(firstCleared, second, third)))
+                .when(executorMock).queryForObject(any(GetHistoryFingerprintStatement.class), eq(MongoHistoryFingerprint.class));
+        doReturn(asList(first, second), singletonList(third), emptyList(), asList(firstCleared, second, third))
+                .when(executorMock).queryForList(findCaptor.capture(), any(Class.class));
+
+        // no snapshot yet, everything is fetched
+        assertThat(historyService.queryRanChangeSets()).extracting(RanChangeSet::getId).containsExactly("1", "2");
+        assertThat(snapshotDirectory.resolve("catalog.DATABASECHANGELOG."
+                + MD5Util.computeMD5("localhost:27017").substring(0, 8) + MongoHistorySnapshot.FILE_EXTENSION)).exists();
+        // snapshot up to date, nothing is fetched
+        assertThat(historyService.queryRanChangeSets()).extracting(RanChangeSet::getId).containsExactly("1", "2");
+        assertThat(findCaptor.getAllValues()).hasSize(1);
+        // new changeSet, only the delta is fetched
+        assertThat(historyService.queryRanChangeSets()).extracting(RanChangeSet::getId).containsExactly("1", "2", "3");
+        // cleared checksum, the delta does not explain it so everything is fetched again
+        assertThat(historyService.queryRanChangeSets()).extracting(RanChangeSet::getLastCheckSum)
+                .containsExactly(null, second.getLastCheckSum(), third.getLastCheckSum());
+
+        assertThat(findCaptor.getAllValues()).extracting(FindRanChangeSetsStatement::getFilter).containsExactly(
+                Filters.gt(MongoRanChangeSet.Fields.orderExecuted, 0L),
+                Filters.gt(MongoRanChangeSet.Fields.orderExecuted, 2L),
+                Filters.gt(MongoRanChangeSet.Fields.orderExecuted, 3L),
+                null);
+    }
+
+    @Test
+    void merge() {
+        final MongoRanChangeSet first = ranChangeSet("1", null, null, 1);
+        final MongoRanChangeSet second = ranChangeSet("2", null, null, 2);
+        final MongoRanChangeSet firstReran = ranChangeSet("1", null, null, 3);
+
+        assertThat(MongoHistoryService.merge(asList(first, second), singletonList(firstReran)))
+                .containsExactly(second, firstReran);
     }
 
+    @SneakyThrows
     @Test
     void generateNextSequence() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        database.setHistorySequenceCounter(FALSE);
+        doReturn(7L).when(executorMock).queryForLong(any(GetMaxChangeSetSequenceStatement.class));
+
+        // the last sequence is looked up once and incremented locally
+        assertThat(historyService.getNextSequenceValue()).isEqualTo(8);
+        assertThat(historyService.getNextSequenceValues(10)).isEqualTo(9);
+        assertThat(historyService.getNextSequenceValue()).isEqualTo(19);
+        verify(executorMock, times(1)).queryForLong(any());
+    }
+
+    @SneakyThrows
+    @Test
+    void generateNextSequenceFromTrackingState() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        database.setHistorySequenceCounter(FALSE);
+        database.setTrackingState(new MongoTrackingState(Collections.singleton("DATABASECHANGELOG"), false, null, 7L));
+
+        assertThat(historyService.getNextSequenceValue()).isEqualTo(8);
+        verifyNoMoreInteractions(executorMock);
+    }
+
+    @SneakyThrows
+    @Test
+    void reserveSequenceValues() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        database.setHistorySequenceCounter(TRUE);
+        final ArgumentCaptor<AllocateChangeSetSequenceStatement> allocateCaptor =
+                ArgumentCaptor.forClass(AllocateChangeSetSequenceStatement.class);
+        doReturn(8L, 18L, 19L, 20L).when(executorMock).queryForLong(allocateCaptor.capture());
+
+        assertThat(historyService.getNextSequenceValue()).isEqualTo(8);
+        assertThat(historyService.getNextSequenceValues(10)).isEqualTo(9);
+        assertThat(historyService.getNextSequenceValue()).isEqualTo(19);
+        assertThat(historyService.getLastChangeSetSequenceValue()).isEqualTo(19);
+        // synchronized with the history again in the next run
+        historyService.reset();
+        assertThat(historyService.getNextSequenceValue()).isEqualTo(20);
+
+        assertThat(allocateCaptor.getAllValues())
+                .extracting(AllocateChangeSetSequenceStatement::getCount).containsExactly(1, 10, 1, 1);
+        assertThat(allocateCaptor.getAllValues())
+                .extracting(AllocateChangeSetSequenceStatement::isSynchronize).containsExactly(true, false, false, true);
+        assertThat(allocateCaptor.getValue())
+                .returns("DATABASECHANGELOG_SEQUENCE", AllocateChangeSetSequenceStatement::getCollectionName)
+                .returns("DATABASECHANGELOG", AllocateChangeSetSequenceStatement::getHistoryCollectionName);
+    }
+
+    @SneakyThrows
+    @Test
+    void reserveSequenceValuesWithLockScope() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        database.setHistorySequenceCounter(FALSE);
+        database.setLockScope("tenantA");
+        doReturn(8L).when(executorMock).queryForLong(any(AllocateChangeSetSequenceStatement.class));
+
+        // concurrent scopes append to the same history
+        assertThat(historyService.getNextSequenceValue()).isEqualTo(8);
     }
 
     @Test
@@ -450,4 +823,44 @@ class MongoHistoryServiceTest {
     void updateCheckSum() {
     }
 
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void setExecTypes() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        database.setHistorySequenceCounter(FALSE);
+        final ArgumentCaptor<BulkWriteStatement> bulkWriteCaptor = ArgumentCaptor.forClass(BulkWriteStatement.class);
+        doReturn(7L).when(executorMock).queryForLong(any(GetMaxChangeSetSequenceStatement.class));
+        doReturn(0).when(executorMock).update(bulkWriteCaptor.capture());
+
+        final List<ChangeSet> changeSets = new ArrayList<>();
+        for (int i = 0; i < DEFAULT_HISTORY_BATCH_SIZE + 1; i++) {
+            changeSets.add(new ChangeSet(String.valueOf(i), "author", false, false, "fileName", null, null, null));
+        }
+        historyService.setExecTypes(changeSets, ChangeSet.ExecType.EXECUTED);
+
+        // the last sequence is looked up once and each batch is a single unordered bulkWrite
+        verify(executorMock, times(1)).queryForLong(any());
+        verify(executorMock, times(2)).update(any(BulkWriteStatement.class));
+        verifyNoMoreInteractions(executorMock);
+
+        final List<BulkWriteStatement> statements = bulkWriteCaptor.getAllValues();
+        assertThat(statements.get(0).getOptions()).isEqualTo(new Document(BulkWriteStatement.ORDERED, false));
+        assertThat(statements.get(0).getOperations()).hasSize(DEFAULT_HISTORY_BATCH_SIZE);
+        assertThat(statements.get(1).getOperations()).singleElement()
+                .extracting(o -> o.get(BulkWriteStatement.INSERT_ONE, Document.class).get(BulkWriteStatement.DOCUMENT, Document.class))
+                .returns(String.valueOf(DEFAULT_HISTORY_BATCH_SIZE), d -> d.get(MongoRanChangeSet.Fields.changeSetId))
+                .returns(8 + DEFAULT_HISTORY_BATCH_SIZE, d -> d.get(MongoRanChangeSet.Fields.orderExecuted));
+        assertThat(historyService.getLastChangeSetSequenceValue()).isEqualTo(8 + DEFAULT_HISTORY_BATCH_SIZE);
+
+        historyService.setExecTypes(changeSets.subList(0, 1), ChangeSet.ExecType.RERAN);
+        final Document update = bulkWriteCaptor.getValue().getOperations().get(0).get(BulkWriteStatement.UPDATE_MANY, Document.class);
+        assertThat(update.get(BulkWriteStatement.FILTER, Document.class))
+                .containsEntry(MongoRanChangeSet.Fields.fileName, "fileName")
+                .containsEntry(MongoRanChangeSet.Fields.changeSetId, "0")
+                .containsEntry(MongoRanChangeSet.Fields.author, "author");
+        assertThat(update.get(BulkWriteStatement.UPDATE, Document.class).get("$set", Document.class))
+                .containsEntry(MongoRanChangeSet.Fields.orderExecuted, 9 + DEFAULT_HISTORY_BATCH_SIZE)
+                .containsEntry(MongoRanChangeSet.Fields.execType, ChangeSet.ExecType.RERAN.value);
+    }
+}
@@ -0,0 +1,92 @@
+package liquibase.ext.mongodb.changelog;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import lombok.SneakyThrows;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class MongoHistorySnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resolve() {
+        assertThat(MongoHistorySnapshot.resolve(directory, "db.DATABASECHANGELOG.0a1b2c3d"))
+                .isEqualTo(directory.resolve("db.DATABASECHANGELOG.0a1b2c3d.history.bson"));
+        assertThat(MongoHistorySnapshot.resolve(directory, "../db/x y").getFileName().toString())
+                .isEqualTo(".._db_x_y.history.bson");
+    }
+
+    @Test
+    @SneakyThrows
+    void writeAndRead() {
+        final MongoHistorySnapshot snapshot = new MongoHistorySnapshot(directory.resolve("nested/history.bson"),
+                "DATABASECHANGELOG", false);
+        assertThat(snapshot.read()).isEmpty();
+
+        final List<Document> documents = Arrays.asList(
+                new Document("id", "1").append("orderExecuted", 1).append("dateExecuted", new Date(1000L)),
+                new Document("id", "2").append("orderExecuted", 2).append("tag", null));
+        snapshot.write(documents);
+        assertThat(snapshot.read()).hasValue(documents);
+
+        snapshot.write(Collections.emptyList());
+        assertThat(snapshot.read()).hasValue(Collections.emptyList());
+        assertThat(Files.list(snapshot.getFile().getParent())).hasSize(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void readOtherHeader() {
+        final Path file = directory.resolve("history.bson");
+        new MongoHistorySnapshot(file, "DATABASECHANGELOG", false).write(Collections.singletonList(new Document("id", "1")));
+
+        assertThat(new MongoHistorySnapshot(file, "DATABASECHANGELOG", true).read()).isEmpty();
+        assertThat(new MongoHistorySnapshot(file, "OTHER", false).read()).isEmpty();
+        assertThat(new MongoHistorySnapshot(file, "DATABASECHANGELOG", false).read()).isPresent();
+    }
+
+    @Test
+    @SneakyThrows
+    void readTruncated() {
+        final MongoHistorySnapshot snapshot = new MongoHistorySnapshot(directory.resolve("history.bson"),
+                "DATABASECHANGELOG", false);
+        snapshot.write(Collections.singletonList(new Document("id", "1")));
+        final byte[] bytes = Files.readAllBytes(snapshot.getFile());
+        Files.write(snapshot.getFile(), Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThatExceptionOfType(EOFException.class).isThrownBy(snapshot::read);
+    }
+}
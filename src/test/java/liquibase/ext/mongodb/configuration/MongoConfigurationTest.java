@@ -15,6 +15,22 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
 import static liquibase.ext.mongodb.configuration.MongoConfiguration.ADJUST_TRACKING_TABLES_ON_STARTUP;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.COALESCE_STATEMENTS;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.HISTORY_READ_BATCH_SIZE;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.HISTORY_READ_PREFERENCE;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.HISTORY_READ_PROJECTION;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.HISTORY_SEQUENCE_COUNTER;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.HISTORY_SNAPSHOT_DIRECTORY;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.INSERT_PARALLELISM;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.LOCK_AUDIT_COLLECTION;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.LOCK_AUDIT_COLLECTION_SIZE;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.LOCK_LEASE_SECONDS;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.LOCK_SCOPE;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.MAX_IN_FLIGHT_STATEMENTS;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.PRECONDITION_READ_PREFERENCE;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.READ_CONCERN;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.READ_MAX_STALENESS_SECONDS;
+import static liquibase.ext.mongodb.configuration.MongoConfiguration.READ_PREFERENCE;
 import static liquibase.ext.mongodb.configuration.MongoConfiguration.SUPPORTS_VALIDATOR;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
@@ -78,17 +94,59 @@ class MongoConfigurationTest {
                 .returns(TRUE, ConfigurationProperty::getWasOverridden);
     }
 
+    @Test
+    void testGetInsertParallelism() {
+        assertThat(configuration.getInsertParallelism()).isEqualTo(1);
+
+        configuration.setInsertParallelism(4);
+        assertThat(configuration.getProperty(INSERT_PARALLELISM))
+                .returns(4, ConfigurationProperty::getValue)
+                .returns(TRUE, ConfigurationProperty::getWasOverridden);
+    }
+
     @Test
     void testLiquibaseConfigurationInit() {
 
         when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, ADJUST_TRACKING_TABLES_ON_STARTUP)).thenReturn("false");
         when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, SUPPORTS_VALIDATOR)).thenReturn("false");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, INSERT_PARALLELISM)).thenReturn("4");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, COALESCE_STATEMENTS)).thenReturn("true");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, MAX_IN_FLIGHT_STATEMENTS)).thenReturn("8");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, HISTORY_READ_PROJECTION)).thenReturn("true");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, HISTORY_READ_BATCH_SIZE)).thenReturn("500");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, HISTORY_SNAPSHOT_DIRECTORY)).thenReturn("/var/cache/liquibase");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, HISTORY_SEQUENCE_COUNTER)).thenReturn("true");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, READ_PREFERENCE)).thenReturn("nearest");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, HISTORY_READ_PREFERENCE)).thenReturn("secondary");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, PRECONDITION_READ_PREFERENCE)).thenReturn("secondaryPreferred");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, READ_MAX_STALENESS_SECONDS)).thenReturn("120");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, READ_CONCERN)).thenReturn("majority");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, LOCK_LEASE_SECONDS)).thenReturn("60");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, LOCK_SCOPE)).thenReturn("orders");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, LOCK_AUDIT_COLLECTION)).thenReturn("liquibase_lock_audit");
+        when(providerMock.getValue(MongoConfiguration.LIQUIBASE_MONGO_NAMESPACE, LOCK_AUDIT_COLLECTION_SIZE)).thenReturn("1048576");
 
         LiquibaseConfiguration.getInstance().init(providerMock);
         configuration = LiquibaseConfiguration.getInstance().getConfiguration(MongoConfiguration.class);
 
         assertThat(configuration.getAdjustTrackingTablesOnStartup()).isFalse();
         assertThat(configuration.getSupportsValidator()).isFalse();
+        assertThat(configuration.getInsertParallelism()).isEqualTo(4);
+        assertThat(configuration.getCoalesceStatements()).isTrue();
+        assertThat(configuration.getMaxInFlightStatements()).isEqualTo(8);
+        assertThat(configuration.getHistoryReadProjection()).isTrue();
+        assertThat(configuration.getHistoryReadBatchSize()).isEqualTo(500);
+        assertThat(configuration.getHistorySnapshotDirectory()).isEqualTo("/var/cache/liquibase");
+        assertThat(configuration.getHistorySequenceCounter()).isTrue();
+        assertThat(configuration.getReadPreference()).isEqualTo("nearest");
+        assertThat(configuration.getHistoryReadPreference()).isEqualTo("secondary");
+        assertThat(configuration.getPreconditionReadPreference()).isEqualTo("secondaryPreferred");
+        assertThat(configuration.getReadMaxStalenessSeconds()).isEqualTo(120L);
+        assertThat(configuration.getReadConcern()).isEqualTo("majority");
+        assertThat(configuration.getLockLeaseSeconds()).isEqualTo(60L);
+        assertThat(configuration.getLockScope()).isEqualTo("orders");
+        assertThat(configuration.getLockAuditCollection()).isEqualTo("liquibase_lock_audit");
+        assertThat(configuration.getLockAuditCollectionSize()).isEqualTo(1048576L);
 
         assertThat(configuration.getProperty(ADJUST_TRACKING_TABLES_ON_STARTUP))
                 .returns(FALSE, ConfigurationProperty::getValue)
@@ -0,0 +1,78 @@
+package liquibase.ext.mongodb.database;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ext.AbstractMongoIntegrationTest;
+import liquibase.ext.mongodb.changelog.MongoRanChangeSet;
+import liquibase.ext.mongodb.lockservice.CreateChangeLogLockCollectionStatement;
+import liquibase.ext.mongodb.lockservice.AcquireChangeLogLockStatement;
+import liquibase.ext.mongodb.statement.InsertManyStatement;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GetTrackingStateStatementIT extends AbstractMongoIntegrationTest {
+
+    private static final String HISTORY = "historyCollection";
+    private static final String LOCK = "lockCollection";
+    private static final String SCHEMA = HISTORY + MongoTrackingSchema.COLLECTION_SUFFIX;
+
+    private final GetTrackingStateStatement statement = new GetTrackingStateStatement(HISTORY, LOCK, SCHEMA);
+
+    @Test
+    void queryForObjectWhenNoCollections() {
+        assertThat(statement.queryForObject(database, MongoTrackingState.class))
+                .isEqualTo(new MongoTrackingState(Collections.emptySet(), null, null, 0L));
+    }
+
+    @Test
+    void queryForObject() {
+        new CreateChangeLogLockCollectionStatement(LOCK).execute(database);
+        new InsertManyStatement(HISTORY, Arrays.asList(
+                new Document(MongoRanChangeSet.Fields.orderExecuted, 1),
+                new Document(MongoRanChangeSet.Fields.orderExecuted, 3))).execute(database);
+        new AcquireChangeLogLockStatement(LOCK, null).queryForObject(database, Document.class);
+        mongoDatabase.getCollection(SCHEMA).insertOne(new Document(MongoTrackingSchema.ID, HISTORY)
+                .append(MongoTrackingSchema.VERSION, "version"));
+        mongoDatabase.getCollection("otherCollection").insertOne(new Document());
+
+        final MongoTrackingState state = statement.queryForObject(database, MongoTrackingState.class);
+        assertThat(state.getCollectionNames()).containsExactlyInAnyOrder(HISTORY, LOCK, SCHEMA);
+        assertThat(state)
+                .returns(true, MongoTrackingState::getLocked)
+                .returns(1L, MongoTrackingState::getFencingToken)
+                .returns("version", MongoTrackingState::getSchemaVersion)
+                .returns(3L, MongoTrackingState::getMaxSequence);
+    }
+
+    @Test
+    void toStringJs() {
+        assertThat(statement.toJs())
+                .isEqualTo(statement.toString())
+                .isEqualTo("db.trackingState(\"historyCollection\", \"lockCollection\", \"historyCollection_SCHEMA\");");
+        assertThat(new GetTrackingStateStatement(HISTORY, LOCK, SCHEMA, "tenantA").toJs())
+                .isEqualTo("db.trackingState(\"historyCollection\", \"lockCollection\", \"historyCollection_SCHEMA\", \"tenantA\");");
+    }
+}
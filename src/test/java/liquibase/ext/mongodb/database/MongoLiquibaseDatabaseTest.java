@@ -1,19 +1,32 @@
 package liquibase.ext.mongodb.database;
 
+import com.mongodb.ReadPreference;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
 import liquibase.CatalogAndSchema;
 import liquibase.configuration.LiquibaseConfiguration;
 import liquibase.database.DatabaseFactory;
 import liquibase.database.ObjectQuotingStrategy;
 import liquibase.ext.mongodb.configuration.MongoConfiguration;
 import lombok.SneakyThrows;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.util.concurrent.TimeUnit;
+
 import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
 import static liquibase.servicelocator.PrioritizedService.PRIORITY_DATABASE;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @TestInstance(TestInstance.Lifecycle.PER_METHOD)
 class MongoLiquibaseDatabaseTest {
@@ -73,6 +86,63 @@ class MongoLiquibaseDatabaseTest {
         assertThat(database.getDefaultDatabaseProductName()).isEqualTo("MongoDB");
     }
 
+    @Test
+    void getReadRoute() {
+        final MongoConnection connection = mock(MongoConnection.class);
+        final MongoDatabase mongoDatabase = mock(MongoDatabase.class);
+        final MongoDatabase routedDatabase = mock(MongoDatabase.class);
+        final ClientSession session = mock(ClientSession.class);
+        when(connection.getMongoDatabase()).thenReturn(mongoDatabase);
+        database.setConnection(connection);
+
+        // not configured, read from the primary without a session
+        assertThat(database.getReadRoute(MongoReadCategory.HISTORY))
+                .returns(mongoDatabase, MongoReadRoute::getMongoDatabase)
+                .returns(null, MongoReadRoute::getSession);
+        verify(connection, never()).getReadSession();
+
+        configuration.setReadPreference("secondaryPreferred");
+        database.setHistoryReadPreference("secondary");
+        when(mongoDatabase.withReadPreference(any())).thenReturn(routedDatabase);
+        when(connection.getReadSession()).thenReturn(session);
+        when(connection.isReadSessionBehind()).thenReturn(true, false);
+
+        // catches up with the writes of the run first
+        assertThat(database.getReadRoute(MongoReadCategory.HISTORY))
+                .returns(routedDatabase, MongoReadRoute::getMongoDatabase)
+                .returns(session, MongoReadRoute::getSession);
+        verify(mongoDatabase).withReadPreference(ReadPreference.secondary());
+        verify(mongoDatabase).runCommand(session, new Document("ping", 1), ReadPreference.primary());
+        verify(connection).setReadSessionBehind(false);
+
+        database.getReadRoute(MongoReadCategory.METADATA);
+        verify(mongoDatabase).withReadPreference(ReadPreference.secondaryPreferred());
+        database.getReadRoute(MongoReadCategory.PRECONDITION, "nearest");
+        verify(mongoDatabase).withReadPreference(ReadPreference.nearest());
+        verify(mongoDatabase, times(1)).runCommand(any(ClientSession.class), any(), any(ReadPreference.class));
+    }
+
+    @Test
+    void toReadPreference() {
+        assertThat(MongoLiquibaseDatabase.toReadPreference("primary", null)).isEqualTo(ReadPreference.primary());
+        assertThat(MongoLiquibaseDatabase.toReadPreference("primary", 120L)).isEqualTo(ReadPreference.primary());
+        assertThat(MongoLiquibaseDatabase.toReadPreference("secondaryPreferred", 120L))
+                .isEqualTo(ReadPreference.secondaryPreferred(120L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void afterWrite() {
+        final MongoConnection connection = new MongoConnection();
+        connection.setReadSessionBehind(false);
+        database.setConnection(connection);
+
+        final long writeCount = database.getWriteCount();
+        database.afterWrite();
+
+        assertThat(connection.isReadSessionBehind()).isTrue();
+        assertThat(database.getWriteCount()).isEqualTo(writeCount + 1);
+    }
+
     @Test
     void getAdjustTrackingTablesOnStartup() {
         assertThat(configuration.getAdjustTrackingTablesOnStartup()).isTrue();
@@ -91,6 +161,183 @@ class MongoLiquibaseDatabaseTest {
         assertThat(database.getSupportsValidator()).isFalse();
     }
 
+    @Test
+    void getInsertParallelism() {
+        assertThat(configuration.getInsertParallelism()).isEqualTo(1);
+        assertThat(database.getInsertParallelism()).isEqualTo(1);
+        configuration.setInsertParallelism(4);
+        assertThat(configuration.getInsertParallelism()).isEqualTo(4);
+        assertThat(database.getInsertParallelism()).isEqualTo(4);
+        database.setInsertParallelism(8);
+        assertThat(configuration.getInsertParallelism()).isEqualTo(4);
+        assertThat(database.getInsertParallelism()).isEqualTo(8);
+    }
+
+    @Test
+    void getCoalesceStatements() {
+        assertThat(configuration.getCoalesceStatements()).isFalse();
+        assertThat(database.getCoalesceStatements()).isFalse();
+        configuration.setCoalesceStatements(TRUE);
+        assertThat(database.getCoalesceStatements()).isTrue();
+        database.setCoalesceStatements(FALSE);
+        assertThat(configuration.getCoalesceStatements()).isTrue();
+        assertThat(database.getCoalesceStatements()).isFalse();
+    }
+
+    @Test
+    void getMaxInFlightStatements() {
+        assertThat(configuration.getMaxInFlightStatements()).isEqualTo(1);
+        assertThat(database.getMaxInFlightStatements()).isEqualTo(1);
+        configuration.setMaxInFlightStatements(4);
+        assertThat(database.getMaxInFlightStatements()).isEqualTo(4);
+        database.setMaxInFlightStatements(2);
+        assertThat(configuration.getMaxInFlightStatements()).isEqualTo(4);
+        assertThat(database.getMaxInFlightStatements()).isEqualTo(2);
+    }
+
+    @Test
+    void getHistoryReadProjection() {
+        assertThat(configuration.getHistoryReadProjection()).isFalse();
+        assertThat(database.getHistoryReadProjection()).isFalse();
+        configuration.setHistoryReadProjection(TRUE);
+        assertThat(database.getHistoryReadProjection()).isTrue();
+        database.setHistoryReadProjection(FALSE);
+        assertThat(configuration.getHistoryReadProjection()).isTrue();
+        assertThat(database.getHistoryReadProjection()).isFalse();
+    }
+
+    @Test
+    void getHistoryReadBatchSize() {
+        assertThat(configuration.getHistoryReadBatchSize()).isEqualTo(0);
+        assertThat(database.getHistoryReadBatchSize()).isEqualTo(0);
+        configuration.setHistoryReadBatchSize(1000);
+        assertThat(database.getHistoryReadBatchSize()).isEqualTo(1000);
+        database.setHistoryReadBatchSize(100);
+        assertThat(configuration.getHistoryReadBatchSize()).isEqualTo(1000);
+        assertThat(database.getHistoryReadBatchSize()).isEqualTo(100);
+    }
+
+    @Test
+    void getHistorySnapshotDirectory() {
+        assertThat(configuration.getHistorySnapshotDirectory()).isNull();
+        assertThat(database.getHistorySnapshotDirectory()).isNull();
+        configuration.setHistorySnapshotDirectory("/tmp/a");
+        assertThat(database.getHistorySnapshotDirectory()).isEqualTo("/tmp/a");
+        database.setHistorySnapshotDirectory("/tmp/b");
+        assertThat(configuration.getHistorySnapshotDirectory()).isEqualTo("/tmp/a");
+        assertThat(database.getHistorySnapshotDirectory()).isEqualTo("/tmp/b");
+    }
+
+    @Test
+    void getHistorySequenceCounter() {
+        assertThat(configuration.getHistorySequenceCounter()).isFalse();
+        assertThat(database.getHistorySequenceCounter()).isFalse();
+        configuration.setHistorySequenceCounter(TRUE);
+        assertThat(database.getHistorySequenceCounter()).isTrue();
+        database.setHistorySequenceCounter(FALSE);
+        assertThat(configuration.getHistorySequenceCounter()).isTrue();
+        assertThat(database.getHistorySequenceCounter()).isFalse();
+    }
+
+    @Test
+    void getReadPreference() {
+        assertThat(configuration.getReadPreference()).isNull();
+        assertThat(database.getReadPreference()).isNull();
+        configuration.setReadPreference("secondaryPreferred");
+        assertThat(database.getReadPreference()).isEqualTo("secondaryPreferred");
+        database.setReadPreference("secondary");
+        assertThat(configuration.getReadPreference()).isEqualTo("secondaryPreferred");
+        assertThat(database.getReadPreference()).isEqualTo("secondary");
+    }
+
+    @Test
+    void getHistoryReadPreference() {
+        assertThat(configuration.getHistoryReadPreference()).isNull();
+        assertThat(database.getHistoryReadPreference()).isNull();
+        configuration.setHistoryReadPreference("secondaryPreferred");
+        assertThat(database.getHistoryReadPreference()).isEqualTo("secondaryPreferred");
+        database.setHistoryReadPreference("primaryPreferred");
+        assertThat(configuration.getHistoryReadPreference()).isEqualTo("secondaryPreferred");
+        assertThat(database.getHistoryReadPreference()).isEqualTo("primaryPreferred");
+    }
+
+    @Test
+    void getPreconditionReadPreference() {
+        assertThat(configuration.getPreconditionReadPreference()).isNull();
+        assertThat(database.getPreconditionReadPreference()).isNull();
+        configuration.setPreconditionReadPreference("secondaryPreferred");
+        assertThat(database.getPreconditionReadPreference()).isEqualTo("secondaryPreferred");
+        database.setPreconditionReadPreference("nearest");
+        assertThat(configuration.getPreconditionReadPreference()).isEqualTo("secondaryPreferred");
+        assertThat(database.getPreconditionReadPreference()).isEqualTo("nearest");
+    }
+
+    @Test
+    void getReadMaxStalenessSeconds() {
+        assertThat(configuration.getReadMaxStalenessSeconds()).isNull();
+        assertThat(database.getReadMaxStalenessSeconds()).isNull();
+        configuration.setReadMaxStalenessSeconds(150L);
+        assertThat(database.getReadMaxStalenessSeconds()).isEqualTo(150L);
+        database.setReadMaxStalenessSeconds(90L);
+        assertThat(configuration.getReadMaxStalenessSeconds()).isEqualTo(150L);
+        assertThat(database.getReadMaxStalenessSeconds()).isEqualTo(90L);
+    }
+
+    @Test
+    void getReadConcern() {
+        assertThat(configuration.getReadConcern()).isNull();
+        assertThat(database.getReadConcern()).isNull();
+        configuration.setReadConcern("majority");
+        assertThat(database.getReadConcern()).isEqualTo("majority");
+        database.setReadConcern("local");
+        assertThat(configuration.getReadConcern()).isEqualTo("majority");
+        assertThat(database.getReadConcern()).isEqualTo("local");
+    }
+
+    @Test
+    void getLockLeaseSeconds() {
+        assertThat(configuration.getLockLeaseSeconds()).isNull();
+        assertThat(database.getLockLeaseSeconds()).isNull();
+        configuration.setLockLeaseSeconds(30L);
+        assertThat(database.getLockLeaseSeconds()).isEqualTo(30L);
+        database.setLockLeaseSeconds(90L);
+        assertThat(configuration.getLockLeaseSeconds()).isEqualTo(30L);
+        assertThat(database.getLockLeaseSeconds()).isEqualTo(90L);
+    }
+
+    @Test
+    void getLockScope() {
+        assertThat(configuration.getLockScope()).isNull();
+        assertThat(database.getLockScope()).isNull();
+        configuration.setLockScope("orders");
+        assertThat(database.getLockScope()).isEqualTo("orders");
+        database.setLockScope("billing");
+        assertThat(configuration.getLockScope()).isEqualTo("orders");
+        assertThat(database.getLockScope()).isEqualTo("billing");
+    }
+
+    @Test
+    void getLockAuditCollection() {
+        assertThat(configuration.getLockAuditCollection()).isNull();
+        assertThat(database.getLockAuditCollection()).isNull();
+        configuration.setLockAuditCollection("audit1");
+        assertThat(database.getLockAuditCollection()).isEqualTo("audit1");
+        database.setLockAuditCollection("audit2");
+        assertThat(configuration.getLockAuditCollection()).isEqualTo("audit1");
+        assertThat(database.getLockAuditCollection()).isEqualTo("audit2");
+    }
+
+    @Test
+    void getLockAuditCollectionSize() {
+        assertThat(configuration.getLockAuditCollectionSize()).isEqualTo(16L * 1024 * 1024);
+        assertThat(database.getLockAuditCollectionSize()).isEqualTo(16L * 1024 * 1024);
+        configuration.setLockAuditCollectionSize(1024L);
+        assertThat(database.getLockAuditCollectionSize()).isEqualTo(1024L);
+        database.setLockAuditCollectionSize(2048L);
+        assertThat(configuration.getLockAuditCollectionSize()).isEqualTo(1024L);
+        assertThat(database.getLockAuditCollectionSize()).isEqualTo(2048L);
+    }
+
     @Test
     void setAdjustTrackingTablesOnStartup() {
         assertThat(configuration.getAdjustTrackingTablesOnStartup()).isTrue();
@@ -0,0 +1,67 @@
+package liquibase.ext.mongodb.database;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoDatabase;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MongoServerLimitsTest {
+
+    @Mock
+    protected MongoDatabase databaseMock;
+
+    @Test
+    void fromResponse() {
+        assertThat(MongoServerLimits.fromResponse(new Document("maxBsonObjectSize", 1000)
+                .append("maxMessageSizeBytes", 2000L).append("maxWriteBatchSize", 10)))
+                .returns(1000, MongoServerLimits::getMaxBsonObjectSize)
+                .returns(2000, MongoServerLimits::getMaxMessageSizeBytes)
+                .returns(10, MongoServerLimits::getMaxWriteBatchSize)
+                .returns(1000, MongoServerLimits::getMaxBatchBytes);
+
+        assertThat(MongoServerLimits.fromResponse(new Document("ok", 1.0)))
+                .isEqualTo(MongoServerLimits.DEFAULT)
+                .returns(16 * 1024 * 1024, MongoServerLimits::getMaxBatchBytes);
+    }
+
+    @Test
+    void queryFallsBackToIsMaster() {
+        when(databaseMock.runCommand(new Document("hello", 1)))
+                .thenThrow(new MongoCommandException(new BsonDocument(), new ServerAddress()));
+        when(databaseMock.runCommand(new Document("isMaster", 1)))
+                .thenReturn(new Document("maxWriteBatchSize", 1000));
+
+        assertThat(MongoServerLimits.query(databaseMock))
+                .returns(1000, MongoServerLimits::getMaxWriteBatchSize)
+                .returns(MongoServerLimits.DEFAULT_MAX_BSON_OBJECT_SIZE, MongoServerLimits::getMaxBsonObjectSize);
+    }
+}
@@ -0,0 +1,114 @@
+package liquibase.ext.mongodb.database;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ext.mongodb.statement.FindOneAndUpdateStatement;
+import liquibase.nosql.executor.NoSqlExecutor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MongoTrackingSchemaTest {
+
+    @Mock
+    protected NoSqlExecutor executorMock;
+
+    @Test
+    void computeVersion() {
+        final String version = MongoTrackingSchema.computeVersion("DATABASECHANGELOG", "DATABASECHANGELOGLOCK", true);
+
+        assertThat(version)
+                .hasSize(32)
+                .isEqualTo(MongoTrackingSchema.computeVersion("DATABASECHANGELOG", "DATABASECHANGELOGLOCK", true))
+                .isNotEqualTo(MongoTrackingSchema.computeVersion("DATABASECHANGELOG", "DATABASECHANGELOGLOCK", false))
+                .isNotEqualTo(MongoTrackingSchema.computeVersion("DATABASECHANGELOG", "OTHERLOCK", true))
+                .isNotEqualTo(MongoTrackingSchema.computeVersion("OTHERCHANGELOG", "DATABASECHANGELOGLOCK", true));
+    }
+
+    @Test
+    void schema() {
+        final MongoLiquibaseDatabase database = new MongoLiquibaseDatabase();
+
+        assertThat(new MongoTrackingSchema(database))
+                .returns("DATABASECHANGELOG_SCHEMA", MongoTrackingSchema::getCollectionName)
+                .returns("DATABASECHANGELOG", MongoTrackingSchema::getHistoryCollectionName)
+                .returns("DATABASECHANGELOGLOCK", MongoTrackingSchema::getLockCollectionName)
+                .returns(MongoTrackingSchema.computeVersion("DATABASECHANGELOG", "DATABASECHANGELOGLOCK", true),
+                        MongoTrackingSchema::getVersion);
+    }
+
+    @SneakyThrows
+    @Test
+    void isCurrent() {
+        final MongoLiquibaseDatabase database = new MongoLiquibaseDatabase();
+        when(executorMock.queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class)))
+                .thenReturn(state(new MongoTrackingSchema(database).getVersion()));
+
+        assertThat(MongoTrackingSchema.isCurrent(database, executorMock)).isTrue();
+        assertThat(MongoTrackingSchema.isCurrent(database, executorMock)).isTrue();
+
+        verify(executorMock, times(1)).queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class));
+        assertThat(database.getTrackingSchemaCurrent()).isTrue();
+    }
+
+    @SneakyThrows
+    @Test
+    void isCurrentWhenOtherVersion() {
+        final MongoLiquibaseDatabase database = new MongoLiquibaseDatabase();
+        when(executorMock.queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class)))
+                .thenReturn(state("other"));
+
+        assertThat(MongoTrackingSchema.isCurrent(database, executorMock)).isFalse();
+        assertThat(database.getTrackingSchemaCurrent()).isFalse();
+    }
+
+    @SneakyThrows
+    @Test
+    void markCurrent() {
+        final MongoLiquibaseDatabase database = new MongoLiquibaseDatabase();
+        database.setTrackingSchemaCurrent(FALSE);
+
+        MongoTrackingSchema.markCurrent(database, executorMock);
+
+        verify(executorMock, times(1)).update(any(FindOneAndUpdateStatement.class));
+        assertThat(database.getTrackingSchemaCurrent()).isEqualTo(TRUE);
+    }
+
+    private static MongoTrackingState state(final String schemaVersion) {
+        return new MongoTrackingState(new HashSet<>(Arrays.asList("DATABASECHANGELOG", "DATABASECHANGELOGLOCK")),
+                false, schemaVersion, 0L);
+    }
+}
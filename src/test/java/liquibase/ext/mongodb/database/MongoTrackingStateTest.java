@@ -0,0 +1,90 @@
+package liquibase.ext.mongodb.database;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.nosql.executor.NoSqlExecutor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MongoTrackingStateTest {
+
+    @Mock
+    protected NoSqlExecutor executorMock;
+
+    @Test
+    void takeLocked() {
+        final MongoTrackingState state = new MongoTrackingState(Collections.singleton("DATABASECHANGELOGLOCK"), true, null, 0L);
+
+        assertThat(state.exists("DATABASECHANGELOGLOCK")).isTrue();
+        assertThat(state.exists("DATABASECHANGELOG")).isFalse();
+        assertThat(state.takeLocked()).isEqualTo(Optional.of(true));
+        assertThat(state.takeLocked()).isEmpty();
+
+        // no lock entry yet
+        assertThat(new MongoTrackingState(Collections.emptySet(), null, null, 0L).takeLocked()).isEqualTo(Optional.of(false));
+    }
+
+    @Test
+    void isCurrentFor() {
+        final MongoTrackingState state = new MongoTrackingState(Collections.emptySet(), false, null, 0L, 4L);
+        assertThat(state.isCurrentFor(5L)).isTrue();
+        // taken and released by another process meanwhile
+        assertThat(state.isCurrentFor(6L)).isFalse();
+        // the lock collection was recreated meanwhile
+        assertThat(state.isCurrentFor(1L)).isFalse();
+        assertThat(state.isCurrentFor(null)).isFalse();
+
+        // no lock entry yet
+        assertThat(new MongoTrackingState(Collections.emptySet(), null, null, 0L).isCurrentFor(1L)).isTrue();
+        assertThat(new MongoTrackingState(Collections.emptySet(), null, null, 0L).isCurrentFor(2L)).isFalse();
+    }
+
+    @SneakyThrows
+    @Test
+    void bootstrap() {
+        final MongoLiquibaseDatabase database = new MongoLiquibaseDatabase();
+        final MongoTrackingState state = new MongoTrackingState(Collections.singleton("DATABASECHANGELOG"), false, "version", 5L);
+        when(executorMock.queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class))).thenReturn(state);
+
+        assertThat(MongoTrackingState.bootstrap(database, executorMock)).isSameAs(state);
+        assertThat(MongoTrackingState.bootstrap(database, executorMock)).isSameAs(state);
+        verify(executorMock, times(1)).queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class));
+
+        MongoTrackingState.discard(database);
+        assertThat(database.getTrackingState()).isNull();
+        assertThat(MongoTrackingState.bootstrap(database, executorMock)).isSameAs(state);
+        verify(executorMock, times(2)).queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class));
+    }
+}
@@ -0,0 +1,321 @@
+package liquibase.ext.mongodb.executor;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import liquibase.exception.DatabaseException;
+import liquibase.ext.mongodb.changelog.AdjustChangeLogCollectionStatement;
+import liquibase.ext.mongodb.changelog.CreateChangeLogCollectionStatement;
+import liquibase.ext.mongodb.database.MongoConnection;
+import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoServerLimits;
+import liquibase.ext.mongodb.lockservice.AdjustChangeLogLockCollectionStatement;
+import liquibase.ext.mongodb.lockservice.CreateChangeLogLockCollectionStatement;
+import liquibase.ext.mongodb.statement.AbstractRunCommandStatement;
+import liquibase.ext.mongodb.statement.BsonUtils;
+import liquibase.ext.mongodb.statement.CreateCollectionStatement;
+import liquibase.ext.mongodb.statement.CreateIndexStatement;
+import liquibase.ext.mongodb.statement.DropCollectionStatement;
+import liquibase.ext.mongodb.statement.InsertManyStatement;
+import liquibase.ext.mongodb.statement.InsertOneStatement;
+import liquibase.nosql.executor.NoSqlExecutor;
+import liquibase.nosql.executor.NoSqlStatementEvent;
+import liquibase.nosql.executor.NoSqlStatementRecorder;
+import lombok.SneakyThrows;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NoSqlExecutorTest {
+
+    @Mock
+    protected MongoConnection connectionMock;
+
+    @Mock
+    protected MongoDatabase mongoDatabaseMock;
+
+    @Mock
+    protected MongoCollection<Document> collectionMock;
+
+    @Mock
+    protected ListIndexesIterable<Document> listIndexesMock;
+
+    @Mock
+    protected MongoCursor<Document> cursorMock;
+
+    protected MongoLiquibaseDatabase database;
+
+    protected NoSqlExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        when(connectionMock.getMongoDatabase()).thenReturn(mongoDatabaseMock);
+        when(connectionMock.getServerLimits()).thenReturn(MongoServerLimits.DEFAULT);
+        when(mongoDatabaseMock.getCodecRegistry()).thenReturn(BsonUtils.uuidCodecRegistry());
+        when(mongoDatabaseMock.runCommand(any(Bson.class))).thenReturn(new Document("ok", 1.0));
+
+        database = new MongoLiquibaseDatabase();
+        database.setConnection(connectionMock);
+        database.setInsertParallelism(1);
+        database.setCoalesceStatements(true);
+
+        executor = new NoSqlExecutor();
+        executor.setDatabase(database);
+    }
+
+    @Test
+    @SneakyThrows
+    void executeCoalescesConsecutiveInserts() {
+        executor.execute(new InsertOneStatement("collection1", new Document("id", 1)));
+        executor.execute(new InsertManyStatement("collection1", asList(new Document("id", 2), new Document("id", 3))));
+        executor.execute(new InsertOneStatement("collection1", new Document("id", 4)));
+        verify(mongoDatabaseMock, never()).runCommand(any(Bson.class));
+
+        executor.flush();
+        final List<Document> commands = captureCommands(1);
+        assertThat(commands.get(0))
+                .containsEntry("insert", "collection1");
+        assertThat(commands.get(0).getList("documents", Object.class)).hasSize(4);
+
+        executor.flush();
+        captureCommands(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void executeFlushesOnDifferentCollectionOrOptions() {
+        executor.execute(new InsertOneStatement("collection1", new Document("id", 1)));
+        executor.execute(new InsertOneStatement("collection2", new Document("id", 2)));
+        executor.execute(new InsertOneStatement("collection2", new Document("id", 3), new Document("ordered", false)));
+        executor.flush();
+
+        assertThat(captureCommands(3))
+                .extracting(c -> c.get("insert"))
+                .containsExactly("collection1", "collection2", "collection2");
+    }
+
+    @Test
+    @SneakyThrows
+    void executeFlushesBeforeOtherStatements() {
+        executor.execute(new InsertOneStatement("collection1", new Document("id", 1)));
+        executor.execute(new DropCollectionStatement("collection1"));
+
+        assertThat(captureCommands(2))
+                .extracting(c -> c.keySet().iterator().next())
+                .containsExactly("insert", "drop");
+    }
+
+    @Test
+    @SneakyThrows
+    void executeAndUpdateAreRecorded() {
+        final List<NoSqlStatementEvent> events = new CopyOnWriteArrayList<>();
+        database.setStatementRecorder(new NoSqlStatementRecorder(singletonList(events::add)));
+        database.setCoalesceStatements(false);
+
+        when(mongoDatabaseMock.runCommand(any(Bson.class))).thenReturn(new Document("ok", 1.0).append("n", 1));
+        executor.execute(new InsertOneStatement("collection1", new Document("id", 1)));
+        when(mongoDatabaseMock.runCommand(any(Bson.class))).thenThrow(new MongoException("failed"));
+        assertThatExceptionOfType(DatabaseException.class)
+                .isThrownBy(() -> executor.execute(new DropCollectionStatement("collection2")));
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0))
+                .returns(NoSqlStatementEvent.EXECUTE, NoSqlStatementEvent::getOperation)
+                .returns(AbstractRunCommandStatement.COMMAND_NAME, NoSqlStatementEvent::getCommandName)
+                .returns("collection1", NoSqlStatementEvent::getCollectionName)
+                .returns(1L, NoSqlStatementEvent::getDocuments)
+                .returns(true, NoSqlStatementEvent::isSucceeded);
+        assertThat(events.get(1))
+                .returns(AbstractRunCommandStatement.COMMAND_NAME, NoSqlStatementEvent::getCommandName)
+                .returns("collection2", NoSqlStatementEvent::getCollectionName)
+                .returns(NoSqlStatementEvent.UNKNOWN_DOCUMENTS, NoSqlStatementEvent::getDocuments)
+                .returns(false, NoSqlStatementEvent::isSucceeded);
+    }
+
+    @Test
+    @SneakyThrows
+    void commitFlushes() {
+        executor.execute(new InsertOneStatement("collection1", new Document("id", 1)));
+        database.commit();
+
+        captureCommands(1);
+        assertThat(database.getPendingStatement()).isNull();
+    }
+
+    @Test
+    @SneakyThrows
+    void rollbackDiscards() {
+        executor.execute(new InsertOneStatement("collection1", new Document("id", 1)));
+        database.rollback();
+        executor.flush();
+
+        verify(mongoDatabaseMock, never()).runCommand(any(Bson.class));
+    }
+
+    @Test
+    @SneakyThrows
+    void executeWithoutCoalescing() {
+        database.setCoalesceStatements(false);
+
+        executor.execute(new InsertOneStatement("collection1", new Document("id", 1)));
+        executor.execute(new InsertOneStatement("collection1", new Document("id", 2)));
+
+        captureCommands(2);
+    }
+
+    @Test
+    @SneakyThrows
+    void executePipelined() {
+        database.setCoalesceStatements(false);
+        database.setMaxInFlightStatements(4);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(mongoDatabaseMock.runCommand(any(Bson.class))).thenAnswer(i -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new Document("ok", 1.0);
+        });
+
+        executor.execute(new CreateIndexStatement("collection1", new Document("id", 1), new Document()));
+        executor.execute(new CreateIndexStatement("collection2", new Document("id", 1), new Document()));
+        executor.execute(new InsertOneStatement("collection1", new Document("id", 1)));
+
+        release.countDown();
+        database.commit();
+        final List<Document> commands = captureCommands(3);
+        assertThat(commands.indexOf(commands.stream().filter(c -> c.containsKey("insert")).findFirst().orElse(null)))
+                .isGreaterThan(commands.indexOf(commands.stream().filter(c -> "collection1".equals(c.get("createIndexes"))).findFirst().orElse(null)));
+    }
+
+    @Test
+    @SneakyThrows
+    void executePipelinedReportsFailureOnFlush() {
+        database.setCoalesceStatements(false);
+        database.setMaxInFlightStatements(2);
+        when(mongoDatabaseMock.runCommand(any(Bson.class))).thenReturn(new Document("ok", 0.0));
+
+        executor.execute(new DropCollectionStatement("collection1"));
+        executor.execute(new DropCollectionStatement("collection1"));
+
+        assertThatExceptionOfType(DatabaseException.class)
+                .isThrownBy(() -> executor.flush())
+                .withCauseInstanceOf(MongoException.class);
+        captureCommands(1);
+    }
+
+    private List<Document> captureCommands(final int times) {
+        final ArgumentCaptor<Bson> captor = ArgumentCaptor.forClass(Bson.class);
+        verify(mongoDatabaseMock, times(times)).runCommand(captor.capture());
+        return captor.getAllValues().stream()
+                .map(c -> c instanceof RawBsonDocument ? ((RawBsonDocument) c).decode(BsonUtils.DOCUMENT_CODEC) : (Document) c)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @SneakyThrows
+    void executeRunsStatementOverride() {
+        // the statement skips the collMod when validators are not supported
+        database.setSupportsValidator(false);
+        executor.execute(new AdjustChangeLogLockCollectionStatement("lockCollection"));
+        verify(mongoDatabaseMock, never()).runCommand(any(Bson.class));
+
+        database.setSupportsValidator(true);
+        executor.execute(new AdjustChangeLogLockCollectionStatement("lockCollection"));
+        verify(mongoDatabaseMock).runCommand(any(Bson.class));
+    }
+
+    @Test
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    void executeAdjustsHistoryIndexes() {
+        when(mongoDatabaseMock.getCollection("historyCollection")).thenReturn(collectionMock);
+        when(collectionMock.listIndexes()).thenReturn(listIndexesMock);
+        when(listIndexesMock.iterator()).thenReturn(cursorMock);
+        when(collectionMock.createIndexes(anyList())).thenReturn(singletonList("index"));
+
+        database.setSupportsValidator(false);
+        executor.execute(new AdjustChangeLogCollectionStatement("historyCollection"));
+
+        // the supporting indexes and, on its own, the unique identity index
+        final ArgumentCaptor<List<IndexModel>> indexesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(collectionMock, times(2)).createIndexes(indexesCaptor.capture());
+        assertThat(indexesCaptor.getAllValues()).flatExtracting(indexes -> indexes)
+                .hasSameSizeAs(AdjustChangeLogCollectionStatement.supportingIndexes("historyCollection"));
+        verify(mongoDatabaseMock, never()).runCommand(any(Bson.class));
+    }
+
+    @Test
+    @SneakyThrows
+    void executeCreatesTrackingCollectionsCreatedMeanwhile() {
+        // another lock scope created the collections first
+        when(mongoDatabaseMock.runCommand(any(Bson.class))).thenThrow(commandException(CreateCollectionStatement.NAMESPACE_EXISTS));
+        executor.execute(new CreateChangeLogCollectionStatement("historyCollection"));
+        executor.execute(new CreateChangeLogLockCollectionStatement("lockCollection"));
+        verify(mongoDatabaseMock, times(2)).runCommand(any(Bson.class));
+
+        reset(mongoDatabaseMock);
+        when(mongoDatabaseMock.runCommand(any(Bson.class))).thenThrow(commandException(13));
+        assertThatExceptionOfType(DatabaseException.class)
+                .isThrownBy(() -> executor.execute(new CreateChangeLogCollectionStatement("historyCollection")));
+    }
+
+    private static MongoCommandException commandException(final int code) {
+        return new MongoCommandException(new BsonDocument("ok", new BsonDouble(0.0))
+                .append("code", new BsonInt32(code)).append("errmsg", new BsonString("error " + code)), new ServerAddress());
+    }
+}
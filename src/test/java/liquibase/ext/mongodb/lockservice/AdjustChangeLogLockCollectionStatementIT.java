@@ -44,10 +44,12 @@ class AdjustChangeLogLockCollectionStatementIT extends AbstractMongoIntegrationT
                 "db.adjustChangeLogLockCollection({\"collMod\": \"lockCollection\", \"validator\": " +
                         "{\"$jsonSchema\": {\"bsonType\": \"object\", \"description\": \"Database Lock Collection\", " +
                         "\"required\": [\"_id\", \"locked\"], \"properties\": {" +
-                        "\"_id\": {\"bsonType\": \"int\", \"description\": \"Unique lock identifier\"}, " +
+                        "\"_id\": {\"bsonType\": [\"int\", \"string\"], \"description\": \"Unique lock identifier, the scope name of a scoped lock\"}, " +
                         "\"locked\": {\"bsonType\": \"bool\", \"description\": \"Lock flag\"}, " +
                         "\"lockGranted\": {\"bsonType\": \"date\", \"description\": \"Timestamp when lock acquired\"}, " +
-                        "\"lockedBy\": {\"bsonType\": [\"string\", \"null\"], \"description\": \"Owner of the lock\"}}}}, " +
+                        "\"lockedBy\": {\"bsonType\": [\"string\", \"null\"], \"description\": \"Owner of the lock\"}, " +
+                        "\"leaseExpires\": {\"bsonType\": [\"date\", \"null\"], \"description\": \"Expiry of the lease when acquired in lease mode\"}, " +
+                        "\"fencingToken\": {\"bsonType\": [\"long\", \"int\"], \"description\": \"Incremented on every lease acquisition\"}}}}, " +
                         "\"validationLevel\": \"strict\", \"validationAction\": \"error\"});");
 
         new CreateChangeLogLockCollectionStatement(LOCK_COLLECTION_NAME).execute(database);
@@ -0,0 +1,156 @@
+package liquibase.ext.mongodb.lockservice;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ext.AbstractMongoIntegrationTest;
+import lombok.SneakyThrows;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeLogLockStatementIT extends AbstractMongoIntegrationTest {
+
+    public static final String LOCK_COLLECTION_NAME = "lockCollection";
+
+    protected SelectChangeLogLockStatement selectChangeLogLockStatement = new SelectChangeLogLockStatement(LOCK_COLLECTION_NAME);
+
+    protected MongoChangeLogLockToDocumentConverter converter = new MongoChangeLogLockToDocumentConverter();
+
+    @BeforeEach
+    @SneakyThrows
+    void createCollection() {
+        new CreateChangeLogLockCollectionStatement(LOCK_COLLECTION_NAME).execute(database);
+        new AdjustChangeLogLockCollectionStatement(LOCK_COLLECTION_NAME).execute(database);
+    }
+
+    @Test
+    void toJs() {
+        assertThat(new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, 1000L).toJs())
+                .isEqualTo("db.lockCollection.acquireLock(1000);");
+        assertThat(new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, null).toJs())
+                .isEqualTo("db.lockCollection.acquireLock();");
+        assertThat(new RenewChangeLogLeaseStatement(LOCK_COLLECTION_NAME, 3L, 1000L).toJs())
+                .isEqualTo("db.lockCollection.renewLease(3, 1000);");
+        assertThat(new ReleaseChangeLogLockStatement(LOCK_COLLECTION_NAME, 3L).toJs())
+                .isEqualTo("db.lockCollection.releaseLock(3);");
+    }
+
+    @Test
+    void acquireRenewRelease() {
+        final MongoChangeLogLock first = converter.fromDocument(
+                new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, 60000L).queryForObject(database, Document.class));
+        assertThat(first.getLocked()).isTrue();
+        assertThat(first.getFencingToken()).isEqualTo(1L);
+        // both set by the server clock
+        assertThat(first.getLeaseExpires().getTime() - first.getLockGranted().getTime()).isEqualTo(60000L);
+
+        // held lease can not be taken
+        assertThat(new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, 60000L)
+                .<Document>queryForObject(database, Document.class)).isNull();
+
+        assertThat(new RenewChangeLogLeaseStatement(LOCK_COLLECTION_NAME, 1L, 120000L).update(database)).isEqualTo(1);
+        assertThat(new RenewChangeLogLeaseStatement(LOCK_COLLECTION_NAME, 2L, 120000L).update(database)).isEqualTo(0);
+        assertThat(converter.fromDocument(selectChangeLogLockStatement.queryForObject(database, Document.class))
+                .getLeaseExpires()).isAfterOrEqualTo(new Date(first.getLockGranted().getTime() + 120000L));
+
+        assertThat(new ReleaseChangeLogLockStatement(LOCK_COLLECTION_NAME, 2L).update(database)).isEqualTo(0);
+        assertThat(new ReleaseChangeLogLockStatement(LOCK_COLLECTION_NAME, 1L).update(database)).isEqualTo(1);
+
+        final MongoChangeLogLock released = converter.fromDocument(selectChangeLogLockStatement.queryForObject(database, Document.class));
+        assertThat(released.getLocked()).isFalse();
+        assertThat(released.getLeaseExpires()).isNull();
+        // the token survives the release
+        assertThat(released.getFencingToken()).isEqualTo(1L);
+    }
+
+    @Test
+    void acquireWithoutLease() {
+        final MongoChangeLogLock first = converter.fromDocument(
+                new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, null).queryForObject(database, Document.class));
+        assertThat(first.getLocked()).isTrue();
+        assertThat(first.getLeaseExpires()).isNull();
+        assertThat(first.getFencingToken()).isEqualTo(1L);
+
+        // only one of concurrent acquisitions wins, a lock without lease does not expire
+        assertThat(new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, null)
+                .<Document>queryForObject(database, Document.class)).isNull();
+        assertThat(converter.fromDocument(selectChangeLogLockStatement.queryForObject(database, Document.class))
+                .getLocked()).isTrue();
+
+        // forced release
+        assertThat(new ReleaseChangeLogLockStatement(LOCK_COLLECTION_NAME, null).update(database)).isEqualTo(1);
+        assertThat(converter.fromDocument(new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, null)
+                .queryForObject(database, Document.class)).getFencingToken()).isEqualTo(2L);
+    }
+
+    @Test
+    void acquireScoped() {
+        // independent scopes are locked concurrently
+        assertThat(new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, null, "orders")
+                .<Document>queryForObject(database, Document.class)).containsEntry("_id", "orders");
+        assertThat(new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, null, "billing")
+                .<Document>queryForObject(database, Document.class)).containsEntry("_id", "billing");
+        assertThat(new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, null)
+                .<Document>queryForObject(database, Document.class)).containsEntry("_id", 1);
+
+        assertThat(new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, null, "orders")
+                .<Document>queryForObject(database, Document.class)).isNull();
+
+        assertThat(new ReleaseChangeLogLockStatement(LOCK_COLLECTION_NAME, 1L, "orders").update(database)).isEqualTo(1);
+        final MongoChangeLogLock orders = converter.fromDocument(
+                new SelectChangeLogLockStatement(LOCK_COLLECTION_NAME, "orders").queryForObject(database, Document.class));
+        assertThat(orders.getScope()).isEqualTo("orders");
+        assertThat(orders.getLocked()).isFalse();
+        assertThat(converter.fromDocument(
+                new SelectChangeLogLockStatement(LOCK_COLLECTION_NAME, "billing").queryForObject(database, Document.class))
+                .getLocked()).isTrue();
+    }
+
+    @Test
+    void forceReleaseWithoutLock() {
+        assertThat(new ReleaseChangeLogLockStatement(LOCK_COLLECTION_NAME, null).update(database)).isEqualTo(1);
+        assertThat(converter.fromDocument(selectChangeLogLockStatement.queryForObject(database, Document.class))
+                .getLocked()).isFalse();
+    }
+
+    @Test
+    void acquireExpired() {
+        // expires at once by the server clock
+        new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME, 0L).queryForObject(database, Document.class);
+        // free to take, whatever the clock of the reading process
+        assertThat(converter.fromDocument(selectChangeLogLockStatement.queryForObject(database, Document.class))
+                .getLocked()).isFalse();
+
+        final MongoChangeLogLock taken = converter.fromDocument(new AcquireChangeLogLockStatement(LOCK_COLLECTION_NAME,
+                60000L).queryForObject(database, Document.class));
+        assertThat(taken.getFencingToken()).isEqualTo(2L);
+        assertThat(converter.fromDocument(selectChangeLogLockStatement.queryForObject(database, Document.class))
+                .getLocked()).isTrue();
+
+        // the previous holder is fenced off
+        assertThat(new RenewChangeLogLeaseStatement(LOCK_COLLECTION_NAME, 1L, 60000L).update(database)).isEqualTo(0);
+        assertThat(new ReleaseChangeLogLockStatement(LOCK_COLLECTION_NAME, 1L).update(database)).isEqualTo(0);
+    }
+}
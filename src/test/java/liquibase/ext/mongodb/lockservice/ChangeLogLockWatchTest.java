@@ -0,0 +1,50 @@
+package liquibase.ext.mongodb.lockservice;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2019 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.mongodb.MongoClientSettings;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeLogLockWatchTest {
+
+    @Test
+    void pipeline() {
+        assertThat(render(ChangeLogLockWatch.pipeline(null))).containsExactly(
+                "{\"$match\": {\"$and\": [{\"documentKey._id\": 1}, {\"$or\": ["
+                        + "{\"operationType\": {\"$in\": [\"insert\", \"replace\", \"delete\"]}}, "
+                        + "{\"updateDescription.updatedFields.locked\": {\"$exists\": true}}]}]}}");
+        assertThat(render(ChangeLogLockWatch.pipeline("tenantA")))
+                .singleElement().asString().contains("{\"documentKey._id\": \"tenantA\"}");
+    }
+
+    private static List<String> render(final List<Bson> pipeline) {
+        return pipeline.stream()
+                .map(stage -> stage.toBsonDocument(null, MongoClientSettings.getDefaultCodecRegistry()).toJson())
+                .collect(Collectors.toList());
+    }
+}
@@ -1,6 +1,8 @@
 package liquibase.ext.mongodb.lockservice;
 
 import liquibase.Scope;
+import liquibase.changelog.ChangeLogHistoryServiceFactory;
+import liquibase.changelog.ChangeSet;
 import liquibase.configuration.GlobalConfiguration;
 import liquibase.configuration.LiquibaseConfiguration;
 import liquibase.database.core.DB2Database;
@@ -9,14 +11,26 @@ import liquibase.exception.LockException;
 import liquibase.exception.UnexpectedLiquibaseException;
 import liquibase.executor.Executor;
 import liquibase.executor.ExecutorService;
+import liquibase.ext.mongodb.changelog.GetMaxChangeSetSequenceStatement;
+import liquibase.ext.mongodb.changelog.MongoHistoryService;
+import liquibase.ext.mongodb.database.GetTrackingStateStatement;
 import liquibase.ext.mongodb.database.MongoConnection;
 import liquibase.ext.mongodb.database.MongoLiquibaseDatabase;
+import liquibase.ext.mongodb.database.MongoTrackingSchema;
+import liquibase.ext.mongodb.database.MongoTrackingState;
 import liquibase.ext.mongodb.statement.CountCollectionByNameStatement;
+import liquibase.ext.mongodb.statement.CreateCollectionStatement;
+import liquibase.ext.mongodb.statement.DeleteManyStatement;
 import liquibase.ext.mongodb.statement.DropCollectionStatement;
 import liquibase.ext.mongodb.statement.FindAllStatement;
+import liquibase.ext.mongodb.statement.InsertManyStatement;
+import liquibase.ext.mongodb.statement.InsertOneStatement;
 import liquibase.lockservice.DatabaseChangeLogLock;
 import liquibase.lockservice.LockServiceFactory;
 import liquibase.nosql.executor.NoSqlExecutor;
+import liquibase.nosql.lockservice.NoSqlLockEvent;
+import liquibase.nosql.lockservice.NoSqlLockRecorder;
+import liquibase.statement.SqlStatement;
 import lombok.SneakyThrows;
 import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
@@ -25,14 +39,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
@@ -66,11 +83,13 @@ class MongoLockServiceTest {
         lockService = new MongoLockService();
         database = new MongoLiquibaseDatabase();
         database.setConnection(connectionMock);
+        database.setTrackingSchemaCurrent(FALSE);
         resetServices();
     }
 
     protected void resetServices() {
         LockServiceFactory.reset();
+        ChangeLogHistoryServiceFactory.reset();
         Scope.getCurrentScope().getSingleton(ExecutorService.class).reset();
         LiquibaseConfiguration.getInstance().init();
     }
@@ -237,6 +256,90 @@ class MongoLockServiceTest {
         assertThat(lockService.hasChangeLogLock()).isFalse();
     }
 
+    @SneakyThrows
+    @Test
+    void initWhenRepositoryCurrent() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        database.setTrackingSchemaCurrent(null);
+
+        doReturn(new MongoTrackingState(Collections.singleton("DATABASECHANGELOGLOCK"), false, new MongoTrackingSchema(database).getVersion(), 0L))
+                .when(executorMock).queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class));
+
+        lockService.init();
+
+        verify(executorMock, times(1)).queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class));
+        verifyNoMoreInteractions(executorMock);
+
+        assertThat(lockService.getHasDatabaseChangeLogLockTable()).isTrue();
+        assertThat(lockService.getAdjustedChangeLogLockTable()).isTrue();
+        assertThat(database.getTrackingSchemaCurrent()).isTrue();
+    }
+
+    @SneakyThrows
+    @Test
+    void acquireLockFromTrackingState() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        database.setTrackingSchemaCurrent(null);
+
+        doReturn(new MongoTrackingState(Collections.singleton("DATABASECHANGELOGLOCK"), false, "other", 0L))
+                .when(executorMock).queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class));
+        doNothing().when(executorMock).execute(any(AdjustChangeLogLockCollectionStatement.class));
+        doReturn(acquiredLock(1L)).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+        doReturn(1).when(executorMock).update(any(ReleaseChangeLogLockStatement.class));
+
+        assertThat(lockService.acquireLock()).isTrue();
+
+        // existence and lock state answered by the single bootstrap round trip
+        verify(executorMock, times(1)).queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class));
+        verify(executorMock, times(1)).execute(any(AdjustChangeLogLockCollectionStatement.class));
+        verify(executorMock, times(1)).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+        verifyNoMoreInteractions(executorMock);
+        assertThat(database.getTrackingState()).isNotNull();
+
+        lockService.releaseLock();
+
+        assertThat(database.getTrackingState()).isNull();
+    }
+
+    @SneakyThrows
+    @Test
+    void acquireLockAfterTrackingStateChanged() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        database.setTrackingSchemaCurrent(null);
+
+        doReturn(new MongoTrackingState(Collections.singleton("DATABASECHANGELOGLOCK"), false, "other", 7L, 1L))
+                .when(executorMock).queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class));
+        doNothing().when(executorMock).execute(any(AdjustChangeLogLockCollectionStatement.class));
+        // another process took and released the lock after the startup read
+        doReturn(acquiredLock(3L)).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+
+        assertThat(lockService.acquireLock()).isTrue();
+        assertThat(database.getTrackingState()).isNull();
+    }
+
+    @SneakyThrows
+    @Test
+    void acquireLockWhenTrackingStateLocked() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        database.setTrackingSchemaCurrent(null);
+
+        doReturn(new MongoTrackingState(Collections.singleton("DATABASECHANGELOGLOCK"), true, new MongoTrackingSchema(database).getVersion(), 0L))
+                .when(executorMock).queryForObject(any(GetTrackingStateStatement.class), eq(MongoTrackingState.class));
+
+        assertThat(lockService.acquireLock()).isFalse();
+        assertThat(database.getTrackingState()).isNull();
+
+        // the retry tries to take the lock
+        doReturn(acquiredLock(1L)).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+
+        assertThat(lockService.acquireLock()).isTrue();
+        verify(executorMock, times(1)).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+    }
+
     @SneakyThrows
     @Test
     void initOnException() {
@@ -289,8 +392,7 @@ class MongoLockServiceTest {
 
         doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
         doNothing().when(executorMock).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        doReturn(lockService.getConverter().toDocument(lockedLock))
-                .when(executorMock).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
+        doReturn(null).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
         doReturn(Collections.singletonList((Object) lockService.getConverter().toDocument(lockedLock)))
                 .when(executorMock).queryForList(any(FindAllStatement.class), eq(Document.class));
 
@@ -307,7 +409,7 @@ class MongoLockServiceTest {
 
         verify(executorMock, times(1)).queryForLong(any(CountCollectionByNameStatement.class));
         verify(executorMock, times(1)).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        verify(executorMock, times(2)).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
+        verify(executorMock, times(2)).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
         verify(executorMock, times(1)).queryForList(any(FindAllStatement.class), eq(Document.class));
         verifyNoMoreInteractions(executorMock);
 
@@ -315,28 +417,70 @@ class MongoLockServiceTest {
         assertThat(lockService.hasChangeLogLock()).isFalse();
     }
 
+    @SneakyThrows
+    @Test
+    void waitForLockWithoutChangeStream() {
+        final MongoChangeLogLock lockedLock = new MongoChangeLogLock(1, new Date(), "lockedByMock", true);
+
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doNothing().when(executorMock).execute(any(AdjustChangeLogLockCollectionStatement.class));
+        doReturn(null).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+        doReturn(Collections.singletonList((Object) lockService.getConverter().toDocument(lockedLock)))
+                .when(executorMock).queryForList(any(FindAllStatement.class), eq(Document.class));
+        // no server to open a change stream on, falls back to the backoff
+        doReturn(null).when(connectionMock).getMongoDatabase();
+
+        lockService.setClock(clockMock);
+        lockService.setChangeLogLockRecheckTime(1);
+        final Instant instantMock = Clock.systemUTC().instant();
+        doReturn(instantMock, instantMock, instantMock, instantMock.plusSeconds(60 * 60 * 24)).when(clockMock).instant();
+
+        assertThatExceptionOfType(LockException.class).isThrownBy(lockService::waitForLock)
+                .withMessageStartingWith("Could not acquire change log lock.  Currently locked by lockedByMock since");
+
+        verify(executorMock, times(2)).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+        verify(connectionMock, times(1)).getMongoDatabase();
+    }
+
+    @Test
+    void getBackoffMillis() {
+        lockService.setChangeLogLockRecheckTime(8);
+        assertThat(lockService.getBackoffMillis(0)).isBetween(50L, 100L);
+        assertThat(lockService.getBackoffMillis(3)).isBetween(400L, 800L);
+        assertThat(lockService.getBackoffMillis(10)).isBetween(4000L, 8000L);
+        assertThat(lockService.getBackoffMillis(Integer.MAX_VALUE)).isBetween(4000L, 8000L);
+
+        lockService.setChangeLogLockRecheckTime(0);
+        assertThat(lockService.getBackoffMillis(5)).isZero();
+    }
+
     @SneakyThrows
     @Test
     void acquireLock() {
 
-        final ArgumentCaptor<ReplaceChangeLogLockStatement> replaceLockChangeLogStatementArgumentCaptor =
-                ArgumentCaptor.forClass(ReplaceChangeLogLockStatement.class);
+        final ArgumentCaptor<AcquireChangeLogLockStatement> acquireLockStatementArgumentCaptor =
+                ArgumentCaptor.forClass(AcquireChangeLogLockStatement.class);
 
         Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
         lockService.setDatabase(database);
         database.setAdjustTrackingTablesOnStartup(FALSE);
 
         doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
-        doReturn(null).when(executorMock).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
-        doReturn(1).when(executorMock).update(replaceLockChangeLogStatementArgumentCaptor.capture());
+        doReturn(acquiredLock(3L)).when(executorMock).queryForObject(acquireLockStatementArgumentCaptor.capture(), eq(Document.class));
 
         assertThat(lockService.hasChangeLogLock()).isFalse();
         assertThat(lockService.acquireLock()).isTrue();
-        assertThat(replaceLockChangeLogStatementArgumentCaptor.getValue().isLocked()).isTrue();
+        assertThat(acquireLockStatementArgumentCaptor.getValue().getLeaseMillis()).isNull();
+        assertThat(lockService.getFencingToken()).isEqualTo(3L);
+        // the following routed reads catch up with the lock write
+        verify(connectionMock).setReadSessionBehind(true);
 
         verify(executorMock, times(1)).queryForLong(any(CountCollectionByNameStatement.class));
-        verify(executorMock, times(1)).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
-        verify(executorMock, times(1)).update(any(ReplaceChangeLogLockStatement.class));
+        // a single round trip, the lock is not read before
+        verify(executorMock, times(1)).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
         verifyNoMoreInteractions(executorMock);
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isTrue();
@@ -352,15 +496,13 @@ class MongoLockServiceTest {
     @Test
     void acquireLockWhenLocked() {
 
-        final MongoChangeLogLock lockedLock = new MongoChangeLogLock(1, new Date(), "lockedByMock", true);
-
         Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
         lockService.setDatabase(database);
 
         doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
         doNothing().when(executorMock).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        doReturn(lockService.getConverter().toDocument(lockedLock))
-                .when(executorMock).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
+        // the conditional upsert collides with the held lock
+        doReturn(null).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isNull();
         assertThat(lockService.hasChangeLogLock()).isFalse();
@@ -368,7 +510,7 @@ class MongoLockServiceTest {
 
         verify(executorMock, times(1)).queryForLong(any(CountCollectionByNameStatement.class));
         verify(executorMock, times(1)).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        verify(executorMock, times(1)).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
+        verify(executorMock, times(1)).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
         verifyNoMoreInteractions(executorMock);
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isTrue();
@@ -377,23 +519,142 @@ class MongoLockServiceTest {
         // Repeated call should return false and do not enter table creation
         assertThat(lockService.acquireLock()).isFalse();
         assertThat(lockService.hasChangeLogLock()).isFalse();
+        verify(executorMock, times(2)).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
         verifyNoMoreInteractions(executorMock);
     }
 
     @SneakyThrows
     @Test
-    void acquireLockWhenConcurrentLocked() {
+    void acquireLease() {
 
-        final MongoChangeLogLock lockedLock = new MongoChangeLogLock(1, new Date(), "lockedByMock", FALSE);
+        final ArgumentCaptor<AcquireChangeLogLockStatement> acquireLeaseStatementArgumentCaptor =
+                ArgumentCaptor.forClass(AcquireChangeLogLockStatement.class);
+        final ArgumentCaptor<ReleaseChangeLogLockStatement> releaseLeaseStatementArgumentCaptor =
+                ArgumentCaptor.forClass(ReleaseChangeLogLockStatement.class);
+        final MongoChangeLogLock acquiredLock = new MongoChangeLogLock(1, new Date(1000L), "lockedBy", true,
+                new Date(61000L), 7L);
+
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        lockService.setClock(clockMock);
+        database.setAdjustTrackingTablesOnStartup(FALSE);
+        database.setLockLeaseSeconds(60L);
+
+        doReturn(1000L).when(clockMock).millis();
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(lockService.getConverter().toDocument(acquiredLock))
+                .when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+        doReturn(1).when(executorMock).update(any(ReleaseChangeLogLockStatement.class));
+
+        assertThat(lockService.isLeaseMode()).isTrue();
+        assertThat(lockService.acquireLock()).isTrue();
+        verify(executorMock).queryForObject(acquireLeaseStatementArgumentCaptor.capture(), eq(Document.class));
+        final AcquireChangeLogLockStatement acquireLeaseStatement = acquireLeaseStatementArgumentCaptor.getValue();
+        // the expiry is set by the server clock
+        assertThat(acquireLeaseStatement.getLeaseMillis()).isEqualTo(60000L);
+        assertThat(lockService.getFencingToken()).isEqualTo(7L);
+        lockService.checkLease();
+
+        // the lease was not renewed in time
+        doReturn(61000L).when(clockMock).millis();
+        assertThatExceptionOfType(LockException.class).isThrownBy(lockService::checkLease)
+                .withMessageContaining("fencing token 7");
+
+        lockService.releaseLock();
+        verify(executorMock).update(releaseLeaseStatementArgumentCaptor.capture());
+        assertThat(releaseLeaseStatementArgumentCaptor.getValue().getFencingToken()).isEqualTo(7L);
+        assertThat(lockService.getFencingToken()).isNull();
+        assertThat(lockService.hasChangeLogLock()).isFalse();
+        lockService.checkLease();
+    }
+
+    @SneakyThrows
+    @Test
+    void acquireLeaseWhenHeld() {
+
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        database.setAdjustTrackingTablesOnStartup(FALSE);
+        database.setLockLeaseSeconds(60L);
+
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(null).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+
+        // another node holds the lease
+        assertThat(lockService.acquireLock()).isFalse();
+        assertThat(lockService.hasChangeLogLock()).isFalse();
+        assertThat(lockService.getFencingToken()).isNull();
+    }
+
+    @SneakyThrows
+    @Test
+    void acquireLeaseNotPositive() {
+
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        database.setAdjustTrackingTablesOnStartup(FALSE);
+        database.setLockLeaseSeconds(0L);
+
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+
+        assertThatExceptionOfType(LockException.class).isThrownBy(lockService::acquireLock)
+                .withRootCauseInstanceOf(UnexpectedLiquibaseException.class)
+                .withMessageContaining("lockLeaseSeconds must be positive but was 0");
+        verify(executorMock, never()).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+    }
+
+    @SneakyThrows
+    @Test
+    void dispatchAfterLeaseLost() {
+
+        final MongoLockService lockService = (MongoLockService) LockServiceFactory.getInstance().getLockService(database);
+        final MongoChangeLogLock acquiredLock = new MongoChangeLogLock(1, new Date(1000L), "lockedBy", true,
+                new Date(61000L), 7L);
+
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setClock(clockMock);
+        database.setAdjustTrackingTablesOnStartup(FALSE);
+        database.setLockLeaseSeconds(60L);
+
+        doReturn(1000L).when(clockMock).millis();
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(lockService.getConverter().toDocument(acquiredLock))
+                .when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+        doReturn(1).when(executorMock).update(any(ReleaseChangeLogLockStatement.class));
+
+        assertThat(lockService.acquireLock()).isTrue();
+
+        // the changeSets are run by another executor than the mocked one of the lock service
+        final NoSqlExecutor executor = new NoSqlExecutor();
+        executor.setDatabase(database);
+
+        // the lease was not renewed in time, no write of the run may reach the database anymore
+        doReturn(61000L).when(clockMock).millis();
+        assertThatExceptionOfType(DatabaseException.class)
+                .isThrownBy(() -> executor.execute(new InsertOneStatement("collection", new Document(), new Document())))
+                .withMessageContaining("fencing token 7");
+        assertThatExceptionOfType(DatabaseException.class)
+                .isThrownBy(() -> executor.update(new DeleteManyStatement("collection", new Document())))
+                .withMessageContaining("fencing token 7");
+        verify(connectionMock, never()).getMongoDatabase();
+
+        // the release is conditional on the token, it is still sent
+        lockService.releaseLock();
+        verify(executorMock).update(any(ReleaseChangeLogLockStatement.class));
+        assertThat(lockService.hasChangeLogLock()).isFalse();
+    }
+
+    @SneakyThrows
+    @Test
+    void acquireLockWhenConcurrentLocked() {
 
         Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
         lockService.setDatabase(database);
 
         doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
         doNothing().when(executorMock).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        doReturn(lockService.getConverter().toDocument(lockedLock))
-                .when(executorMock).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
-        doReturn(0).when(executorMock).update(any(ReplaceChangeLogLockStatement.class));
+        // the lock was released before, another node took it first
+        doReturn(null).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isNull();
         assertThat(lockService.hasChangeLogLock()).isFalse();
@@ -401,8 +662,7 @@ class MongoLockServiceTest {
 
         verify(executorMock, times(1)).queryForLong(any(CountCollectionByNameStatement.class));
         verify(executorMock, times(1)).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        verify(executorMock, times(1)).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
-        verify(executorMock, times(1)).update(any(ReplaceChangeLogLockStatement.class));
+        verify(executorMock, times(1)).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
         verifyNoMoreInteractions(executorMock);
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isTrue();
@@ -419,7 +679,7 @@ class MongoLockServiceTest {
         doReturn(0L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
         doNothing().when(executorMock).execute(any(CreateChangeLogLockCollectionStatement.class));
         doNothing().when(executorMock).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        doThrow(DatabaseException.class).when(executorMock).update(any(ReplaceChangeLogLockStatement.class));
+        doThrow(DatabaseException.class).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isNull();
         assertThat(lockService.hasChangeLogLock()).isFalse();
@@ -427,8 +687,7 @@ class MongoLockServiceTest {
 
         verify(executorMock, times(1)).queryForLong(any(CountCollectionByNameStatement.class));
         verify(executorMock, times(1)).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        verify(executorMock, times(1)).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
-        verify(executorMock, times(1)).update(any(ReplaceChangeLogLockStatement.class));
+        verify(executorMock, times(1)).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
         verifyNoMoreInteractions(executorMock);
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isTrue();
@@ -437,24 +696,22 @@ class MongoLockServiceTest {
 
     @SneakyThrows
     @Test
-    void acquireLockOnExceptionMultipleUpdated() {
+    void releaseLock() {
+        final ArgumentCaptor<ReleaseChangeLogLockStatement> releaseLockStatementArgumentCaptor =
+                ArgumentCaptor.forClass(ReleaseChangeLogLockStatement.class);
 
         Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
         lockService.setDatabase(database);
 
         doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
-        doNothing().when(executorMock).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        doReturn(null).when(executorMock).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
-        doReturn(2).when(executorMock).update(any(ReplaceChangeLogLockStatement.class));
+        doReturn(1).when(executorMock).update(releaseLockStatementArgumentCaptor.capture());
 
-        assertThat(lockService.getHasDatabaseChangeLogLockTable()).isNull();
         assertThat(lockService.hasChangeLogLock()).isFalse();
-        assertThatExceptionOfType(LockException.class).isThrownBy(lockService::acquireLock);
+        lockService.releaseLock();
+        assertThat(releaseLockStatementArgumentCaptor.getValue().getFencingToken()).isNull();
 
         verify(executorMock, times(1)).queryForLong(any(CountCollectionByNameStatement.class));
-        verify(executorMock, times(1)).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        verify(executorMock, times(1)).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
-        verify(executorMock, times(1)).update(any(ReplaceChangeLogLockStatement.class));
+        verify(executorMock, times(1)).update(any(ReleaseChangeLogLockStatement.class));
         verifyNoMoreInteractions(executorMock);
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isTrue();
@@ -463,46 +720,183 @@ class MongoLockServiceTest {
 
     @SneakyThrows
     @Test
-    void releaseLock() {
-        final ArgumentCaptor<ReplaceChangeLogLockStatement> replaceLockChangeLogStatementArgumentCaptor =
-                ArgumentCaptor.forClass(ReplaceChangeLogLockStatement.class);
+    void releaseLockWhenNotOwner() {
+        final ArgumentCaptor<ReleaseChangeLogLockStatement> releaseLockStatementArgumentCaptor =
+                ArgumentCaptor.forClass(ReleaseChangeLogLockStatement.class);
 
         Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
         lockService.setDatabase(database);
+        database.setAdjustTrackingTablesOnStartup(FALSE);
 
         doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
-        doReturn(1).when(executorMock).update(replaceLockChangeLogStatementArgumentCaptor.capture());
+        doReturn(acquiredLock(3L)).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+        // the lock was force released and taken by another process meanwhile
+        doReturn(0).when(executorMock).update(releaseLockStatementArgumentCaptor.capture());
 
+        assertThat(lockService.acquireLock()).isTrue();
+        assertThatExceptionOfType(LockException.class).isThrownBy(lockService::releaseLock)
+                .withMessageContaining("taken over by another process");
+        assertThat(releaseLockStatementArgumentCaptor.getValue().getFencingToken()).isEqualTo(3L);
         assertThat(lockService.hasChangeLogLock()).isFalse();
+    }
+
+    @SneakyThrows
+    @Test
+    void releaseLockWritesPendingHistory() {
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        database.setAdjustTrackingTablesOnStartup(FALSE);
+        database.setHistorySequenceCounter(FALSE);
+
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(0L).when(executorMock).queryForLong(any(GetMaxChangeSetSequenceStatement.class));
+        doReturn(acquiredLock(3L)).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+        doReturn(1).when(executorMock).update(any());
+
+        assertThat(lockService.acquireLock()).isTrue();
+        final MongoHistoryService historyService =
+                (MongoHistoryService) ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(database);
+        // nothing written since the last history write, as in a changelog sync, so the changeSet is kept pending
+        historyService.flushHistory();
+        historyService.setExecType(new ChangeSet("1", "author", false, false, "fileName", null, null, null), ChangeSet.ExecType.EXECUTED);
+        verify(executorMock, never()).execute(any(InsertOneStatement.class));
+
+        // the pending history is written while the lock is still held
         lockService.releaseLock();
-        assertThat(replaceLockChangeLogStatementArgumentCaptor.getValue().isLocked()).isFalse();
+        final InOrder inOrder = inOrder(executorMock);
+        inOrder.verify(executorMock).execute(any(InsertOneStatement.class));
+        inOrder.verify(executorMock).update(any(ReleaseChangeLogLockStatement.class));
+        assertThat(lockService.hasChangeLogLock()).isFalse();
+    }
 
-        verify(executorMock, times(1)).queryForLong(any(CountCollectionByNameStatement.class));
-        verify(executorMock, times(1)).update(any(ReplaceChangeLogLockStatement.class));
-        verifyNoMoreInteractions(executorMock);
+    @SneakyThrows
+    @Test
+    void publishLockEvents() {
+        final List<NoSqlLockEvent> events = new ArrayList<>();
 
-        assertThat(lockService.getHasDatabaseChangeLogLockTable()).isTrue();
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        lockService.setLockRecorder(new NoSqlLockRecorder(Collections.singletonList(events::add)));
+        database.setAdjustTrackingTablesOnStartup(FALSE);
+
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(acquiredLock(3L)).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+        doReturn(1).when(executorMock).update(any(ReleaseChangeLogLockStatement.class));
+
+        lockService.waitForLock();
+        lockService.waitForLock();
+        lockService.releaseLock();
+        // not held anymore, nothing to report
+        lockService.releaseLock();
+
+        assertThat(events).extracting(NoSqlLockEvent::getType)
+                .containsExactly(NoSqlLockEvent.ACQUIRED, NoSqlLockEvent.RELEASED);
+        assertThat(events.get(0))
+                .returns(null, NoSqlLockEvent::getLockName)
+                .returns(MongoChangeLogLock.formLockedBy(), NoSqlLockEvent::getLockedBy)
+                .returns(1, NoSqlLockEvent::getAttempts)
+                .returns(0L, NoSqlLockEvent::getHoldNanos);
+        assertThat(events.get(0).getWaitNanos()).isNotNegative();
+        assertThat(events.get(1))
+                .returns(MongoChangeLogLock.formLockedBy(), NoSqlLockEvent::getLockedBy)
+                .returns(0, NoSqlLockEvent::getAttempts)
+                .returns(0L, NoSqlLockEvent::getWaitNanos);
+        assertThat(events.get(1).getHoldNanos()).isNotNegative();
+    }
+
+    @SneakyThrows
+    @Test
+    void publishLockTimeout() {
+        final List<NoSqlLockEvent> events = new ArrayList<>();
+
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        lockService.setLockRecorder(new NoSqlLockRecorder(Collections.singletonList(events::add)));
+        database.setAdjustTrackingTablesOnStartup(FALSE);
+        database.setLockScope("orders");
+
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(null).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+        doReturn(Collections.singletonList((Object) lockService.getConverter().toDocument(
+                new MongoChangeLogLock(1, new Date(), "lockedByMock", true, null, null, "orders"))))
+                .when(executorMock).queryForList(any(FindAllStatement.class), eq(Document.class));
+
+        lockService.setClock(clockMock);
+        lockService.setChangeLogLockRecheckTime(0);
+        final Instant instantMock = Clock.systemUTC().instant();
+        doReturn(instantMock, instantMock, instantMock, instantMock.plusSeconds(60 * 60 * 24)).when(clockMock).instant();
+
+        assertThatExceptionOfType(LockException.class).isThrownBy(lockService::waitForLock);
+
+        assertThat(events).singleElement()
+                .returns(NoSqlLockEvent.TIMED_OUT, NoSqlLockEvent::getType)
+                .returns("orders", NoSqlLockEvent::getLockName)
+                .returns("lockedByMock", NoSqlLockEvent::getLockedBy)
+                .returns(2, NoSqlLockEvent::getAttempts);
+    }
+
+    @SneakyThrows
+    @Test
+    void auditLockEvents() {
+        final ArgumentCaptor<SqlStatement> statementArgumentCaptor = ArgumentCaptor.forClass(SqlStatement.class);
+
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        lockService.setLockRecorder(new NoSqlLockRecorder(Collections.emptyList()));
+        database.setAdjustTrackingTablesOnStartup(FALSE);
+        database.setLockAuditCollection("lockAudit");
+        database.setLockAuditCollectionSize(1024L * 1024);
+
+        doReturn(1L, 0L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(acquiredLock(3L)).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
+        doReturn(1).when(executorMock).update(any(ReleaseChangeLogLockStatement.class));
+        doNothing().when(executorMock).execute(any(CreateCollectionStatement.class));
+        // a failing audit does not fail the deployment
+        doThrow(DatabaseException.class).doNothing().when(executorMock).execute(any(InsertOneStatement.class));
+
+        assertThat(lockService.acquireLock()).isTrue();
+        lockService.releaseLock();
+
+        verify(executorMock, times(2)).queryForLong(any(CountCollectionByNameStatement.class));
+        verify(executorMock, times(3)).execute(statementArgumentCaptor.capture());
+
+        final List<SqlStatement> statements = statementArgumentCaptor.getAllValues();
+        assertThat(statements).extracting(Object::getClass)
+                .containsExactly(CreateCollectionStatement.class, InsertOneStatement.class, InsertOneStatement.class);
+        assertThat(((CreateCollectionStatement) statements.get(0)).getCommand())
+                .containsEntry(CreateCollectionStatement.RUN_COMMAND_NAME, "lockAudit")
+                .containsEntry("capped", true)
+                .containsEntry("size", 1024L * 1024);
+        final Document released = ((InsertOneStatement) statements.get(2)).getCommand()
+                .getList(InsertManyStatement.DOCUMENTS, Document.class).get(0);
+        assertThat(released)
+                .containsEntry("event", NoSqlLockEvent.RELEASED)
+                .containsEntry("scope", null)
+                .containsEntry("lockedBy", MongoChangeLogLock.formLockedBy())
+                .containsEntry("attempts", 0)
+                .containsEntry("waitMillis", 0L)
+                .containsKeys("holdMillis", "recordedBy", "timestamp");
         assertThat(lockService.hasChangeLogLock()).isFalse();
     }
 
     @SneakyThrows
     @Test
     void releaseLockOnException() {
-        final ArgumentCaptor<ReplaceChangeLogLockStatement> replaceLockChangeLogStatementArgumentCaptor =
-                ArgumentCaptor.forClass(ReplaceChangeLogLockStatement.class);
+        final ArgumentCaptor<ReleaseChangeLogLockStatement> releaseLockStatementArgumentCaptor =
+                ArgumentCaptor.forClass(ReleaseChangeLogLockStatement.class);
 
         Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
         lockService.setDatabase(database);
 
         doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
-        doThrow(DatabaseException.class).when(executorMock).update(replaceLockChangeLogStatementArgumentCaptor.capture());
+        doThrow(DatabaseException.class).when(executorMock).update(releaseLockStatementArgumentCaptor.capture());
 
         assertThat(lockService.hasChangeLogLock()).isFalse();
         assertThatExceptionOfType(LockException.class).isThrownBy(lockService::releaseLock);
-        assertThat(replaceLockChangeLogStatementArgumentCaptor.getValue().isLocked()).isFalse();
+        assertThat(releaseLockStatementArgumentCaptor.getValue().getFencingToken()).isNull();
 
         verify(executorMock, times(1)).queryForLong(any(CountCollectionByNameStatement.class));
-        verify(executorMock, times(1)).update(any(ReplaceChangeLogLockStatement.class));
+        verify(executorMock, times(1)).update(any(ReleaseChangeLogLockStatement.class));
         verifyNoMoreInteractions(executorMock);
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isTrue();
@@ -536,6 +930,61 @@ class MongoLockServiceTest {
 
     }
 
+    @SneakyThrows
+    @Test
+    void acquireScopedLock() {
+        final ArgumentCaptor<AcquireChangeLogLockStatement> acquireLockStatementArgumentCaptor =
+                ArgumentCaptor.forClass(AcquireChangeLogLockStatement.class);
+        final ArgumentCaptor<ReleaseChangeLogLockStatement> releaseLockStatementArgumentCaptor =
+                ArgumentCaptor.forClass(ReleaseChangeLogLockStatement.class);
+
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+        database.setAdjustTrackingTablesOnStartup(FALSE);
+        database.setLockScope("orders");
+
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(lockService.getConverter().toDocument(new MongoChangeLogLock(1, new Date(), "lockedBy", true, null, 2L, "orders")))
+                .when(executorMock).queryForObject(acquireLockStatementArgumentCaptor.capture(), eq(Document.class));
+        doReturn(1).when(executorMock).update(releaseLockStatementArgumentCaptor.capture());
+
+        assertThat(lockService.acquireLock()).isTrue();
+        assertThat(acquireLockStatementArgumentCaptor.getValue().getScope()).isEqualTo("orders");
+        assertThat(lockService.getFencingToken()).isEqualTo(2L);
+
+        lockService.releaseLock();
+        assertThat(releaseLockStatementArgumentCaptor.getValue().getScope()).isEqualTo("orders");
+        assertThat(releaseLockStatementArgumentCaptor.getValue().getFencingToken()).isEqualTo(2L);
+    }
+
+    @SneakyThrows
+    @Test
+    void listLocksOfScope() {
+        final MongoChangeLogLock sharedLock = new MongoChangeLogLock(1, new Date(), "sharedByMock", TRUE);
+        final MongoChangeLogLock ordersLock = new MongoChangeLogLock(1, new Date(), "ordersByMock", TRUE, null, 1L, "orders");
+        final MongoChangeLogLock billingLock = new MongoChangeLogLock(1, new Date(), "billingByMock", TRUE, null, 1L, "billing");
+
+        Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
+        lockService.setDatabase(database);
+
+        doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
+        doReturn(Arrays.asList(
+                lockService.getConverter().toDocument(sharedLock),
+                lockService.getConverter().toDocument(ordersLock),
+                (Object) lockService.getConverter().toDocument(billingLock)))
+                .when(executorMock).queryForList(any(FindAllStatement.class), eq(Document.class));
+
+        assertThat(lockService.getConverter().toDocument(ordersLock)).containsEntry("_id", "orders");
+
+        assertThat(lockService.listLocks()).extracting(DatabaseChangeLogLock::getLockedBy).containsExactly("sharedByMock");
+
+        database.setLockScope("orders");
+        assertThat(lockService.listLocks()).hasSize(1).allSatisfy(l -> {
+            assertThat(l.getLockedBy()).isEqualTo("ordersByMock");
+            assertThat(((MongoChangeLogLock) l).getScope()).isEqualTo("orders");
+        });
+    }
+
     @SneakyThrows
     @Test
     void listLocksRepositoryNotExists() {
@@ -558,23 +1007,23 @@ class MongoLockServiceTest {
     @SneakyThrows
     @Test
     void forceReleaseLock() {
-        final ArgumentCaptor<ReplaceChangeLogLockStatement> replaceLockChangeLogStatementArgumentCaptor =
-                ArgumentCaptor.forClass(ReplaceChangeLogLockStatement.class);
+        final ArgumentCaptor<ReleaseChangeLogLockStatement> releaseLockStatementArgumentCaptor =
+                ArgumentCaptor.forClass(ReleaseChangeLogLockStatement.class);
 
         Scope.getCurrentScope().getSingleton(ExecutorService.class).setExecutor(EXECUTOR_NAME, database, executorMock);
         lockService.setDatabase(database);
 
         doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
         doNothing().when(executorMock).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        doReturn(1).when(executorMock).update(replaceLockChangeLogStatementArgumentCaptor.capture());
+        doReturn(1).when(executorMock).update(releaseLockStatementArgumentCaptor.capture());
 
         assertThat(lockService.hasChangeLogLock()).isFalse();
         lockService.forceReleaseLock();
-        assertThat(replaceLockChangeLogStatementArgumentCaptor.getValue().isLocked()).isFalse();
+        assertThat(releaseLockStatementArgumentCaptor.getValue().getFencingToken()).isNull();
 
         verify(executorMock, times(1)).queryForLong(any(CountCollectionByNameStatement.class));
         verify(executorMock, times(1)).execute(any(AdjustChangeLogLockCollectionStatement.class));
-        verify(executorMock, times(1)).update(any(ReplaceChangeLogLockStatement.class));
+        verify(executorMock, times(1)).update(any(ReleaseChangeLogLockStatement.class));
         verifyNoMoreInteractions(executorMock);
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isTrue();
@@ -595,14 +1044,12 @@ class MongoLockServiceTest {
 
         doReturn("catalogMock").when(connectionMock).getCatalog();
         doReturn(1L).when(executorMock).queryForLong(any(CountCollectionByNameStatement.class));
-        doReturn(null).when(executorMock).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
-        doReturn(1).when(executorMock).update(any(ReplaceChangeLogLockStatement.class));
+        doReturn(acquiredLock(1L)).when(executorMock).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
 
         assertThat(lockService.acquireLock()).isTrue();
 
         verify(executorMock, times(1)).queryForLong(any(CountCollectionByNameStatement.class));
-        verify(executorMock, times(1)).queryForObject(any(SelectChangeLogLockStatement.class), eq(Document.class));
-        verify(executorMock, times(1)).update(any(ReplaceChangeLogLockStatement.class));
+        verify(executorMock, times(1)).queryForObject(any(AcquireChangeLogLockStatement.class), eq(Document.class));
         verifyNoMoreInteractions(executorMock);
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isTrue();
@@ -633,6 +1080,7 @@ class MongoLockServiceTest {
         lockService.destroy();
 
         verify(executorMock, times(1)).execute(any(DropCollectionStatement.class));
+        verify(executorMock, times(1)).update(any(DeleteManyStatement.class));
         verifyNoMoreInteractions(executorMock);
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isNull();
@@ -642,6 +1090,7 @@ class MongoLockServiceTest {
         // Retry
         lockService.destroy();
         verify(executorMock, times(2)).execute(any(DropCollectionStatement.class));
+        verify(executorMock, times(2)).update(any(DeleteManyStatement.class));
         verifyNoMoreInteractions(executorMock);
 
         assertThat(lockService.getHasDatabaseChangeLogLockTable()).isNull();
@@ -707,4 +1156,9 @@ class MongoLockServiceTest {
                 .isNotEqualTo(LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getDatabaseChangeLogLockWaitTime())
                 .isEqualTo(1000L);
     }
-}
\ No newline at end of file
+
+    private Document acquiredLock(final long fencingToken) {
+        return lockService.getConverter().toDocument(
+                new MongoChangeLogLock(1, new Date(), "lockedBy", true, null, fencingToken));
+    }
+}
@@ -21,9 +21,11 @@ package liquibase.ext.mongodb.statement;
  */
 
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import java.util.Date;
 import java.util.UUID;
 
 import static java.util.stream.Collectors.toList;
@@ -56,6 +58,22 @@ class BsonUtilsTest {
         assertThat(BsonUtils.orEmptyList(null)).isEmpty();
         assertThat(BsonUtils.orEmptyList("")).isEmpty();
         assertThat(BsonUtils.orEmptyList("[{id:1}, {id:2}]")).hasSize(2);
+        assertThat(BsonUtils.orEmptyList("{id:1}\n{id:2}")).extracting(d -> d.get("id")).containsExactly(1, 2);
+        assertThat(BsonUtils.orEmptyList("[{date: {$date: \"2021-05-01T10:00:00Z\"}}]").get(0).get("date")).isInstanceOf(Date.class);
+    }
+
+    @Test
+    void toRawDocumentTest() {
+        final Document document = BsonUtils.orEmptyDocument("{insert: \"c\", documents: [{id: 1, date: {$date: \"2021-05-01T10:00:00Z\"},"
+                + " nested: {a: [1, 2.5, \"x\"]}}], ordered: false}");
+        final RawBsonDocument raw = BsonUtils.toRawDocument(document);
+
+        assertThat(raw.toJson()).isEqualTo(document.toJson());
+        assertThat(raw.decode(DOCUMENT_CODEC)).isEqualTo(document);
+        assertThat(raw.getArray("documents").get(0)).isInstanceOf(RawBsonDocument.class);
+
+        final UUID uuid = UUID.fromString("cda2d50f-f233-492e-9150-9a09ad1ddb96");
+        assertThat(BsonUtils.toRawDocument(new Document("id", uuid)).getBinary("id").asUuid()).isEqualTo(uuid);
     }
 
     @Test
@@ -0,0 +1,100 @@
+package liquibase.ext.mongodb.statement;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.IndexOptions;
+import liquibase.ext.AbstractMongoIntegrationTest;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static liquibase.ext.mongodb.TestUtils.COLLECTION_NAME_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class BulkWriteStatementIT extends AbstractMongoIntegrationTest {
+
+    private static final String OPERATIONS = "["
+            + "{ insertOne: { document: { id: 1, status: 'new' } } },"
+            + "{ insertOne: { document: { id: 2, status: 'new' } } },"
+            + "{ insertOne: { document: { id: 3, status: 'new' } } },"
+            + "{ updateMany: { filter: { status: 'new' }, update: { $set: { status: 'active' } } } },"
+            + "{ replaceOne: { filter: { id: 2 }, replacement: { id: 2, status: 'replaced' } } },"
+            + "{ updateOne: { filter: { id: 4 }, update: { $set: { status: 'upserted' } }, upsert: true } },"
+            + "{ deleteOne: { filter: { id: 3 } } }"
+            + "]";
+
+    private String collectionName;
+
+    @BeforeEach
+    public void createCollectionName() {
+        collectionName = COLLECTION_NAME_1 + System.nanoTime();
+    }
+
+    @Test
+    void run() {
+        final BulkWriteResult result = new BulkWriteStatement(collectionName, OPERATIONS, null).run(database);
+
+        assertThat(result.getInsertedCount()).isEqualTo(3);
+        assertThat(result.getModifiedCount()).isEqualTo(4);
+        assertThat(result.getDeletedCount()).isEqualTo(1);
+        assertThat(result.getUpserts()).hasSize(1);
+        assertThat(mongoDatabase.getCollection(collectionName).find())
+                .extracting(d -> d.getString("status"))
+                .containsExactlyInAnyOrder("active", "replaced", "upserted");
+    }
+
+    @Test
+    void update() {
+        assertThat(new BulkWriteStatement(collectionName, OPERATIONS, "{ ordered: false }").update(database))
+                .isEqualTo(9);
+    }
+
+    @Test
+    void executeForCount() {
+        assertThat(new BulkWriteStatement(collectionName, OPERATIONS, "{ ordered: false }").executeForCount(database))
+                .isEqualTo(9L);
+    }
+
+    @Test
+    void orderedStopsAtFirstError() {
+        mongoDatabase.getCollection(collectionName).createIndex(new Document("id", 1), new IndexOptions().unique(true));
+        final String operations = "[{ insertOne: { document: { id: 1 } } }, { insertOne: { document: { id: 1 } } },"
+                + " { insertOne: { document: { id: 2 } } }]";
+
+        assertThatExceptionOfType(MongoBulkWriteException.class)
+                .isThrownBy(() -> new BulkWriteStatement(collectionName, operations, null).execute(database));
+        assertThat(mongoDatabase.getCollection(collectionName).countDocuments()).isEqualTo(1);
+    }
+
+    @Test
+    void unorderedContinuesAfterError() {
+        mongoDatabase.getCollection(collectionName).createIndex(new Document("id", 1), new IndexOptions().unique(true));
+        final String operations = "[{ insertOne: { document: { id: 1 } } }, { insertOne: { document: { id: 1 } } },"
+                + " { insertOne: { document: { id: 2 } } }]";
+
+        assertThatExceptionOfType(MongoBulkWriteException.class)
+                .isThrownBy(() -> new BulkWriteStatement(collectionName, operations, "{ ordered: false }").execute(database));
+        assertThat(mongoDatabase.getCollection(collectionName).countDocuments()).isEqualTo(2);
+    }
+}
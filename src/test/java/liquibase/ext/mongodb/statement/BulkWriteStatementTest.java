@@ -0,0 +1,83 @@
+package liquibase.ext.mongodb.statement;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static liquibase.ext.mongodb.TestUtils.COLLECTION_NAME_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class BulkWriteStatementTest {
+
+    @Test
+    void toJs() {
+        final BulkWriteStatement statement = new BulkWriteStatement(COLLECTION_NAME_1,
+                "[{ insertOne: { document: { id: 1 } } }, { deleteMany: { filter: {} } }]", "{ ordered: false }");
+        assertThat(statement.toJs())
+                .isEqualTo(statement.toString())
+                .isEqualTo("db." + COLLECTION_NAME_1 + ".bulkWrite([{\"insertOne\": {\"document\": {\"id\": 1}}}, "
+                        + "{\"deleteMany\": {\"filter\": {}}}], {\"ordered\": false});");
+    }
+
+    @Test
+    void toWriteModels() {
+        final List<WriteModel<Document>> models = BulkWriteStatement.toWriteModels(BsonUtils.orEmptyList("["
+                + "{ insertOne: { document: { id: 1 } } },"
+                + "{ updateOne: { filter: { id: 1 }, update: { $set: { a: 1 } }, upsert: true } },"
+                + "{ updateMany: { filter: {}, update: [{ $set: { b: 1 } }] } },"
+                + "{ replaceOne: { filter: { id: 1 }, replacement: { id: 1, c: 1 } } },"
+                + "{ deleteMany: { filter: { id: 1 } } }"
+                + "]"));
+
+        assertThat(models).hasSize(5);
+        assertThat(models.get(0)).isInstanceOf(InsertOneModel.class);
+        assertThat(models.get(1)).isInstanceOf(UpdateOneModel.class);
+        assertThat(((UpdateOneModel<Document>) models.get(1)).getOptions().isUpsert()).isTrue();
+        assertThat(models.get(2)).isInstanceOf(UpdateManyModel.class);
+        assertThat(((UpdateManyModel<Document>) models.get(2)).getUpdatePipeline()).hasSize(1);
+        assertThat(models.get(3)).isInstanceOf(ReplaceOneModel.class);
+        assertThat(((ReplaceOneModel<Document>) models.get(3)).getReplaceOptions().isUpsert()).isFalse();
+        assertThat(models.get(4)).isInstanceOf(DeleteManyModel.class);
+    }
+
+    @Test
+    void toWriteModelInvalid() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BulkWriteStatement.toWriteModel(new Document("insertOne", new Document()).append("x", 1)))
+                .withMessage("A bulkWrite operation must have exactly one key but found [insertOne, x]");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BulkWriteStatement.toWriteModel(new Document("insertOne", 1)))
+                .withMessage("The arguments of bulkWrite operation insertOne must be a document");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BulkWriteStatement.toWriteModel(new Document("replaceOne", new Document("filter", new Document()))))
+                .withMessage("bulkWrite operation replaceOne requires document replacement");
+    }
+}
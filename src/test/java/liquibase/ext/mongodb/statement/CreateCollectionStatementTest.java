@@ -64,4 +64,15 @@ class CreateCollectionStatementTest {
         assertThat(new CreateCollectionStatement(collectionName, EMPTY_OPTION).getRunCommandName()).isEqualTo("create");
         assertThat(new CreateCollectionStatement(collectionName, EMPTY_OPTION).getCommandName()).isEqualTo("runCommand");
     }
+
+    @Test
+    void getCommand() {
+        final CreateCollectionStatement statement = new CreateCollectionStatement(collectionName, String.format("{ %s }", CREATE_OPTIONS));
+        final String js = statement.toJs();
+        statement.getCommand().put("max", 300);
+
+        // the command is a copy, the statement keeps sending and rendering its own
+        assertThat(statement.getCommand()).containsEntry("max", 200);
+        assertThat(statement.toJs()).isEqualTo(js);
+    }
 }
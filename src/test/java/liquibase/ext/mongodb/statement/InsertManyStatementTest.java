@@ -0,0 +1,215 @@
+package liquibase.ext.mongodb.statement;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoDatabase;
+import liquibase.ext.mongodb.database.MongoServerLimits;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static liquibase.ext.mongodb.TestUtils.COLLECTION_NAME_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InsertManyStatementTest {
+
+    @Mock
+    protected MongoDatabase databaseMock;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(databaseMock.getCodecRegistry()).thenReturn(BsonUtils.uuidCodecRegistry());
+    }
+
+    @Test
+    void runSingleBatch() {
+        final Document serverResponse = new Document("ok", 1.0).append("n", 3);
+        when(databaseMock.runCommand(any(Bson.class))).thenReturn(serverResponse);
+
+        final Document response = new InsertManyStatement(COLLECTION_NAME_1, documents(3), new Document("ordered", false))
+                .run(databaseMock, MongoServerLimits.DEFAULT);
+
+        assertThat(response).isSameAs(serverResponse);
+        final List<Document> commands = captureCommands(1);
+        assertThat(commands.get(0))
+                .containsEntry("insert", COLLECTION_NAME_1)
+                .containsEntry("ordered", false);
+        assertThat(commands.get(0).getList("documents", RawBsonDocument.class)).hasSize(3);
+    }
+
+    @Test
+    void runSplitsByMaxWriteBatchSize() {
+        when(databaseMock.runCommand(any(Bson.class))).thenAnswer(i -> okResponse(i.getArgument(0)));
+
+        final Document response = new InsertManyStatement(COLLECTION_NAME_1, documents(5), new Document())
+                .run(databaseMock, new MongoServerLimits(1024, 2048, 2));
+
+        assertThat(response)
+                .containsEntry("ok", 1.0)
+                .containsEntry("n", 5)
+                .containsEntry("batches", asList(2, 2, 1));
+        assertThat(captureCommands(3))
+                .extracting(c -> c.getList("documents", RawBsonDocument.class).size())
+                .containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void runSplitsByMaxBatchBytes() {
+        when(databaseMock.runCommand(any(Bson.class))).thenAnswer(i -> okResponse(i.getArgument(0)));
+
+        final Document response = new InsertManyStatement(COLLECTION_NAME_1, documents(4), new Document())
+                .run(databaseMock, new MongoServerLimits(120, 48000000, 1000));
+
+        assertThat(response).containsEntry("n", 4);
+        final List<Document> commands = captureCommands(response.getList("batches", Integer.class).size());
+        assertThat(commands).hasSizeGreaterThan(1);
+        commands.forEach(c -> assertThat(new RawBsonDocument(c, BsonUtils.DOCUMENT_CODEC).getByteBuffer().remaining())
+                .isLessThanOrEqualTo(120));
+    }
+
+    @Test
+    void runStopsAtFailedBatch() {
+        when(databaseMock.runCommand(any(Bson.class)))
+                .thenReturn(new Document("ok", 1.0).append("n", 1))
+                .thenReturn(new Document("ok", 1.0).append("n", 0)
+                        .append("writeErrors", asList(new Document("code", 11000))));
+
+        final InsertManyStatement statement = new InsertManyStatement(COLLECTION_NAME_1, documents(3), new Document());
+        assertThatExceptionOfType(MongoException.class)
+                .isThrownBy(() -> statement.run(databaseMock, new MongoServerLimits(1024, 2048, 1)))
+                .withMessageStartingWith("Command failed.");
+        verify(databaseMock, times(2)).runCommand(any(Bson.class));
+    }
+
+    @Test
+    void runRejectsDocumentOverMaxBsonObjectSize() {
+        final List<Document> documents = new ArrayList<>(documents(1));
+        documents.add(new Document("payload", new String(new char[200])));
+
+        final InsertManyStatement statement = new InsertManyStatement(COLLECTION_NAME_1, documents, new Document());
+        assertThatExceptionOfType(MongoException.class)
+                .isThrownBy(() -> statement.run(databaseMock, new MongoServerLimits(100, 2048, 10)))
+                .withMessageContaining("exceeds maxBsonObjectSize of 100 bytes");
+        verify(databaseMock, never()).runCommand(any(Bson.class));
+    }
+
+    @Test
+    void runUnorderedInParallel() {
+        when(databaseMock.runCommand(any(Bson.class))).thenAnswer(i -> okResponse(i.getArgument(0)));
+
+        final Document response = new InsertManyStatement(COLLECTION_NAME_1, documents(7), new Document("ordered", false))
+                .run(databaseMock, new MongoServerLimits(1024, 2048, 2), 3);
+
+        assertThat(response)
+                .containsEntry("n", 7)
+                .containsEntry("batches", asList(2, 2, 2, 1));
+        captureCommands(4);
+    }
+
+    @Test
+    void runUnorderedInParallelCombinesWriteErrors() {
+        when(databaseMock.runCommand(any(Bson.class))).thenAnswer(i -> {
+            final Document command = i.getArgument(0);
+            final List<RawBsonDocument> documents = command.getList("documents", RawBsonDocument.class);
+            if (documents.get(0).getInt32("id").getValue() == 0) {
+                return okResponse(command);
+            }
+            return new Document("ok", 1.0).append("n", 1)
+                    .append("writeErrors", asList(new Document("index", 1).append("code", 11000)));
+        });
+
+        final InsertManyStatement statement = new InsertManyStatement(COLLECTION_NAME_1, documents(6), new Document("ordered", false));
+        assertThatExceptionOfType(MongoException.class)
+                .isThrownBy(() -> statement.run(databaseMock, new MongoServerLimits(1024, 2048, 2), 2))
+                .withMessageStartingWith("Command failed.")
+                .withMessageContaining("\"n\": 4")
+                .withMessageContaining("{\"index\": 3, \"code\": 11000}")
+                .withMessageContaining("{\"index\": 5, \"code\": 11000}");
+        captureCommands(3);
+    }
+
+    @Test
+    void runOrderedIgnoresParallelism() {
+        when(databaseMock.runCommand(any(Bson.class)))
+                .thenReturn(new Document("ok", 1.0).append("n", 1))
+                .thenReturn(new Document("ok", 0.0));
+
+        final InsertManyStatement statement = new InsertManyStatement(COLLECTION_NAME_1, documents(3), new Document());
+        assertThatExceptionOfType(MongoException.class)
+                .isThrownBy(() -> statement.run(databaseMock, new MongoServerLimits(1024, 2048, 1), 4));
+        captureCommands(2);
+    }
+
+    @Test
+    void coalesce() {
+        final InsertManyStatement first = new InsertManyStatement(COLLECTION_NAME_1, documents(2), new Document("ordered", false));
+        final InsertOneStatement second = new InsertOneStatement(COLLECTION_NAME_1, new Document("id", 2), new Document("ordered", false));
+
+        assertThat(first.canCoalesce(second)).isTrue();
+        assertThat(first.canCoalesce(new InsertOneStatement(COLLECTION_NAME_1, new Document("id", 2)))).isFalse();
+        assertThat(first.canCoalesce(new InsertOneStatement("other", new Document("id", 2), new Document("ordered", false)))).isFalse();
+
+        final InsertManyStatement coalesced = first.coalesce(second);
+        assertThat(coalesced.getCommand())
+                .containsEntry("insert", COLLECTION_NAME_1)
+                .containsEntry("ordered", false);
+        assertThat(coalesced.getCommand().getList("documents", Document.class))
+                .extracting(d -> d.get("id"))
+                .containsExactly(0, 1, 2);
+        assertThat(first.getCommand().getList("documents", Document.class)).hasSize(2);
+    }
+
+    private List<Document> captureCommands(final int times) {
+        final ArgumentCaptor<Document> captor = ArgumentCaptor.forClass(Document.class);
+        verify(databaseMock, times(times)).runCommand(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static Document okResponse(final Document command) {
+        return new Document("ok", 1.0).append("n", command.getList("documents", Object.class).size());
+    }
+
+    private static List<Document> documents(final int count) {
+        return IntStream.range(0, count).mapToObj(i -> new Document("id", i).append("name", "document" + i))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,130 @@
+package liquibase.ext.mongodb.statement;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import lombok.SneakyThrows;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.json.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class JsonDocumentIteratorTest {
+
+    @Test
+    @SneakyThrows
+    void iterateArray() {
+        final List<Document> documents = readAll("[{id: 1}, {id: 2, nested: {a: [1, 2]}}, {id: 3}]");
+        assertThat(documents).hasSize(3)
+                .extracting(d -> d.get("id"))
+                .containsExactly(1, 2, 3);
+    }
+
+    @Test
+    @SneakyThrows
+    void iterateNewlineDelimited() {
+        final List<Document> documents = readAll("{\"id\": 1, \"date\": {\"$date\": \"2021-05-01T10:00:00Z\"}}\n"
+                + "\n"
+                + "{\"id\": 2, \"long\": {\"$numberLong\": \"2\"}}\n");
+        assertThat(documents).hasSize(2);
+        assertThat(documents.get(0).get("date")).isInstanceOf(Date.class);
+        assertThat(documents.get(1).get("long")).isEqualTo(2L);
+    }
+
+    @Test
+    @SneakyThrows
+    void iterateEmpty() {
+        assertThat(readAll("")).isEmpty();
+        assertThat(readAll("  \n ")).isEmpty();
+        assertThat(readAll("[]")).isEmpty();
+    }
+
+    @Test
+    @SneakyThrows
+    void nextWhenExhausted() {
+        try (JsonDocumentIterator<Document> iterator = BsonUtils.documentIterator(new StringReader("{id: 1}"))) {
+            assertThat(iterator.next()).containsEntry("id", 1);
+            assertThat(iterator.hasNext()).isFalse();
+            assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(iterator::next);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void iterateNotDocuments() {
+        try (JsonDocumentIterator<Document> iterator = BsonUtils.documentIterator(new StringReader("[1, 2]"))) {
+            assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(iterator::hasNext)
+                    .withMessage("Expected a document or an array of documents but found INT32");
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void iterateTrailingContent() {
+        assertThat(readAll("[{id: 1}]  \n")).hasSize(1);
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> readAll("[{id: 1}] {id: 2}"))
+                .withMessage("Expected the end of input after the array of documents but found DOCUMENT");
+        assertThatExceptionOfType(JsonParseException.class).isThrownBy(() -> readAll("[{id: 1}]]"));
+    }
+
+    @Test
+    @SneakyThrows
+    void iterateRaw() {
+        final List<RawBsonDocument> documents = new ArrayList<>();
+        try (JsonDocumentIterator<RawBsonDocument> iterator = BsonUtils.rawDocumentIterator(
+                new StringReader("[{id: 1, nested: {a: [1, 2]}}, {id: 2, uuid: UUID('a4aa1a3d-4b8b-4b77-9c4b-0d2e2b4b1c1f')}]"))) {
+            iterator.forEachRemaining(documents::add);
+        }
+        assertThat(documents).hasSize(2);
+        assertThat(documents.get(0).decode(BsonUtils.DOCUMENT_CODEC))
+                .isEqualTo(Document.parse("{id: 1, nested: {a: [1, 2]}}"));
+        assertThat(documents.get(1).getBinary("uuid").getType()).isEqualTo((byte) 4);
+    }
+
+    @Test
+    @SneakyThrows
+    void iterateBsonDocuments() {
+        try (JsonDocumentIterator<BsonDocument> iterator = BsonUtils.bsonDocumentIterator(new StringReader("{id: 1}\n{id: 2}"))) {
+            assertThat(iterator.next()).containsEntry("id", new BsonInt32(1));
+            assertThat(iterator.next()).containsEntry("id", new BsonInt32(2));
+            assertThat(iterator.hasNext()).isFalse();
+        }
+    }
+
+    @SneakyThrows
+    private static List<Document> readAll(final String json) {
+        final List<Document> documents = new ArrayList<>();
+        try (JsonDocumentIterator<Document> iterator = BsonUtils.documentIterator(new StringReader(json))) {
+            iterator.forEachRemaining(documents::add);
+        }
+        return documents;
+    }
+}
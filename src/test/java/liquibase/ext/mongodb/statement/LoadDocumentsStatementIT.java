@@ -0,0 +1,96 @@
+package liquibase.ext.mongodb.statement;
+
+/*-
+ * #%L
+ * Liquibase MongoDB Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.IndexOptions;
+import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.ext.AbstractMongoIntegrationTest;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static liquibase.ext.mongodb.TestUtils.COLLECTION_NAME_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class LoadDocumentsStatementIT extends AbstractMongoIntegrationTest {
+
+    private static final String NDJSON_FILE = "liquibase/ext/data/load-documents.ndjson";
+    private static final String ARRAY_FILE = "liquibase/ext/data/load-documents.json";
+
+    private String collectionName;
+
+    @BeforeEach
+    public void createCollectionName() {
+        collectionName = COLLECTION_NAME_1 + System.nanoTime();
+    }
+
+    @Test
+    void toStringTest() {
+        final LoadDocumentsStatement statement = new LoadDocumentsStatement(collectionName, NDJSON_FILE, null,
+                null, new Document("ordered", false), new ClassLoaderResourceAccessor());
+        assertThat(statement.toJs())
+                .isEqualTo(statement.toString())
+                .isEqualTo(String.format("db.%s.loadDocuments(\"%s\", {\"ordered\": false});", collectionName, NDJSON_FILE));
+    }
+
+    @Test
+    void updateNewlineDelimited() {
+        final LoadDocumentsStatement statement = new LoadDocumentsStatement(collectionName, NDJSON_FILE, null,
+                2, new Document(), new ClassLoaderResourceAccessor());
+
+        assertThat(statement.update(database)).isEqualTo(3);
+        assertThat(mongoDatabase.getCollection(collectionName).find()).hasSize(3);
+    }
+
+    @Test
+    void updateArray() {
+        final LoadDocumentsStatement statement = new LoadDocumentsStatement(collectionName, ARRAY_FILE, null,
+                3, new Document(), new ClassLoaderResourceAccessor());
+
+        assertThat(statement.update(database)).isEqualTo(4);
+        assertThat(mongoDatabase.getCollection(collectionName).find()).hasSize(4);
+    }
+
+    @Test
+    void updateWhenFileNotFound() {
+        final LoadDocumentsStatement statement = new LoadDocumentsStatement(collectionName, "not-existing.ndjson", null,
+                null, new Document(), new ClassLoaderResourceAccessor());
+
+        assertThatExceptionOfType(UnexpectedLiquibaseException.class)
+                .isThrownBy(() -> statement.update(database));
+    }
+
+    @Test
+    void cannotLoadSameDocumentsTwice() {
+        mongoDatabase.getCollection(collectionName).createIndex(new Document("id", 1),
+                new IndexOptions().unique(true));
+        final LoadDocumentsStatement statement = new LoadDocumentsStatement(collectionName, ARRAY_FILE, null,
+                null, new Document(), new ClassLoaderResourceAccessor());
+        statement.execute(database);
+
+        assertThatExceptionOfType(MongoException.class)
+                .isThrownBy(() -> statement.execute(database))
+                .withMessageContaining("E11000 duplicate key error collection");
+    }
+}
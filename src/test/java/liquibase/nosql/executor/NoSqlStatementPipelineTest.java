@@ -0,0 +1,114 @@
+package liquibase.nosql.executor;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.exception.DatabaseException;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class NoSqlStatementPipelineTest {
+
+    @Test
+    @SneakyThrows
+    void submitKeepsOrderPerKey() {
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        final CountDownLatch release = new CountDownLatch(1);
+        try (NoSqlStatementPipeline pipeline = new NoSqlStatementPipeline(4)) {
+            pipeline.submit("a", () -> {
+                await(release);
+                executed.add("a1");
+            });
+            pipeline.submit("b", () -> executed.add("b1"));
+            pipeline.submit("a", () -> executed.add("a2"));
+
+            // b1 does not wait for a1
+            while (!executed.contains("b1")) {
+                Thread.sleep(1);
+            }
+            assertThat(executed).containsExactly("b1");
+
+            release.countDown();
+            pipeline.await();
+            assertThat(executed).containsExactly("b1", "a1", "a2");
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void submitBoundsInFlight() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        try (NoSqlStatementPipeline pipeline = new NoSqlStatementPipeline(2)) {
+            for (int i = 0; i < 20; i++) {
+                pipeline.submit("key" + i, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep();
+                    running.decrementAndGet();
+                });
+            }
+            pipeline.await();
+        }
+        assertThat(maxRunning.get()).isBetween(1, 2);
+    }
+
+    @Test
+    @SneakyThrows
+    void awaitReportsFailuresAndSkipsDependents() {
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        try (NoSqlStatementPipeline pipeline = new NoSqlStatementPipeline(2)) {
+            pipeline.submit("a", () -> {
+                throw new IllegalStateException("a1 failed");
+            });
+            pipeline.submit("a", () -> executed.add("a2"));
+            pipeline.submit("b", () -> {
+                throw new IllegalStateException("b1 failed");
+            });
+            pipeline.submit("c", () -> executed.add("c1"));
+
+            assertThatExceptionOfType(DatabaseException.class)
+                    .isThrownBy(pipeline::await)
+                    .withCauseInstanceOf(IllegalStateException.class)
+                    .satisfies(e -> assertThat(e.getCause().getSuppressed()).hasSize(1));
+            assertThat(executed).containsExactly("c1");
+
+            pipeline.await();
+        }
+    }
+
+    @SneakyThrows
+    private static void await(final CountDownLatch latch) {
+        latch.await(5, TimeUnit.SECONDS);
+    }
+
+    @SneakyThrows
+    private static void sleep() {
+        Thread.sleep(2);
+    }
+}
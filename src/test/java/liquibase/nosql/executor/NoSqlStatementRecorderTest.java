@@ -0,0 +1,144 @@
+package liquibase.nosql.executor;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import liquibase.ext.mongodb.statement.DropCollectionStatement;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static liquibase.nosql.executor.NoSqlStatementEvent.EXECUTE;
+import static liquibase.nosql.executor.NoSqlStatementEvent.UNKNOWN_DOCUMENTS;
+import static liquibase.nosql.executor.NoSqlStatementEvent.UPDATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class NoSqlStatementRecorderTest {
+
+    @Test
+    void getInstanceLoadsJmxMetrics() {
+        assertThat(NoSqlStatementRecorder.getInstance().getMetrics())
+                .hasAtLeastOneElementOfType(JmxNoSqlStatementMetrics.class);
+    }
+
+    @Test
+    void record() {
+        final List<NoSqlStatementEvent> events = new ArrayList<>();
+        final NoSqlStatementRecorder recorder = new NoSqlStatementRecorder(singletonList(events::add));
+
+        assertThat(recorder.record(UPDATE, new DropCollectionStatement("collection1"), () -> 3, r -> r)).isEqualTo(3);
+        recorder.record(EXECUTE, "not a statement", () -> {
+        });
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0))
+                .returns(UPDATE, NoSqlStatementEvent::getOperation)
+                .returns("runCommand", NoSqlStatementEvent::getCommandName)
+                .returns("collection1", NoSqlStatementEvent::getCollectionName)
+                .returns(3L, NoSqlStatementEvent::getDocuments)
+                .returns(true, NoSqlStatementEvent::isSucceeded);
+        assertThat(events.get(0).getDurationNanos()).isNotNegative();
+        assertThat(events.get(1))
+                .returns("String", NoSqlStatementEvent::getCommandName)
+                .returns(null, NoSqlStatementEvent::getCollectionName)
+                .returns(UNKNOWN_DOCUMENTS, NoSqlStatementEvent::getDocuments);
+    }
+
+    @Test
+    void recordFailure() {
+        final List<NoSqlStatementEvent> events = new ArrayList<>();
+        final IllegalStateException failure = new IllegalStateException("failed");
+        final NoSqlStatementMetrics failing = e -> {
+            throw new IllegalArgumentException("ignored");
+        };
+        final List<NoSqlStatementMetrics> metrics = new ArrayList<>();
+        metrics.add(failing);
+        metrics.add(events::add);
+        final NoSqlStatementRecorder recorder = new NoSqlStatementRecorder(metrics);
+
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> recorder.record(EXECUTE, new DropCollectionStatement("collection1"), () -> {
+                    throw failure;
+                }))
+                .isSameAs(failure);
+        assertThat(events).singleElement()
+                .returns(false, NoSqlStatementEvent::isSucceeded)
+                .returns(failure, NoSqlStatementEvent::getFailure);
+    }
+
+    @Test
+    void recordWithoutMetrics() {
+        final NoSqlStatementRecorder recorder = new NoSqlStatementRecorder(Collections.emptyList());
+        assertThat(recorder.record(UPDATE, "statement", () -> 1, r -> {
+            throw new IllegalStateException("not called");
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void histogram() {
+        final NoSqlStatementHistogram histogram = new NoSqlStatementHistogram();
+        assertThat(histogram.getP99Millis()).isZero();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(new NoSqlStatementEvent(UPDATE, "update", null, i * 1_000_000L, 2, null));
+        }
+        histogram.record(new NoSqlStatementEvent(UPDATE, "update", null, 1_000_000L, UNKNOWN_DOCUMENTS, new IllegalStateException()));
+
+        assertThat(histogram.getCount()).isEqualTo(101);
+        assertThat(histogram.getFailures()).isEqualTo(1);
+        assertThat(histogram.getDocuments()).isEqualTo(200);
+        assertThat(histogram.getMinMillis()).isEqualTo(1.0);
+        assertThat(histogram.getMaxMillis()).isEqualTo(100.0);
+        // buckets are powers of two microseconds
+        assertThat(histogram.getP50Millis()).isBetween(50.0, 100.0);
+        assertThat(histogram.getP99Millis()).isEqualTo(100.0);
+        assertThat(histogram.getPercentileMillis(1)).isBetween(1.0, 2.0);
+    }
+
+    @Test
+    void jmxMetrics() throws Exception {
+        final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        final JmxNoSqlStatementMetrics metrics = new JmxNoSqlStatementMetrics(server);
+        metrics.statementCompleted(new NoSqlStatementEvent(UPDATE, "insert", "collection1", 2_000_000L, 5, null));
+        metrics.statementCompleted(new NoSqlStatementEvent(UPDATE, "insert", "collection2", 4_000_000L, 5, null));
+        metrics.statementCompleted(new NoSqlStatementEvent(EXECUTE, "drop", "collection1", 1_000_000L, UNKNOWN_DOCUMENTS,
+                new IllegalStateException()));
+
+        final ObjectName name = new ObjectName(JmxNoSqlStatementMetrics.OBJECT_NAME);
+        assertThat(server.getAttribute(name, "StatementCount")).isEqualTo(3L);
+        assertThat(server.getAttribute(name, "FailureCount")).isEqualTo(1L);
+        final TabularData histograms = (TabularData) server.getAttribute(name, "Histograms");
+        final CompositeData insert = (CompositeData) histograms.get(new Object[]{"insert"}).get("value");
+        assertThat(insert.get("count")).isEqualTo(2L);
+        assertThat(insert.get("documents")).isEqualTo(10L);
+        assertThat(insert.get("meanMillis")).isEqualTo(3.0);
+
+        server.invoke(name, "reset", null, null);
+        assertThat(server.getAttribute(name, "StatementCount")).isEqualTo(0L);
+    }
+}
@@ -0,0 +1,62 @@
+package liquibase.nosql.lockservice;
+
+/*-
+ * #%L
+ * Liquibase NoSql Extension
+ * %%
+ * Copyright (C) 2021 Mastercard
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static liquibase.nosql.lockservice.NoSqlLockEvent.ACQUIRED;
+import static liquibase.nosql.lockservice.NoSqlLockEvent.RELEASED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoSqlLockRecorderTest {
+
+    @Test
+    void getInstance() {
+        assertThat(NoSqlLockRecorder.getInstance()).isSameAs(NoSqlLockRecorder.getInstance());
+    }
+
+    @Test
+    void publish() {
+        final List<NoSqlLockEvent> events = new ArrayList<>();
+        final List<NoSqlLockMetrics> metrics = new ArrayList<>();
+        metrics.add(e -> {
+            throw new IllegalStateException("ignored");
+        });
+        metrics.add(events::add);
+        final NoSqlLockRecorder recorder = new NoSqlLockRecorder(metrics);
+
+        recorder.publish(new NoSqlLockEvent(ACQUIRED, "orders", "host1", 3, 1_500_000L, 0L));
+        recorder.publish(new NoSqlLockEvent(RELEASED, null, "host1", 0, 0L, 2_000_000_000L));
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0))
+                .returns(ACQUIRED, NoSqlLockEvent::getType)
+                .returns("orders", NoSqlLockEvent::getLockName)
+                .returns("host1", NoSqlLockEvent::getLockedBy)
+                .returns(3, NoSqlLockEvent::getAttempts);
+        assertThat(events.get(0).getWait(TimeUnit.MILLISECONDS)).isEqualTo(1L);
+        assertThat(events.get(1).getHold(TimeUnit.SECONDS)).isEqualTo(2L);
+    }
+}